@@ -24,6 +24,7 @@ plugins {
     id("org.ajoberstar.grgit") version "3.1.1" apply false
     //id("net.ltgt.errorprone") version "0.0.16"
     id("com.github.spotbugs") version "2.0.0"
+    id("me.champeau.gradle.jmh") version "0.5.0" apply false
     id("com.gradle.build-scan") version "2.4.2"
 }
 
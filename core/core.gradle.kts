@@ -6,6 +6,7 @@ plugins {
     id("application")
     id("com.github.johnrengelman.shadow")
     id("com.google.osdetector")
+    id("me.champeau.gradle.jmh")
 }
 
 application {
@@ -68,7 +69,34 @@ dependencies {
 
 
     implementation(group = "edu.wpi.first.wpiutil", name = "wpiutil-java", version = "2020.+")
-    
+
+    // The benchmarks reuse the test fixtures and Guice modules
+    "jmhImplementation"(sourceSets["test"].output)
+    "jmhImplementation"(sourceSets["test"].runtimeClasspath)
+}
+
+/* Run with `./gradlew :core:jmh`, or `./gradlew :core:jmh -PjmhInclude=Blur` to run a subset. */
+jmh {
+    jmhVersion = "1.22"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+    if (project.hasProperty("jmhInclude")) {
+        include = listOf(project.property("jmhInclude") as String)
+    }
+}
+
+/* The benchmarks have tests of their own, to check that they cover every operation. */
+val jmhTest = tasks.register<Test>("jmhTest") {
+    description = "Runs the tests of the benchmarks."
+    group = "verification"
+    testClassesDirs = sourceSets["jmh"].output.classesDirs
+    classpath = sourceSets["jmh"].runtimeClasspath
+}
+
+tasks.named("check").configure {
+    dependsOn(jmhTest)
 }
 
 tasks.withType<Jar>().configureEach {
@@ -0,0 +1,77 @@
+package edu.wpi.grip.core.operations;
+
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each type of blur, since they have very different costs and the type is usually
+ * chosen by hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlurBenchmark {
+
+  /**
+   * The name of the blur type, as in {@code BlurOperation.Type}.
+   */
+  @Param({"BOX", "GAUSSIAN", "MEDIAN", "BILATERAL_FILTER"})
+  public String type;
+
+  @Param({"2", "10"})
+  public double radius;
+
+  @Param
+  public Resolution resolution;
+
+  private OperationHarness harness;
+  private Operation blur;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    harness = new OperationHarness();
+    blur = harness.create("Blur");
+    OperationHarness.setImageInputs(blur, FixtureImages.color(resolution));
+    OperationHarness.setInput(blur, "Radius", radius);
+
+    // The blur type enum is private, so find it by name from the socket's domain
+    final InputSocket<Object> typeSocket = (InputSocket<Object>) blur.getInputSockets().stream()
+        .filter(socket -> "Type".equals(socket.getSocketHint().getIdentifier()))
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("Blur has no type input"));
+    for (Object value : typeSocket.getSocketHint().getDomain().get()) {
+      if (((Enum<?>) value).name().equals(type)) {
+        typeSocket.setValue(value);
+        return;
+      }
+    }
+    throw new IllegalArgumentException("There is no blur type named " + type);
+  }
+
+  @Benchmark
+  public List<OutputSocket> perform() {
+    blur.perform();
+    return blur.getOutputSockets();
+  }
+
+  @TearDown
+  public void tearDown() {
+    blur.cleanUp();
+    harness.close();
+  }
+}
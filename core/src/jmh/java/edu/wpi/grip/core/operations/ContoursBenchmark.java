@@ -0,0 +1,80 @@
+package edu.wpi.grip.core.operations;
+
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.operations.composite.ContoursReport;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations that find and work on contours. The contours are found in the binary
+ * fixture image, and the operations that take contours are given the contours that were found.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContoursBenchmark {
+
+  @Param
+  public Resolution resolution;
+
+  private OperationHarness harness;
+  private Operation findContours;
+  private Operation filterContours;
+  private Operation convexHulls;
+
+  @Setup
+  public void setUp() {
+    harness = new OperationHarness();
+    findContours = harness.create("Find Contours");
+    OperationHarness.setImageInputs(findContours, FixtureImages.binary(resolution));
+    findContours.perform();
+    final ContoursReport contours = getReport(findContours);
+
+    filterContours = harness.create("Filter Contours");
+    OperationHarness.setInput(filterContours, "Contours", contours);
+    OperationHarness.setInput(filterContours, "Min Area", 20);
+
+    convexHulls = harness.create("Convex Hulls");
+    OperationHarness.setInput(convexHulls, "Contours", contours);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ContoursReport getReport(Operation operation) {
+    return ((OutputSocket<ContoursReport>) operation.getOutputSockets().get(0)).getValue().get();
+  }
+
+  @Benchmark
+  public List<OutputSocket> findContours() {
+    findContours.perform();
+    return findContours.getOutputSockets();
+  }
+
+  @Benchmark
+  public List<OutputSocket> filterContours() {
+    filterContours.perform();
+    return filterContours.getOutputSockets();
+  }
+
+  @Benchmark
+  public List<OutputSocket> convexHulls() {
+    convexHulls.perform();
+    return convexHulls.getOutputSockets();
+  }
+
+  @TearDown
+  public void tearDown() {
+    harness.close();
+  }
+}
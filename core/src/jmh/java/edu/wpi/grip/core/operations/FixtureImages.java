@@ -0,0 +1,73 @@
+package edu.wpi.grip.core.operations;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Size;
+
+import java.io.File;
+import java.net.URISyntaxException;
+
+import static org.bytedeco.javacpp.opencv_imgcodecs.imread;
+import static org.bytedeco.javacpp.opencv_imgproc.COLOR_BGR2GRAY;
+import static org.bytedeco.javacpp.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.javacpp.opencv_imgproc.THRESH_BINARY;
+import static org.bytedeco.javacpp.opencv_imgproc.THRESH_OTSU;
+import static org.bytedeco.javacpp.opencv_imgproc.cvtColor;
+import static org.bytedeco.javacpp.opencv_imgproc.resize;
+import static org.bytedeco.javacpp.opencv_imgproc.threshold;
+
+/**
+ * The canonical images that operations are benchmarked against. Every image is a copy of the same
+ * test photo scaled to a {@link Resolution}, so results at different resolutions are comparable.
+ */
+public final class FixtureImages {
+
+  private static final String PHOTO = "/edu/wpi/grip/images/testphoto.png";
+
+  private FixtureImages() {
+    throw new UnsupportedOperationException("This is a utility class!");
+  }
+
+  /**
+   * Gets the file of the photo that every fixture image is made from.
+   */
+  public static File photoFile() {
+    try {
+      return new File(FixtureImages.class.getResource(PHOTO).toURI());
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException("Could not find the fixture photo", e);
+    }
+  }
+
+  /**
+   * Gets the photo as a 3-channel BGR image at the given resolution.
+   */
+  public static Mat color(Resolution resolution) {
+    final Mat photo = imread(photoFile().getAbsolutePath());
+    if (photo.empty()) {
+      throw new IllegalStateException("Could not read the fixture photo");
+    }
+    final Mat scaled = new Mat();
+    resize(photo, scaled, new Size(resolution.getWidth(), resolution.getHeight()), 0, 0,
+        INTER_AREA);
+    return scaled;
+  }
+
+  /**
+   * Gets the photo as a single channel grayscale image at the given resolution.
+   */
+  public static Mat gray(Resolution resolution) {
+    final Mat gray = new Mat();
+    cvtColor(color(resolution), gray, COLOR_BGR2GRAY);
+    return gray;
+  }
+
+  /**
+   * Gets the photo as a binary image at the given resolution, like the output of a threshold
+   * operation.
+   */
+  public static Mat binary(Resolution resolution) {
+    final Mat binary = new Mat();
+    threshold(gray(resolution), binary, 0, 255, THRESH_BINARY | THRESH_OTSU);
+    return binary;
+  }
+}
@@ -0,0 +1,163 @@
+package edu.wpi.grip.core.operations;
+
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.operations.composite.Detections;
+import edu.wpi.grip.core.operations.composite.RectsReport;
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Rect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks every operation that takes an image, using the default value of each of its other
+ * inputs. Operations are given the color fixture image, or the grayscale one if they can't handle
+ * color images (eg masks and distance transforms).
+ *
+ * <p>Operations that take candidates to look at, like Refine In Regions, are given a single
+ * candidate in the middle of the image. Operations that don't take images aren't benchmarked here,
+ * and neither are the ones {@link #NOT_BENCHMARKED listed} with the reason they're left out.
+ * Operations that work on contours have their own benchmarks in {@link ContoursBenchmark}.
+ *
+ * <p>{@code OperationBenchmarkTest} fails when an operation that takes an image is neither
+ * benchmarked nor listed, so new operations can't be left out by accident.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OperationBenchmark {
+
+  /**
+   * The operations that take an image but aren't benchmarked here.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  static final ImmutableSet<String> NOT_BENCHMARKED = ImmutableSet.of(
+      // The default aperture and block sizes aren't valid
+      "CV adaptiveThreshold",
+      "CV Canny",
+      "CV Sobel",
+      // These publish their input or write it to disk
+      "Publish Video",
+      "Save Images to Disk",
+      // This needs contours to use as markers
+      "Watershed"
+  );
+
+  @Param({
+      "Blur",
+      "Cascade Cassifier",
+      "CV absdiff",
+      "CV add",
+      "CV addWeighted",
+      "CV applyColorMap",
+      "CV bitwise_and",
+      "CV bitwise_not",
+      "CV bitwise_or",
+      "CV bitwise_xor",
+      "CV compare",
+      "CV cvtColor",
+      "CV dilate",
+      "CV divide",
+      "CV erode",
+      "CV extractChannel",
+      "CV flip",
+      "CV GaussianBlur",
+      "CV Laplacian",
+      "CV max",
+      "CV medianBlur",
+      "CV min",
+      "CV multiply",
+      "CV rectangle",
+      "CV resize",
+      "CV scaleAdd",
+      "CV subtract",
+      "CV Threshold",
+      "CV transpose",
+      "Crop",
+      "Desaturate",
+      "Distance Transform",
+      "Find Blobs",
+      "Find Contours",
+      "Find Lines",
+      "Find Min and Max",
+      "Get Mat Info",
+      "HSL Threshold",
+      "HSV Threshold",
+      "Mask",
+      "Normalize",
+      "Pyramid Down",
+      "Refine In Regions",
+      "RGB Threshold",
+      "Resize Image",
+      "Threshold Moving"})
+  public String operationName;
+
+  @Param
+  public Resolution resolution;
+
+  private OperationHarness harness;
+  private Operation operation;
+
+  @Setup
+  public void setUp() {
+    harness = new OperationHarness();
+    operation = harness.create(operationName);
+    if (!runsWith(FixtureImages.color(resolution))
+        && !runsWith(FixtureImages.gray(resolution))) {
+      throw new IllegalStateException(operationName + " can not be run with the fixture images");
+    }
+  }
+
+  private boolean runsWith(Mat image) {
+    if (OperationHarness.setImageInputs(operation, image) == 0) {
+      throw new IllegalStateException(operationName + " does not take an image");
+    }
+    setCandidateInputs(image);
+    try {
+      operation.perform();
+      return true;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void setCandidateInputs(Mat image) {
+    final Rect middle = new Rect(image.cols() / 4, image.rows() / 4,
+        image.cols() / 2, image.rows() / 2);
+    for (InputSocket<?> socket : operation.getInputSockets()) {
+      if (socket.getSocketHint().getType().equals(Detections.class)) {
+        ((InputSocket<Detections>) socket).setValue(
+            new RectsReport(MatWrapper.wrap(image), ImmutableList.of(middle)));
+      }
+    }
+  }
+
+  @Benchmark
+  public List<OutputSocket> perform() {
+    operation.perform();
+    return operation.getOutputSockets();
+  }
+
+  @TearDown
+  public void tearDown() {
+    operation.cleanUp();
+    harness.close();
+  }
+}
@@ -0,0 +1,67 @@
+package edu.wpi.grip.core.operations;
+
+import edu.wpi.grip.core.OperationMetaData;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OperationBenchmarkTest {
+
+  private OperationHarness harness;
+  private List<String> benchmarked;
+
+  @Before
+  public void setUp() throws NoSuchFieldException {
+    harness = new OperationHarness();
+    benchmarked = ImmutableList.copyOf(OperationBenchmark.class.getField("operationName")
+        .getAnnotation(Param.class).value());
+  }
+
+  @After
+  public void tearDown() {
+    harness.close();
+  }
+
+  @Test
+  public void testEveryImageOperationIsBenchmarkedOrListed() {
+    final List<String> missing = new ArrayList<>();
+    for (OperationMetaData metaData : harness.operations()) {
+      final String name = metaData.getDescription().name();
+      if (OperationHarness.takesImage(metaData.getOperationSupplier().get())
+          && !benchmarked.contains(name)
+          && !OperationBenchmark.NOT_BENCHMARKED.contains(name)) {
+        missing.add(name);
+      }
+    }
+    assertEquals("Operations missing from OperationBenchmark", ImmutableList.of(), missing);
+  }
+
+  @Test
+  public void testBenchmarkedOperationsTakeImages() {
+    for (String name : benchmarked) {
+      assertFalse(name + " is also listed as not benchmarked",
+          OperationBenchmark.NOT_BENCHMARKED.contains(name));
+      assertTrue(name + " does not take an image",
+          OperationHarness.takesImage(harness.create(name)));
+    }
+  }
+
+  @Test
+  public void testNotBenchmarkedOperationsTakeImages() {
+    for (String name : OperationBenchmark.NOT_BENCHMARKED) {
+      assertTrue(name + " does not take an image",
+          OperationHarness.takesImage(harness.create(name)));
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package edu.wpi.grip.core.operations;
+
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.OperationMetaData;
+import edu.wpi.grip.core.operations.network.MockGripNetworkModule;
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.util.GripCoreTestModule;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.util.Modules;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.List;
+
+/**
+ * Creates operations outside of a pipeline so they can be benchmarked on their own. Every
+ * operation in {@link Operations} and {@link CVOperations} can be created by name, with the same
+ * mock network publishers that the tests use.
+ */
+public final class OperationHarness implements AutoCloseable {
+
+  private final GripCoreTestModule testModule;
+  private final Injector injector;
+
+  /**
+   * Creates a new harness. This must be {@link #close() closed} when the benchmark is done.
+   */
+  public OperationHarness() {
+    testModule = new GripCoreTestModule();
+    testModule.setUp();
+    injector = Guice.createInjector(Modules.override(testModule)
+        .with(new MockGripNetworkModule()));
+  }
+
+  /**
+   * Gets the injector used to create operations.
+   */
+  public Injector getInjector() {
+    return injector;
+  }
+
+  /**
+   * Gets every operation that can be {@link #create(String) created}.
+   */
+  public List<OperationMetaData> operations() {
+    return ImmutableList.<OperationMetaData>builder()
+        .addAll(injector.getInstance(CVOperations.class).operations())
+        .addAll(injector.getInstance(Operations.class).operations())
+        .build();
+  }
+
+  /**
+   * Creates a new instance of the operation with the given name.
+   *
+   * @param name the name of the operation, as shown in the UI
+   * @throws IllegalArgumentException if there is no operation with that name
+   */
+  public Operation create(String name) {
+    for (OperationMetaData metaData : operations()) {
+      if (metaData.getDescription().name().equals(name)) {
+        return metaData.getOperationSupplier().get();
+      }
+    }
+    throw new IllegalArgumentException("There is no operation named " + name);
+  }
+
+  /**
+   * Checks if an operation has any image inputs.
+   */
+  public static boolean takesImage(Operation operation) {
+    for (InputSocket<?> socket : operation.getInputSockets()) {
+      if (socket.getSocketHint().getType().equals(MatWrapper.class)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sets every image input of an operation to the given image.
+   *
+   * @return the number of inputs that were set
+   */
+  @SuppressWarnings("unchecked")
+  public static int setImageInputs(Operation operation, Mat image) {
+    int count = 0;
+    for (InputSocket<?> socket : operation.getInputSockets()) {
+      if (socket.getSocketHint().getType().equals(MatWrapper.class)) {
+        ((InputSocket<MatWrapper>) socket).setValue(MatWrapper.wrap(image));
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Sets the input of an operation with the given identifier.
+   *
+   * @throws IllegalArgumentException if the operation has no input with that identifier
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void setInput(Operation operation, String identifier, T value) {
+    for (InputSocket<?> socket : operation.getInputSockets()) {
+      if (socket.getSocketHint().getIdentifier().equals(identifier)) {
+        ((InputSocket<T>) socket).setValue(value);
+        return;
+      }
+    }
+    throw new IllegalArgumentException("The operation has no input named " + identifier);
+  }
+
+  @Override
+  public void close() {
+    testModule.tearDown();
+  }
+}
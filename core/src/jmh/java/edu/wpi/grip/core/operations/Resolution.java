@@ -0,0 +1,33 @@
+package edu.wpi.grip.core.operations;
+
+/**
+ * The resolutions that benchmarks are run at. These cover the resolutions commonly used by cameras
+ * on a robot.
+ */
+public enum Resolution {
+
+  QVGA(320, 240),
+  VGA(640, 480),
+  HD(1280, 720);
+
+  private final int width;
+  private final int height;
+
+  Resolution(int width, int height) {
+    this.width = width;
+    this.height = height;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public String toString() {
+    return width + "x" + height;
+  }
+}
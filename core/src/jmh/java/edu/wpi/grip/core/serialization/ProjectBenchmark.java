@@ -0,0 +1,92 @@
+package edu.wpi.grip.core.serialization;
+
+import edu.wpi.grip.core.ManualPipelineRunner;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.PipelineRunner;
+import edu.wpi.grip.core.events.BenchmarkEvent;
+import edu.wpi.grip.core.operations.FixtureImages;
+import edu.wpi.grip.core.operations.OperationHarness;
+import edu.wpi.grip.core.operations.OperationsFactory;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.io.Resources;
+import com.google.inject.Injector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a whole saved project, in frames per second. Every step is run on every frame, the
+ * same as when benchmarking from the analysis view.
+ *
+ * <p>By default this runs a typical target detection pipeline on the fixture photo. Another project
+ * can be benchmarked by passing its path with {@code -p projectFile=/path/to/project.grip}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProjectBenchmark {
+
+  private static final String DEFAULT_PROJECT = "/edu/wpi/grip/benchmarks/target-detection.grip";
+
+  /**
+   * The path of the project to benchmark, or empty to use the default project.
+   */
+  @Param("")
+  public String projectFile;
+
+  private OperationHarness harness;
+  private EventBus eventBus;
+  private Pipeline pipeline;
+  private ManualPipelineRunner pipelineRunner;
+
+  @Setup
+  public void setUp() throws IOException {
+    harness = new OperationHarness();
+    final Injector injector = harness.getInjector();
+    eventBus = injector.getInstance(EventBus.class);
+    pipeline = injector.getInstance(Pipeline.class);
+    pipelineRunner = (ManualPipelineRunner) injector.getInstance(PipelineRunner.class);
+    final Project project = injector.getInstance(Project.class);
+
+    // Add the operations so that GRIP will recognize them
+    OperationsFactory.create(eventBus, injector).addOperations();
+    OperationsFactory.createCV(eventBus).addOperations();
+
+    if (projectFile.isEmpty()) {
+      project.open(Resources.toString(ProjectBenchmark.class.getResource(DEFAULT_PROJECT),
+          StandardCharsets.UTF_8)
+          .replace("REPLACEME", FixtureImages.photoFile().getAbsolutePath()));
+    } else {
+      project.open(new File(projectFile));
+    }
+
+    // Run once to get the first frame from each source, then force every step to run on each frame
+    pipelineRunner.runPipeline();
+    eventBus.post(BenchmarkEvent.started());
+  }
+
+  @Benchmark
+  public void runFrame() {
+    pipelineRunner.runPipeline();
+  }
+
+  @TearDown
+  public void tearDown() {
+    eventBus.post(BenchmarkEvent.finished());
+    pipeline.clear();
+    harness.close();
+  }
+}
@@ -0,0 +1,366 @@
+package edu.wpi.grip.core;
+
+import edu.wpi.grip.core.events.BenchmarkEvent;
+import edu.wpi.grip.core.events.RunStartedEvent;
+import edu.wpi.grip.core.events.RunStoppedEvent;
+import edu.wpi.grip.core.metrics.BenchmarkReport;
+import edu.wpi.grip.core.metrics.LatencyHistogram;
+import edu.wpi.grip.core.metrics.LatencySnapshot;
+import edu.wpi.grip.core.metrics.LatencyTracker;
+import edu.wpi.grip.core.metrics.NativeMemoryTracker;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Inject;
+
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.FrameGrabber;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.bytedeco.javacpp.opencv_imgcodecs.imread;
+
+/**
+ * Benchmarks the current pipeline offline, against a directory of images or a video file. Unlike
+ * the {@link edu.wpi.grip.core.metrics.BenchmarkRunner BenchmarkRunner} used by the analysis view,
+ * every run gets the next frame from the input, so the numbers reflect real footage and can be
+ * repeated exactly on another machine or against another version of the pipeline.
+ *
+ * <p>Each frame is decoded and copied into every image output of the pipeline's sources before the
+ * steps are run, and only the time spent running the steps is measured. The pipeline runner is
+ * stopped for the duration of the benchmark, and the first few runs are excluded from the results
+ * to give the JIT and OpenCV's caches a chance to warm up.
+ */
+public class BatchBenchmark {
+
+  private static final Logger logger = Logger.getLogger(BatchBenchmark.class.getName());
+
+  private final EventBus eventBus;
+  private final Pipeline pipeline;
+  private final PipelineRunner pipelineRunner;
+  private final LatencyTracker latencyTracker;
+  private final NativeMemoryTracker nativeMemoryTracker;
+
+  @Inject
+  BatchBenchmark(EventBus eventBus,
+                 Pipeline pipeline,
+                 PipelineRunner pipelineRunner,
+                 LatencyTracker latencyTracker,
+                 NativeMemoryTracker nativeMemoryTracker) {
+    this.eventBus = eventBus;
+    this.pipeline = pipeline;
+    this.pipelineRunner = pipelineRunner;
+    this.latencyTracker = latencyTracker;
+    this.nativeMemoryTracker = nativeMemoryTracker;
+  }
+
+  /**
+   * Runs the benchmark. The input is looped over if it has fewer frames than the number of runs.
+   *
+   * @param input        a directory of images, or a video file
+   * @param warmupRuns   the number of runs to exclude from the results
+   * @param measuredRuns the number of runs to measure
+   *
+   * @return the results of the benchmark
+   * @throws IOException if the input couldn't be read
+   */
+  public BenchmarkReport run(File input, int warmupRuns, int measuredRuns) throws IOException {
+    checkNotNull(input, "input");
+    checkArgument(warmupRuns >= 0, "warmupRuns cannot be negative");
+    checkArgument(measuredRuns > 0, "Must run the pipeline at least once");
+    final ImmutableList<Step> steps = pipeline.getSteps();
+    final List<OutputSocket<MatWrapper>> imageOutputs = imageOutputs(pipeline.getSources());
+    checkState(!steps.isEmpty(), "The pipeline has no steps to benchmark");
+    checkState(!imageOutputs.isEmpty(), "The pipeline has no image sources to give frames to");
+
+    pipelineRunner.stopAndAwait();
+    logger.info("Benchmarking " + steps.size() + " steps against " + input + " ("
+        + warmupRuns + " warm-up runs, " + measuredRuns + " measured runs)");
+
+    final LatencyHistogram runLatencies = new LatencyHistogram();
+    final HeapAllocations allocations = new HeapAllocations();
+    ImmutableMap<Object, LatencySnapshot> stepBaseline = ImmutableMap.of();
+    long elapsedNanos = 0;
+    long nativeHighWater = 0;
+    long physicalHighWater = 0;
+
+    eventBus.post(BenchmarkEvent.started());
+    try (Frames frames = Frames.open(input)) {
+      for (int run = 0; run < warmupRuns + measuredRuns; run++) {
+        final boolean measured = run >= warmupRuns;
+        if (run == warmupRuns) {
+          stepBaseline = latencyTracker.snapshot();
+          allocations.start();
+        }
+
+        final Mat frame = frames.next();
+        for (OutputSocket<MatWrapper> output : imageOutputs) {
+          output.getValue().get().set(frame);
+          output.setValue(output.getValue().get()); // force the socket to update
+        }
+
+        eventBus.post(new RunStartedEvent());
+        final long start = System.nanoTime();
+        pipelineRunner.runPipeline();
+        final long elapsed = System.nanoTime() - start;
+        eventBus.post(new RunStoppedEvent());
+
+        if (measured) {
+          runLatencies.record(TimeUnit.NANOSECONDS.toMicros(elapsed));
+          elapsedNanos += elapsed;
+          nativeHighWater = Math.max(nativeHighWater, nativeMemoryTracker.sample().getTotalBytes());
+          physicalHighWater = Math.max(physicalHighWater, Pointer.physicalBytes());
+          allocations.sample();
+        }
+      }
+    } finally {
+      eventBus.post(BenchmarkEvent.finished());
+    }
+
+    final ImmutableMap<Object, LatencySnapshot> stepTotals = latencyTracker.snapshot();
+    final Map<String, LatencySnapshot> stepLatencies = new LinkedHashMap<>();
+    for (int i = 0; i < steps.size(); i++) {
+      final Step step = steps.get(i);
+      stepLatencies.put(i + ": " + step.getOperationDescription().name(),
+          stepTotals.getOrDefault(step, LatencySnapshot.EMPTY)
+              .since(stepBaseline.getOrDefault(step, LatencySnapshot.EMPTY)));
+    }
+    return new BenchmarkReport(
+        warmupRuns,
+        runLatencies.snapshot(),
+        stepLatencies,
+        elapsedNanos,
+        allocations.getAllocatedBytes(),
+        nativeHighWater,
+        physicalHighWater);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<OutputSocket<MatWrapper>> imageOutputs(List<Source> sources) {
+    final List<OutputSocket<MatWrapper>> outputs = new ArrayList<>();
+    for (Source source : sources) {
+      for (OutputSocket<?> output : source.getOutputSockets()) {
+        if (MatWrapper.class.equals(output.getSocketHint().getType())) {
+          outputs.add((OutputSocket<MatWrapper>) output);
+        }
+      }
+    }
+    return outputs;
+  }
+
+  /**
+   * Counts the bytes allocated on the heap by every thread while the measured runs are going. Steps
+   * may run on other threads, so this can't just be measured on the current one.
+   *
+   * <p>The JVM only reports allocations for live threads, and thread pools let idle threads exit,
+   * so taking the difference between two totals would lose everything a thread allocated before
+   * it exited, and could even come out negative. Instead, each thread is counted from when it was
+   * first seen, and sampled after every run so that a thread that exits is still counted up to its
+   * last run. Threads that started after the measured runs began are counted from zero.
+   */
+  private static final class HeapAllocations {
+    @Nullable
+    private final com.sun.management.ThreadMXBean threads = allocationBean();
+    private final Map<Long, Long> baseline = new HashMap<>();
+    private final Map<Long, Long> latest = new HashMap<>();
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean allocationBean() {
+      final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+        return null;
+      }
+      final com.sun.management.ThreadMXBean allocations =
+          (com.sun.management.ThreadMXBean) threads;
+      if (!allocations.isThreadAllocatedMemorySupported()
+          || !allocations.isThreadAllocatedMemoryEnabled()) {
+        return null;
+      }
+      return allocations;
+    }
+
+    /**
+     * Starts counting from the bytes each live thread has allocated so far.
+     */
+    private void start() {
+      baseline.clear();
+      latest.clear();
+      sampleInto(baseline);
+    }
+
+    /**
+     * Records the bytes each live thread has allocated so far.
+     */
+    private void sample() {
+      sampleInto(latest);
+    }
+
+    private void sampleInto(Map<Long, Long> samples) {
+      if (threads == null) {
+        return;
+      }
+      final long[] ids = threads.getAllThreadIds();
+      final long[] bytes = threads.getThreadAllocatedBytes(ids);
+      for (int i = 0; i < ids.length; i++) {
+        // Threads that exited since their ID was looked up are reported as -1
+        if (bytes[i] >= 0) {
+          samples.put(ids[i], bytes[i]);
+        }
+      }
+    }
+
+    /**
+     * Gets the bytes allocated since counting {@link #start() started}, up to the last
+     * {@link #sample()}, or -1 if the JVM can't measure it.
+     */
+    private long getAllocatedBytes() {
+      if (threads == null) {
+        return -1;
+      }
+      long total = 0;
+      for (Map.Entry<Long, Long> sample : latest.entrySet()) {
+        total += Math.max(0, sample.getValue() - baseline.getOrDefault(sample.getKey(), 0L));
+      }
+      return total;
+    }
+  }
+
+  /**
+   * The frames to benchmark the pipeline against.
+   */
+  private interface Frames extends AutoCloseable {
+
+    /**
+     * Gets the next frame, starting over from the first one at the end of the input. The returned
+     * mat is only valid until the next call.
+     */
+    Mat next() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static Frames open(File input) throws IOException {
+      if (input.isDirectory()) {
+        return new ImageFrames(input);
+      } else if (input.isFile()) {
+        return new VideoFrames(input);
+      } else {
+        throw new IOException("No such file or directory: " + input);
+      }
+    }
+  }
+
+  /**
+   * Reads each image in a directory in order of file name.
+   */
+  private static final class ImageFrames implements Frames {
+    private final File[] files;
+    private Mat frame = new Mat();
+    private int index = 0;
+
+    private ImageFrames(File directory) throws IOException {
+      final File[] listed = directory.listFiles(File::isFile);
+      if (listed == null || listed.length == 0) {
+        throw new IOException("There are no images in " + directory);
+      }
+      Arrays.sort(listed);
+      this.files = listed;
+    }
+
+    @Override
+    @SuppressWarnings("PMD.ForLoopCanBeForeach")
+    public Mat next() throws IOException {
+      // Skip over anything that isn't an image, but give up after going through every file
+      for (int attempts = 0; attempts < files.length; attempts++) {
+        final Mat image = imread(files[index].getAbsolutePath());
+        index = (index + 1) % files.length;
+        if (!image.empty()) {
+          frame.deallocate();
+          frame = image;
+          return frame;
+        }
+        image.deallocate();
+      }
+      throw new IOException("None of the files in " + files[0].getParent() + " are images");
+    }
+
+    @Override
+    public void close() {
+      frame.deallocate();
+    }
+  }
+
+  /**
+   * Decodes each frame of a video file in order.
+   */
+  private static final class VideoFrames implements Frames {
+    private final File file;
+    private final FFmpegFrameGrabber frameGrabber;
+    private final OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+
+    private VideoFrames(File file) throws IOException {
+      this.file = file;
+      this.frameGrabber = new FFmpegFrameGrabber(file);
+      try {
+        frameGrabber.start();
+      } catch (FrameGrabber.Exception e) {
+        throw new IOException("Could not open video file " + file, e);
+      }
+    }
+
+    @Override
+    public Mat next() throws IOException {
+      try {
+        Mat mat = convert(frameGrabber.grabImage());
+        if (mat == null) {
+          // End of the video file, loop back to the first frame
+          frameGrabber.setFrameNumber(0);
+          mat = convert(frameGrabber.grabImage());
+        }
+        if (mat == null) {
+          throw new IOException("Could not read any frames from " + file);
+        }
+        return mat;
+      } catch (FrameGrabber.Exception e) {
+        throw new IOException("Could not read a frame from " + file, e);
+      }
+    }
+
+    @Nullable
+    private Mat convert(@Nullable Frame frame) {
+      return frame == null ? null : converter.convert(frame);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        frameGrabber.stop();
+        frameGrabber.release();
+      } catch (FrameGrabber.Exception e) {
+        throw new IOException("Could not close video file " + file, e);
+      }
+    }
+  }
+}
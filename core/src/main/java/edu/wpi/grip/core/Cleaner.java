@@ -13,21 +13,25 @@ import javax.annotation.Nullable;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
- * Cleans up unused objects by periodically calling {@link System#gc()} to nudge the
- * garbage collector to clean up dead native (JavaCV) objects. This is required because JavaCV
- * objects only free their native memory when they're garbage collected, so if they accumulate in
- * the heap, the app will use about 40x the memory as used heap (i.e. 230MB of used heap results in
- * about 9.8GB of used memory for the process). This is because {@code Mats} and anything
- * else extending {@link org.bytedeco.javacpp.Pointer} use native memory that greatly exceeds the
- * Java objects size on the heap.
+ * Cleans up unused native (JavaCV) memory after each run of the pipeline. JavaCV objects only
+ * free their native memory when they're explicitly deallocated or garbage collected, and {@code
+ * Mats} and anything else extending {@link org.bytedeco.javacpp.Pointer} use native memory that
+ * greatly exceeds the Java object's size on the heap, so relying on the garbage collector alone
+ * lets the process use many times more memory than the heap.
+ *
+ * <p>Operations borrow their scratch images from the {@link MatPool} and return them when they're
+ * done, so after each run this only has to trim the images that have been sitting idle in the
+ * pool. Values that are replaced every run, like the {@code MatVectors} in contour reports, are
+ * still shared between sockets with nothing tracking who holds them, so they can only be freed by
+ * the garbage collector. Since the heap barely grows while they pile up, this still periodically
+ * calls {@link System#gc()} to nudge the collector to free them.
  *
  * <p>JavaCV has a system property {@code org.bytedeco.javacpp.maxphysicalbytes} that it uses to
  * determine when to start deallocating native memory. However, this only results in calls to
- * {@code System.gc()} and imposes a hard upper limit on native memory use, limiting large images
- * or long pipelines. It's also not very portable: running from source needs it to be passed
- * as a JVM argument with gradle, and it can't be adjusted based on the amount of memory on the
- * system it's installed on. For us, manually running System.gc() periodically is a better solution.
- * </p>
+ * {@code System.gc()} on the thread that's allocating, and imposes a hard upper limit on native
+ * memory use, limiting large images or long pipelines. It's also not very portable: running from
+ * source needs it to be passed as a JVM argument with gradle, and it can't be adjusted based on the
+ * amount of memory on the system it's installed on.
  */
 @Singleton
 public class Cleaner {
@@ -39,14 +43,16 @@ public class Cleaner {
   private static final long MIN_DELAY = 1000;
 
   /**
-   * Stopwatch to keep track of the elapsed time since the last gc call.
+   * The minimum number of runs allowed before calling System.gc().
    */
-  private final Stopwatch stopwatch = Stopwatch.createUnstarted();
+  private static final int MIN_RUNS_BEFORE_GC = 5;
+
+  private final MatPool matPool = MatPool.shared();
 
   /**
-   * The minimum number of runs allowed before calling System.gc().
+   * Stopwatch to keep track of the elapsed time since the last gc call.
    */
-  private static final int MIN_RUNS_BEFORE_GC = 5;
+  private final Stopwatch stopwatch = Stopwatch.createUnstarted();
 
   /**
    * The number of runs since the last gc call.
@@ -56,6 +62,7 @@ public class Cleaner {
   @Subscribe
   @SuppressFBWarnings(value = "DM_GC", justification = "GC is called infrequently")
   public void onRunFinished(@Nullable RunStoppedEvent e) {
+    matPool.trim();
     runsSinceLastGc++;
     if (!stopwatch.isRunning()) {
       stopwatch.start();
@@ -2,7 +2,6 @@ package edu.wpi.grip.core;
 
 import edu.wpi.grip.core.events.ConnectionAddedEvent;
 import edu.wpi.grip.core.events.ConnectionRemovedEvent;
-import edu.wpi.grip.core.events.SocketChangedEvent;
 import edu.wpi.grip.core.events.SourceRemovedEvent;
 import edu.wpi.grip.core.events.StepRemovedEvent;
 import edu.wpi.grip.core.sockets.InputSocket;
@@ -15,7 +14,11 @@ import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * A connection is a rule that causes one socket to update to always the value of another socket.
@@ -26,7 +29,17 @@ public class Connection<T> {
   private final EventBus eventBus;
   private final OutputSocket<? extends T> outputSocket;
   private final InputSocket<T> inputSocket;
-
+  /**
+   * While this is set, changes to the output socket are only recorded in {@link #pendingChange}
+   * instead of being copied to the input socket. See {@link #setDeferred(boolean)}.
+   */
+  private volatile boolean deferred = false;
+  private final AtomicBoolean pendingChange = new AtomicBoolean(false);
+  /**
+   * The stamp of the value that was last handed over to the input socket while this connection was
+   * deferred.
+   */
+  private volatile Optional<FrameStamp> deferredFrameStamp = Optional.empty();
 
   /**
    * @param connectionValidator An object to validate that the connection can be made
@@ -53,6 +66,26 @@ public class Connection<T> {
     return this.inputSocket;
   }
 
+  /**
+   * Gets the stamp of the frame that the input socket's value was made from. This is normally the
+   * output socket's stamp, but while this connection is {@link #setDeferred(boolean) deferred} the
+   * input socket may still be working on an older frame, so it's whatever was last given to
+   * {@link #setDeferredFrameStamp(Optional)}.
+   */
+  public Optional<FrameStamp> getFrameStamp() {
+    return deferred ? deferredFrameStamp : outputSocket.getFrameStamp();
+  }
+
+  /**
+   * Sets the stamp of the value that was handed over to the input socket while this connection is
+   * deferred.
+   *
+   * @param frameStamp the stamp of the value that the input socket was given
+   */
+  public void setDeferredFrameStamp(Optional<FrameStamp> frameStamp) {
+    this.deferredFrameStamp = checkNotNull(frameStamp, "frameStamp");
+  }
+
   @Subscribe
   public void onConnectionAdded(ConnectionAddedEvent event) {
     if (event.getConnection().equals(this)) {
@@ -62,13 +95,54 @@ public class Connection<T> {
     }
   }
 
-  @Subscribe
-  public void onOutputChanged(SocketChangedEvent e) {
-    if (e.isRegarding(outputSocket)) {
+  /**
+   * Hands the output socket's value over to the input socket, or records that it changed if this
+   * connection is {@link #setDeferred(boolean) deferred}. This is called directly by the output
+   * socket whenever its value changes, rather than through the event bus, since it happens for
+   * every connection on every run of the pipeline.
+   */
+  public void onOutputChanged() {
+    if (deferred) {
+      pendingChange.set(true);
+    } else {
       inputSocket.setValueOptional(outputSocket.getValue());
     }
   }
 
+  /**
+   * Sets whether changes to the output socket should be deferred. A deferred connection doesn't
+   * update the input socket when the output socket changes; it only remembers that there was a
+   * change, and whoever deferred it is responsible for handing the value over to the input socket.
+   * This is used when the steps at either end of the connection are working on different frames at
+   * the same time.
+   *
+   * <p>When a connection stops being deferred, the input socket is set to the current value of the
+   * output socket.
+   *
+   * @param deferred true if changes should be deferred, false to go back to updating the input
+   *                 socket straight away
+   */
+  public void setDeferred(boolean deferred) {
+    final boolean wasDeferred = this.deferred;
+    // The input socket has the output socket's current value until the next hand over
+    deferredFrameStamp = outputSocket.getFrameStamp();
+    this.deferred = deferred;
+    pendingChange.set(false);
+    if (wasDeferred && !deferred) {
+      inputSocket.setValueOptional(outputSocket.getValue());
+    }
+  }
+
+  /**
+   * Checks if the output socket changed since this was last called, and clears the flag. This is
+   * only meaningful while the connection is {@link #setDeferred(boolean) deferred}.
+   *
+   * @return true if the output socket has changed
+   */
+  public boolean takePendingChange() {
+    return pendingChange.getAndSet(false);
+  }
+
   @Subscribe
   public void onConnectionRemoved(ConnectionRemovedEvent e) {
     if (e.getConnection() == this) {
@@ -2,6 +2,7 @@ package edu.wpi.grip.core;
 
 import edu.wpi.grip.core.events.AppSettingsChangedEvent;
 import edu.wpi.grip.core.http.GripServer;
+import edu.wpi.grip.core.metrics.BenchmarkReport;
 import edu.wpi.grip.core.serialization.Project;
 import edu.wpi.grip.core.settings.AppSettings;
 import edu.wpi.grip.core.settings.SettingsProvider;
@@ -18,10 +19,14 @@ import org.apache.commons.cli.ParseException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.annotation.Nullable;
+
 /**
  * A helper class for command line options for GRIP.
  */
@@ -33,6 +38,14 @@ public class CoreCommandLineHelper {
   public static final String PORT_OPTION = "p"; // "p" for "port"
   public static final String HELP_OPTION = "h"; // "h" for "help" (this is standard)
   public static final String VERSION_OPTION = "v"; // "v" for "version" (this is standard)
+  public static final String BENCHMARK_OPTION = "b"; // "b" for "benchmark"
+  public static final String RUNS_OPTION = "runs";
+  public static final String WARMUP_OPTION = "warmup";
+  public static final String REPORT_OPTION = "report";
+
+  private static final int DEFAULT_BENCHMARK_RUNS = 100;
+  private static final int DEFAULT_WARMUP_RUNS = 10;
+  private static final String DEFAULT_REPORT_PATH = "benchmark";
 
   private final Options options = new Options();
   private static final Option saveOption =
@@ -51,6 +64,42 @@ public class CoreCommandLineHelper {
           .numberOfArgs(1)
           .argName("port")
           .build();
+  private static final Option benchmarkOption =
+      Option.builder(BENCHMARK_OPTION)
+          .longOpt("benchmark")
+          .desc("Benchmark the loaded project against a directory of images or a video file, then"
+              + " exit")
+          .hasArg()
+          .numberOfArgs(1)
+          .argName("path")
+          .build();
+  private static final Option runsOption =
+      Option.builder()
+          .longOpt(RUNS_OPTION)
+          .desc("Set the number of runs to measure when benchmarking (default "
+              + DEFAULT_BENCHMARK_RUNS + ")")
+          .hasArg()
+          .numberOfArgs(1)
+          .argName("runs")
+          .build();
+  private static final Option warmupOption =
+      Option.builder()
+          .longOpt(WARMUP_OPTION)
+          .desc("Set the number of runs to exclude from benchmark results (default "
+              + DEFAULT_WARMUP_RUNS + ")")
+          .hasArg()
+          .numberOfArgs(1)
+          .argName("runs")
+          .build();
+  private static final Option reportOption =
+      Option.builder()
+          .longOpt(REPORT_OPTION)
+          .desc("Set where to write benchmark results; a .csv and a .json file are written with"
+              + " this name (default '" + DEFAULT_REPORT_PATH + "')")
+          .hasArg()
+          .numberOfArgs(1)
+          .argName("path")
+          .build();
   private static final Option helpOption
       = new Option(HELP_OPTION, "help", false, "Prints the command line options");
   private static final Option versionOption
@@ -62,6 +111,10 @@ public class CoreCommandLineHelper {
   public CoreCommandLineHelper() {
     options.addOption(saveOption);
     options.addOption(portOption);
+    options.addOption(benchmarkOption);
+    options.addOption(runsOption);
+    options.addOption(warmupOption);
+    options.addOption(reportOption);
     options.addOption(helpOption);
     options.addOption(versionOption);
   }
@@ -203,4 +256,63 @@ public class CoreCommandLineHelper {
     }
   }
 
+  /**
+   * Checks if GRIP should benchmark the loaded project and exit, instead of running it.
+   *
+   * @param args the parsed command line arguments
+   */
+  public boolean isBenchmark(CommandLine args) {
+    return args.hasOption(BENCHMARK_OPTION);
+  }
+
+  /**
+   * Benchmarks the loaded project against the frames given on the command line, and writes the
+   * results to a CSV file and a JSON file. Does nothing if no benchmark was requested.
+   *
+   * @param args      the parsed command line arguments
+   * @param benchmark the benchmark to run
+   *
+   * @return the results of the benchmark, or null if no benchmark was requested
+   * @throws IOException if the frames couldn't be read or the results couldn't be written
+   */
+  @Nullable
+  public BenchmarkReport runBenchmark(CommandLine args, BatchBenchmark benchmark)
+      throws IOException {
+    if (!isBenchmark(args)) {
+      return null;
+    }
+    final File input = new File(args.getOptionValue(BENCHMARK_OPTION));
+    final int runs = parseRunCount(args, RUNS_OPTION, DEFAULT_BENCHMARK_RUNS, 1);
+    final int warmupRuns = parseRunCount(args, WARMUP_OPTION, DEFAULT_WARMUP_RUNS, 0);
+    final String reportPath = args.getOptionValue(REPORT_OPTION, DEFAULT_REPORT_PATH);
+
+    final BenchmarkReport report = benchmark.run(input, warmupRuns, runs);
+    final File csv = new File(reportPath + ".csv");
+    final File json = new File(reportPath + ".json");
+    Files.write(csv.toPath(), report.toCsv().getBytes(StandardCharsets.UTF_8));
+    Files.write(json.toPath(), report.toJson().getBytes(StandardCharsets.UTF_8));
+    logger.info(String.format("Benchmark finished: %.1f frames per second, p99 %d us. Results"
+            + " written to %s and %s",
+        report.getFramesPerSecond(), report.getPipeline().getValueAtQuantile(0.99),
+        csv.getAbsolutePath(), json.getAbsolutePath()));
+    return report;
+  }
+
+  private static int parseRunCount(CommandLine args, String option, int defaultValue, int min) {
+    if (!args.hasOption(option)) {
+      return defaultValue;
+    }
+    try {
+      final int count = Integer.parseInt(args.getOptionValue(option));
+      if (count >= min) {
+        return count;
+      }
+    } catch (NumberFormatException e) {
+      // Fall through to the warning below
+    }
+    logger.warning("Not a valid number of runs for --" + option + ": "
+        + args.getOptionValue(option) + ", using " + defaultValue);
+    return defaultValue;
+  }
+
 }
@@ -0,0 +1,501 @@
+package edu.wpi.grip.core;
+
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.core.sockets.OutputSocket;
+import edu.wpi.grip.core.util.DaemonThread;
+
+import com.google.common.collect.ImmutableList;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs the steps of a pipeline as a series of stages, each on its own thread, so that several
+ * frames can be in the pipeline at once. The first stage updates the sources and runs the first
+ * few steps on the calling thread, then hands the frame over to the next stage and returns, so the
+ * next frame can be started while the rest of the pipeline is still working on this one.
+ *
+ * <p>Steps are split into contiguous stages in pipeline order, balanced by how long each step has
+ * recently taken to run. Steps without any output sockets (publishing operations and other sinks)
+ * are always put in the last stage.
+ *
+ * <p>Connections that cross from one stage to a later one are {@link
+ * Connection#setDeferred(boolean) deferred} while this is in use. At the end of each stage, the
+ * values that later stages need are copied into one of two buffers kept for each of those values,
+ * and the next stage hands the copy for its frame to the connected input sockets. Images ({@link
+ * MatWrapper} and {@link Mat} values) are deep-copied, since steps write their results into the
+ * same image every frame. Every other value is assumed to be replaced rather than modified when it
+ * changes, and is passed by reference. A stage can only get two frames ahead of the stage after it,
+ * which guarantees that neither of the buffers are overwritten while a later stage is still using
+ * them.
+ */
+final class FramePipeline {
+  private static final Logger logger = Logger.getLogger(FramePipeline.class.getName());
+
+  /**
+   * How many frames are run between checks of whether the stages should be rebalanced.
+   */
+  private static final int REBALANCE_INTERVAL = 64;
+  /**
+   * How much faster the slowest stage needs to get before rebalancing is worth stopping the
+   * pipeline for, as a fraction of the current slowest stage.
+   */
+  private static final double REBALANCE_THRESHOLD = 0.2;
+
+  private final ImmutableList<Step> steps;
+  private final ImmutableList<Connection<?>> connections;
+  private final int maxStages;
+  private final Map<Step, Long> costs;
+  private final Consumer<Runnable> finalStageWrapper;
+
+  private final ImmutableList<ImmutableList<Step>> stages;
+  /**
+   * The boundary at index {@code i} sits between stage {@code i} and stage {@code i + 1}.
+   */
+  private final ImmutableList<Boundary> boundaries;
+  /**
+   * The executor at index {@code i} runs stage {@code i + 1}.
+   */
+  private final ImmutableList<ExecutorService> stageExecutors;
+  private final ImmutableList<Connection<?>> deferredConnections;
+  private int framesRun = 0;
+
+  /**
+   * Splits the given steps into stages and starts a thread for each stage after the first.
+   *
+   * @param steps             the steps to run, in pipeline order
+   * @param maxStages         the largest number of stages to split the steps into
+   * @param costs             how long each step has recently taken to run, in nanoseconds. This is
+   *                          updated as steps are run, and can be shared between frame pipelines so
+   *                          that a new one doesn't have to start measuring again.
+   * @param finalStageWrapper called on the last stage's thread with a runnable that runs the last
+   *                          stage for a single frame
+   */
+  public FramePipeline(ImmutableList<Step> steps,
+                       int maxStages,
+                       Map<Step, Long> costs,
+                       Consumer<Runnable> finalStageWrapper) {
+    checkArgument(maxStages > 0, "There must be at least one stage");
+    this.steps = checkNotNull(steps, "steps");
+    this.connections = connectionsOf(steps);
+    this.maxStages = maxStages;
+    this.costs = checkNotNull(costs, "costs");
+    this.finalStageWrapper = checkNotNull(finalStageWrapper, "finalStageWrapper");
+    this.costs.keySet().retainAll(steps);
+
+    this.stages = partition(steps, maxStages, costs);
+    final Map<Step, Integer> stageIndices = new IdentityHashMap<>();
+    for (int i = 0; i < stages.size(); i++) {
+      for (Step step : stages.get(i)) {
+        stageIndices.put(step, i);
+      }
+    }
+
+    // Group the connections that go from one stage to a later stage by the socket they read from
+    final Map<OutputSocket<?>, List<Connection<?>>> crossingConnections = new LinkedHashMap<>();
+    final Map<Connection<?>, Integer> consumerStages = new IdentityHashMap<>();
+    for (Connection<?> connection : connections) {
+      final int producer = connection.getOutputSocket().getStep()
+          .map(stageIndices::get)
+          .orElse(0);
+      final int consumer = connection.getInputSocket().getStep()
+          .map(stageIndices::get)
+          .orElse(0);
+      if (consumer > producer) {
+        crossingConnections.computeIfAbsent(connection.getOutputSocket(), s -> new ArrayList<>())
+            .add(connection);
+        consumerStages.put(connection, consumer);
+      }
+    }
+    this.deferredConnections = ImmutableList.copyOf(consumerStages.keySet());
+
+    final ImmutableList.Builder<Boundary> boundaryBuilder = ImmutableList.builder();
+    final ImmutableList.Builder<ExecutorService> executorBuilder = ImmutableList.builder();
+    Map<OutputSocket<?>, Carried> previousBoundary = new IdentityHashMap<>();
+    for (int stage = 1; stage < stages.size(); stage++) {
+      final Map<OutputSocket<?>, Carried> boundary = new IdentityHashMap<>();
+      for (Map.Entry<OutputSocket<?>, List<Connection<?>>> entry
+          : crossingConnections.entrySet()) {
+        final int nextStage = stage;
+        final int producer = entry.getKey().getStep().map(stageIndices::get).orElse(0);
+        final int lastConsumer = entry.getValue().stream()
+            .mapToInt(consumerStages::get)
+            .max()
+            .getAsInt();
+        if (producer < stage && stage <= lastConsumer) {
+          final ImmutableList<Connection<?>> consumers = ImmutableList.copyOf(
+              entry.getValue().stream()
+                  .filter(connection -> consumerStages.get(connection) == nextStage)
+                  .collect(Collectors.toList()));
+          boundary.put(entry.getKey(), new Carried(entry.getKey(),
+              previousBoundary.get(entry.getKey()),
+              ImmutableList.copyOf(entry.getValue()),
+              consumers));
+        }
+      }
+      boundaryBuilder.add(new Boundary(ImmutableList.copyOf(boundary.values())));
+      final String threadName = "Pipeline Stage " + stage;
+      executorBuilder.add(
+          Executors.newSingleThreadExecutor(target -> new DaemonThread(target, threadName)));
+      previousBoundary = boundary;
+    }
+    this.boundaries = boundaryBuilder.build();
+    this.stageExecutors = executorBuilder.build();
+
+    deferredConnections.forEach(connection -> connection.setDeferred(true));
+  }
+
+  /**
+   * Updates the sources and runs the first stage on the calling thread, then hands the frame over
+   * to the next stage. This only blocks if the next stage is more than a frame behind.
+   *
+   * @param sources the sources to update at the start of the frame
+   * @param running checked before each step is run. Once this returns false, the remaining steps
+   *                are skipped.
+   * @throws InterruptedException if the calling thread is interrupted while waiting for the next
+   *                              stage to catch up
+   */
+  public void runFrame(ImmutableList<Source> sources, Supplier<Boolean> running)
+      throws InterruptedException {
+    framesRun++;
+    final Runnable firstStage = () -> {
+      for (Source source : sources) {
+        if (!running.get()) {
+          break;
+        }
+        source.updateAndStampOutputSockets();
+      }
+      runStage(0, running);
+    };
+    if (stages.size() == 1) {
+      finalStageWrapper.accept(firstStage);
+      return;
+    }
+    firstStage.run();
+    handOff(0, running);
+  }
+
+  /**
+   * Checks if this can still be used to run the given steps. This is false if the steps or the
+   * connections between them have changed, or if the time the steps take has changed enough that
+   * they should be split into stages differently.
+   */
+  public boolean canRun(ImmutableList<Step> steps) {
+    if (!this.steps.equals(steps) || !connections.equals(connectionsOf(steps))) {
+      return false;
+    }
+    if (framesRun % REBALANCE_INTERVAL != 0) {
+      return true;
+    }
+    final ImmutableList<ImmutableList<Step>> balanced = partition(steps, maxStages, costs);
+    return balanced.equals(stages)
+        || slowestStage(balanced) > slowestStage(stages) * (1 - REBALANCE_THRESHOLD);
+  }
+
+  /**
+   * Waits for every frame that is still in the pipeline to finish, then stops the stage threads and
+   * goes back to updating input sockets directly from the connections.
+   */
+  public void close() {
+    // Each stage hands its frame to the next before it frees up its buffers, so once every
+    // boundary is free in order there can't be any frames left
+    for (Boundary boundary : boundaries) {
+      boundary.free.acquireUninterruptibly(Boundary.BUFFER_COUNT);
+      boundary.free.release(Boundary.BUFFER_COUNT);
+    }
+    stageExecutors.forEach(ExecutorService::shutdown);
+    deferredConnections.forEach(connection -> connection.setDeferred(false));
+  }
+
+  /**
+   * Gets the steps in each stage.
+   */
+  public ImmutableList<ImmutableList<Step>> getStages() {
+    return stages;
+  }
+
+  private void runStage(int stage, Supplier<Boolean> running) {
+    for (Step step : stages.get(stage)) {
+      if (!running.get()) {
+        break;
+      }
+      final long start = System.nanoTime();
+      step.runPerform(false);
+      final long elapsed = System.nanoTime() - start;
+      // Steps that don't need to run take almost no time, so let the cost decay slowly instead of
+      // dropping straight to zero whenever a step is skipped
+      costs.merge(step, elapsed, (previous, current) -> Math.max(current, previous - previous / 8));
+    }
+  }
+
+  private void handOff(int stage, Supplier<Boolean> running) throws InterruptedException {
+    final Boundary boundary = boundaries.get(stage);
+    boundary.free.acquire();
+    final int[] slots = boundary.capture();
+    stageExecutors.get(stage).execute(() -> runLaterStage(stage + 1, slots, running));
+  }
+
+  private void runLaterStage(int stage, int[] slots, Supplier<Boolean> running) {
+    final Boundary incoming = boundaries.get(stage - 1);
+    try {
+      incoming.apply(slots);
+      if (stage == stages.size() - 1) {
+        finalStageWrapper.accept(() -> runStage(stage, running));
+      } else {
+        runStage(stage, running);
+        handOff(stage, running);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Stage " + stage + " of the pipeline failed", e);
+    } finally {
+      incoming.free.release();
+    }
+  }
+
+  private long slowestStage(ImmutableList<ImmutableList<Step>> stages) {
+    long slowest = 0;
+    for (ImmutableList<Step> stage : stages) {
+      slowest = Math.max(slowest, stage.stream().mapToLong(this::costOf).sum());
+    }
+    return slowest;
+  }
+
+  private long costOf(Step step) {
+    return Math.max(1, costs.getOrDefault(step, 1L));
+  }
+
+  /**
+   * Splits the steps into at most {@code maxStages} contiguous stages, trying to keep the total
+   * cost of each stage about the same.
+   */
+  private static ImmutableList<ImmutableList<Step>> partition(ImmutableList<Step> steps,
+                                                              int maxStages,
+                                                              Map<Step, Long> costs) {
+    final List<Step> sinks = new ArrayList<>();
+    final List<Step> others = new ArrayList<>();
+    for (Step step : steps) {
+      if (step.getOutputSockets().isEmpty()) {
+        sinks.add(step);
+      } else {
+        others.add(step);
+      }
+    }
+
+    final List<List<Step>> stages = new ArrayList<>();
+    final int stageCount = Math.min(maxStages, others.size());
+    long total = 0;
+    for (Step step : others) {
+      total += Math.max(1, costs.getOrDefault(step, 1L));
+    }
+    long cost = 0;
+    List<Step> current = new ArrayList<>();
+    for (int i = 0; i < others.size(); i++) {
+      final Step step = others.get(i);
+      current.add(step);
+      cost += Math.max(1, costs.getOrDefault(step, 1L));
+      final int stagesLeft = stageCount - stages.size() - 1;
+      final int stepsLeft = others.size() - i - 1;
+      if (stagesLeft > 0
+          && (stepsLeft == stagesLeft || cost * stageCount >= total * (stages.size() + 1))) {
+        stages.add(current);
+        current = new ArrayList<>();
+      }
+    }
+    if (!current.isEmpty()) {
+      stages.add(current);
+    }
+
+    if (!sinks.isEmpty()) {
+      if (stages.size() < maxStages) {
+        stages.add(sinks);
+      } else {
+        stages.get(stages.size() - 1).addAll(sinks);
+      }
+    }
+    if (stages.isEmpty()) {
+      stages.add(new ArrayList<>());
+    }
+    final ImmutableList.Builder<ImmutableList<Step>> partition = ImmutableList.builder();
+    for (List<Step> stage : stages) {
+      partition.add(ImmutableList.copyOf(stage));
+    }
+    return partition.build();
+  }
+
+  private static ImmutableList<Connection<?>> connectionsOf(ImmutableList<Step> steps) {
+    final ImmutableList.Builder<Connection<?>> connections = ImmutableList.builder();
+    for (Step step : steps) {
+      for (InputSocket<?> inputSocket : step.getInputSockets()) {
+        for (Connection<?> connection : inputSocket.getConnections()) {
+          connections.add(connection);
+        }
+      }
+    }
+    return connections.build();
+  }
+
+  /**
+   * The values that are handed from one stage to the next.
+   */
+  private static final class Boundary {
+    private static final int BUFFER_COUNT = 2;
+
+    private final ImmutableList<Carried> carried;
+    /**
+     * One permit for each buffer that the stage before this boundary can write a frame into.
+     */
+    private final Semaphore free = new Semaphore(BUFFER_COUNT);
+
+    private Boundary(ImmutableList<Carried> carried) {
+      this.carried = carried;
+    }
+
+    /**
+     * Copies the values for the frame that was just run into buffers. This must be called on the
+     * thread of the stage before this boundary.
+     *
+     * @return the buffer each value was copied into, or -1 for values that haven't changed
+     */
+    private int[] capture() {
+      final int[] slots = new int[carried.size()];
+      for (int i = 0; i < slots.length; i++) {
+        slots[i] = carried.get(i).capture();
+      }
+      return slots;
+    }
+
+    /**
+     * Hands the values for a frame to the input sockets that read them. This must be called on the
+     * thread of the stage after this boundary.
+     */
+    private void apply(int[] slots) {
+      for (int i = 0; i < slots.length; i++) {
+        carried.get(i).apply(slots[i]);
+      }
+    }
+  }
+
+  /**
+   * The buffers for a single output socket's value at a single boundary.
+   */
+  private static final class Carried {
+    private final OutputSocket<?> socket;
+    /**
+     * The same value at the previous boundary, or null if it comes from the stage just before this
+     * boundary.
+     */
+    @Nullable
+    private final Carried upstream;
+    private final ImmutableList<Connection<?>> deferredConnections;
+    private final ImmutableList<Connection<?>> consumers;
+
+    private final Object[] images = new Object[Boundary.BUFFER_COUNT];
+    private final Optional<?>[] values = new Optional<?>[Boundary.BUFFER_COUNT];
+    @SuppressWarnings("unchecked")
+    private final Optional<FrameStamp>[] frameStamps = new Optional[Boundary.BUFFER_COUNT];
+
+    // Only used by the stage before the boundary
+    private int lastSlot = -1;
+
+    // Only used by the stage after the boundary
+    private Optional<?> current = Optional.empty();
+    private Optional<FrameStamp> currentFrameStamp = Optional.empty();
+    private boolean changed = false;
+
+    private Carried(OutputSocket<?> socket,
+                    @Nullable Carried upstream,
+                    ImmutableList<Connection<?>> deferredConnections,
+                    ImmutableList<Connection<?>> consumers) {
+      this.socket = socket;
+      this.upstream = upstream;
+      this.deferredConnections = deferredConnections;
+      this.consumers = consumers;
+    }
+
+    private int capture() {
+      boolean hasChanged = lastSlot < 0;
+      final Optional<?> value;
+      final Optional<FrameStamp> frameStamp;
+      if (upstream == null) {
+        for (Connection<?> connection : deferredConnections) {
+          hasChanged |= connection.takePendingChange();
+        }
+        value = socket.getValue();
+        frameStamp = socket.getFrameStamp();
+      } else {
+        hasChanged |= upstream.changed;
+        value = upstream.current;
+        frameStamp = upstream.currentFrameStamp;
+      }
+      if (!hasChanged) {
+        return -1;
+      }
+      // The other buffer is the one that was written before the last change, which the next stage
+      // has stopped using by the time this stage is allowed to start another frame
+      final int slot = lastSlot == 0 ? 1 : 0;
+      values[slot] = copy(value, slot);
+      frameStamps[slot] = frameStamp;
+      lastSlot = slot;
+      return slot;
+    }
+
+    private Optional<?> copy(Optional<?> value, int slot) {
+      if (!value.isPresent()) {
+        return value;
+      }
+      final Object image = value.get();
+      if (image instanceof MatWrapper) {
+        if (!(images[slot] instanceof MatWrapper)) {
+          images[slot] = MatWrapper.emptyWrapper();
+        }
+        ((MatWrapper) images[slot]).set((MatWrapper) image);
+        return Optional.of(images[slot]);
+      } else if (image instanceof Mat) {
+        if (!(images[slot] instanceof Mat)) {
+          images[slot] = new Mat();
+        }
+        ((Mat) image).copyTo((Mat) images[slot]);
+        return Optional.of(images[slot]);
+      }
+      return value;
+    }
+
+    private void apply(int slot) {
+      changed = slot >= 0;
+      if (changed) {
+        current = values[slot];
+        currentFrameStamp = frameStamps[slot];
+        for (Connection<?> connection : consumers) {
+          connection.setDeferredFrameStamp(currentFrameStamp);
+          setInput(connection, current);
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void setInput(Connection<T> connection, Optional<?> value) {
+      connection.getInputSocket().setValueOptional((Optional<? extends T>) value);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package edu.wpi.grip.core;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Identifies the frame that a socket's value was made from. Each {@link Source} stamps its outputs
+ * with the time its latest value was captured and the number of values it has emitted, and each
+ * step passes the stamp of its newest input on to its outputs. This lets anything downstream tell
+ * how old the data it's working with is.
+ */
+@Immutable
+public final class FrameStamp {
+
+  private final long captureTime;
+  private final long sequence;
+
+  /**
+   * Creates a new frame stamp.
+   *
+   * @param captureTime the time the frame was captured, as given by {@link System#nanoTime()}
+   * @param sequence    the number of frames the source has emitted, including this one
+   */
+  public FrameStamp(long captureTime, long sequence) {
+    this.captureTime = captureTime;
+    this.sequence = sequence;
+  }
+
+  /**
+   * Gets the time the frame was captured, as given by {@link System#nanoTime()}. This is only
+   * meaningful when compared to other times from the same clock.
+   */
+  public long getCaptureTime() {
+    return captureTime;
+  }
+
+  /**
+   * Gets the number of frames the source had emitted when it emitted this one. Gaps between the
+   * sequence numbers of frames that reach the end of the pipeline mean frames were skipped.
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Gets how long ago the frame was captured.
+   *
+   * @param unit the unit to get the age in
+   */
+  public long getAge(TimeUnit unit) {
+    return unit.convert(System.nanoTime() - captureTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the more recently captured of two stamps.
+   *
+   * @param first  a stamp, or empty if there isn't one
+   * @param second another stamp, or empty if there isn't one
+   * @return the newest stamp, or empty if neither is present
+   */
+  public static Optional<FrameStamp> newest(Optional<FrameStamp> first,
+                                            Optional<FrameStamp> second) {
+    if (!first.isPresent()) {
+      return second;
+    }
+    if (!second.isPresent()) {
+      return first;
+    }
+    return second.get().captureTime - first.get().captureTime > 0 ? second : first;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("captureTime", captureTime)
+        .add("sequence", sequence)
+        .toString();
+  }
+}
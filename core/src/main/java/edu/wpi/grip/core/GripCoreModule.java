@@ -8,6 +8,8 @@ import edu.wpi.grip.core.cuda.NullCudaDetector;
 import edu.wpi.grip.core.events.EventLogger;
 import edu.wpi.grip.core.events.UnexpectedThrowableEvent;
 import edu.wpi.grip.core.metrics.BenchmarkRunner;
+import edu.wpi.grip.core.metrics.LatencyTracker;
+import edu.wpi.grip.core.metrics.NativeMemoryTracker;
 import edu.wpi.grip.core.metrics.Timer;
 import edu.wpi.grip.core.serialization.Project;
 import edu.wpi.grip.core.settings.SettingsProvider;
@@ -128,6 +130,8 @@ public class GripCoreModule extends AbstractModule {
     install(new FactoryModuleBuilder().build(Timer.Factory.class));
 
     bind(BenchmarkRunner.class).asEagerSingleton();
+    bind(LatencyTracker.class).asEagerSingleton();
+    bind(NativeMemoryTracker.class).asEagerSingleton();
 
     bind(Cleaner.class).asEagerSingleton();
   }
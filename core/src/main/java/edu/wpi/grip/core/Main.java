@@ -6,6 +6,7 @@ import edu.wpi.grip.core.events.ExceptionEvent;
 import edu.wpi.grip.core.exception.GripServerException;
 import edu.wpi.grip.core.http.GripServer;
 import edu.wpi.grip.core.http.HttpPipelineSwitcher;
+import edu.wpi.grip.core.http.NativeMemoryHandler;
 import edu.wpi.grip.core.operations.CVOperations;
 import edu.wpi.grip.core.operations.Operations;
 import edu.wpi.grip.core.operations.network.GripNetworkModule;
@@ -52,6 +53,10 @@ public class Main {
   private GripServer gripServer;
   @Inject
   private HttpPipelineSwitcher pipelineSwitcher;
+  @Inject
+  private NativeMemoryHandler memoryHandler;
+  @Inject
+  private BatchBenchmark batchBenchmark;
 
   @SuppressWarnings("JavadocMethod")
   public static void main(String[] args) throws IOException, InterruptedException {
@@ -79,6 +84,7 @@ public class Main {
     operations.addOperations();
     cvOperations.addOperations();
     gripServer.addHandler(pipelineSwitcher);
+    gripServer.addHandler(memoryHandler);
 
     CoreCommandLineHelper commandLineHelper = new CoreCommandLineHelper();
     CommandLine parsedArgs = commandLineHelper.parse(args);
@@ -86,6 +92,17 @@ public class Main {
     commandLineHelper.loadFile(parsedArgs, project);
     commandLineHelper.setServerPort(parsedArgs, settingsProvider, eventBus);
 
+    if (commandLineHelper.isBenchmark(parsedArgs)) {
+      // Benchmarks don't need the server, and exit as soon as they're done
+      try {
+        commandLineHelper.runBenchmark(parsedArgs, batchBenchmark);
+      } catch (IOException | IllegalStateException e) {
+        logger.log(Level.SEVERE, "The benchmark could not be run", e);
+        SafeShutdown.exit(SafeShutdown.ExitCode.MISC_ERROR);
+      }
+      SafeShutdown.exit(SafeShutdown.ExitCode.SAFE_SHUTDOWN);
+    }
+
     // This will throw an exception if the port specified by the save file or command line
     // argument is already taken. Since we have to have the server running to handle remotely
     // loading pipelines and uploading images, as well as potential HTTP publishing operations,
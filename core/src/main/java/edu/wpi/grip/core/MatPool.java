@@ -0,0 +1,224 @@
+package edu.wpi.grip.core;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A pool of native {@link Mat Mats}, keyed by their size and type. Operations that need scratch
+ * images every time they run can borrow them from the pool instead of allocating new native memory
+ * each frame, which JavaCV would otherwise only free once the garbage collector gets around to it.
+ *
+ * <p>Mats are borrowed as {@link PooledMat PooledMats}, which are returned to the pool when
+ * closed. A Mat that has been idle in the pool for too long, or that doesn't fit in the pool, is
+ * deallocated straight away.
+ *
+ * <pre><code>
+ *   try (PooledMat tmp = MatPool.shared().acquire(rows, cols, type)) {
+ *     input.copyTo(tmp.get());
+ *     ...
+ *   }
+ * </code></pre>
+ */
+public final class MatPool {
+
+  /**
+   * The most Mats of a single size and type that are kept in the pool.
+   */
+  private static final int MAX_PER_BUCKET = 8;
+  /**
+   * The most native memory, in bytes, that the pool will hold on to at once.
+   */
+  private static final long MAX_POOLED_BYTES = 256L * 1024 * 1024;
+  /**
+   * How many calls to {@link #trim()} a size and type can go unused for before its Mats are freed.
+   */
+  private static final int MAX_IDLE_TRIMS = 30;
+
+  private static final MatPool SHARED = new MatPool(MAX_PER_BUCKET, MAX_POOLED_BYTES);
+
+  private final int maxPerBucket;
+  private final long maxPooledBytes;
+  private final Map<SizeAndType, Bucket> buckets = new HashMap<>();
+  /**
+   * Scratch mats that were acquired without a size, and can be any size when returned.
+   */
+  private final Bucket scratch = new Bucket();
+  private long pooledBytes = 0;
+  private long generation = 0;
+
+  @VisibleForTesting
+  MatPool(int maxPerBucket, long maxPooledBytes) {
+    checkArgument(maxPerBucket >= 0, "maxPerBucket cannot be negative");
+    checkArgument(maxPooledBytes >= 0, "maxPooledBytes cannot be negative");
+    this.maxPerBucket = maxPerBucket;
+    this.maxPooledBytes = maxPooledBytes;
+  }
+
+  /**
+   * Gets the pool shared by the whole application.
+   */
+  public static MatPool shared() {
+    return SHARED;
+  }
+
+  /**
+   * Borrows a Mat with the given size and type. The contents of the Mat are undefined.
+   *
+   * @param rows the number of rows in the mat
+   * @param cols the number of columns in the mat
+   * @param type the OpenCV type of the mat, eg {@code CV_8UC3}
+   */
+  public PooledMat acquire(int rows, int cols, int type) {
+    final SizeAndType key = new SizeAndType(rows, cols, type);
+    Mat mat;
+    synchronized (this) {
+      mat = take(buckets.get(key));
+    }
+    if (mat == null) {
+      mat = new Mat(rows, cols, type);
+    }
+    return new PooledMat(this, mat, true);
+  }
+
+  /**
+   * Borrows a Mat to be used as scratch space by an OpenCV function that sizes its own output. The
+   * Mat may have any size and type, and OpenCV will only reallocate it if it needs to.
+   */
+  public PooledMat acquire() {
+    Mat mat;
+    synchronized (this) {
+      mat = take(scratch);
+    }
+    if (mat == null) {
+      mat = new Mat();
+    }
+    return new PooledMat(this, mat, false);
+  }
+
+  /**
+   * Returns a mat to the pool. This is called by {@link PooledMat#close()} once nothing is using
+   * the mat any more.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  void release(Mat mat, boolean sized) {
+    final long bytes = bytesOf(mat);
+    synchronized (this) {
+      final Bucket bucket = sized
+          ? buckets.computeIfAbsent(new SizeAndType(mat.rows(), mat.cols(), mat.type()),
+              key -> new Bucket())
+          : scratch;
+      if (bucket.mats.size() < maxPerBucket && pooledBytes + bytes <= maxPooledBytes) {
+        bucket.mats.push(mat);
+        bucket.lastUsed = generation;
+        pooledBytes += bytes;
+        return;
+      }
+    }
+    mat.deallocate();
+  }
+
+  /**
+   * Frees every Mat of a size and type that hasn't been borrowed or returned in the last few
+   * calls. This should be called regularly, eg once each time the pipeline runs.
+   */
+  public void trim() {
+    final Deque<Mat> idle = new ArrayDeque<>();
+    synchronized (this) {
+      generation++;
+      for (Iterator<Bucket> it = buckets.values().iterator(); it.hasNext(); ) {
+        final Bucket bucket = it.next();
+        if (generation - bucket.lastUsed > MAX_IDLE_TRIMS) {
+          idle.addAll(bucket.mats);
+          it.remove();
+        }
+      }
+      if (generation - scratch.lastUsed > MAX_IDLE_TRIMS) {
+        idle.addAll(scratch.mats);
+        scratch.mats.clear();
+      }
+      for (Mat mat : idle) {
+        pooledBytes -= bytesOf(mat);
+      }
+    }
+    idle.forEach(Mat::deallocate);
+  }
+
+  /**
+   * Gets the number of bytes of native memory held by the Mats sitting in the pool.
+   */
+  public synchronized long getPooledBytes() {
+    return pooledBytes;
+  }
+
+  /**
+   * Gets the number of Mats sitting in the pool.
+   */
+  public synchronized int getPooledCount() {
+    int count = scratch.mats.size();
+    for (Bucket bucket : buckets.values()) {
+      count += bucket.mats.size();
+    }
+    return count;
+  }
+
+  @Nullable
+  private Mat take(@Nullable Bucket bucket) {
+    if (bucket == null || bucket.mats.isEmpty()) {
+      return null;
+    }
+    final Mat mat = bucket.mats.pop();
+    bucket.lastUsed = generation;
+    pooledBytes -= bytesOf(mat);
+    return mat;
+  }
+
+  private static long bytesOf(Mat mat) {
+    return mat.total() * mat.elemSize();
+  }
+
+  private static final class Bucket {
+    private final Deque<Mat> mats = new ArrayDeque<>();
+    private long lastUsed = 0;
+  }
+
+  private static final class SizeAndType {
+    private final int rows;
+    private final int cols;
+    private final int type;
+
+    private SizeAndType(int rows, int cols, int type) {
+      this.rows = rows;
+      this.cols = cols;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SizeAndType)) {
+        return false;
+      }
+      final SizeAndType other = (SizeAndType) o;
+      return rows == other.rows && cols == other.cols && type == other.type;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(rows, cols, type);
+    }
+  }
+}
@@ -3,7 +3,9 @@ package edu.wpi.grip.core;
 import org.bytedeco.javacpp.opencv_core;
 import org.bytedeco.javacpp.opencv_core.GpuMat;
 import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Rect;
 import org.bytedeco.javacpp.opencv_core.Size;
+import org.bytedeco.javacpp.opencv_core.UMatData;
 
 import java.util.Objects;
 import java.util.function.Function;
@@ -36,6 +38,15 @@ import static org.bytedeco.javacpp.opencv_core.IPL_DEPTH_8U;
  * host memory to device, if the wrapper was most recently accessed from CPU code (from either
  * {@link #getCpu()} or {@link #rawCpu()}). This behavior also applies in the reverse, for wrappers
  * accessed from CPU land when they have been most recently used from CUDA code.
+ *
+ * <p>A wrapper may also be a {@link #setRegion(MatWrapper, Rect) region} of a larger image,
+ * sharing that image's data instead of copying it. Every wrapper knows its {@link #originX()
+ * origin}, the position of its top-left pixel in the full frame it came from, so that operations
+ * that only process part of a frame can report what they find in the coordinates of the full
+ * frame. Operations whose output lines up pixel-for-pixel with their input should pass the origin
+ * along with {@link #copyOrigin(MatWrapper)}. An image that was scaled down from the full frame
+ * also has a {@link #scale() scale}, so a point in it is at {@code origin + scale * point} in the
+ * full frame.
  */
 @SuppressWarnings("PMD.GodClass")
 public final class MatWrapper {
@@ -55,6 +66,18 @@ public final class MatWrapper {
    */
   private boolean changed = false;
 
+  /**
+   * Flags whether or not one of the wrapped mats shares its data with another image, because this
+   * is a region of that image. The mats are detached before anything is written to them, so that
+   * the other image isn't modified.
+   */
+  private boolean view = false;
+
+  // The position of the top-left pixel of this image in the full frame
+  private int originX = 0;
+  private int originY = 0;
+  private int scale = 1;
+
   /**
    * Creates an empty wrapper. Both mats are empty and the wrapper is treated as a CPU mat.
    */
@@ -108,26 +131,32 @@ public final class MatWrapper {
   /**
    * Gets the raw CPU mat. This should only be used when this mat is used as a {@code dst} parameter
    * to an OpenCV function. If you want to get the current value as a mat in host memory, use
-   * {@link #getCpu()}.
+   * {@link #getCpu()}. This resets the origin, since the new image may not line up with the old
+   * one; operations whose output does should {@link #copyOrigin(MatWrapper) copy the origin}
+   * afterwards.
    */
   public Mat rawCpu() {
     // Assume the mat is about to be modified as a `dst` parameter to an OpenCV function
     // running on the CPU
+    detachView();
     isCpu = true;
     changed = true;
+    resetOrigin();
     return cpuMat;
   }
 
   /**
    * Gets the raw GPU mat. This should only be used when this mat is used as a {@code dst} parameter
    * to an OpenCV function. If you want to get the current value as a mat in GPU memory, use
-   * {@link #getGpu()}.
+   * {@link #getGpu()}. Like {@link #rawCpu()}, this resets the origin.
    */
   public GpuMat rawGpu() {
     // Assume the mat is about to be modified as a `dst` parameter to an OpenCV function
     // running on a CUDA device
+    detachView();
     isCpu = false;
     changed = true;
+    resetOrigin();
     return gpuMat;
   }
 
@@ -162,23 +191,29 @@ public final class MatWrapper {
   /**
    * Sets this as being backed by an image in host memory. The data in the given mat will be copied
    * into the internal CPU mat, but not the GPU mat until {@link #getGpu()} is called. This avoids
-   * unnecessary memory copies between GPU and host memory.
+   * unnecessary memory copies between GPU and host memory. The origin is reset, since a mat has
+   * none.
    */
   public void set(Mat mat) {
+    detachView();
     mat.copyTo(cpuMat);
     isCpu = true;
     changed = true;
+    resetOrigin();
   }
 
   /**
    * Sets this as being backed by an image in GPU memory. The data in the given mat will be copied
    * into the internal GPU mat, but not the mat residing in host memory until {@link #getCpu()} is
-   * called. This avoids unnecessary memory copies between GPU and host memory.
+   * called. This avoids unnecessary memory copies between GPU and host memory. The origin is
+   * reset, since a mat has none.
    */
   public void set(GpuMat mat) {
+    detachView();
     gpuMat.put(mat);
     isCpu = false;
     changed = true;
+    resetOrigin();
   }
 
   /**
@@ -191,6 +226,160 @@ public final class MatWrapper {
     } else {
       set(wrapper.gpuMat);
     }
+    copyOrigin(wrapper);
+  }
+
+  /**
+   * Sets this as being a region of another image. No data is copied; this wrapper shares the data
+   * of the other image until something is written to it.
+   *
+   * @param source the image to take the region of
+   * @param region the region to take, in the coordinates of {@code source}
+   */
+  public void setRegion(MatWrapper source, Rect region) {
+    if (source.isCpu()) {
+      final Mat cpuRegion = source.getCpu().apply(region);
+      gpuMat.release();
+      cpuMat.put(cpuRegion);
+      isCpu = true;
+    } else {
+      final GpuMat gpuRegion = source.getGpu().apply(region);
+      cpuMat.release();
+      gpuMat.put(gpuRegion);
+      isCpu = false;
+    }
+    changed = true;
+    view = true;
+    originX = source.originX + source.scale * region.x();
+    originY = source.originY + source.scale * region.y();
+    scale = source.scale;
+  }
+
+  /**
+   * Makes this an empty image. Operations output an empty image when they're given one, such as a
+   * region with no candidates in it, so that the steps after them have nothing to do instead of
+   * failing.
+   */
+  public void clear() {
+    // The data is dropped rather than written to, so a view doesn't need to be copied
+    view = false;
+    cpuMat.release();
+    gpuMat.release();
+    isCpu = true;
+    changed = false;
+    resetOrigin();
+  }
+
+  /**
+   * Sets the origin and scale of this image to be the same as those of another. This is for
+   * operations whose output is the same size as their input and lines up with it pixel-for-pixel.
+   */
+  public void copyOrigin(MatWrapper wrapper) {
+    originX = wrapper.originX;
+    originY = wrapper.originY;
+    scale = wrapper.scale;
+  }
+
+  /**
+   * Sets the origin of this image to be the same as the origin of another that this is a scaled
+   * down copy of.
+   *
+   * @param wrapper the image this was scaled down from
+   * @param factor  how many times smaller this image is than the other along each side
+   */
+  public void copyOriginDownscaled(MatWrapper wrapper, int factor) {
+    originX = wrapper.originX;
+    originY = wrapper.originY;
+    scale = wrapper.scale * factor;
+  }
+
+  /**
+   * Gets the X-coordinate of the top-left pixel of this image in the full frame it came from. This
+   * is 0 unless this image was taken from a {@link #setRegion(MatWrapper, Rect) region} of a frame.
+   */
+  public int originX() {
+    return originX;
+  }
+
+  /**
+   * Gets the Y-coordinate of the top-left pixel of this image in the full frame it came from. This
+   * is 0 unless this image was taken from a {@link #setRegion(MatWrapper, Rect) region} of a frame.
+   */
+  public int originY() {
+    return originY;
+  }
+
+  /**
+   * Gets the width of the area of the full frame that each pixel in this image covers. This is 1
+   * unless this image was {@link #copyOriginDownscaled(MatWrapper, int) scaled down} from a frame.
+   */
+  public int scale() {
+    return scale;
+  }
+
+  /**
+   * Stops sharing data with the image this is a region of, so that writing to this wrapper can't
+   * modify it. This copies the region, but only the first time this wrapper is written to after
+   * it's {@link #setRegion(MatWrapper, Rect) set}.
+   */
+  private void detachView() {
+    if (view) {
+      if (isCpu) {
+        cpuMat.put(cpuMat.clone());
+      } else {
+        gpuMat.put(gpuMat.clone());
+      }
+      view = false;
+    }
+  }
+
+  /**
+   * Sets this as being backed by the data of the given mat in host memory, without copying it.
+   * The two are swapped, so afterwards the given mat holds the data this wrapper had in host
+   * memory, which the caller can reuse as a buffer. This is useful for handing frames from a
+   * separate thread to the pipeline.
+   *
+   * <p>If that data is still shared with another image, such as a {@link #setRegion(MatWrapper,
+   * Rect) region} of this one, the given mat is released instead, so that writing the next frame
+   * into it allocates a new buffer rather than overwriting the other image.
+   */
+  public void swap(Mat mat) {
+    // The old data is given away instead of being written to, so a view doesn't need to be copied
+    view = false;
+    opencv_core.swap(cpuMat, mat);
+    if (isShared(mat)) {
+      mat.release();
+    }
+    isCpu = true;
+    changed = true;
+    resetOrigin();
+  }
+
+  /**
+   * Makes this image the full frame, with its top-left pixel at the origin.
+   */
+  private void resetOrigin() {
+    originX = 0;
+    originY = 0;
+    scale = 1;
+  }
+
+  /**
+   * Checks if the data of a mat is referenced by any other mat.
+   */
+  private static boolean isShared(Mat mat) {
+    final UMatData data = mat.u();
+    return data != null && !data.isNull() && data.refcount() > 1;
+  }
+
+  /**
+   * Gets the number of bytes of native memory held by both wrapped images. Unlike the other
+   * accessors, this does not copy data between host and GPU memory.
+   */
+  public long nativeBytes() {
+    final long cpuBytes = cpuMat.isNull() ? 0 : cpuMat.total() * cpuMat.elemSize();
+    final long gpuBytes = gpuMat.isNull() ? 0 : gpuMat.rows() * gpuMat.step();
+    return cpuBytes + gpuBytes;
   }
 
   /**
@@ -357,6 +546,7 @@ public final class MatWrapper {
    * @param type New matrix type.
    */
   public void create(int rows, int cols, int type) {
+    detachView();
     if (isCpu) {
       cpuMat.create(rows, cols, type);
     } else {
@@ -371,6 +561,7 @@ public final class MatWrapper {
    * @param value Assigned scalar converted to the actual array type.
    */
   public MatWrapper put(opencv_core.Scalar value) {
+    detachView();
     if (isCpu()) {
       cpuMat.put(value);
     } else {
@@ -2,18 +2,19 @@ package edu.wpi.grip.core;
 
 
 import edu.wpi.grip.core.events.BenchmarkEvent;
+import edu.wpi.grip.core.events.ProjectSettingsChangedEvent;
 import edu.wpi.grip.core.events.RenderEvent;
 import edu.wpi.grip.core.events.RunPipelineEvent;
 import edu.wpi.grip.core.events.RunStartedEvent;
 import edu.wpi.grip.core.events.RunStoppedEvent;
 import edu.wpi.grip.core.events.StopPipelineEvent;
 import edu.wpi.grip.core.metrics.Timer;
+import edu.wpi.grip.core.settings.PipelineExecutionMode;
 import edu.wpi.grip.core.util.SinglePermitSemaphore;
 import edu.wpi.grip.core.util.service.AutoRestartingService;
 import edu.wpi.grip.core.util.service.LoggingListener;
 import edu.wpi.grip.core.util.service.RestartableService;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.EventBus;
@@ -23,7 +24,11 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -31,6 +36,7 @@ import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -38,10 +44,26 @@ import static com.google.common.base.Preconditions.checkNotNull;
 /**
  * Runs the pipeline in a separate thread. The runner listens for {@link RunPipelineEvent
  * RunPipelineEvents} and releases the pipeline thread to update the sources and run the steps.
+ *
+ * <p>By default, steps are run one at a time in pipeline order. When the project's {@link
+ * PipelineExecutionMode execution mode} is {@link PipelineExecutionMode#PARALLEL_BRANCHES}, the
+ * steps are instead run on a fork-join pool bounded by the number of available processors, and
+ * branches of the pipeline that don't depend on each other are run concurrently. In {@link
+ * PipelineExecutionMode#FRAME_PIPELINED} mode, the steps are split into stages that each run on
+ * their own thread, so the next frame can be started as soon as the first stage is done with the
+ * last one. See {@link FramePipeline}. {@link RunStartedEvent RunStartedEvents} and {@link
+ * RunStoppedEvent RunStoppedEvents} are then posted around the last stage of each frame, which is
+ * where any publishing steps are run. Pipelines that are being benchmarked are always run one frame
+ * at a time.
  */
 @Singleton
 public class PipelineRunner implements RestartableService {
   private static final Logger logger = Logger.getLogger(PipelineRunner.class.getName());
+  /**
+   * The most stages that a pipeline will be split into in
+   * {@link PipelineExecutionMode#FRAME_PIPELINED} mode.
+   */
+  private static final int MAX_PIPELINE_STAGES = 4;
   /**
    * This is used to flag that the pipeline needs to run because of an update.
    */
@@ -49,8 +71,35 @@ public class PipelineRunner implements RestartableService {
   private final Supplier<ImmutableList<Source>> sourceSupplier;
   private final Supplier<ImmutableList<Step>> stepSupplier;
   private final AutoRestartingService pipelineService;
+  private final EventBus eventBus;
+  private final Timer timer;
 
   private final AtomicBoolean benchmarking = new AtomicBoolean(false);
+  private volatile PipelineExecutionMode executionMode = PipelineExecutionMode.SEQUENTIAL;
+  /**
+   * The pool that steps are run on in {@link PipelineExecutionMode#PARALLEL_BRANCHES} mode. This is
+   * only created the first time it's needed, so sequential pipelines never start any extra threads,
+   * and is shut down when the runner stops.
+   */
+  @GuardedBy("this")
+  @Nullable
+  private ForkJoinPool stepPool;
+  /**
+   * How long each step has recently taken, used to balance the stages of a frame pipeline.
+   */
+  private final Map<Step, Long> stepCosts = new ConcurrentHashMap<>();
+  /**
+   * The stages that the pipeline is currently split into in
+   * {@link PipelineExecutionMode#FRAME_PIPELINED} mode. This is only used by the pipeline thread.
+   */
+  @Nullable
+  private FramePipeline framePipeline;
+  /**
+   * The steps in the last stage of the {@link #framePipeline}, or null if it only has one stage.
+   * This is set before the frame pipeline runs any frames and read by its last stage.
+   */
+  @Nullable
+  private volatile ImmutableList<Step> finalStageSteps;
 
   @Inject
   PipelineRunner(EventBus eventBus,
@@ -68,7 +117,8 @@ public class PipelineRunner implements RestartableService {
                  Timer.Factory timerFactory) {
     this.sourceSupplier = sourceSupplier;
     this.stepSupplier = stepSupplier;
-    Timer timer = timerFactory.create(this);
+    this.eventBus = eventBus;
+    this.timer = timerFactory.create(this);
     this.pipelineService = new AutoRestartingService<>(
         () -> new AbstractScheduledService() {
 
@@ -83,6 +133,13 @@ public class PipelineRunner implements RestartableService {
             }
 
             pipelineFlag.acquire();
+            if (executionMode == PipelineExecutionMode.FRAME_PIPELINED && !benchmarking.get()) {
+              if (super.isRunning()) {
+                runFramePipelined(super::isRunning);
+              }
+              return;
+            }
+            closeFramePipeline();
             eventBus.post(new RunStartedEvent());
 
             if (!super.isRunning()) {
@@ -96,6 +153,12 @@ public class PipelineRunner implements RestartableService {
             }
           }
 
+          @Override
+          protected void shutDown() {
+            closeFramePipeline();
+            shutDownStepPool();
+          }
+
           @Override
           protected Scheduler scheduler() {
             return Scheduler.newFixedRateSchedule(0, 1, TimeUnit.MILLISECONDS);
@@ -180,9 +243,15 @@ public class PipelineRunner implements RestartableService {
   }
 
   /**
-   * This runs the pipeline immediately in the current thread.
+   * Runs the pipeline once, immediately, in the current thread, using the current execution mode
+   * but never splitting it into a frame pipeline. No events are posted. This is how
+   * {@link BatchBenchmark} runs the pipeline on frames of its own, and how tests run it
+   * deterministically.
+   *
+   * <p>This must only be called while the runner is stopped, since otherwise it would run the
+   * steps at the same time as the pipeline thread.
    */
-  @VisibleForTesting
+  @SuppressWarnings("PMD.DefaultPackage")
   void runPipeline() {
     runPipeline(() -> true);
   }
@@ -201,8 +270,19 @@ public class PipelineRunner implements RestartableService {
         if (!isRunning.get()) {
           break;
         }
-        source.updateOutputSockets();
+        source.updateAndStampOutputSockets();
+      }
+    }
+
+    if (executionMode == PipelineExecutionMode.PARALLEL_BRANCHES && steps.size() > 1) {
+      try {
+        new StepGraph(steps).run(getStepPool(), benchmarking.get(), isRunning);
+      } catch (InterruptedException e) {
+        // The pipeline is being stopped, and every step that was running has finished. Let the
+        // service see the interrupt.
+        Thread.currentThread().interrupt();
       }
+      return;
     }
 
     for (Step step : steps) {
@@ -213,6 +293,82 @@ public class PipelineRunner implements RestartableService {
     }
   }
 
+  private void runFramePipelined(Supplier<Boolean> isRunning) throws InterruptedException {
+    final ImmutableList<Step> steps = stepSupplier.get();
+    if (framePipeline == null || !framePipeline.canRun(steps)) {
+      closeFramePipeline();
+      final int stageCount = Math.max(2,
+          Math.min(MAX_PIPELINE_STAGES, Runtime.getRuntime().availableProcessors()));
+      final FramePipeline newPipeline =
+          new FramePipeline(steps, stageCount, stepCosts, this::runFinalStage);
+      final ImmutableList<ImmutableList<Step>> stages = newPipeline.getStages();
+      finalStageSteps = stages.size() > 1 ? stages.get(stages.size() - 1) : null;
+      framePipeline = newPipeline;
+    }
+    framePipeline.runFrame(sourceSupplier.get(), isRunning);
+  }
+
+  /**
+   * Runs the last stage of a frame in {@link PipelineExecutionMode#FRAME_PIPELINED} mode. This is
+   * called on the last stage's thread, and posts the same events as a normal run of the pipeline,
+   * except that only the outputs of the last stage's steps are settled once it stops.
+   */
+  private void runFinalStage(Runnable finalStage) {
+    final ImmutableList<Step> settledSteps = finalStageSteps;
+    eventBus.post(new RunStartedEvent());
+    try {
+      timer.time(finalStage);
+    } finally {
+      eventBus.post(settledSteps == null
+          ? new RunStoppedEvent()
+          : new RunStoppedEvent(settledSteps));
+    }
+    if (isRunning()) {
+      eventBus.post(new RenderEvent());
+    }
+  }
+
+  /**
+   * Waits for any frames left in the frame pipeline to finish and stops its threads.
+   */
+  private void closeFramePipeline() {
+    if (framePipeline != null) {
+      framePipeline.close();
+      framePipeline = null;
+    }
+  }
+
+  private synchronized ForkJoinPool getStepPool() {
+    if (stepPool == null) {
+      stepPool = createStepPool();
+    }
+    return stepPool;
+  }
+
+  /**
+   * Shuts down the step pool, if it was created. Every step has finished by the time the pipeline
+   * thread stops, so this doesn't wait for anything.
+   */
+  private synchronized void shutDownStepPool() {
+    if (stepPool != null) {
+      stepPool.shutdown();
+      stepPool = null;
+    }
+  }
+
+  private static ForkJoinPool createStepPool() {
+    return new ForkJoinPool(
+        Runtime.getRuntime().availableProcessors(),
+        pool -> {
+          final ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName("Pipeline Step Worker " + thread.getPoolIndex());
+          return thread;
+        },
+        null,
+        false);
+  }
+
   @Subscribe
   @AllowConcurrentEvents
   public void onRunPipeline(RunPipelineEvent event) {
@@ -227,6 +383,11 @@ public class PipelineRunner implements RestartableService {
     stopAsync();
   }
 
+  @Subscribe
+  public void onProjectSettingsChanged(ProjectSettingsChangedEvent event) {
+    executionMode = event.getProjectSettings().getExecutionMode();
+  }
+
   @Subscribe
   public void onBenchmarkEvent(BenchmarkEvent event) {
     benchmarking.set(event.isStart());
@@ -0,0 +1,64 @@
+package edu.wpi.grip.core;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A {@link Mat} borrowed from a {@link MatPool}. This is reference counted: it starts with a single
+ * reference, each call to {@link #retain()} adds one, and each call to {@link #close()} removes
+ * one. The mat is returned to the pool when the last reference is closed, after which it must not
+ * be used.
+ */
+public final class PooledMat implements AutoCloseable {
+
+  private final MatPool pool;
+  private final Mat mat;
+  private final boolean sized;
+  private final AtomicInteger references = new AtomicInteger(1);
+
+  PooledMat(MatPool pool, Mat mat, boolean sized) {
+    this.pool = pool;
+    this.mat = mat;
+    this.sized = sized;
+  }
+
+  /**
+   * Gets the borrowed mat.
+   *
+   * @throws IllegalStateException if the mat has already been returned to the pool
+   */
+  public Mat get() {
+    checkState(references.get() > 0, "This mat has already been returned to the pool");
+    return mat;
+  }
+
+  /**
+   * Adds a reference to this mat, so it won't be returned to the pool until {@link #close()} has
+   * been called one more time.
+   *
+   * @return this pooled mat
+   * @throws IllegalStateException if the mat has already been returned to the pool
+   */
+  public PooledMat retain() {
+    checkState(references.getAndUpdate(count -> count > 0 ? count + 1 : count) > 0,
+        "This mat has already been returned to the pool");
+    return this;
+  }
+
+  /**
+   * Removes a reference to this mat, returning it to the pool if it was the last one.
+   *
+   * @throws IllegalStateException if the mat has already been returned to the pool
+   */
+  @Override
+  public void close() {
+    final int remaining = references.decrementAndGet();
+    checkState(remaining >= 0, "This mat has already been returned to the pool");
+    if (remaining == 0) {
+      pool.release(mat, sized);
+    }
+  }
+}
@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,6 +28,7 @@ import java.util.logging.Logger;
 public abstract class Source {
   private static final Logger logger = Logger.getLogger(Source.class.getName());
   private final ExceptionWitness exceptionWitness;
+  private final AtomicLong frameSequence = new AtomicLong();
 
   /**
    * @param exceptionWitnessFactory Factory to create the exceptionWitness.
@@ -68,6 +70,38 @@ public abstract class Source {
    */
   protected abstract boolean updateOutputSockets();
 
+  /**
+   * Updates the output sockets, and stamps them with a new {@link FrameStamp} if they were updated.
+   * This is how the pipeline updates sources, so that steps can tell which frame their inputs came
+   * from.
+   *
+   * @return true if there were updates moved into the sockets
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  final boolean updateAndStampOutputSockets() {
+    if (!updateOutputSockets()) {
+      return false;
+    }
+    final Optional<FrameStamp> stamp =
+        Optional.of(new FrameStamp(getCaptureTime(), frameSequence.incrementAndGet()));
+    for (OutputSocket<?> socket : createOutputSockets()) {
+      socket.setFrameStamp(stamp);
+    }
+    return true;
+  }
+
+  /**
+   * Gets the time that the values most recently moved into the output sockets were captured, as
+   * given by {@link System#nanoTime()}. By default this is the time they were moved into the
+   * sockets. Sources that know when their values were actually captured, such as cameras, should
+   * override this.
+   *
+   * @return the time the latest values were captured
+   */
+  protected long getCaptureTime() {
+    return System.nanoTime();
+  }
+
   /**
    * This is used for serialization/deserialization.
    *
@@ -75,6 +109,18 @@ public abstract class Source {
    */
   public abstract Properties getProperties();
 
+  /**
+   * Gets the number of bytes of native memory this source holds on to outside of its output
+   * sockets, such as a frame that has been grabbed but not yet copied into the pipeline. This is
+   * used to account for native memory, and is zero unless a source overrides it.
+   *
+   * @return the number of bytes of native memory held internally by this source
+   */
+  @SuppressWarnings("PMD.EmptyMethodInAbstractClassShouldBeAbstract")
+  public long getBufferedNativeBytes() {
+    return 0;
+  }
+
   protected ExceptionWitness getExceptionWitness() {
     return this.exceptionWitness;
   }
@@ -14,6 +14,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -130,11 +131,16 @@ public class Step {
       return;
     }
 
+    // The outputs are made from the newest frame that went into the inputs
+    final Optional<FrameStamp> frameStamp = newestInputFrameStamp();
     try {
       // We need to ensure that if perform disabled is switching states that we don't run the
       // perform method while that is happening.
       synchronized (removedLock) {
         if (!removed) {
+          for (OutputSocket<?> outputSocket : outputSockets) {
+            outputSocket.setFrameStamp(frameStamp);
+          }
           timer.time(this.operation::perform);
         }
       }
@@ -150,6 +156,17 @@ public class Step {
       return;
     }
     witness.clearException();
+    if (frameStamp.isPresent()) {
+      timer.recordFrameAge(frameStamp.get().getAge(TimeUnit.MICROSECONDS));
+    }
+  }
+
+  private Optional<FrameStamp> newestInputFrameStamp() {
+    Optional<FrameStamp> newest = Optional.empty();
+    for (InputSocket<?> inputSocket : inputSockets) {
+      newest = FrameStamp.newest(newest, inputSocket.getFrameStamp());
+    }
+    return newest;
   }
 
   /**
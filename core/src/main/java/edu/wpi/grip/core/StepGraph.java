@@ -0,0 +1,174 @@
+package edu.wpi.grip.core;
+
+import edu.wpi.grip.core.sockets.InputSocket;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A directed acyclic graph of the steps in a pipeline, built from the {@link Connection
+ * Connections} between them. A step depends on another step if any of its input sockets is
+ * connected to one of the other step's output sockets. Steps with no chain of connections between
+ * them are independent and can be run at the same time.
+ *
+ * <p>Connections from sources are not part of the graph, since every source is updated before any
+ * step is run.
+ */
+final class StepGraph {
+
+  private final ImmutableList<Step> steps;
+  /**
+   * The number of steps that each step directly depends on.
+   */
+  private final int[] dependencyCounts;
+  /**
+   * The indices of the steps that directly depend on each step.
+   */
+  private final int[][] dependents;
+
+  /**
+   * Builds the dependency graph for a snapshot of the steps in a pipeline.
+   *
+   * @param steps the steps to build the graph from, in pipeline order
+   */
+  public StepGraph(ImmutableList<Step> steps) {
+    this.steps = checkNotNull(steps, "steps");
+    final Map<Step, Integer> indices = new IdentityHashMap<>();
+    for (int i = 0; i < steps.size(); i++) {
+      indices.put(steps.get(i), i);
+    }
+
+    this.dependencyCounts = new int[steps.size()];
+    final List<Set<Integer>> dependentSets = new ArrayList<>(steps.size());
+    for (int i = 0; i < steps.size(); i++) {
+      dependentSets.add(new LinkedHashSet<>());
+    }
+
+    for (int i = 0; i < steps.size(); i++) {
+      // Several connections between the same two steps only count as one dependency
+      final Set<Integer> dependencies = new LinkedHashSet<>();
+      for (InputSocket<?> inputSocket : steps.get(i).getInputSockets()) {
+        for (Connection<?> connection : inputSocket.getConnections()) {
+          final Optional<Step> upstream = connection.getOutputSocket().getStep();
+          if (upstream.isPresent()) {
+            final Integer upstreamIndex = indices.get(upstream.get());
+            if (upstreamIndex != null && upstreamIndex != i) {
+              dependencies.add(upstreamIndex);
+            }
+          }
+        }
+      }
+      dependencyCounts[i] = dependencies.size();
+      for (int dependency : dependencies) {
+        dependentSets.get(dependency).add(i);
+      }
+    }
+
+    this.dependents = new int[steps.size()][];
+    for (int i = 0; i < steps.size(); i++) {
+      dependents[i] = Ints.toArray(dependentSets.get(i));
+    }
+  }
+
+  /**
+   * Runs every step in the graph using the given executor. A step is only handed to the executor
+   * once all the steps it depends on have finished, so independent branches of the pipeline run
+   * concurrently. This blocks until every step has either run or been skipped.
+   *
+   * @param executor  the executor to run the steps on
+   * @param force     if the steps should be forced to run. See {@link Step#runPerform(boolean)}
+   * @param isRunning checked before each step is run. Once this returns false, the remaining steps
+   *                  are skipped.
+   * @throws InterruptedException if the calling thread is interrupted while waiting for the steps
+   *                              to finish. The steps that haven't started yet are skipped, but
+   *                              this still waits for the ones that are running before throwing,
+   *                              so no step is left running on the executor.
+   */
+  public void run(Executor executor, boolean force, Supplier<Boolean> isRunning)
+      throws InterruptedException {
+    if (steps.isEmpty()) {
+      return;
+    }
+    final GraphRun run = new GraphRun(executor, force, isRunning);
+    for (int i = 0; i < steps.size(); i++) {
+      if (dependencyCounts[i] == 0) {
+        run.submit(i);
+      }
+    }
+    try {
+      run.remaining.await();
+    } catch (InterruptedException e) {
+      run.cancelled = true;
+      Uninterruptibles.awaitUninterruptibly(run.remaining);
+      throw e;
+    }
+
+    final Throwable failure = run.failure.get();
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+  }
+
+  /**
+   * The state of a single run through the graph.
+   */
+  private final class GraphRun {
+    private final Executor executor;
+    private final boolean force;
+    private final Supplier<Boolean> running;
+    private final AtomicIntegerArray pendingDependencies;
+    private final CountDownLatch remaining;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean cancelled = false;
+
+    private GraphRun(Executor executor, boolean force, Supplier<Boolean> running) {
+      this.executor = executor;
+      this.force = force;
+      this.running = running;
+      this.pendingDependencies = new AtomicIntegerArray(dependencyCounts);
+      this.remaining = new CountDownLatch(steps.size());
+    }
+
+    private void submit(int index) {
+      executor.execute(() -> runStep(index));
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private void runStep(int index) {
+      try {
+        // Once something has gone wrong or the run is cancelled we still walk the rest of the graph
+        // so that the latch is counted down, but we don't run any more steps.
+        if (failure.get() == null && !cancelled && running.get()) {
+          steps.get(index).runPerform(force);
+        }
+      } catch (Throwable throwable) {
+        failure.compareAndSet(null, throwable);
+      } finally {
+        for (int dependent : dependents[index]) {
+          if (pendingDependencies.decrementAndGet(dependent) == 0) {
+            submit(dependent);
+          }
+        }
+        remaining.countDown();
+      }
+    }
+  }
+}
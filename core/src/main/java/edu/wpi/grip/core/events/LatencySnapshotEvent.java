@@ -0,0 +1,92 @@
+package edu.wpi.grip.core.events;
+
+import edu.wpi.grip.core.metrics.LatencySnapshot;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An event posted every so often by the {@link edu.wpi.grip.core.metrics.LatencyTracker} with how
+ * long each timed object (such as a step, or the whole pipeline) has been taking to run.
+ *
+ * <p>This contains:
+ * <ul>
+ * <li>Every time taken by each object since it was created</li>
+ * <li>The times taken by each object since the last event was posted</li>
+ * <li>How old the frames each object finished working on since the last event were</li>
+ * </ul>
+ */
+public class LatencySnapshotEvent {
+
+  private final ImmutableMap<Object, LatencySnapshot> totals;
+  private final ImmutableMap<Object, LatencySnapshot> recent;
+  private final ImmutableMap<Object, LatencySnapshot> recentFrameAges;
+
+  /**
+   * Creates a new latency snapshot event.
+   *
+   * @param totals          every time taken by each timed object
+   * @param recent          the times taken by each timed object since the previous event
+   * @param recentFrameAges the ages of the frames each timed object finished working on since the
+   *                        previous event
+   */
+  public LatencySnapshotEvent(ImmutableMap<Object, LatencySnapshot> totals,
+                              ImmutableMap<Object, LatencySnapshot> recent,
+                              ImmutableMap<Object, LatencySnapshot> recentFrameAges) {
+    this.totals = checkNotNull(totals, "totals");
+    this.recent = checkNotNull(recent, "recent");
+    this.recentFrameAges = checkNotNull(recentFrameAges, "recentFrameAges");
+  }
+
+  /**
+   * Gets every time taken by the given object since it was created.
+   *
+   * @param target the timed object
+   * @return the times taken by the target, or empty if it isn't being timed
+   */
+  public Optional<LatencySnapshot> getTotal(Object target) {
+    return Optional.ofNullable(totals.get(checkNotNull(target, "target")));
+  }
+
+  /**
+   * Gets the times taken by the given object since the previous event. The snapshot will have no
+   * latencies in it if the object hasn't run since then.
+   *
+   * @param target the timed object
+   * @return the times recently taken by the target, or empty if it isn't being timed
+   */
+  public Optional<LatencySnapshot> getRecent(Object target) {
+    return Optional.ofNullable(recent.get(checkNotNull(target, "target")));
+  }
+
+  /**
+   * Gets how long ago the frames that the given object finished working on since the previous
+   * event were captured. For a step that publishes its results, this is the latency from capture
+   * to publishing. The snapshot will have no latencies in it if the object hasn't worked on any
+   * stamped frames since then.
+   *
+   * @param target the timed object
+   * @return the ages of the target's recent frames, or empty if it isn't being timed
+   */
+  public Optional<LatencySnapshot> getRecentFrameAge(Object target) {
+    return Optional.ofNullable(recentFrameAges.get(checkNotNull(target, "target")));
+  }
+
+  /**
+   * Gets the times taken by every timed object since the previous event.
+   */
+  public ImmutableMap<Object, LatencySnapshot> getRecentSnapshots() {
+    return recent;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("recent", recent)
+        .toString();
+  }
+}
@@ -3,6 +3,10 @@ package edu.wpi.grip.core.events;
 /**
  * An event fired when the pipeline starts running. This is guaranteed to be followed by a
  * corresponding {@link RunStoppedEvent}.
+ *
+ * <p>When the pipeline is {@link edu.wpi.grip.core.settings.PipelineExecutionMode#FRAME_PIPELINED
+ * frame pipelined}, this is posted when a frame reaches the last stage of the pipeline rather than
+ * when the frame is started, so runs never overlap.
  */
 public class RunStartedEvent {
 }
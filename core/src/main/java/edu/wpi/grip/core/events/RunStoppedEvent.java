@@ -1,11 +1,55 @@
 package edu.wpi.grip.core.events;
 
+import edu.wpi.grip.core.Step;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * An event fired when the pipeline stops running. This is guaranteed to follow a corresponding
  * {@link RunStartedEvent}.
  *
  * <p>This is different from {@link RenderEvent} in that it will <i>always</i> be fired when the
  * pipeline runs.
+ *
+ * <p>When the pipeline is {@link edu.wpi.grip.core.settings.PipelineExecutionMode#FRAME_PIPELINED
+ * frame pipelined}, this is posted when a frame has gone through the last stage of the pipeline.
+ * Earlier stages may already be working on the next frame, so only the outputs of the steps in the
+ * last stage are {@link #getSettledSteps() settled}.
  */
 public class RunStoppedEvent {
+
+  @Nullable
+  private final ImmutableList<Step> settledSteps;
+
+  /**
+   * Creates an event for a run of the whole pipeline, after which nothing is writing to the outputs
+   * of any source or step.
+   */
+  public RunStoppedEvent() {
+    this.settledSteps = null;
+  }
+
+  /**
+   * Creates an event for a run that only some of the steps are done with.
+   *
+   * @param settledSteps the steps that won't write to their outputs again until the next run. The
+   *                     sources and every other step may still be writing to theirs.
+   */
+  public RunStoppedEvent(ImmutableList<Step> settledSteps) {
+    this.settledSteps = checkNotNull(settledSteps, "settledSteps");
+  }
+
+  /**
+   * Gets the steps whose outputs can be read until the next run starts, or empty if the outputs of
+   * every source and step can be.
+   */
+  public Optional<ImmutableList<Step>> getSettledSteps() {
+    return Optional.ofNullable(settledSteps);
+  }
 }
@@ -106,6 +106,47 @@ public class GripServer {
    */
   public static final String DATA_PATH = ROOT_PATH + "/data";
 
+  /**
+   * The path for streaming published data as it changes. A {@code GET} request on this path opens
+   * a <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">server-sent
+   * events</a> stream with a {@code data} event for each run of the pipeline. The first event has
+   * every requested data set, and later ones only have the data sets that changed, with
+   * {@code null} for any that were removed. Data sets can be requested the same way as on
+   * {@link #DATA_PATH}, eg {@code /GRIP/stream?foo&bar}.
+   *
+   * <p>Clients that fall behind skip straight to the latest data instead of being sent every run
+   * they missed. The {@code id} of each event is the number of the run it came from, so any gap
+   * shows how many runs were skipped.
+   */
+  public static final String STREAM_PATH = ROOT_PATH + "/stream";
+
+  /**
+   * The path for watching video published by the pipeline. A {@code GET} request on this path
+   * returns an endless {@code multipart/x-mixed-replace} MJPEG stream, which browsers and most
+   * dashboards can show directly. It takes these optional parameters:
+   * <ul>
+   * <li>{@code name}: the name of the stream to watch, which defaults to {@code video}. Only
+   * streams that a Publish Video step is publishing can be watched; any other name is answered
+   * with {@code 404 Not Found}.</li>
+   * <li>{@code fps}: the most frames per second to send, which defaults to every frame</li>
+   * <li>{@code width} and {@code height}: the size to scale frames to. If only one is given,
+   * the aspect ratio of the stream is kept. Frames are never scaled up past the size they were
+   * published at.</li>
+   * </ul>
+   *
+   * <p>For example, {@code /GRIP/video?name=targets&fps=15&width=320} streams the
+   * {@code targets} video at no more than 15 frames per second, 320 pixels wide.
+   */
+  public static final String VIDEO_PATH = ROOT_PATH + "/video";
+
+  /**
+   * The path for requesting the native memory held by the pipeline. A {@code GET} request on this
+   * path returns the latest sample taken by the
+   * {@link edu.wpi.grip.core.metrics.NativeMemoryTracker}, as a json object with the bytes held by
+   * each step, source, and socket type, and a list of anything suspected of leaking.
+   */
+  public static final String MEMORY_PATH = ROOT_PATH + "/memory";
+
   /**
    * The default port the server should run on.
    */
@@ -0,0 +1,47 @@
+package edu.wpi.grip.core.http;
+
+import edu.wpi.grip.core.metrics.NativeMemoryTracker;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.eclipse.jetty.server.Request;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Jetty handler for sending the native memory usage of the pipeline to a client.
+ */
+@Singleton
+public class NativeMemoryHandler extends PedanticHandler {
+
+  private final NativeMemoryTracker tracker;
+  private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+  @Inject
+  NativeMemoryHandler(ContextStore store, NativeMemoryTracker tracker) {
+    super(store, GripServer.MEMORY_PATH, true);
+    this.tracker = tracker;
+  }
+
+  @Override
+  protected void handleIfPassed(String target,
+                                Request baseRequest,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException, ServletException {
+    if (!isGet(request)) {
+      response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+      baseRequest.setHandled(true);
+      return;
+    }
+    sendTextContent(response, gson.toJson(tracker.getLatestUsage()), CONTENT_TYPE_JSON);
+    response.setStatus(HttpServletResponse.SC_OK);
+    baseRequest.setHandled(true);
+  }
+}
@@ -0,0 +1,216 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.Immutable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The results of benchmarking a pipeline against a fixed set of frames. Latencies are in
+ * microseconds, and only cover the measured runs of the pipeline; warm-up runs are excluded.
+ */
+@Immutable
+public final class BenchmarkReport {
+
+  /**
+   * The name used for the latency of whole runs of the pipeline.
+   */
+  public static final String PIPELINE = "Pipeline";
+
+  private static final String[] CSV_HEADERS = {
+      "Name", "Runs", "Mean (us)", "p50 (us)", "p90 (us)", "p99 (us)", "Max (us)"
+  };
+
+  private final int warmupRuns;
+  private final LatencySnapshot pipeline;
+  private final ImmutableMap<String, LatencySnapshot> steps;
+  private final long elapsedNanos;
+  private final long allocatedBytes;
+  private final long nativeHighWaterBytes;
+  private final long physicalHighWaterBytes;
+
+  /**
+   * Creates a new benchmark report.
+   *
+   * @param warmupRuns             the number of runs that were excluded from the results
+   * @param pipeline               the latencies of whole runs of the pipeline
+   * @param steps                  the latencies of each step, in pipeline order
+   * @param elapsedNanos           how long the measured runs took in total
+   * @param allocatedBytes         the bytes allocated on the Java heap during the measured runs,
+   *                               or -1 if the JVM can't measure it
+   * @param nativeHighWaterBytes   the most native memory held by the pipeline's values at once
+   * @param physicalHighWaterBytes the most physical memory used by the process at once
+   */
+  public BenchmarkReport(int warmupRuns,
+                         LatencySnapshot pipeline,
+                         Map<String, LatencySnapshot> steps,
+                         long elapsedNanos,
+                         long allocatedBytes,
+                         long nativeHighWaterBytes,
+                         long physicalHighWaterBytes) {
+    checkArgument(warmupRuns >= 0, "warmupRuns cannot be negative");
+    checkArgument(elapsedNanos >= 0, "elapsedNanos cannot be negative");
+    this.warmupRuns = warmupRuns;
+    this.pipeline = checkNotNull(pipeline, "pipeline");
+    this.steps = ImmutableMap.copyOf(checkNotNull(steps, "steps"));
+    this.elapsedNanos = elapsedNanos;
+    this.allocatedBytes = allocatedBytes;
+    this.nativeHighWaterBytes = nativeHighWaterBytes;
+    this.physicalHighWaterBytes = physicalHighWaterBytes;
+  }
+
+  /**
+   * Gets the number of runs that were excluded from the results to let the JIT and caches warm up.
+   */
+  public int getWarmupRuns() {
+    return warmupRuns;
+  }
+
+  /**
+   * Gets the number of runs that were measured.
+   */
+  public long getMeasuredRuns() {
+    return pipeline.getCount();
+  }
+
+  /**
+   * Gets the latencies of whole runs of the pipeline.
+   */
+  public LatencySnapshot getPipeline() {
+    return pipeline;
+  }
+
+  /**
+   * Gets the latencies of each step, keyed by step index and name (eg {@code "0: Blur"}).
+   */
+  public ImmutableMap<String, LatencySnapshot> getSteps() {
+    return steps;
+  }
+
+  /**
+   * Gets the number of frames the pipeline processed per second, not counting the time spent
+   * decoding them.
+   */
+  public double getFramesPerSecond() {
+    return elapsedNanos == 0 ? 0 : pipeline.getCount() * (double) TimeUnit.SECONDS.toNanos(1)
+        / elapsedNanos;
+  }
+
+  /**
+   * Gets the bytes allocated on the Java heap during the measured runs, or -1 if the JVM can't
+   * measure it.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Gets the average number of bytes allocated on the Java heap per run, or -1 if the JVM can't
+   * measure it.
+   */
+  public double getAllocatedBytesPerRun() {
+    if (allocatedBytes < 0) {
+      return -1;
+    }
+    return pipeline.getCount() == 0 ? 0 : allocatedBytes / (double) pipeline.getCount();
+  }
+
+  /**
+   * Gets the rate that the Java heap was allocated at in bytes per second, or -1 if the JVM can't
+   * measure it.
+   */
+  public double getAllocationRate() {
+    if (allocatedBytes < 0) {
+      return -1;
+    }
+    return elapsedNanos == 0 ? 0 : allocatedBytes * (double) TimeUnit.SECONDS.toNanos(1)
+        / elapsedNanos;
+  }
+
+  /**
+   * Gets the most native memory that was held by the values in the pipeline at once.
+   */
+  public long getNativeHighWaterBytes() {
+    return nativeHighWaterBytes;
+  }
+
+  /**
+   * Gets the most physical memory that was used by the whole process at once.
+   */
+  public long getPhysicalHighWaterBytes() {
+    return physicalHighWaterBytes;
+  }
+
+  /**
+   * Exports the latencies of the pipeline and of each step as CSV, with one row each.
+   */
+  public String toCsv() {
+    final CsvExporter exporter = new CsvExporter(CSV_HEADERS.length, CSV_HEADERS);
+    addCsvRow(exporter, PIPELINE, pipeline);
+    steps.forEach((name, snapshot) -> addCsvRow(exporter, name, snapshot));
+    return exporter.export();
+  }
+
+  private static void addCsvRow(CsvExporter exporter, String name, LatencySnapshot snapshot) {
+    exporter.addRow(
+        name,
+        snapshot.getCount(),
+        Math.round(snapshot.getMean()),
+        snapshot.getValueAtQuantile(0.5),
+        snapshot.getValueAtQuantile(0.9),
+        snapshot.getValueAtQuantile(0.99),
+        snapshot.getMax());
+  }
+
+  /**
+   * Exports the whole report as JSON.
+   */
+  public String toJson() {
+    final JsonObject json = new JsonObject();
+    json.addProperty("warmupRuns", warmupRuns);
+    json.addProperty("measuredRuns", pipeline.getCount());
+    json.addProperty("framesPerSecond", getFramesPerSecond());
+    json.addProperty("allocatedBytes", allocatedBytes);
+    json.addProperty("allocatedBytesPerRun", getAllocatedBytesPerRun());
+    json.addProperty("allocationRate", getAllocationRate());
+    json.addProperty("nativeHighWaterBytes", nativeHighWaterBytes);
+    json.addProperty("physicalHighWaterBytes", physicalHighWaterBytes);
+    json.add("pipeline", toJson(pipeline));
+    final JsonObject stepsJson = new JsonObject();
+    steps.forEach((name, snapshot) -> stepsJson.add(name, toJson(snapshot)));
+    json.add("steps", stepsJson);
+    return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+  }
+
+  private static JsonObject toJson(LatencySnapshot snapshot) {
+    final JsonObject json = new JsonObject();
+    json.addProperty("runs", snapshot.getCount());
+    json.addProperty("mean", snapshot.getMean());
+    json.addProperty("p50", snapshot.getValueAtQuantile(0.5));
+    json.addProperty("p90", snapshot.getValueAtQuantile(0.9));
+    json.addProperty("p99", snapshot.getValueAtQuantile(0.99));
+    json.addProperty("max", snapshot.getMax());
+    return json;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("warmupRuns", warmupRuns)
+        .add("measuredRuns", pipeline.getCount())
+        .add("framesPerSecond", getFramesPerSecond())
+        .add("allocationRate", getAllocationRate())
+        .add("nativeHighWaterBytes", nativeHighWaterBytes)
+        .add("physicalHighWaterBytes", physicalHighWaterBytes)
+        .add("pipeline", pipeline)
+        .toString();
+  }
+}
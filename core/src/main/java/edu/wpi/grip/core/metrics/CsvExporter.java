@@ -12,7 +12,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Class for exporting data to CSV.
+ * Class for exporting data to CSV. Values containing commas, quotes or line breaks are quoted as
+ * described in RFC 4180, so step names and other free text can be exported safely.
  */
 public class CsvExporter {
 
@@ -102,7 +103,7 @@ public class CsvExporter {
     StringBuilder sb = new StringBuilder();
     for (int row = 0; row < dataRows + 1; row++) {
       for (int col = 0; col < numCols; col++) {
-        sb.append(dt.get(row, col));
+        sb.append(escape(String.valueOf(dt.get(row, col))));
         if (col < numCols - 1) {
           sb.append(',');
         } else {
@@ -113,6 +114,17 @@ public class CsvExporter {
     return sb.toString();
   }
 
+  /**
+   * Quotes a value if it contains any characters that have a special meaning in CSV.
+   */
+  private static String escape(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+        && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
   @VisibleForTesting
   Table<Integer, Integer, Object> getTable() {
     return dt;
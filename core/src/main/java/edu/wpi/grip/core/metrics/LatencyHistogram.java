@@ -0,0 +1,87 @@
+package edu.wpi.grip.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies, in microseconds. All of the memory it needs is allocated up front, and
+ * recording a latency is lock-free, so this can be updated every time something runs without
+ * creating garbage or blocking whatever is reading it.
+ *
+ * <p>Latencies are counted in buckets that are exact below {@value #LINEAR_BUCKETS}us, and above
+ * that split every power of two into {@value #SUB_BUCKETS} buckets, so every bucket is within about
+ * 6% of the latencies counted in it. Use {@link #snapshot()} to read the histogram.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+  private static final int LINEAR_BITS = SUB_BUCKET_BITS + 1;
+  /**
+   * The most significant bit of the largest latency that can be told apart, about 12 days.
+   */
+  private static final int MAX_BIT = 40;
+  @SuppressWarnings("PMD.DefaultPackage")
+  static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_BIT - LINEAR_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder sum = new LongAdder();
+  private final DoubleAdder sumOfSquares = new DoubleAdder();
+
+  /**
+   * Records a single latency.
+   *
+   * @param micros the latency, in microseconds. Negative latencies are counted as zero.
+   */
+  public void record(long micros) {
+    final long value = Math.max(0, micros);
+    counts.incrementAndGet(bucketOf(value));
+    sum.add(value);
+    sumOfSquares.add((double) value * value);
+  }
+
+  /**
+   * Takes a snapshot of every latency recorded so far. This may miss latencies that are being
+   * recorded at the same time.
+   */
+  public LatencySnapshot snapshot() {
+    final long[] snapshotCounts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshotCounts[i] = counts.get(i);
+    }
+    return new LatencySnapshot(snapshotCounts, sum.sum(), sumOfSquares.sum());
+  }
+
+  /**
+   * Gets the index of the bucket that counts the given latency.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  static int bucketOf(long micros) {
+    if (micros < LINEAR_BUCKETS) {
+      return (int) micros;
+    }
+    final int bit = 63 - Long.numberOfLeadingZeros(micros);
+    if (bit > MAX_BIT) {
+      return BUCKET_COUNT - 1;
+    }
+    final int shift = bit - SUB_BUCKET_BITS;
+    final int subBucket = (int) (micros >>> shift) - SUB_BUCKETS;
+    return LINEAR_BUCKETS + (bit - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Gets the largest latency that is counted in the given bucket.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  static long upperBoundOf(int bucket) {
+    if (bucket < LINEAR_BUCKETS) {
+      return bucket;
+    }
+    final int bit = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+    final int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+    final int shift = bit - SUB_BUCKET_BITS;
+    return ((long) (subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,115 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A snapshot of a {@link LatencyHistogram}. Subtracting an earlier snapshot of the same histogram
+ * with {@link #since(LatencySnapshot)} gives the latencies recorded in between the two.
+ */
+@Immutable
+public final class LatencySnapshot {
+
+  /**
+   * A snapshot with no latencies recorded.
+   */
+  public static final LatencySnapshot EMPTY =
+      new LatencySnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0, 0);
+
+  private final long[] counts;
+  private final long count;
+  private final long sum;
+  private final double sumOfSquares;
+
+  LatencySnapshot(long[] counts, long sum, double sumOfSquares) {
+    this.counts = checkNotNull(counts, "counts");
+    this.count = Arrays.stream(counts).sum();
+    this.sum = sum;
+    this.sumOfSquares = sumOfSquares;
+  }
+
+  /**
+   * Gets the latencies that were recorded after an earlier snapshot of the same histogram was
+   * taken.
+   *
+   * @param earlier the earlier snapshot
+   * @return a snapshot of only the latencies recorded since {@code earlier}
+   */
+  public LatencySnapshot since(LatencySnapshot earlier) {
+    checkNotNull(earlier, "earlier");
+    checkArgument(earlier.counts.length == counts.length, "Not a snapshot of the same histogram");
+    final long[] difference = new long[counts.length];
+    for (int i = 0; i < counts.length; i++) {
+      difference[i] = Math.max(0, counts[i] - earlier.counts[i]);
+    }
+    return new LatencySnapshot(difference,
+        Math.max(0, sum - earlier.sum),
+        Math.max(0, sumOfSquares - earlier.sumOfSquares));
+  }
+
+  /**
+   * Gets the number of latencies recorded.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the arithmetic mean of the latencies, in microseconds.
+   */
+  public double getMean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * Gets the latency that the given fraction of all latencies are at or below, in microseconds.
+   * This is accurate to the resolution of the histogram.
+   *
+   * @param quantile the fraction of latencies, between 0 and 1. For example, 0.99 gives the 99th
+   *                 percentile latency.
+   */
+  public long getValueAtQuantile(double quantile) {
+    checkArgument(quantile >= 0 && quantile <= 1, "The quantile must be between 0 and 1");
+    if (count == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return LatencyHistogram.upperBoundOf(i);
+      }
+    }
+    return LatencyHistogram.upperBoundOf(counts.length - 1);
+  }
+
+  /**
+   * Gets the largest latency recorded, to the resolution of the histogram, in microseconds.
+   */
+  public long getMax() {
+    return getValueAtQuantile(1);
+  }
+
+  /**
+   * Gets the statistics of the latencies in this snapshot.
+   */
+  public Statistics getStatistics() {
+    return Statistics.ofMoments(count, sum, sumOfSquares);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("count", count)
+        .add("mean", getMean())
+        .add("max", getMax())
+        .toString();
+  }
+}
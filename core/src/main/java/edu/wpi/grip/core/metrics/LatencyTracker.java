@@ -0,0 +1,110 @@
+package edu.wpi.grip.core.metrics;
+
+import edu.wpi.grip.core.events.LatencySnapshotEvent;
+import edu.wpi.grip.core.events.RunStoppedEvent;
+import edu.wpi.grip.core.events.StepRemovedEvent;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps track of the {@link Timer Timers} in the application. Timers record into their own
+ * histograms without going through the event bus, and after the pipeline runs this posts a
+ * {@link LatencySnapshotEvent} with a snapshot of every timer, no more than a few times a second.
+ */
+@Singleton
+public class LatencyTracker {
+
+  /**
+   * The shortest time between two snapshot events.
+   */
+  private static final long SNAPSHOT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+  private final EventBus eventBus;
+  private final Ticker ticker;
+  private final Map<Object, Timer> timers = new ConcurrentHashMap<>();
+  private ImmutableMap<Object, LatencySnapshot> lastSnapshots = ImmutableMap.of();
+  private ImmutableMap<Object, LatencySnapshot> lastFrameAges = ImmutableMap.of();
+  private long lastSnapshotTime;
+
+  @Inject
+  LatencyTracker(EventBus eventBus) {
+    this(eventBus, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  LatencyTracker(EventBus eventBus, Ticker ticker) {
+    this.eventBus = eventBus;
+    this.ticker = ticker;
+    this.lastSnapshotTime = ticker.read() - SNAPSHOT_INTERVAL_NANOS;
+  }
+
+  /**
+   * Starts tracking a timer. This is called when the timer is created.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  void register(Timer timer) {
+    timers.put(timer.getTarget(), timer);
+  }
+
+  /**
+   * Takes a snapshot of every time taken by each timed object.
+   */
+  public ImmutableMap<Object, LatencySnapshot> snapshot() {
+    final ImmutableMap.Builder<Object, LatencySnapshot> snapshots = ImmutableMap.builder();
+    timers.forEach((target, timer) -> snapshots.put(target, timer.getHistogram().snapshot()));
+    return snapshots.build();
+  }
+
+  /**
+   * Takes a snapshot of the age of every frame that each timed object has finished working on.
+   * Objects that have never worked on a stamped frame have empty snapshots.
+   */
+  public ImmutableMap<Object, LatencySnapshot> snapshotFrameAges() {
+    final ImmutableMap.Builder<Object, LatencySnapshot> snapshots = ImmutableMap.builder();
+    timers.forEach((target, timer) ->
+        snapshots.put(target, timer.getFrameAgeHistogram().snapshot()));
+    return snapshots.build();
+  }
+
+  @Subscribe
+  public void onRunStopped(@Nullable RunStoppedEvent event) {
+    final long now = ticker.read();
+    if (now - lastSnapshotTime < SNAPSHOT_INTERVAL_NANOS) {
+      return;
+    }
+    lastSnapshotTime = now;
+    final ImmutableMap<Object, LatencySnapshot> snapshots = snapshot();
+    final ImmutableMap<Object, LatencySnapshot> frameAges = snapshotFrameAges();
+    final ImmutableMap<Object, LatencySnapshot> recent = since(snapshots, lastSnapshots);
+    final ImmutableMap<Object, LatencySnapshot> recentFrameAges = since(frameAges, lastFrameAges);
+    lastSnapshots = snapshots;
+    lastFrameAges = frameAges;
+    eventBus.post(new LatencySnapshotEvent(snapshots, recent, recentFrameAges));
+  }
+
+  private static ImmutableMap<Object, LatencySnapshot> since(
+      ImmutableMap<Object, LatencySnapshot> snapshots,
+      ImmutableMap<Object, LatencySnapshot> previous) {
+    final ImmutableMap.Builder<Object, LatencySnapshot> recent = ImmutableMap.builder();
+    snapshots.forEach((target, snapshot) -> recent.put(target,
+        snapshot.since(previous.getOrDefault(target, LatencySnapshot.EMPTY))));
+    return recent.build();
+  }
+
+  @Subscribe
+  public void onStepRemoved(StepRemovedEvent event) {
+    timers.remove(event.getStep());
+  }
+}
@@ -0,0 +1,91 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Looks for native memory leaks in a series of samples. A value is suspected of leaking when it
+ * has grown in every one of the last few samples, since the memory held by a healthy pipeline goes
+ * up and down with its inputs instead of growing without bound.
+ */
+final class LeakDetector {
+
+  private final int window;
+  private final Map<String, Deque<Long>> history = new HashMap<>();
+  private final Set<String> suspected = new HashSet<>();
+
+  /**
+   * Creates a leak detector.
+   *
+   * @param window the number of consecutive samples a value must have grown in to be suspected of
+   *               leaking
+   */
+  LeakDetector(int window) {
+    checkArgument(window >= 2, "At least two samples are needed to detect growth");
+    this.window = window;
+  }
+
+  /**
+   * Adds a sample of every tracked value. Values that are missing from the sample are forgotten.
+   *
+   * @param sample the number of bytes held by each tracked value
+   * @return the values that are suspected of leaking for the first time
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  ImmutableSet<String> update(Map<String, Long> sample) {
+    for (Iterator<String> it = history.keySet().iterator(); it.hasNext(); ) {
+      final String key = it.next();
+      if (!sample.containsKey(key)) {
+        it.remove();
+        suspected.remove(key);
+      }
+    }
+    final ImmutableSet.Builder<String> newlySuspected = ImmutableSet.builder();
+    for (Map.Entry<String, Long> entry : sample.entrySet()) {
+      final Deque<Long> samples = history.computeIfAbsent(entry.getKey(), k -> new ArrayDeque<>());
+      samples.addLast(entry.getValue());
+      if (samples.size() > window) {
+        samples.removeFirst();
+      }
+      if (isGrowing(samples)) {
+        if (suspected.add(entry.getKey())) {
+          newlySuspected.add(entry.getKey());
+        }
+      } else {
+        suspected.remove(entry.getKey());
+      }
+    }
+    return newlySuspected.build();
+  }
+
+  /**
+   * Gets every value that is currently suspected of leaking.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  ImmutableSet<String> getSuspected() {
+    return ImmutableSet.copyOf(suspected);
+  }
+
+  private boolean isGrowing(Deque<Long> samples) {
+    if (samples.size() < window) {
+      return false;
+    }
+    long previous = Long.MIN_VALUE;
+    for (long bytes : samples) {
+      if (bytes <= previous) {
+        return false;
+      }
+      previous = bytes;
+    }
+    return true;
+  }
+}
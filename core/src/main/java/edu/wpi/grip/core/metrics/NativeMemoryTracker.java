@@ -0,0 +1,276 @@
+package edu.wpi.grip.core.metrics;
+
+import edu.wpi.grip.core.MatPool;
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.Source;
+import edu.wpi.grip.core.Step;
+import edu.wpi.grip.core.events.RunStoppedEvent;
+import edu.wpi.grip.core.operations.composite.BlobsReport;
+import edu.wpi.grip.core.operations.composite.ContoursReport;
+import edu.wpi.grip.core.operations.composite.LinesReport;
+import edu.wpi.grip.core.operations.composite.RectsReport;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.Subscribe;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.MatVector;
+import org.bytedeco.javacpp.opencv_core.Rect;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Keeps track of how much native memory is held by the values in the pipeline. Every few runs, this
+ * adds up the native memory held by the outputs of each step and source, and by the sockets of each
+ * type, and looks for any of them that keep growing.
+ *
+ * <p>The latest sample is available from {@link #getLatestUsage()}, and is served over HTTP at
+ * {@link edu.wpi.grip.core.http.GripServer#MEMORY_PATH}.
+ *
+ * <p>Samples are taken on the thread that finished the run, once nothing is writing to the values
+ * being measured. When the pipeline is frame pipelined, the earlier stages are already working on
+ * the next frame by then, so only the steps in the last stage are sampled.
+ */
+@Singleton
+public class NativeMemoryTracker {
+
+  private static final Logger logger = Logger.getLogger(NativeMemoryTracker.class.getName());
+
+  /**
+   * How many runs of the pipeline to wait between samples.
+   */
+  private static final int SAMPLE_INTERVAL = 30;
+  /**
+   * How many consecutive samples something must have grown in to be suspected of leaking.
+   */
+  private static final int LEAK_WINDOW = 10;
+
+  private static final String TOTAL_KEY = "total";
+  private static final String STEP_KEY_PREFIX = "steps/";
+  private static final String SOURCE_KEY_PREFIX = "sources/";
+
+  private final Supplier<ImmutableList<Source>> sourceSupplier;
+  private final Supplier<ImmutableList<Step>> stepSupplier;
+  private final int sampleInterval;
+  private final LeakDetector leakDetector;
+  private int runsSinceSample = 0;
+  private volatile NativeMemoryUsage latestUsage = NativeMemoryUsage.NONE;
+
+  @Inject
+  NativeMemoryTracker(Provider<Pipeline> pipelineProvider) {
+    this(() -> pipelineProvider.get().getSources(),
+        () -> pipelineProvider.get().getSteps(),
+        SAMPLE_INTERVAL,
+        LEAK_WINDOW);
+  }
+
+  @VisibleForTesting
+  NativeMemoryTracker(Supplier<ImmutableList<Source>> sourceSupplier,
+                      Supplier<ImmutableList<Step>> stepSupplier,
+                      int sampleInterval,
+                      int leakWindow) {
+    checkArgument(sampleInterval > 0, "The sample interval must be positive");
+    this.sourceSupplier = sourceSupplier;
+    this.stepSupplier = stepSupplier;
+    this.sampleInterval = sampleInterval;
+    this.leakDetector = new LeakDetector(leakWindow);
+  }
+
+  @Subscribe
+  public void onRunStopped(@Nullable RunStoppedEvent event) {
+    if (++runsSinceSample >= sampleInterval) {
+      runsSinceSample = 0;
+      final ImmutableList<Step> settledSteps = event == null
+          ? null
+          : event.getSettledSteps().orElse(null);
+      if (settledSteps == null) {
+        sample(step -> true, true);
+      } else {
+        sample(settledSteps::contains, false);
+      }
+    }
+  }
+
+  /**
+   * Measures the native memory currently held by the pipeline. This is done automatically every
+   * few runs of the pipeline, and must only be called while nothing is running it.
+   *
+   * @return the usage that was measured
+   */
+  public NativeMemoryUsage sample() {
+    return sample(step -> true, true);
+  }
+
+  /**
+   * Measures the native memory held by some of the pipeline.
+   *
+   * @param sampledSteps   the steps to measure
+   * @param includeSources whether to measure the sources
+   */
+  private synchronized NativeMemoryUsage sample(Predicate<Step> sampledSteps,
+                                                boolean includeSources) {
+    // A value can be in more than one socket (eg a step that passes its input through), but it
+    // should only be counted once
+    final Counted counted = new Counted();
+    final Map<String, Long> socketTypes = new LinkedHashMap<>();
+
+    final Map<String, Long> sources = new LinkedHashMap<>();
+    if (includeSources) {
+      for (Source source : sourceSupplier.get()) {
+        final long bytes = source.getBufferedNativeBytes()
+            + outputBytes(source.getOutputSockets(), counted, socketTypes);
+        sources.merge(String.valueOf(source.getName()), bytes, Long::sum);
+      }
+    }
+
+    final Map<String, Long> steps = new LinkedHashMap<>();
+    final ImmutableList<Step> stepList = stepSupplier.get();
+    for (int i = 0; i < stepList.size(); i++) {
+      final Step step = stepList.get(i);
+      if (sampledSteps.test(step)) {
+        steps.put(i + ": " + step.getOperationDescription().name(),
+            outputBytes(step.getOutputSockets(), counted, socketTypes));
+      }
+    }
+
+    long totalBytes = 0;
+    final Map<String, Long> tracked = new LinkedHashMap<>();
+    for (Map.Entry<String, Long> source : sources.entrySet()) {
+      tracked.put(SOURCE_KEY_PREFIX + source.getKey(), source.getValue());
+      totalBytes += source.getValue();
+    }
+    for (Map.Entry<String, Long> step : steps.entrySet()) {
+      tracked.put(STEP_KEY_PREFIX + step.getKey(), step.getValue());
+      totalBytes += step.getValue();
+    }
+    tracked.put(TOTAL_KEY, totalBytes);
+
+    for (String leak : leakDetector.update(tracked)) {
+      logger.warning("Native memory held by " + leak + " has grown in every recent sample and may"
+          + " be leaking (now " + tracked.get(leak) + " bytes)");
+    }
+
+    latestUsage = new NativeMemoryUsage(
+        totalBytes,
+        MatPool.shared().getPooledBytes(),
+        Pointer.totalBytes(),
+        ImmutableMap.copyOf(steps),
+        ImmutableMap.copyOf(sources),
+        ImmutableMap.copyOf(socketTypes),
+        ImmutableSet.copyOf(leakDetector.getSuspected()));
+    return latestUsage;
+  }
+
+  /**
+   * Gets the most recent sample of native memory usage. This is {@link NativeMemoryUsage#NONE}
+   * until the pipeline has run enough times to be sampled.
+   */
+  public NativeMemoryUsage getLatestUsage() {
+    return latestUsage;
+  }
+
+  private static long outputBytes(Iterable<OutputSocket> sockets,
+                                  Counted counted,
+                                  Map<String, Long> socketTypes) {
+    long total = 0;
+    for (OutputSocket<?> socket : sockets) {
+      final Object value = socket.getValue().orElse(null);
+      if (value == null) {
+        continue;
+      }
+      final long bytes = nativeBytesOf(value, counted);
+      socketTypes.merge(socket.getSocketHint().getType().getSimpleName(), bytes, Long::sum);
+      total += bytes;
+    }
+    return total;
+  }
+
+  /**
+   * Gets the number of bytes of native memory held by a socket value, or zero if the value isn't
+   * backed by native memory.
+   */
+  @VisibleForTesting
+  static long nativeBytesOf(Object value) {
+    return nativeBytesOf(value, new Counted());
+  }
+
+  /**
+   * Gets the number of bytes of native memory held by a socket value that haven't been counted
+   * yet. Reports count the images they were made from, which are usually also in another socket,
+   * and the native objects they hold. Mats are told apart by the address of their data, since
+   * every Mat taken from a {@code MatVector} is a new Java object and the same data can be shared
+   * by several reports.
+   *
+   * @param counted the values and Mat data that have already been counted, which this adds to
+   */
+  private static long nativeBytesOf(Object value, Counted counted) {
+    if (value instanceof Mat) {
+      final Mat mat = (Mat) value;
+      if (mat.isNull() || mat.empty() || !counted.data.add(mat.data().address())) {
+        return 0;
+      }
+      return mat.total() * mat.elemSize();
+    } else if (!counted.values.add(value)) {
+      return 0;
+    } else if (value instanceof MatWrapper) {
+      return ((MatWrapper) value).nativeBytes();
+    } else if (value instanceof MatVector) {
+      final MatVector mats = (MatVector) value;
+      long total = 0;
+      for (long i = 0; i < mats.size(); i++) {
+        total += nativeBytesOf(mats.get(i), counted);
+      }
+      return total;
+    } else if (value instanceof ContoursReport) {
+      final ContoursReport report = (ContoursReport) value;
+      long total = nativeBytesOf(report.getContours(), counted);
+      for (Mat hull : report.getComputedHulls()) {
+        total += nativeBytesOf(hull, counted);
+      }
+      return total;
+    } else if (value instanceof RectsReport) {
+      final RectsReport report = (RectsReport) value;
+      long total = nativeBytesOf(report.getImage(), counted);
+      for (Rect rect : report.getRectangles()) {
+        total += rect.sizeof();
+      }
+      return total;
+    } else if (value instanceof BlobsReport) {
+      return nativeBytesOf(((BlobsReport) value).getInput(), counted);
+    } else if (value instanceof LinesReport) {
+      return nativeBytesOf(((LinesReport) value).getInput(), counted);
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * The values that have been counted in a sample, compared by identity so that values that are
+   * equal but separate are both counted, and the addresses of the Mat data that has been counted.
+   */
+  private static final class Counted {
+    private final Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Long> data = new HashSet<>();
+  }
+}
@@ -0,0 +1,109 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.concurrent.Immutable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A snapshot of the native memory held by the pipeline, as sampled by a
+ * {@link NativeMemoryTracker}. All sizes are in bytes.
+ */
+@Immutable
+public final class NativeMemoryUsage {
+
+  /**
+   * Usage with nothing tracked, for before the first sample has been taken.
+   */
+  public static final NativeMemoryUsage NONE = new NativeMemoryUsage(0, 0, 0,
+      ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of(), ImmutableSet.of());
+
+  private final long totalBytes;
+  private final long pooledBytes;
+  private final long allocatedBytes;
+  private final ImmutableMap<String, Long> steps;
+  private final ImmutableMap<String, Long> sources;
+  private final ImmutableMap<String, Long> socketTypes;
+  private final ImmutableSet<String> suspectedLeaks;
+
+  NativeMemoryUsage(long totalBytes,
+                    long pooledBytes,
+                    long allocatedBytes,
+                    ImmutableMap<String, Long> steps,
+                    ImmutableMap<String, Long> sources,
+                    ImmutableMap<String, Long> socketTypes,
+                    ImmutableSet<String> suspectedLeaks) {
+    this.totalBytes = totalBytes;
+    this.pooledBytes = pooledBytes;
+    this.allocatedBytes = allocatedBytes;
+    this.steps = checkNotNull(steps, "steps");
+    this.sources = checkNotNull(sources, "sources");
+    this.socketTypes = checkNotNull(socketTypes, "socketTypes");
+    this.suspectedLeaks = checkNotNull(suspectedLeaks, "suspectedLeaks");
+  }
+
+  /**
+   * Gets the native memory held by the values of every step and source in the pipeline.
+   */
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  /**
+   * Gets the native memory held by idle mats in the {@link edu.wpi.grip.core.MatPool shared pool}.
+   */
+  public long getPooledBytes() {
+    return pooledBytes;
+  }
+
+  /**
+   * Gets the native memory that JavaCPP has allocated and not yet freed, whether or not the
+   * pipeline knows about it.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Gets the native memory held by the outputs of each step, keyed by the step's position and
+   * operation name.
+   */
+  public ImmutableMap<String, Long> getSteps() {
+    return steps;
+  }
+
+  /**
+   * Gets the native memory held by each source, keyed by the source's name.
+   */
+  public ImmutableMap<String, Long> getSources() {
+    return sources;
+  }
+
+  /**
+   * Gets the native memory held by output sockets of each type, keyed by the type's simple name.
+   */
+  public ImmutableMap<String, Long> getSocketTypes() {
+    return socketTypes;
+  }
+
+  /**
+   * Gets the steps and sources that have held more memory every time they've been sampled
+   * recently, and so are suspected of leaking.
+   */
+  public ImmutableSet<String> getSuspectedLeaks() {
+    return suspectedLeaks;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("totalBytes", totalBytes)
+        .add("pooledBytes", pooledBytes)
+        .add("allocatedBytes", allocatedBytes)
+        .add("suspectedLeaks", suspectedLeaks)
+        .toString();
+  }
+}
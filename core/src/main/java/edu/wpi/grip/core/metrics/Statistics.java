@@ -63,6 +63,21 @@ public final class Statistics {
     return of(samples.stream().mapToDouble(Number::doubleValue).toArray());
   }
 
+  /**
+   * Calculates statistics from the number of samples, their sum, and the sum of their squares.
+   * This is used when the samples themselves aren't kept.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  static Statistics ofMoments(long numSamples, double sum, double sumOfSquares) {
+    if (numSamples == 0) {
+      return NIL;
+    }
+    final double mean = sum / numSamples;
+    final double variance = Math.max(0, sumOfSquares / numSamples - mean * mean);
+    return new Statistics((int) Math.min(numSamples, Integer.MAX_VALUE), sum, mean,
+        Math.sqrt(variance));
+  }
+
   private Statistics(int numSamples, double sum, double mean, double standardDeviation) {
     this.numSamples = numSamples;
     this.sum = sum;
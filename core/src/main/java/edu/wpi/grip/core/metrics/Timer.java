@@ -1,43 +1,54 @@
 package edu.wpi.grip.core.metrics;
 
-import edu.wpi.grip.core.events.TimerEvent;
-
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Stopwatch;
-import com.google.common.eventbus.EventBus;
+import com.google.common.base.Ticker;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
- * Timer for code that gets run.
+ * Timer for code that gets run. Every time taken is recorded in a {@link LatencyHistogram} for the
+ * target, which the {@link LatencyTracker} periodically snapshots and publishes.
  *
  * <p>Sample usage:
  * <pre><code>
  *   Timer myTimer = ...
  *   myTimer.time(this::doSomething);
  * </code></pre>
+ *
+ * <p>Timers are started and stopped for every step on every frame, from whichever thread runs the
+ * step, so they don't take any locks. The start time is kept in an atomic, and the histograms are
+ * lock-free.
  */
 public class Timer {
 
-  private final EventBus eventBus;
-  private final Stopwatch stopwatch;
+  /**
+   * The start time while the timer isn't running.
+   */
+  private static final long NOT_STARTED = Long.MIN_VALUE;
+
+  private final Ticker ticker;
+  private final AtomicLong startTime = new AtomicLong(NOT_STARTED);
 
   private final Object target;
-  private long elapsedTime = 0;
+  private final LatencyHistogram histogram = new LatencyHistogram();
+  private final LatencyHistogram frameAges = new LatencyHistogram();
+  private volatile long elapsedTime = 0;
 
   @Inject
-  Timer(EventBus eventBus, @Assisted Object target) {
-    this(eventBus, target, Stopwatch.createUnstarted());
+  Timer(LatencyTracker tracker, @Assisted Object target) {
+    this(target, Ticker.systemTicker());
+    tracker.register(this);
   }
 
   @VisibleForTesting
-  Timer(EventBus eventBus, Object target, Stopwatch stopwatch) {
-    this.eventBus = eventBus;
-    this.stopwatch = stopwatch;
+  Timer(Object target, Ticker ticker) {
+    this.ticker = checkNotNull(ticker, "ticker");
     this.target = checkNotNull(target, "target");
   }
 
@@ -47,36 +58,33 @@ public class Timer {
    * @throws IllegalStateException if this a call to this method is preceded by another call to
    *                               {@code started()}
    */
-  public synchronized void started() {
-    if (stopwatch.isRunning()) {
+  public void started() {
+    if (!startTime.compareAndSet(NOT_STARTED, ticker.read())) {
       throw new IllegalStateException("Already started");
     }
-    stopwatch.reset().start();
   }
 
   /**
-   * Stops the timer. This will post a {@link TimerEvent} containing the elapsed time
-   * and analysis to the event bus.
+   * Stops the timer and records the elapsed time in the histogram for the target. This does not
+   * allocate anything or post any events.
    *
    * @throws IllegalStateException if this a call to this method is not preceded by a call to
    *                               {@link #started()}.
    */
-  public synchronized void stop() {
-    if (!stopwatch.isRunning()) {
+  public void stop() {
+    final long start = startTime.getAndSet(NOT_STARTED);
+    if (start == NOT_STARTED) {
       throw new IllegalStateException("Already stopped");
     }
-    stopwatch.stop();
-    this.elapsedTime = stopwatch.elapsed(TimeUnit.MICROSECONDS);
-    eventBus.post(new TimerEvent(this, target, elapsedTime));
+    this.elapsedTime = MICROSECONDS.convert(ticker.read() - start, NANOSECONDS);
+    histogram.record(elapsedTime);
   }
 
   /**
-   * Resets this timer.
+   * Resets this timer. Times that have already been recorded in the histogram are kept.
    */
-  public synchronized void reset() {
-    if (stopwatch.isRunning()) {
-      stopwatch.stop();
-    }
+  public void reset() {
+    startTime.set(NOT_STARTED);
     elapsedTime = 0;
   }
 
@@ -93,7 +101,7 @@ public class Timer {
    * @throws IllegalStateException if this timer is already timing something
    */
   public void time(Runnable target) {
-    if (stopwatch.isRunning()) {
+    if (startTime.get() != NOT_STARTED) {
       throw new IllegalStateException("This timer is already timing something");
     }
     try {
@@ -112,6 +120,39 @@ public class Timer {
     return elapsedTime;
   }
 
+  /**
+   * Gets the object being timed.
+   */
+  public Object getTarget() {
+    return target;
+  }
+
+  /**
+   * Gets the histogram of every time taken by the target.
+   */
+  public LatencyHistogram getHistogram() {
+    return histogram;
+  }
+
+  /**
+   * Records how long ago the frame that the target just finished working on was captured. Like
+   * {@link #stop()}, this doesn't allocate anything or post any events.
+   *
+   * @param micros the age of the frame, in microseconds
+   */
+  public void recordFrameAge(long micros) {
+    frameAges.record(micros);
+  }
+
+  /**
+   * Gets the histogram of the ages of every frame that the target has finished working on. For a
+   * step that publishes its results, this is the latency from a frame being captured to its results
+   * being published.
+   */
+  public LatencyHistogram getFrameAgeHistogram() {
+    return frameAges;
+  }
+
   public interface Factory {
     Timer create(Object target);
   }
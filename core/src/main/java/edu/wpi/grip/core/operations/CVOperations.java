@@ -85,6 +85,7 @@ public class CVOperations {
               } else {
                 absdiff(src1.getCpu(), src2.getCpu(), dst.rawCpu());
               }
+              dst.copyOrigin(src1);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV add",
@@ -95,6 +96,7 @@ public class CVOperations {
               } else {
                 add(src1.getCpu(), src2.getCpu(), dst.rawCpu());
               }
+              dst.copyOrigin(src1);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV addWeighted",
@@ -114,6 +116,7 @@ public class CVOperations {
                     addWeighted(src1.getCpu(), alpha.doubleValue(), src2.getCpu(),
                         beta.doubleValue(), gamma.doubleValue(), dst.rawCpu());
                   }
+                  dst.copyOrigin(src1);
                 }
             )),
 
@@ -125,6 +128,7 @@ public class CVOperations {
               } else {
                 bitwise_and(src1.getCpu(), src2.getCpu(), dst.rawCpu());
               }
+              dst.copyOrigin(src1);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV bitwise_not",
@@ -135,6 +139,7 @@ public class CVOperations {
               } else {
                 bitwise_not(src.getCpu(), dst.rawCpu());
               }
+              dst.copyOrigin(src);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV bitwise_or",
@@ -145,6 +150,7 @@ public class CVOperations {
               } else {
                 bitwise_or(src1.getCpu(), src2.getCpu(), dst.rawCpu());
               }
+              dst.copyOrigin(src1);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV bitwise_xor",
@@ -155,6 +161,7 @@ public class CVOperations {
               } else {
                 bitwise_xor(src1.getCpu(), src2.getCpu(), dst.rawCpu());
               }
+              dst.copyOrigin(src1);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV compare",
@@ -171,6 +178,7 @@ public class CVOperations {
                   } else {
                     compare(src1.getCpu(), src2.getCpu(), dst.rawCpu(), cmpop);
                   }
+                  dst.copyOrigin(src1);
                 }
             )),
 
@@ -184,6 +192,7 @@ public class CVOperations {
                 SocketHints.createImageSocketHint("dst"),
                 (src1, src2, scale, dst) -> {
                   divide(src1.getCpu(), src2.getCpu(), dst.rawCpu(), scale.doubleValue(), -1);
+                  dst.copyOrigin(src1);
                 }
             )),
 
@@ -196,6 +205,7 @@ public class CVOperations {
                 SocketHints.createImageSocketHint("dst"),
                 (src1, coi, dst) -> {
                   extractChannel(src1.getCpu(), dst.rawCpu(), coi.intValue());
+                  dst.copyOrigin(src1);
                 }
             )),
 
@@ -214,12 +224,14 @@ public class CVOperations {
             "Calculate per-element maximum of two images."),
             templateFactory.createAllMatTwoSource((src1, src2, dst) -> {
               max(src1.getCpu(), src2.getCpu(), dst.rawCpu());
+              dst.copyOrigin(src1);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV min",
             "Calculate the per-element minimum of two images."),
             templateFactory.createAllMatTwoSource((src1, src2, dst) -> {
               min(src1.getCpu(), src2.getCpu(), dst.rawCpu());
+              dst.copyOrigin(src1);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV multiply",
@@ -231,7 +243,8 @@ public class CVOperations {
                     Integer.MAX_VALUE),
                 SocketHints.createImageSocketHint("dst"),
                 (src1, src2, scale, dst) -> {
-                  multiply(src1.getCpu(), src2.getCpu(), dst.getCpu(), scale.doubleValue(), -1);
+                  multiply(src1.getCpu(), src2.getCpu(), dst.rawCpu(), scale.doubleValue(), -1);
+                  dst.copyOrigin(src1);
                 }
             )),
 
@@ -244,6 +257,7 @@ public class CVOperations {
                 SocketHints.createImageSocketHint("dst"),
                 (src1, alpha, src2, dst) -> {
                   scaleAdd(src1.getCpu(), alpha.doubleValue(), src2.getCpu(), dst.rawCpu());
+                  dst.copyOrigin(src1);
                 }
             )),
 
@@ -255,6 +269,7 @@ public class CVOperations {
               } else {
                 subtract(src1.getCpu(), src2.getCpu(), dst.rawCpu());
               }
+              dst.copyOrigin(src1);
             })),
 
         new OperationMetaData(CVOperation.defaults("CV transpose",
@@ -281,6 +296,7 @@ public class CVOperations {
                   adaptiveThreshold(src.getCpu(), dst.rawCpu(), maxValue.doubleValue(),
                       adaptiveMethod.value, thresholdType.value, blockSize.intValue(), c
                           .doubleValue());
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -292,6 +308,7 @@ public class CVOperations {
                 SocketHints.createImageSocketHint("dst"),
                 (src, colormap, dst) -> {
                   applyColorMap(src.getCpu(), dst.rawCpu(), colormap.value);
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -307,6 +324,7 @@ public class CVOperations {
                   } else {
                     cvtColor(src.getCpu(), dst.rawCpu(), code.value);
                   }
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -325,6 +343,7 @@ public class CVOperations {
                 (src, kernel, anchor, iterations, borderType, borderValue, dst) -> {
                   dilate(src.getCpu(), dst.rawCpu(), kernel.getCpu(), anchor, iterations.intValue(),
                       borderType.value, borderValue);
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -343,6 +362,7 @@ public class CVOperations {
                 (src, kernel, anchor, iterations, borderType, borderValue, dst) -> {
                   opencv_imgproc.erode(src.getCpu(), dst.rawCpu(), kernel.getCpu(), anchor,
                       iterations.intValue(), borderType.value, borderValue);
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -359,6 +379,7 @@ public class CVOperations {
                 (src, ksize, sigmaX, sigmaY, borderType, dst) -> {
                   GaussianBlur(src.getCpu(), dst.rawCpu(), ksize, sigmaX.doubleValue(), sigmaY
                       .doubleValue(), borderType.value);
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -374,6 +395,7 @@ public class CVOperations {
                 (src, ksize, scale, delta, borderType, dst) -> {
                   Laplacian(src.getCpu(), dst.rawCpu(), 0, ksize.intValue(), scale.doubleValue(),
                       delta.doubleValue(), borderType.value);
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -385,6 +407,7 @@ public class CVOperations {
                 SocketHints.createImageSocketHint("dst"),
                 (src, ksize, dst) -> {
                   medianBlur(src.getCpu(), dst.rawCpu(), ksize.intValue());
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -407,6 +430,7 @@ public class CVOperations {
                   src.copyTo(dst);
                   rectangle(dst.rawCpu(), pt1, pt2, color, thickness.intValue(), lineType
                       .value, shift.intValue());
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -456,6 +480,7 @@ public class CVOperations {
                         ksize.intValue(), scale.doubleValue(), delta.doubleValue(),
                         borderType.value);
                   }
+                  dst.copyOrigin(src);
                 }
             )),
 
@@ -481,6 +506,7 @@ public class CVOperations {
                     threshold(src.getCpu(), dst.rawCpu(), thresh.doubleValue(),
                         maxval.doubleValue(), type.value);
                   }
+                  dst.copyOrigin(src);
                 }
             ))
     );
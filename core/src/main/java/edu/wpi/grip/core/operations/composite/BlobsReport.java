@@ -8,17 +8,25 @@ import edu.wpi.grip.core.sockets.NoSocketTypeLabel;
 
 import com.google.common.base.MoreObjects;
 
+import org.bytedeco.javacpp.opencv_core.Rect;
+
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
- * This class is used as the output of operations that detect blobs in an image.
+ * This class is used as the output of operations that detect blobs in an image. The blobs are in
+ * the coordinates of the input image, but are published in the coordinates of the full frame if
+ * the input was only a region of it, or was scaled down from it.
  */
 @PublishableObject
 @NoSocketTypeLabel
-public class BlobsReport implements Publishable {
+public class BlobsReport implements Publishable, Detections {
   private final MatWrapper input;
   private final List<Blob> blobs;
+  private final int originX;
+  private final int originY;
+  private final int scale;
 
   /**
    * Create an empty blob report.  This is used as the default value for sockets
@@ -27,9 +35,18 @@ public class BlobsReport implements Publishable {
     this(MatWrapper.emptyWrapper(), Collections.emptyList());
   }
 
+  /**
+   * Creates a report of the blobs found in an image.
+   *
+   * @param input the image the blobs were found in
+   * @param blobs the blobs that were found, in the coordinates of the image
+   */
   public BlobsReport(MatWrapper input, List<Blob> blobs) {
     this.input = input;
     this.blobs = blobs;
+    this.originX = input.originX();
+    this.originY = input.originY();
+    this.scale = input.scale();
   }
 
   public List<Blob> getBlobs() {
@@ -47,7 +64,7 @@ public class BlobsReport implements Publishable {
   public double[] getX() {
     final double[] x = new double[blobs.size()];
     for (int i = 0; i < blobs.size(); i++) {
-      x[i] = blobs.get(i).x;
+      x[i] = originX + scale * blobs.get(i).x;
     }
     return x;
   }
@@ -56,7 +73,7 @@ public class BlobsReport implements Publishable {
   public double[] getY() {
     final double[] y = new double[blobs.size()];
     for (int i = 0; i < blobs.size(); i++) {
-      y[i] = blobs.get(i).y;
+      y[i] = originY + scale * blobs.get(i).y;
     }
     return y;
   }
@@ -65,11 +82,24 @@ public class BlobsReport implements Publishable {
   public double[] getSize() {
     final double[] sizes = new double[blobs.size()];
     for (int i = 0; i < blobs.size(); i++) {
-      sizes[i] = blobs.get(i).size;
+      sizes[i] = scale * blobs.get(i).size;
     }
     return sizes;
   }
 
+  @Override
+  public List<Rect> getFrameBoundingBoxes() {
+    final List<Rect> boxes = new ArrayList<>(blobs.size());
+    for (Blob blob : blobs) {
+      // The size of a blob is its diameter
+      final double radius = blob.size / 2;
+      boxes.add(new Rect((int) (originX + scale * (blob.x - radius)),
+          (int) (originY + scale * (blob.y - radius)), (int) Math.ceil(scale * blob.size),
+          (int) Math.ceil(scale * blob.size)));
+    }
+    return boxes;
+  }
+
   @Override
   public String toString() {
     return blobs.toString();
@@ -82,6 +82,8 @@ public class BlurOperation extends CudaOperation {
   public void perform() {
     final MatWrapper input = inputSocket.getValue().get();
     if (input.empty()) {
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
       return;
     }
     final Type type = typeSocket.getValue().get();
@@ -182,6 +184,7 @@ public class BlurOperation extends CudaOperation {
     }
 
     //output.set(output);
+    output.copyOrigin(input);
     outputSocket.setValue(output);
   }
 
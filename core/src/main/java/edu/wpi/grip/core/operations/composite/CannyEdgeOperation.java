@@ -74,6 +74,11 @@ public class CannyEdgeOperation extends CudaOperation {
   @Override
   @SuppressFBWarnings(value = "RCN", justification = "False positive (there is no nullcheck)")
   public void perform() {
+    if (inputSocket.getValue().get().empty()) {
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
+      return;
+    }
     double lowThresh = lowThreshSocket.getValue().get().doubleValue();
     double highThresh = highThreshSocket.getValue().get().doubleValue();
     int apertureSize = apertureSizeSocket.getValue().get().intValue();
@@ -91,6 +96,7 @@ public class CannyEdgeOperation extends CudaOperation {
       Canny(inputSocket.getValue().get().getCpu(), outputSocket.getValue().get().getCpu(),
           lowThresh, highThresh, apertureSize, l2gradient);
     }
+    outputSocket.getValue().get().copyOrigin(inputSocket.getValue().get());
     outputSocket.flagChanged();
   }
 }
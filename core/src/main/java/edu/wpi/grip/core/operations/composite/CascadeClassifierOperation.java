@@ -96,7 +96,12 @@ public class CascadeClassifierOperation implements Operation {
     }
     final MatWrapper input = imageSocket.getValue().get();
     final Mat image = input.getCpu();
-    if (image.empty() || image.channels() != 3) {
+    if (image.empty()) {
+      // Nothing can be found in an empty image, such as a region with no candidates in it
+      output.setValue(new RectsReport(input, new ArrayList<>()));
+      return;
+    }
+    if (image.channels() != 3) {
       throw new IllegalArgumentException("A cascade classifier needs a three-channel input");
     }
     final CascadeClassifier classifier = classifierSocket.getValue().get();
@@ -0,0 +1,258 @@
+package edu.wpi.grip.core.operations.composite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_core.MatVector;
+import static org.bytedeco.javacpp.opencv_core.Rect;
+import static org.bytedeco.javacpp.opencv_imgproc.arcLength;
+import static org.bytedeco.javacpp.opencv_imgproc.boundingRect;
+import static org.bytedeco.javacpp.opencv_imgproc.contourArea;
+import static org.bytedeco.javacpp.opencv_imgproc.convexHull;
+
+/**
+ * The measurements of a list of contours, such as their areas and bounding boxes. Each measurement
+ * is only computed the first time it's needed for a contour, and is then kept in an array with the
+ * same measurement of every other contour.
+ *
+ * <p>A {@link ContoursReport} keeps these with its contours, so operations that filter or
+ * transform contours can pass the measurements they've already made on to their output, instead of
+ * every operation and publisher downstream computing them again. Convex hulls are kept as well,
+ * since they're the most expensive thing to compute.
+ *
+ * <p>Different contours can be measured on different threads at once. Each contour is guarded by
+ * one of a fixed set of locks, chosen by its index, so threads measuring different contours rarely
+ * wait for each other.
+ */
+@ThreadSafe
+@SuppressWarnings("PMD.DefaultPackage")
+final class ContourMetrics {
+
+  /**
+   * The locks that guard the measurements of each contour. These are shared by every instance, so
+   * that reports don't need to allocate their own.
+   */
+  private static final Object[] LOCKS = new Object[64];
+  private static final int LOCK_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(LOCKS.length);
+
+  static {
+    for (int i = 0; i < LOCKS.length; i++) {
+      LOCKS[i] = new Object();
+    }
+  }
+
+  private final MatVector contours;
+  private final int count;
+
+  // Each column is NaN for contours that haven't been measured yet
+  private final double[] areas;
+  private final double[] perimeters;
+  private final double[] hullAreas;
+  private final double[] lefts;
+  private final double[] tops;
+  private final double[] widths;
+  private final double[] heights;
+
+  /**
+   * The convex hull of each contour. A hull is only valid if its area has been computed.
+   */
+  private final MatVector hulls;
+
+  ContourMetrics(MatVector contours) {
+    this.contours = contours;
+    this.count = (int) contours.size();
+    this.areas = unmeasured(count);
+    this.perimeters = unmeasured(count);
+    this.hullAreas = unmeasured(count);
+    this.lefts = unmeasured(count);
+    this.tops = unmeasured(count);
+    this.widths = unmeasured(count);
+    this.heights = unmeasured(count);
+    this.hulls = new MatVector(count);
+  }
+
+  private static double[] unmeasured(int count) {
+    final double[] column = new double[count];
+    Arrays.fill(column, Double.NaN);
+    return column;
+  }
+
+  /**
+   * Gets the lock that guards the measurements of a contour. The index is hashed, so threads that
+   * work through evenly spaced ranges of contours don't keep landing on the same lock.
+   */
+  private static Object lock(int i) {
+    return LOCKS[(i * 0x9E3779B9) >>> LOCK_SHIFT];
+  }
+
+  /**
+   * Creates the metrics of some of these contours, keeping the measurements that have already
+   * been made of them.
+   *
+   * @param selected the contours to keep, in the order they appear in {@code indices}
+   * @param indices  the index of each selected contour in these contours
+   * @param size     the number of indices that are used
+   */
+  ContourMetrics select(MatVector selected, int[] indices, int size) {
+    final ContourMetrics metrics = new ContourMetrics(selected);
+    for (int i = 0; i < size; i++) {
+      final int from = indices[i];
+      synchronized (lock(from)) {
+        metrics.areas[i] = areas[from];
+        metrics.perimeters[i] = perimeters[from];
+        metrics.lefts[i] = lefts[from];
+        metrics.tops[i] = tops[from];
+        metrics.widths[i] = widths[from];
+        metrics.heights[i] = heights[from];
+        if (!Double.isNaN(hullAreas[from])) {
+          metrics.hullAreas[i] = hullAreas[from];
+          metrics.hulls.put(i, hulls.get(from));
+        }
+      }
+    }
+    return metrics;
+  }
+
+  /**
+   * Creates the metrics of the convex hulls of these contours, computing any hulls that haven't
+   * been already. A convex hull is its own hull, so only the areas of the hulls are needed to
+   * measure them.
+   */
+  ContourMetrics ofHulls() {
+    final MatVector convexHulls = new MatVector(count);
+    for (int i = 0; i < count; i++) {
+      convexHulls.put(i, hull(i));
+    }
+    final ContourMetrics metrics = new ContourMetrics(convexHulls);
+    for (int i = 0; i < count; i++) {
+      final double hullArea = hullArea(i);
+      metrics.areas[i] = hullArea;
+      metrics.hullAreas[i] = hullArea;
+      metrics.hulls.put(i, convexHulls.get(i));
+    }
+    return metrics;
+  }
+
+  /**
+   * Gets the contours that these are the metrics of.
+   */
+  MatVector contours() {
+    return contours;
+  }
+
+  int size() {
+    return count;
+  }
+
+  double area(int i) {
+    synchronized (lock(i)) {
+      if (Double.isNaN(areas[i])) {
+        areas[i] = contourArea(contours.get(i));
+      }
+      return areas[i];
+    }
+  }
+
+  double perimeter(int i) {
+    synchronized (lock(i)) {
+      if (Double.isNaN(perimeters[i])) {
+        perimeters[i] = arcLength(contours.get(i), true);
+      }
+      return perimeters[i];
+    }
+  }
+
+  /**
+   * Gets the convex hull of a contour, computing it if it hasn't been already. The hull belongs to
+   * these metrics and must not be modified.
+   */
+  Mat hull(int i) {
+    synchronized (lock(i)) {
+      hullArea(i);
+      return hulls.get(i);
+    }
+  }
+
+  /**
+   * Gets the convex hulls that have been computed so far. The hulls belong to these metrics and
+   * must not be modified.
+   */
+  List<Mat> computedHulls() {
+    final List<Mat> computed = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      synchronized (lock(i)) {
+        if (!Double.isNaN(hullAreas[i])) {
+          computed.add(hulls.get(i));
+        }
+      }
+    }
+    return computed;
+  }
+
+  double hullArea(int i) {
+    synchronized (lock(i)) {
+      if (Double.isNaN(hullAreas[i])) {
+        final Mat hull = hulls.get(i);
+        convexHull(contours.get(i), hull);
+        hullAreas[i] = contourArea(hull);
+      }
+      return hullAreas[i];
+    }
+  }
+
+  /**
+   * Gets the ratio of a contour's area to the area of its convex hull, from 0 to 1.
+   */
+  double solidity(int i) {
+    return area(i) / hullArea(i);
+  }
+
+  int vertices(int i) {
+    return contours.get(i).rows();
+  }
+
+  double left(int i) {
+    synchronized (lock(i)) {
+      measureBoundingBox(i);
+      return lefts[i];
+    }
+  }
+
+  double top(int i) {
+    synchronized (lock(i)) {
+      measureBoundingBox(i);
+      return tops[i];
+    }
+  }
+
+  double width(int i) {
+    synchronized (lock(i)) {
+      measureBoundingBox(i);
+      return widths[i];
+    }
+  }
+
+  double height(int i) {
+    synchronized (lock(i)) {
+      measureBoundingBox(i);
+      return heights[i];
+    }
+  }
+
+  @GuardedBy("lock(i)")
+  private void measureBoundingBox(int i) {
+    if (Double.isNaN(widths[i])) {
+      try (Rect bb = boundingRect(contours.get(i))) {
+        lefts[i] = bb.x();
+        tops[i] = bb.y();
+        widths[i] = bb.width();
+        heights[i] = bb.height();
+      }
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package edu.wpi.grip.core.operations.composite;
 
 import edu.wpi.grip.annotation.operation.PublishableObject;
+import edu.wpi.grip.core.MatWrapper;
 import edu.wpi.grip.core.operations.network.PublishValue;
 import edu.wpi.grip.core.operations.network.Publishable;
 import edu.wpi.grip.core.sockets.NoSocketTypeLabel;
@@ -8,30 +9,37 @@ import edu.wpi.grip.core.sockets.Socket;
 
 import com.google.auto.value.AutoValue;
 
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Rect;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.IntToDoubleFunction;
 
-import static org.bytedeco.javacpp.opencv_core.Mat;
 import static org.bytedeco.javacpp.opencv_core.MatVector;
-import static org.bytedeco.javacpp.opencv_core.Rect;
-import static org.bytedeco.javacpp.opencv_imgproc.boundingRect;
-import static org.bytedeco.javacpp.opencv_imgproc.contourArea;
-import static org.bytedeco.javacpp.opencv_imgproc.convexHull;
 
 /**
  * The output of {@link FindContoursOperation}.  This stores a list of contours (which is basically
  * a list of points) in OpenCV objects, as well as the width and height of the image that the
  * contours are from, to give context to the points.
+ *
+ * <p>The measurements of the contours are only made when they're first asked for, and are kept so
+ * that publishers and operations that take this report don't have to make them again.
+ *
+ * <p>If the image was a {@link MatWrapper#setRegion region} of a larger frame, or was scaled down
+ * from one, the contours are kept in the coordinates of the image, but their measurements are
+ * published in the coordinates of the full frame.
  */
 @PublishableObject
 @NoSocketTypeLabel
-public final class ContoursReport implements Publishable {
+public final class ContoursReport implements Publishable, Detections {
 
   private final int rows;
   private final int cols;
-  private final MatVector contours;
-  private Optional<Rect[]> boundingBoxes = Optional.empty();
+  private final int originX;
+  private final int originY;
+  private final int scale;
+  private final ContourMetrics metrics;
 
   /**
    * Construct an empty report.  This is used as a default value for {@link Socket}s containing
@@ -42,9 +50,34 @@ public final class ContoursReport implements Publishable {
   }
 
   ContoursReport(MatVector contours, int rows, int cols) {
-    this.contours = contours;
+    this(new ContourMetrics(contours), rows, cols, 0, 0, 1);
+  }
+
+  /**
+   * Creates a report of contours that were found in an image.
+   */
+  ContoursReport(MatVector contours, MatWrapper image) {
+    this(new ContourMetrics(contours), image.rows(), image.cols(), image.originX(),
+        image.originY(), image.scale());
+  }
+
+  private ContoursReport(ContourMetrics metrics, int rows, int cols, int originX, int originY,
+                         int scale) {
+    this.metrics = metrics;
     this.rows = rows;
     this.cols = cols;
+    this.originX = originX;
+    this.originY = originY;
+    this.scale = scale;
+  }
+
+  /**
+   * Creates a report of other contours from the same image as these, such as some of these
+   * contours that have already been measured, so the measurements don't have to be made again.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  ContoursReport withMetrics(ContourMetrics metrics) {
+    return new ContoursReport(metrics, rows, cols, originX, originY, scale);
   }
 
   public int getRows() {
@@ -56,104 +89,107 @@ public final class ContoursReport implements Publishable {
   }
 
   public MatVector getContours() {
-    return this.contours;
+    return metrics.contours();
   }
 
   /**
-   * @return All of the contours held within this report.
+   * Gets the convex hulls of the contours that have been computed so far. These are kept with the
+   * contours for as long as this report is, and must not be modified.
    */
-  public List<Contour> getProcessedContours() {
-    final List<Contour> processedContours = new ArrayList<>((int) contours.size());
-    double[] area = getArea();
-    double[] centerX = getCenterX();
-    double[] centerY = getCenterY();
-    double[] width = getWidth();
-    double[] height = getHeights();
-    double[] solidity = getSolidity();
-    for (int i = 0; i < contours.size(); i++) {
-      processedContours.add(Contour.create(area[i], centerX[i], centerY[i], width[i], height[i],
-          solidity[i]));
-    }
-    return processedContours;
+  public List<Mat> getComputedHulls() {
+    return metrics.computedHulls();
   }
 
   /**
-   * Compute the bounding boxes of all contours (if they haven't already been computed).  Bounding
-   * boxes are used to compute several different properties, so it's probably not a good idea to
-   * compute them over and over again.
+   * Gets the measurements of the contours, which are cached and shared with operations that take
+   * this report.
    */
-  private synchronized Rect[] computeBoundingBoxes() {
-    if (!boundingBoxes.isPresent()) {
-      Rect[] bb = new Rect[(int) contours.size()];
-      for (int i = 0; i < contours.size(); i++) {
-        bb[i] = boundingRect(contours.get(i));
-      }
-
-      boundingBoxes = Optional.of(bb);
-    }
+  @SuppressWarnings("PMD.DefaultPackage")
+  ContourMetrics getMetrics() {
+    return metrics;
+  }
 
-    return boundingBoxes.get();
+  /**
+   * @return All of the contours held within this report.
+   */
+  public List<Contour> getProcessedContours() {
+    final List<Contour> processedContours = new ArrayList<>(metrics.size());
+    for (int i = 0; i < metrics.size(); i++) {
+      processedContours.add(Contour.create(area(i), centerX(i), centerY(i), width(i), height(i),
+          metrics.solidity(i)));
+    }
+    return processedContours;
   }
 
   @PublishValue(key = "area", weight = 0)
   public double[] getArea() {
-    final double[] areas = new double[(int) contours.size()];
-    for (int i = 0; i < contours.size(); i++) {
-      areas[i] = contourArea(contours.get(i));
-    }
-    return areas;
+    return column(this::area);
   }
 
   @PublishValue(key = "centerX", weight = 1)
   public double[] getCenterX() {
-    final double[] centers = new double[(int) contours.size()];
-    final Rect[] boundingBoxes = computeBoundingBoxes();
-    for (int i = 0; i < contours.size(); i++) {
-      centers[i] = boundingBoxes[i].x() + boundingBoxes[i].width() / 2;
-    }
-    return centers;
+    return column(this::centerX);
   }
 
   @PublishValue(key = "centerY", weight = 2)
   public double[] getCenterY() {
-    final double[] centers = new double[(int) contours.size()];
-    final Rect[] boundingBoxes = computeBoundingBoxes();
-    for (int i = 0; i < contours.size(); i++) {
-      centers[i] = boundingBoxes[i].y() + boundingBoxes[i].height() / 2;
-    }
-    return centers;
+    return column(this::centerY);
   }
 
   @PublishValue(key = "width", weight = 3)
-  public synchronized double[] getWidth() {
-    final double[] widths = new double[(int) contours.size()];
-    final Rect[] boundingBoxes = computeBoundingBoxes();
-    for (int i = 0; i < contours.size(); i++) {
-      widths[i] = boundingBoxes[i].width();
-    }
-    return widths;
+  public double[] getWidth() {
+    return column(this::width);
   }
 
   @PublishValue(key = "height", weight = 4)
-  public synchronized double[] getHeights() {
-    final double[] heights = new double[(int) contours.size()];
-    final Rect[] boundingBoxes = computeBoundingBoxes();
-    for (int i = 0; i < contours.size(); i++) {
-      heights[i] = boundingBoxes[i].height();
-    }
-    return heights;
+  public double[] getHeights() {
+    return column(this::height);
   }
 
   @PublishValue(key = "solidity", weight = 5)
-  public synchronized double[] getSolidity() {
-    final double[] solidities = new double[(int) contours.size()];
-    Mat hull = new Mat();
-    for (int i = 0; i < contours.size(); i++) {
-      convexHull(contours.get(i), hull);
-      solidities[i] = contourArea(contours.get(i)) / contourArea(hull);
+  public double[] getSolidity() {
+    return column(metrics::solidity);
+  }
+
+  @Override
+  public List<Rect> getFrameBoundingBoxes() {
+    final List<Rect> boxes = new ArrayList<>(metrics.size());
+    for (int i = 0; i < metrics.size(); i++) {
+      boxes.add(new Rect(originX + scale * (int) metrics.left(i),
+          originY + scale * (int) metrics.top(i), (int) width(i), (int) height(i)));
+    }
+    return boxes;
+  }
+
+  // The measurements below are in the coordinates of the full frame
+
+  private double area(int i) {
+    return scale * scale * metrics.area(i);
+  }
+
+  // The center is rounded down to a whole pixel, as it always has been
+  private double centerX(int i) {
+    return originX + scale * (metrics.left(i) + (int) metrics.width(i) / 2);
+  }
+
+  private double centerY(int i) {
+    return originY + scale * (metrics.top(i) + (int) metrics.height(i) / 2);
+  }
+
+  private double width(int i) {
+    return scale * metrics.width(i);
+  }
+
+  private double height(int i) {
+    return scale * metrics.height(i);
+  }
+
+  private double[] column(IntToDoubleFunction measurement) {
+    final double[] column = new double[metrics.size()];
+    for (int i = 0; i < column.length; i++) {
+      column[i] = measurement.applyAsDouble(i);
     }
-    hull.release();
-    return solidities;
+    return column;
   }
 
   @AutoValue
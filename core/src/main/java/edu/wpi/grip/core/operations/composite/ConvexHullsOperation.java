@@ -12,9 +12,6 @@ import com.google.inject.Inject;
 
 import java.util.List;
 
-import static org.bytedeco.javacpp.opencv_core.MatVector;
-import static org.bytedeco.javacpp.opencv_imgproc.convexHull;
-
 /**
  * An {@link Operation} that finds the convex hull of each of a list of contours. This can help
  * remove holes in detected shapes, making them easier to analyze.
@@ -57,14 +54,10 @@ public class ConvexHullsOperation implements Operation {
   @Override
   @SuppressWarnings("unchecked")
   public void perform() {
-    final MatVector inputContours = inputSocket.getValue().get().getContours();
-    final MatVector outputContours = new MatVector(inputContours.size());
-
-    for (int i = 0; i < inputContours.size(); i++) {
-      convexHull(inputContours.get(i), outputContours.get(i));
-    }
+    final ContoursReport input = inputSocket.getValue().get();
 
-    outputSocket.setValue(new ContoursReport(outputContours,
-        inputSocket.getValue().get().getRows(), inputSocket.getValue().get().getCols()));
+    // Reuse any hulls that were already computed for the input, and keep their areas so the hulls
+    // don't have to be measured again
+    outputSocket.setValue(input.withMetrics(input.getMetrics().ofHulls()));
   }
 }
@@ -19,6 +19,9 @@ import static org.bytedeco.javacpp.opencv_core.Rect;
 /**
  * Crop an image to an exact width and height using one of several origin modes.  Cropping
  * images down can be a useful optimization.
+ *
+ * <p>The cropped image is a view of the input, so no pixels are copied. Operations downstream of
+ * the crop report what they find in the coordinates of the uncropped image.
  */
 @Description(name = "Crop",
              summary = "Crop an image to an exact size",
@@ -80,6 +83,11 @@ public class CropOperation implements Operation {
   public void perform() {
     final MatWrapper input = inputSocket.getValue().get();
     final MatWrapper output = outputSocket.getValue().get();
+    if (input.empty()) {
+      output.clear();
+      outputSocket.setValue(output);
+      return;
+    }
     final Number x = xSocket.getValue().get();
     final Number y = ySocket.getValue().get();
     final Number width = widthSocket.getValue().get();
@@ -94,12 +102,9 @@ public class CropOperation implements Operation {
             height.intValue()
             );
 
-    //apply() returns a sub-matrix; It does not modify the input Mat: https://github.com/WPIRoboticsProjects/GRIP/pull/926
-    if (input.isCpu()) {
-      output.set(input.getCpu().apply(regionOfInterest));
-    } else {
-      output.set(input.getGpu().apply(regionOfInterest));
-    }
+    // The output is a view of the region of the input, so nothing is copied. It does not modify the
+    // input Mat: https://github.com/WPIRoboticsProjects/GRIP/pull/926
+    output.setRegion(input, regionOfInterest);
 
     outputSocket.setValue(output);
   }
@@ -0,0 +1,241 @@
+package edu.wpi.grip.core.operations.composite;
+
+import edu.wpi.grip.core.operations.network.http.MjpegHandler;
+import edu.wpi.grip.core.operations.network.http.VideoStream;
+import edu.wpi.grip.core.util.DaemonThread;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Serves the default video stream with the protocol used by SmartDashboard and the FRC Dashboard,
+ * on port 1180. This is shared by every {@link PublishVideoOperation}, and runs as long as at least
+ * one of them exists. Based on WPILib's CameraServer class:
+ * https://github.com/robotpy/allwpilib/blob/master/wpilibj/src/athena/java/edu/wpi/first/wpilibj
+ * /CameraServer.java
+ *
+ * <p>Any number of dashboards can connect at once. Each one is sent frames on its own thread at
+ * the frame rate and size it asked for, and skips frames if it can't keep up.
+ */
+@Singleton
+class DashboardVideoServer {
+
+  private static final Logger logger = Logger.getLogger(DashboardVideoServer.class.getName());
+  private static final int PORT = 1180;
+  private static final byte[] MAGIC_NUMBER = {0x01, 0x00, 0x00, 0x00};
+
+  /**
+   * The resolutions that dashboards can ask for, indexed by the size they send.
+   */
+  private static final int[][] RESOLUTIONS = {{640, 480}, {320, 240}, {160, 120}};
+
+  private final MjpegHandler mjpegHandler;
+
+  /**
+   * The thread sending frames to each connected dashboard.
+   */
+  private final Map<Socket, Thread> connections = new ConcurrentHashMap<>();
+
+  @GuardedBy("this")
+  private int users = 0;
+  @GuardedBy("this")
+  @Nullable
+  private Thread serverThread;
+  /**
+   * The socket the server thread is listening on. Interrupting the thread doesn't stop it waiting
+   * for a connection, so this is closed to stop it. It's only set while the thread is still the
+   * current server thread, under the same lock, so a server that's stopped before it starts
+   * listening never gets to block.
+   */
+  @GuardedBy("this")
+  @Nullable
+  private ServerSocket serverSocket;
+
+  @Inject
+  DashboardVideoServer(MjpegHandler mjpegHandler) {
+    this.mjpegHandler = mjpegHandler;
+  }
+
+  /**
+   * Starts the server if this is the first user of it.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  synchronized void acquire() {
+    if (users++ == 0) {
+      serverThread = new DaemonThread(this::runServer, "Camera Server");
+      serverThread.start();
+    }
+  }
+
+  /**
+   * Stops the server if this was the last user of it.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  synchronized void release() {
+    if (users == 0) {
+      return;
+    }
+    if (--users == 0 && serverThread != null) {
+      logger.info("Shutting down camera server");
+      serverThread.interrupt();
+      serverThread = null;
+      closeQuietly(serverSocket);
+      serverSocket = null;
+      connections.forEach((socket, thread) -> {
+        thread.interrupt();
+        closeQuietly(socket);
+      });
+    }
+  }
+
+  /**
+   * Listens for incoming connections on port 1180. This loops until the thread is interrupted, so
+   * that it can recover from the network connection going away temporarily.
+   */
+  private void runServer() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try (ServerSocket socket = new ServerSocket(PORT)) {
+        if (!listenOn(socket)) {
+          return;
+        }
+        logger.info("Starting camera server");
+        while (!Thread.currentThread().isInterrupted()) {
+          final Socket connection = socket.accept();
+          logger.info("Got connection from " + connection.getInetAddress());
+          final Thread thread = new DaemonThread(() -> serve(connection), "Camera Server Client");
+          connections.put(connection, thread);
+          thread.start();
+        }
+      } catch (IOException e) {
+        if (Thread.currentThread().isInterrupted()) {
+          return;
+        }
+        logger.log(Level.WARNING, e.getMessage(), e);
+        try {
+          // Don't spin if the port is taken
+          TimeUnit.SECONDS.sleep(1);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes a socket the one the server is listening on, unless the server was stopped while it was
+   * being opened.
+   *
+   * @return true if this thread is still the server thread and should listen on the socket
+   */
+  private synchronized boolean listenOn(ServerSocket socket) {
+    if (serverThread != Thread.currentThread()) {
+      return false;
+    }
+    serverSocket = socket;
+    return true;
+  }
+
+  /**
+   * Sends frames from the default stream to one dashboard until it disconnects or the server is
+   * stopped.
+   */
+  private void serve(Socket connection) {
+    final VideoStream stream = mjpegHandler.openStream(MjpegHandler.DEFAULT_STREAM);
+    DashboardClient client = null;
+    try (Socket socket = connection) {
+      final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      final DataInputStream in = new DataInputStream(socket.getInputStream());
+      final int fps = in.readInt();
+      final int compression = in.readInt();
+      final int size = in.readInt();
+      if (compression != -1) {
+        logger.warning("Dashboard video should be in HW mode");
+      }
+
+      client = new DashboardClient(size, fps);
+      stream.addClient(client);
+      while (!socket.isClosed()) {
+        final byte[] jpeg = client.awaitFrame();
+        // The FRC dashboard image protocol consists of a magic number, the size of the image data,
+        // and the image data itself
+        out.write(MAGIC_NUMBER);
+        out.writeInt(jpeg.length);
+        out.write(jpeg);
+      }
+    } catch (IOException e) {
+      logger.log(Level.FINE, "Dashboard disconnected", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (client != null) {
+        stream.removeClient(client);
+      }
+      mjpegHandler.closeStream(stream);
+      connections.remove(connection);
+    }
+  }
+
+  private static void closeQuietly(@Nullable Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      logger.log(Level.FINE, "Could not close camera server socket", e);
+    }
+  }
+
+  /**
+   * A dashboard that's watching the default stream. Dashboards are sent frames with blocking I/O
+   * on their own threads.
+   */
+  private static final class DashboardClient extends VideoStream.Client {
+    private final Object frameLock = new Object();
+
+    private DashboardClient(int size, int fps) {
+      super(width(size), height(size), Math.max(fps, 0));
+    }
+
+    private static int width(int size) {
+      return size >= 0 && size < RESOLUTIONS.length ? RESOLUTIONS[size][0] : 0;
+    }
+
+    private static int height(int size) {
+      return size >= 0 && size < RESOLUTIONS.length ? RESOLUTIONS[size][1] : 0;
+    }
+
+    @Override
+    protected void onFrameAvailable() {
+      synchronized (frameLock) {
+        frameLock.notifyAll();
+      }
+    }
+
+    private byte[] awaitFrame() throws InterruptedException {
+      synchronized (frameLock) {
+        byte[] jpeg = takeFrame();
+        while (jpeg == null) {
+          frameLock.wait();
+          jpeg = takeFrame();
+        }
+        return jpeg;
+      }
+    }
+  }
+}
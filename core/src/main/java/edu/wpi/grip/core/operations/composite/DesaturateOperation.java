@@ -56,6 +56,11 @@ public class DesaturateOperation extends CudaOperation {
     final MatWrapper input = inputSocket.getValue().get();
     final MatWrapper output = outputSocket.getValue().get();
 
+    if (input.empty()) {
+      output.clear();
+      outputSocket.setValue(output);
+      return;
+    }
 
     switch (input.channels()) {
       case 1:
@@ -83,6 +88,7 @@ public class DesaturateOperation extends CudaOperation {
         throw new IllegalArgumentException("Input to desaturate must have 1, 3, or 4 channels");
     }
 
+    output.copyOrigin(input);
     outputSocket.setValue(output);
   }
 }
@@ -0,0 +1,18 @@
+package edu.wpi.grip.core.operations.composite;
+
+import java.util.List;
+
+import static org.bytedeco.javacpp.opencv_core.Rect;
+
+/**
+ * The results of an operation that finds things in an image, such as contours or blobs. These can
+ * be used to decide where in a frame to look more closely, such as by {@link
+ * RefineInRegionsOperation}.
+ */
+public interface Detections {
+
+  /**
+   * Gets the bounding box of each thing that was found, in the coordinates of the full frame.
+   */
+  List<Rect> getFrameBoundingBoxes();
+}
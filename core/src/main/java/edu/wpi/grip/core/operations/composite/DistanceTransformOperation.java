@@ -73,6 +73,12 @@ public class DistanceTransformOperation implements Operation {
   public void perform() {
     final Mat input = srcSocket.getValue().get().getCpu();
 
+    if (input.empty()) {
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
+      return;
+    }
+
     if (input.type() != CV_8U) {
       throw new IllegalArgumentException("Distance transform only works on 8-bit binary images");
     }
@@ -81,6 +87,7 @@ public class DistanceTransformOperation implements Operation {
     final MaskSize maskSize = maskSizeSocket.getValue().get();
 
     final Mat output = outputSocket.getValue().get().rawCpu();
+    outputSocket.getValue().get().copyOrigin(srcSocket.getValue().get());
 
     distanceTransform(input, output, type.value, maskSize.value);
     output.convertTo(output, CV_8U);
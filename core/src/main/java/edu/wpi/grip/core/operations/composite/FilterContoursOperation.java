@@ -12,14 +12,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
-import static org.bytedeco.javacpp.opencv_core.Mat;
 import static org.bytedeco.javacpp.opencv_core.MatVector;
-import static org.bytedeco.javacpp.opencv_core.Rect;
-import static org.bytedeco.javacpp.opencv_imgproc.arcLength;
-import static org.bytedeco.javacpp.opencv_imgproc.boundingRect;
-import static org.bytedeco.javacpp.opencv_imgproc.contourArea;
-import static org.bytedeco.javacpp.opencv_imgproc.convexHull;
 
 /**
  * An {@link Operation} that takes in a list of contours and outputs a list of any contours in the
@@ -36,6 +31,12 @@ import static org.bytedeco.javacpp.opencv_imgproc.convexHull;
 @SuppressWarnings("PMD.TooManyFields")
 public class FilterContoursOperation implements Operation {
 
+  /**
+   * The number of contours it takes for checking them on several cores at once to be faster than
+   * checking them on one.
+   */
+  private static final int PARALLEL_THRESHOLD = 256;
+
   private final SocketHint<ContoursReport> contoursHint = new SocketHint.Builder<>(ContoursReport
       .class)
       .identifier("Contours").initialValueSupplier(ContoursReport::new).build();
@@ -139,69 +140,127 @@ public class FilterContoursOperation implements Operation {
   @SuppressWarnings("unchecked")
   public void perform() {
     final InputSocket<ContoursReport> inputSocket = contoursSocket;
-    final double minArea = minAreaSocket.getValue().get().doubleValue();
-    final double minPerimeter = minPerimeterSocket.getValue().get().doubleValue();
-    final double minWidth = minWidthSocket.getValue().get().doubleValue();
-    final double maxWidth = maxWidthSocket.getValue().get().doubleValue();
-    final double minHeight = minHeightSocket.getValue().get().doubleValue();
-    final double maxHeight = maxHeightSocket.getValue().get().doubleValue();
-    final double minSolidity = soliditySocket.getValue().get().get(0).doubleValue();
-    final double maxSolidity = soliditySocket.getValue().get().get(1).doubleValue();
-    final double minVertexCount = minVertexSocket.getValue().get().doubleValue();
-    final double maxVertexCount = maxVertexSocket.getValue().get().doubleValue();
-    final double minRatio = minRatioSocket.getValue().get().doubleValue();
-    final double maxRatio = maxRatioSocket.getValue().get().doubleValue();
-
-
-    final MatVector inputContours = inputSocket.getValue().get().getContours();
-    final MatVector outputContours = new MatVector(inputContours.size());
-    final Mat hull = new Mat();
+    final Criteria criteria = new Criteria(
+        minAreaSocket.getValue().get().doubleValue(),
+        minPerimeterSocket.getValue().get().doubleValue(),
+        minWidthSocket.getValue().get().doubleValue(),
+        maxWidthSocket.getValue().get().doubleValue(),
+        minHeightSocket.getValue().get().doubleValue(),
+        maxHeightSocket.getValue().get().doubleValue(),
+        soliditySocket.getValue().get().get(0).doubleValue(),
+        soliditySocket.getValue().get().get(1).doubleValue(),
+        minVertexSocket.getValue().get().doubleValue(),
+        maxVertexSocket.getValue().get().doubleValue(),
+        minRatioSocket.getValue().get().doubleValue(),
+        maxRatioSocket.getValue().get().doubleValue());
+
+    final ContoursReport input = inputSocket.getValue().get();
+    final ContourMetrics metrics = input.getMetrics();
+    final MatVector inputContours = input.getContours();
+
+    // Check every contour against the criteria, splitting them across cores if there are enough
+    // to be worth it. Each contour is only measured by one thread, so they don't contend.
+    final boolean[] passed = new boolean[metrics.size()];
+    IntStream indices = IntStream.range(0, metrics.size());
+    if (metrics.size() >= PARALLEL_THRESHOLD) {
+      indices = indices.parallel();
+    }
+    indices.forEach(i -> passed[i] = criteria.test(metrics, i));
 
-    // Add contours from the input vector to the output vector only if they pass all of the
-    // criteria (minimum
-    // area, minimum perimeter, width, and height, etc...)
+    // Add contours from the input vector to the output vector only if they passed, keeping them in
+    // their original order
+    final MatVector outputContours = new MatVector(inputContours.size());
+    final int[] kept = new int[metrics.size()];
     int filteredContourCount = 0;
-    for (int i = 0; i < inputContours.size(); i++) {
-      final Mat contour = inputContours.get(i);
-
-      final Rect bb = boundingRect(contour);
-      if (bb.width() < minWidth || bb.width() > maxWidth) {
-        continue;
+    for (int i = 0; i < passed.length; i++) {
+      if (passed[i]) {
+        outputContours.put(filteredContourCount, inputContours.get(i));
+        kept[filteredContourCount++] = i;
       }
-      if (bb.height() < minHeight || bb.height() > maxHeight) {
-        continue;
+    }
+
+    outputContours.resize(filteredContourCount);
+
+    // Pass on what was measured, so it isn't measured again by anything that uses the output
+    outputSocket.setValue(
+        input.withMetrics(metrics.select(outputContours, kept, filteredContourCount)));
+  }
+
+  /**
+   * The criteria that a contour has to match to pass the filter (minimum area, minimum perimeter,
+   * width, and height, etc...).
+   */
+  @SuppressWarnings("PMD.TooManyFields")
+  private static final class Criteria {
+    private final double minArea;
+    private final double minPerimeter;
+    private final double minWidth;
+    private final double maxWidth;
+    private final double minHeight;
+    private final double maxHeight;
+    private final double minSolidity;
+    private final double maxSolidity;
+    private final double minVertexCount;
+    private final double maxVertexCount;
+    private final double minRatio;
+    private final double maxRatio;
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    private Criteria(double minArea, double minPerimeter, double minWidth, double maxWidth,
+                     double minHeight, double maxHeight, double minSolidity, double maxSolidity,
+                     double minVertexCount, double maxVertexCount, double minRatio,
+                     double maxRatio) {
+      this.minArea = minArea;
+      this.minPerimeter = minPerimeter;
+      this.minWidth = minWidth;
+      this.maxWidth = maxWidth;
+      this.minHeight = minHeight;
+      this.maxHeight = maxHeight;
+      this.minSolidity = minSolidity;
+      this.maxSolidity = maxSolidity;
+      this.minVertexCount = minVertexCount;
+      this.maxVertexCount = maxVertexCount;
+      this.minRatio = minRatio;
+      this.maxRatio = maxRatio;
+    }
+
+    /**
+     * Checks if a contour matches every criterion. The criteria are checked from the cheapest to
+     * measure to the most expensive, so most contours are rejected before their convex hulls are
+     * computed.
+     */
+    private boolean test(ContourMetrics metrics, int i) {
+      // The number of vertices is known without measuring anything
+      final int vertices = metrics.vertices(i);
+      if (vertices < minVertexCount || vertices > maxVertexCount) {
+        return false;
       }
 
-      final double area = contourArea(contour);
-      if (area < minArea) {
-        continue;
+      // The bounding box takes one pass over the points
+      final double width = metrics.width(i);
+      if (width < minWidth || width > maxWidth) {
+        return false;
       }
-      if (arcLength(contour, true) < minPerimeter) {
-        continue;
+      final double height = metrics.height(i);
+      if (height < minHeight || height > maxHeight) {
+        return false;
       }
-
-      convexHull(contour, hull);
-      final double solidity = 100 * area / contourArea(hull);
-      hull.release();
-      if (solidity < minSolidity || solidity > maxSolidity) {
-        continue;
+      final double ratio = width / height;
+      if (ratio < minRatio || ratio > maxRatio) {
+        return false;
       }
 
-      if (contour.rows() < minVertexCount || contour.rows() > maxVertexCount) {
-        continue;
+      if (metrics.area(i) < minArea) {
+        return false;
       }
-
-      final double ratio = (double) bb.width() / (double) bb.height();
-      if (ratio < minRatio || ratio > maxRatio) {
-        continue;
+      if (metrics.perimeter(i) < minPerimeter) {
+        return false;
       }
 
-      outputContours.put(filteredContourCount++, contour);
+      // The convex hull is by far the most expensive to find
+      // Contours with no area have no solidity, and have always been let through
+      final double solidity = 100 * metrics.solidity(i);
+      return Double.isNaN(solidity) || solidity >= minSolidity && solidity <= maxSolidity;
     }
-
-    outputContours.resize(filteredContourCount);
-
-    outputSocket.setValue(new ContoursReport(outputContours,
-        inputSocket.getValue().get().getRows(), inputSocket.getValue().get().getCols()));
   }
 }
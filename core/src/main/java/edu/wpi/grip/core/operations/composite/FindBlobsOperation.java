@@ -15,6 +15,8 @@ import com.google.inject.Inject;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import static org.bytedeco.javacpp.opencv_core.KeyPoint;
 import static org.bytedeco.javacpp.opencv_core.KeyPointVector;
 import static org.bytedeco.javacpp.opencv_core.Mat;
@@ -27,6 +29,7 @@ import static org.bytedeco.javacpp.opencv_features2d.SimpleBlobDetector;
              summary = "Detects groups of pixels in an image",
              category = OperationCategory.FEATURE_DETECTION,
              iconName = "find-blobs")
+@SuppressWarnings("PMD.TooManyFields")
 public class FindBlobsOperation implements Operation {
 
   private final SocketHint<MatWrapper> inputHint = SocketHints.createImageSocketHint("Input");
@@ -49,6 +52,17 @@ public class FindBlobsOperation implements Operation {
 
   private final OutputSocket<BlobsReport> outputSocket;
 
+  private final KeyPointVector keyPointVector = new KeyPointVector();
+  /**
+   * The detector from the last run. It's only created again when the parameters change.
+   */
+  @Nullable
+  private SimpleBlobDetector blobDetector;
+  private int detectorMinArea;
+  private float detectorMinCircularity;
+  private float detectorMaxCircularity;
+  private boolean detectorDarkBlobs;
+
   @Inject
   @SuppressWarnings("JavadocMethod")
   public FindBlobsOperation(InputSocket.Factory inputSocketFactory, OutputSocket.Factory
@@ -82,26 +96,32 @@ public class FindBlobsOperation implements Operation {
   @SuppressWarnings("unchecked")
   public void perform() {
     final Mat input = inputSocket.getValue().get().getCpu();
-    final Number minArea = minAreaSocket.getValue().get();
+    if (input.empty()) {
+      outputSocket.setValue(new BlobsReport(inputSocket.getValue().get(), new ArrayList<>()));
+      return;
+    }
+    final int minArea = minAreaSocket.getValue().get().intValue();
     final List<Number> circularity = circularitySocket.getValue().get();
-    final Boolean darkBlobs = colorSocket.getValue().get();
-
-
-    final SimpleBlobDetector blobDetector = SimpleBlobDetector.create(new SimpleBlobDetector
-        .Params()
-        .filterByArea(true)
-        .minArea(minArea.intValue())
-        .maxArea(Integer.MAX_VALUE)
-
-        .filterByColor(true)
-        .blobColor(darkBlobs ? (byte) 0 : (byte) 255)
-
-        .filterByCircularity(true)
-        .minCircularity(circularity.get(0).floatValue())
-        .maxCircularity(circularity.get(1).floatValue()));
+    final float minCircularity = circularity.get(0).floatValue();
+    final float maxCircularity = circularity.get(1).floatValue();
+    final boolean darkBlobs = colorSocket.getValue().get();
+
+    if (blobDetector == null
+        || minArea != detectorMinArea
+        || minCircularity != detectorMinCircularity
+        || maxCircularity != detectorMaxCircularity
+        || darkBlobs != detectorDarkBlobs) {
+      if (blobDetector != null) {
+        blobDetector.deallocate();
+      }
+      blobDetector = createDetector(minArea, minCircularity, maxCircularity, darkBlobs);
+      detectorMinArea = minArea;
+      detectorMinCircularity = minCircularity;
+      detectorMaxCircularity = maxCircularity;
+      detectorDarkBlobs = darkBlobs;
+    }
 
     // Detect the blobs and store them in the output BlobsReport
-    final KeyPointVector keyPointVector = new KeyPointVector();
     blobDetector.detect(input, keyPointVector);
 
     final List<BlobsReport.Blob> blobs = new ArrayList<>();
@@ -112,4 +132,30 @@ public class FindBlobsOperation implements Operation {
 
     outputSocket.setValue(new BlobsReport(inputSocket.getValue().get(), blobs));
   }
+
+  @Override
+  public void cleanUp() {
+    keyPointVector.deallocate();
+    if (blobDetector != null) {
+      blobDetector.deallocate();
+      blobDetector = null;
+    }
+  }
+
+  private static SimpleBlobDetector createDetector(int minArea, float minCircularity,
+                                                   float maxCircularity, boolean darkBlobs) {
+    try (SimpleBlobDetector.Params params = new SimpleBlobDetector.Params()) {
+      return SimpleBlobDetector.create(params
+          .filterByArea(true)
+          .minArea(minArea)
+          .maxArea(Integer.MAX_VALUE)
+
+          .filterByColor(true)
+          .blobColor(darkBlobs ? (byte) 0 : (byte) 255)
+
+          .filterByCircularity(true)
+          .minCircularity(minCircularity)
+          .maxCircularity(maxCircularity));
+    }
+  }
 }
@@ -14,7 +14,6 @@ import com.google.inject.Inject;
 
 import java.util.List;
 
-import static org.bytedeco.javacpp.opencv_core.Mat;
 import static org.bytedeco.javacpp.opencv_core.MatVector;
 import static org.bytedeco.javacpp.opencv_imgproc.CV_CHAIN_APPROX_TC89_KCOS;
 import static org.bytedeco.javacpp.opencv_imgproc.CV_RETR_EXTERNAL;
@@ -75,25 +74,25 @@ public class FindContoursOperation implements Operation {
   public void perform() {
     final MatWrapper input = inputSocket.getValue().get();
     if (input.empty()) {
+      // Nothing can be found in an empty image, such as a region with no candidates in it
+      contoursSocket.setValue(new ContoursReport(new MatVector(), input));
       return;
     }
 
-    final Mat tmp = new Mat();
     final boolean externalOnly = externalSocket.getValue().get();
 
-    // findContours modifies its input, so we pass it a temporary copy of the input image
-    input.copyTo(tmp);
-
     // OpenCV has a few different things it can return from findContours, but for now we only use
     // EXTERNAL and LIST.
     // The other ones involve hierarchies of contours, which might be useful in some situations,
     // but probably only
     // when processing the contours manually in code (so, not in a graphical pipeline).
-    MatVector contours = new MatVector();
-    findContours(tmp, contours, externalOnly ? CV_RETR_EXTERNAL : CV_RETR_LIST,
+    // The contours are kept by the report, so they can't be reused for the next frame. The input
+    // doesn't need to be copied, though, since findContours hasn't modified its input since
+    // OpenCV 3.2.
+    final MatVector contours = new MatVector();
+    findContours(input.getCpu(), contours, externalOnly ? CV_RETR_EXTERNAL : CV_RETR_LIST,
         CV_CHAIN_APPROX_TC89_KCOS);
-    tmp.release();
 
-    contoursSocket.setValue(new ContoursReport(contours, input.rows(), input.cols()));
+    contoursSocket.setValue(new ContoursReport(contours, input));
   }
 }
@@ -40,6 +40,11 @@ public class FindLinesOperation implements Operation {
 
   private final OutputSocket<LinesReport> linesReportSocket;
 
+  // Scratch mats that are kept between frames, so they're only reallocated when the input's size
+  // changes
+  private final Mat gray = new Mat();
+  private final Mat lines = new Mat();
+
   @Inject
   public FindLinesOperation(InputSocket.Factory inputSocketFactory, OutputSocket.Factory
       outputSocketFactory) {
@@ -66,17 +71,18 @@ public class FindLinesOperation implements Operation {
   public void perform() {
     final MatWrapper input = inputSocket.getValue().get();
     final LineSegmentDetector lsd = linesReportSocket.getValue().get().getLineSegmentDetector();
+    if (input.empty()) {
+      linesReportSocket.setValue(new LinesReport(lsd, input, new ArrayList<>()));
+      return;
+    }
 
-    final Mat lines = new Mat();
     if (input.channels() == 1) {
       lsd.detect(input.getCpu(), lines);
     } else {
       // The line detector works on a single channel.  If the input is a color image, we can just
       // give the line  detector a grayscale version of it
-      final Mat tmp = new Mat();
-      cvtColor(input.getCpu(), tmp, COLOR_BGR2GRAY);
-      lsd.detect(tmp, lines);
-      tmp.release();
+      cvtColor(input.getCpu(), gray, COLOR_BGR2GRAY);
+      lsd.detect(gray, lines);
     }
 
     // Store the lines in the LinesReport object
@@ -89,8 +95,13 @@ public class FindLinesOperation implements Operation {
         lineList.add(new LinesReport.Line(tmp[0], tmp[1], tmp[2], tmp[3]));
       }
     }
-    lines.release();
 
     linesReportSocket.setValue(new LinesReport(lsd, input, lineList));
   }
+
+  @Override
+  public void cleanUp() {
+    gray.deallocate();
+    lines.deallocate();
+  }
 }
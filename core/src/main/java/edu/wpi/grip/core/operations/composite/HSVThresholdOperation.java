@@ -85,11 +85,18 @@ public class HSVThresholdOperation extends ThresholdOperation {
   public void perform() {
     final Mat input = inputSocket.getValue().get().getCpu();
 
+    if (input.empty()) {
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
+      return;
+    }
+
     if (input.channels() != 3) {
       throw new IllegalArgumentException("HSV Threshold needs a 3-channel input");
     }
 
     final Mat output = outputSocket.getValue().get().rawCpu();
+    outputSocket.getValue().get().copyOrigin(inputSocket.getValue().get());
     final List<Number> channel1 = hueSocket.getValue().get();
     final List<Number> channel2 = saturationSocket.getValue().get();
     final List<Number> channel3 = valueSocket.getValue().get();
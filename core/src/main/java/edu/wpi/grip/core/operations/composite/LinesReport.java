@@ -19,6 +19,9 @@ import static org.bytedeco.javacpp.opencv_imgproc.createLineSegmentDetector;
  * This is used by FindLinesOperation as the type of its output socket, allowing other classes (like
  * GUI previews and line filtering operations) to have a type-safe way of operating on line
  * detection results and not just any random matrix.
+ *
+ * <p>The lines are in the coordinates of the input image, but are published in the coordinates of
+ * the full frame if the input was only a region of it.
  */
 @PublishableObject
 @NoSocketTypeLabel
@@ -26,6 +29,8 @@ public class LinesReport implements Publishable {
   private final LineSegmentDetector lsd;
   private final MatWrapper input;
   private final List<Line> lines;
+  private final int originX;
+  private final int originY;
 
   /**
    * Construct an empty report.  This is used as a default value for {@link Socket}s containing
@@ -44,6 +49,8 @@ public class LinesReport implements Publishable {
     this.lsd = lsd;
     this.input = input;
     this.lines = lines;
+    this.originX = input.originX();
+    this.originY = input.originY();
   }
 
   protected LineSegmentDetector getLineSegmentDetector() {
@@ -65,7 +72,7 @@ public class LinesReport implements Publishable {
   public double[] getX1() {
     final double[] x1 = new double[lines.size()];
     for (int i = 0; i < lines.size(); i++) {
-      x1[i] = lines.get(i).x1;
+      x1[i] = originX + lines.get(i).x1;
     }
     return x1;
   }
@@ -74,7 +81,7 @@ public class LinesReport implements Publishable {
   public double[] getY1() {
     final double[] y1 = new double[lines.size()];
     for (int i = 0; i < lines.size(); i++) {
-      y1[i] = lines.get(i).y1;
+      y1[i] = originY + lines.get(i).y1;
     }
     return y1;
   }
@@ -83,7 +90,7 @@ public class LinesReport implements Publishable {
   public double[] getX2() {
     final double[] x2 = new double[lines.size()];
     for (int i = 0; i < lines.size(); i++) {
-      x2[i] = lines.get(i).x2;
+      x2[i] = originX + lines.get(i).x2;
     }
     return x2;
   }
@@ -92,7 +99,7 @@ public class LinesReport implements Publishable {
   public double[] getY2() {
     final double[] y2 = new double[lines.size()];
     for (int i = 0; i < lines.size(); i++) {
-      y2[i] = lines.get(i).y2;
+      y2[i] = originY + lines.get(i).y2;
     }
     return y2;
   }
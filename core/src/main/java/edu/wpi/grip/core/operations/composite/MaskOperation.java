@@ -67,7 +67,14 @@ public class MaskOperation implements Operation {
     final Mat input = inputSocket.getValue().get().getCpu();
     final Mat mask = maskSocket.getValue().get().getCpu();
 
+    if (input.empty() || mask.empty()) {
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
+      return;
+    }
+
     final Mat output = outputSocket.getValue().get().rawCpu();
+    outputSocket.getValue().get().copyOrigin(inputSocket.getValue().get());
 
     // Clear the output to black, then copy the input to it with the mask
     bitwise_xor(output, output, output);
@@ -72,6 +72,11 @@ public class NormalizeOperation extends CudaOperation {
   @Override
   public void perform() {
     final MatWrapper input = inputSocket.getValue().get();
+    if (input.empty()) {
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
+      return;
+    }
     final int type = typeSocket.getValue().get().value;
     final double a = alphaSocket.getValue().get().doubleValue();
     final double b = betaSocket.getValue().get().doubleValue();
@@ -84,6 +89,7 @@ public class NormalizeOperation extends CudaOperation {
     } else {
       opencv_core.normalize(input.getCpu(), output.rawCpu(), a, b, type, -1, null);
     }
+    output.copyOrigin(input);
 
     outputSocket.flagChanged();
   }
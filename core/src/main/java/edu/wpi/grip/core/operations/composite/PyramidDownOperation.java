@@ -0,0 +1,99 @@
+package edu.wpi.grip.core.operations.composite;
+
+import edu.wpi.grip.annotation.operation.Description;
+import edu.wpi.grip.annotation.operation.OperationCategory;
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.core.sockets.OutputSocket;
+import edu.wpi.grip.core.sockets.SocketHints;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+
+import java.util.List;
+
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_imgproc.pyrDown;
+
+/**
+ * Scale an image down by half one or more times, smoothing it first so that small details aren't
+ * lost entirely. This is the first half of a coarse-to-fine search: detection operations can run
+ * on the small image to find candidates cheaply, then {@link RefineInRegionsOperation} can pick
+ * out where they are in the full image for a closer look.
+ *
+ * <p>The output keeps track of how much it was scaled down, so anything found in it is reported
+ * in the coordinates of the full image.
+ */
+@Description(name = "Pyramid Down",
+             summary = "Scale an image down by powers of two for a coarse search",
+             category = OperationCategory.IMAGE_PROCESSING,
+             iconName = "resize")
+public class PyramidDownOperation implements Operation {
+
+  private final InputSocket<MatWrapper> inputSocket;
+  private final InputSocket<Number> levelsSocket;
+
+  private final OutputSocket<MatWrapper> outputSocket;
+
+  // The intermediate levels of the pyramid, reused between frames
+  private final Mat[] levels = {new Mat(), new Mat()};
+
+  @Inject
+  @SuppressWarnings("JavadocMethod")
+  public PyramidDownOperation(InputSocket.Factory inputSocketFactory, OutputSocket.Factory
+      outputSocketFactory) {
+    this.inputSocket = inputSocketFactory.create(SocketHints.createImageSocketHint("Input"));
+    this.levelsSocket = inputSocketFactory.create(SocketHints.Inputs
+        .createNumberSpinnerSocketHint("Levels", 1, 1, 4));
+
+    this.outputSocket = outputSocketFactory.create(SocketHints.createImageSocketHint("Output"));
+  }
+
+  @Override
+  public List<InputSocket> getInputSockets() {
+    return ImmutableList.of(
+        inputSocket,
+        levelsSocket
+    );
+  }
+
+  @Override
+  public List<OutputSocket> getOutputSockets() {
+    return ImmutableList.of(
+        outputSocket
+    );
+  }
+
+  @Override
+  public void perform() {
+    final MatWrapper input = inputSocket.getValue().get();
+    if (input.empty()) {
+      // Don't leave the last frame's levels in the output
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
+      return;
+    }
+    final int levelCount = Math.max(1, levelsSocket.getValue().get().intValue());
+    final MatWrapper output = outputSocket.getValue().get();
+
+    // Each level is half the size of the one before, so every level but the last is cheap
+    Mat src = input.getCpu();
+    for (int level = 1; level < levelCount; level++) {
+      final Mat dst = levels[level % 2];
+      pyrDown(src, dst);
+      src = dst;
+    }
+    pyrDown(src, output.rawCpu());
+    output.copyOriginDownscaled(input, 1 << levelCount);
+
+    outputSocket.flagChanged();
+  }
+
+  @Override
+  public void cleanUp() {
+    for (Mat level : levels) {
+      level.deallocate();
+    }
+  }
+}
@@ -82,11 +82,18 @@ public class RGBThresholdOperation extends ThresholdOperation {
   public void perform() {
     final Mat input = inputSocket.getValue().get().getCpu();
 
+    if (input.empty()) {
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
+      return;
+    }
+
     if (input.channels() != 3) {
       throw new IllegalArgumentException("RGB Threshold needs a 3-channel input");
     }
 
     final Mat output = outputSocket.getValue().get().rawCpu();
+    outputSocket.getValue().get().copyOrigin(inputSocket.getValue().get());
     final List<Number> channel1 = redSocket.getValue().get();
     final List<Number> channel2 = greenSocket.getValue().get();
     final List<Number> channel3 = blueSocket.getValue().get();
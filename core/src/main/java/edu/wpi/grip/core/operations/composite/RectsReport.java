@@ -12,23 +12,38 @@ import org.bytedeco.javacpp.opencv_core.Rect;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
- * Contains the results of a rectangle detection operation.
+ * Contains the results of a rectangle detection operation. The rectangles are in the coordinates
+ * of the image they were found in, but are published in the coordinates of the full frame if the
+ * image was only a region of it, or was scaled down from it.
  */
 @PublishableObject
 @NoSocketTypeLabel
-public class RectsReport implements Publishable {
+public class RectsReport implements Publishable, Detections {
 
   private final MatWrapper image;
   private final List<Rect> rectangles;
+  private final int originX;
+  private final int originY;
+  private final int scale;
 
   public static final RectsReport NIL
       = new RectsReport(MatWrapper.emptyWrapper(), new ArrayList<>());
 
+  /**
+   * Creates a report of the rectangles found in an image.
+   *
+   * @param image      the image the rectangles were found in
+   * @param rectangles the rectangles that were found, in the coordinates of the image
+   */
   public RectsReport(MatWrapper image, List<Rect> rectangles) {
     this.image = image;
     this.rectangles = ImmutableList.copyOf(rectangles);
+    this.originX = image.originX();
+    this.originY = image.originY();
+    this.scale = image.scale();
   }
 
   /**
@@ -51,7 +66,7 @@ public class RectsReport implements Publishable {
   @PublishValue(key = "x", weight = 0)
   public double[] topLeftX() {
     return rectangles.stream()
-        .mapToDouble(Rect::x)
+        .mapToDouble(r -> originX + scale * r.x())
         .toArray();
   }
 
@@ -62,7 +77,7 @@ public class RectsReport implements Publishable {
   @PublishValue(key = "y", weight = 1)
   public double[] topLeftY() {
     return rectangles.stream()
-        .mapToDouble(Rect::y)
+        .mapToDouble(r -> originY + scale * r.y())
         .toArray();
   }
 
@@ -72,7 +87,7 @@ public class RectsReport implements Publishable {
   @PublishValue(key = "width", weight = 2)
   public double[] width() {
     return rectangles.stream()
-        .mapToDouble(Rect::width)
+        .mapToDouble(r -> scale * r.width())
         .toArray();
   }
 
@@ -82,8 +97,15 @@ public class RectsReport implements Publishable {
   @PublishValue(key = "height", weight = 3)
   public double[] height() {
     return rectangles.stream()
-        .mapToDouble(Rect::height)
+        .mapToDouble(r -> scale * r.height())
         .toArray();
   }
 
+  @Override
+  public List<Rect> getFrameBoundingBoxes() {
+    return rectangles.stream()
+        .map(r -> new Rect(originX + scale * r.x(), originY + scale * r.y(), scale * r.width(),
+            scale * r.height()))
+        .collect(Collectors.toList());
+  }
 }
@@ -0,0 +1,127 @@
+package edu.wpi.grip.core.operations.composite;
+
+import edu.wpi.grip.annotation.operation.Description;
+import edu.wpi.grip.annotation.operation.OperationCategory;
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.core.sockets.OutputSocket;
+import edu.wpi.grip.core.sockets.SocketHint;
+import edu.wpi.grip.core.sockets.SocketHints;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+
+import java.util.List;
+
+import static org.bytedeco.javacpp.opencv_core.Rect;
+
+/**
+ * Pick out the part of an image where a coarse search found candidates, so that a finer search
+ * only has to look there. This is the second half of a coarse-to-fine search started with {@link
+ * PyramidDownOperation}: the candidates are found in the scaled down image, and this crops the full
+ * image to the area around all of them.
+ *
+ * <p>Like {@link CropOperation}, the output is a view of the input, and anything found in it is
+ * reported in the coordinates of the full image. If there are no candidates, the output is empty.
+ * The image operations after this pass an empty image along as an empty result instead of failing,
+ * so a frame without candidates isn't treated as an error.
+ */
+@Description(name = "Refine In Regions",
+             summary = "Crop an image to the candidates found by a coarse search",
+             category = OperationCategory.IMAGE_PROCESSING,
+             iconName = "crop")
+public class RefineInRegionsOperation implements Operation {
+
+  private final InputSocket<MatWrapper> inputSocket;
+  private final InputSocket<Detections> candidatesSocket;
+  private final InputSocket<Number> paddingSocket;
+
+  private final OutputSocket<MatWrapper> outputSocket;
+
+  @Inject
+  @SuppressWarnings("JavadocMethod")
+  public RefineInRegionsOperation(InputSocket.Factory inputSocketFactory, OutputSocket.Factory
+      outputSocketFactory) {
+    this.inputSocket = inputSocketFactory.create(SocketHints.createImageSocketHint("Input"));
+    this.candidatesSocket = inputSocketFactory.create(new SocketHint.Builder<>(Detections.class)
+        .identifier("Candidates")
+        .build());
+    this.paddingSocket = inputSocketFactory.create(SocketHints.Inputs
+        .createNumberSpinnerSocketHint("Padding", 10, 0, Integer.MAX_VALUE));
+
+    this.outputSocket = outputSocketFactory.create(SocketHints.createImageSocketHint("Output"));
+  }
+
+  @Override
+  public List<InputSocket> getInputSockets() {
+    return ImmutableList.of(
+        inputSocket,
+        candidatesSocket,
+        paddingSocket
+    );
+  }
+
+  @Override
+  public List<OutputSocket> getOutputSockets() {
+    return ImmutableList.of(
+        outputSocket
+    );
+  }
+
+  @Override
+  public void perform() {
+    final MatWrapper input = inputSocket.getValue().get();
+    final List<Rect> candidates = candidatesSocket.getValue().get().getFrameBoundingBoxes();
+    final int padding = paddingSocket.getValue().get().intValue();
+    final MatWrapper output = outputSocket.getValue().get();
+
+    output.setRegion(input, regionAround(candidates, padding, input));
+
+    outputSocket.flagChanged();
+  }
+
+  /**
+   * Finds the region of an image that covers all of the candidates.
+   *
+   * @param candidates the candidates, in the coordinates of the full frame
+   * @param padding    how far past the candidates the region should go, in pixels of the frame
+   * @param image      the image to find the region in
+   * @return the region, in the coordinates of the image. This is empty if there are no candidates
+   *     in the image.
+   */
+  private static Rect regionAround(List<Rect> candidates, int padding, MatWrapper image) {
+    if (candidates.isEmpty()) {
+      return new Rect(0, 0, 0, 0);
+    }
+    int left = Integer.MAX_VALUE;
+    int top = Integer.MAX_VALUE;
+    int right = Integer.MIN_VALUE;
+    int bottom = Integer.MIN_VALUE;
+    for (Rect candidate : candidates) {
+      left = Math.min(left, candidate.x());
+      top = Math.min(top, candidate.y());
+      right = Math.max(right, candidate.x() + candidate.width());
+      bottom = Math.max(bottom, candidate.y() + candidate.height());
+    }
+
+    // Convert from the frame to the image, rounding outwards so no part of a candidate is lost
+    final int scale = image.scale();
+    final int imageLeft = clamp(Math.floorDiv(left - padding - image.originX(), scale),
+        image.cols());
+    final int imageTop = clamp(Math.floorDiv(top - padding - image.originY(), scale),
+        image.rows());
+    final int imageRight = clamp(-Math.floorDiv(image.originX() - right - padding, scale),
+        image.cols());
+    final int imageBottom = clamp(-Math.floorDiv(image.originY() - bottom - padding, scale),
+        image.rows());
+    if (imageRight <= imageLeft || imageBottom <= imageTop) {
+      return new Rect(0, 0, 0, 0);
+    }
+    return new Rect(imageLeft, imageTop, imageRight - imageLeft, imageBottom - imageTop);
+  }
+
+  private static int clamp(int value, int max) {
+    return Math.max(0, Math.min(value, max));
+  }
+}
@@ -74,16 +74,32 @@ public class ResizeOperation implements Operation {
 
   @Override
   public void perform() {
-    final Mat input = inputSocket.getValue().get().getCpu();
+    final MatWrapper inputWrapper = inputSocket.getValue().get();
+    final Mat input = inputWrapper.getCpu();
+    if (input.empty()) {
+      outputSocket.getValue().get().clear();
+      outputSocket.flagChanged();
+      return;
+    }
     final Number width = widthSocket.getValue().get();
     final Number height = heightSocket.getValue().get();
     final Interpolation interpolation = interpolationSocket.getValue().get();
 
-    final Mat output = outputSocket.getValue().get().rawCpu();
+    final MatWrapper outputWrapper = outputSocket.getValue().get();
+    final Mat output = outputWrapper.rawCpu();
 
     resize(input, output, new Size(width.intValue(), height.intValue()), 0.0, 0.0, interpolation
         .value);
 
+    // Coordinates in the output can only be mapped back to the frame if it was scaled down by a
+    // whole number. Otherwise it's treated as a frame of its own.
+    if (!output.empty() && input.cols() % output.cols() == 0) {
+      final int factor = input.cols() / output.cols();
+      if (input.rows() == output.rows() * factor) {
+        outputWrapper.copyOriginDownscaled(inputWrapper, factor);
+      }
+    }
+
     outputSocket.flagChanged();
   }
 
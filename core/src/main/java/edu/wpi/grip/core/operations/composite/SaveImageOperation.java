@@ -107,7 +107,7 @@ public class SaveImageOperation implements Operation {
 
   @Override
   public void perform() {
-    if (!activeSocket.getValue().orElse(false)) {
+    if (!activeSocket.getValue().orElse(false) || inputSocket.getValue().get().empty()) {
       return;
     }
 
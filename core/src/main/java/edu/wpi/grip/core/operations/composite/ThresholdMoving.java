@@ -54,11 +54,19 @@ public class ThresholdMoving implements Operation {
   @Override
   public void perform() {
     final Mat input = imageSocket.getValue().get().getCpu();
+    if (input.empty()) {
+      // There's nothing to compare the next image to either
+      outputSocket.getValue().get().clear();
+      lastImage.release();
+      outputSocket.flagChanged();
+      return;
+    }
     final Size lastSize = lastImage.size();
     final Size inputSize = input.size();
     if (!lastImage.empty() && lastSize.height() == inputSize.height()
         && lastSize.width() == inputSize.width()) {
       opencv_core.absdiff(input, lastImage, outputSocket.getValue().get().rawCpu());
+      outputSocket.getValue().get().copyOrigin(imageSocket.getValue().get());
     }
     input.copyTo(lastImage);
     outputSocket.flagChanged();
@@ -102,6 +102,10 @@ public class WatershedOperation implements Operation {
   @Override
   public void perform() {
     final Mat input = srcSocket.getValue().get().getCpu();
+    if (input.empty()) {
+      outputSocket.setValue(new ContoursReport());
+      return;
+    }
     if (input.type() != CV_8UC3) {
       throw new IllegalArgumentException("Watershed only works on 8-bit, 3-channel images");
     }
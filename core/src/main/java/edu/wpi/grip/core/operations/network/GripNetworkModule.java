@@ -3,6 +3,7 @@ package edu.wpi.grip.core.operations.network;
 import edu.wpi.grip.core.http.GripServer;
 import edu.wpi.grip.core.http.HttpPipelineSwitcher;
 import edu.wpi.grip.core.operations.network.http.DataHandler;
+import edu.wpi.grip.core.operations.network.http.DataStreamHandler;
 import edu.wpi.grip.core.operations.network.http.HttpPublishManager;
 import edu.wpi.grip.core.operations.network.networktables.NTManager;
 import edu.wpi.grip.core.operations.network.ros.ROSManager;
@@ -26,6 +27,7 @@ public final class GripNetworkModule extends AbstractModule {
     bind(GripServer.class).asEagerSingleton();
     bind(HttpPipelineSwitcher.class).asEagerSingleton();
     bind(DataHandler.class).asEagerSingleton();
+    bind(DataStreamHandler.class).asEagerSingleton();
     // Network publishing bindings
     bind(MapNetworkPublisherFactory.class)
         .annotatedWith(Names.named("ntManager"))
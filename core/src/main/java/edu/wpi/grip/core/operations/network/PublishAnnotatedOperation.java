@@ -3,14 +3,16 @@ package edu.wpi.grip.core.operations.network;
 import edu.wpi.grip.core.sockets.InputSocket;
 import edu.wpi.grip.core.sockets.SocketHints;
 
-import org.apache.commons.lang3.tuple.Pair;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -20,14 +22,39 @@ import static com.google.common.base.Preconditions.checkNotNull;
 /**
  * Publishes data to a specific network protocol. This looks at {@link PublishValue} annotations on
  * accessor methods in a class to generate the data to publish.
+ *
+ * <p>If the data came from a stamped frame, the frame's sequence number and how long ago it was
+ * captured are published alongside it as {@value #FRAME_SEQUENCE_KEY} and
+ * {@value #FRAME_LATENCY_KEY}, so that whatever reads the data can compensate for its age.
  */
 public abstract class PublishAnnotatedOperation<D, P extends Publishable> extends
     NetworkPublishOperation<D> {
 
+  /**
+   * The key that the sequence number of the frame the data was made from is published with.
+   */
+  public static final String FRAME_SEQUENCE_KEY = "frameSequence";
+
+  /**
+   * The key that the time between the frame being captured and the data being published is
+   * published with, in milliseconds.
+   */
+  public static final String FRAME_LATENCY_KEY = "latencyMs";
+
+  private static final ImmutableSet<String> FRAME_KEYS =
+      ImmutableSet.of(FRAME_SEQUENCE_KEY, FRAME_LATENCY_KEY);
+
   private final InputSocket.Factory isf;
-  private final Class<P> publishType;
   private final Function<D, P> converter;
   private final MapNetworkPublisher publisher;
+  private final boolean publishesFrameStamps;
+  private final PublishValueAccessors accessors;
+
+  /**
+   * The map that values are put in to be published. This is refilled every time, since publishers
+   * copy whatever they need from it.
+   */
+  private final Map<String, Object> dataMap = new HashMap<>();
 
   protected PublishAnnotatedOperation(InputSocket.Factory isf,
                                       Class<D> dataType,
@@ -48,12 +75,21 @@ public abstract class PublishAnnotatedOperation<D, P extends Publishable> extend
     }
 
     this.isf = isf;
-    this.publishType = publishType;
     this.converter = converter;
-    this.publisher = publisherFactory.create(valueMethodStream()
+    this.accessors = PublishValueAccessors.of(publishType);
+    final Set<String> keys = valueMethodStream()
         .map(m -> m.getAnnotation(PublishValue.class).key())
         .filter(k -> !k.isEmpty())
-        .collect(Collectors.toSet()));
+        .collect(Collectors.toSet());
+    if (!Sets.intersection(keys, FRAME_KEYS).isEmpty()) {
+      throw new IllegalArgumentException("The keys " + FRAME_KEYS + " are reserved for frame stamps"
+          + " (at " + publishType.getName() + ")");
+    }
+    // A single value without a key has nowhere to put the frame stamp
+    this.publishesFrameStamps = !keys.isEmpty();
+    this.publisher = publisherFactory.create(publishesFrameStamps
+        ? Sets.union(keys, FRAME_KEYS)
+        : keys);
 
     // Make sure there's at least one method to call
     valueMethodStream()
@@ -119,9 +155,7 @@ public abstract class PublishAnnotatedOperation<D, P extends Publishable> extend
    * to publish. The methods are sorted by weight.
    */
   protected Stream<Method> valueMethodStream() {
-    return Stream.of(publishType.getMethods())
-        .filter(m -> m.isAnnotationPresent(PublishValue.class))
-        .sorted(Comparator.comparing(m -> m.getAnnotation(PublishValue.class).weight()));
+    return accessors.methods().stream();
   }
 
   @Override
@@ -136,10 +170,17 @@ public abstract class PublishAnnotatedOperation<D, P extends Publishable> extend
   @Override
   protected void doPublish() {
     publisher.setName(nameSocket.getValue().get());
-    D data = dataSocket.getValue().get();
-    Map<String, Object> dataMap = valueMethodStream()
-        .map(m -> Pair.of(m.getAnnotation(PublishValue.class).key(), get(m, converter.apply(data))))
-        .collect(Collectors.toMap(Pair::getLeft, Pair::getRight));
+    final P value = converter.apply(dataSocket.getValue().get());
+    dataMap.clear();
+    for (int i = 0; i < accessors.size(); i++) {
+      dataMap.put(accessors.key(i), accessors.get(i, value));
+    }
+    if (publishesFrameStamps) {
+      dataSocket.getFrameStamp().ifPresent(stamp -> {
+        dataMap.put(FRAME_SEQUENCE_KEY, stamp.getSequence());
+        dataMap.put(FRAME_LATENCY_KEY, stamp.getAge(TimeUnit.MICROSECONDS) / 1000.0);
+      });
+    }
     publisher.publish(dataMap);
   }
 
@@ -147,21 +188,6 @@ public abstract class PublishAnnotatedOperation<D, P extends Publishable> extend
     return dataType;
   }
 
-  /**
-   * Helper method for invoking an accessor method on an object.
-   *
-   * @param accessor the accessor method to invoke
-   * @param instance the object to invoke the accessor on
-   * @return Value returned by the accessor method, or null if the method could not be invoked.
-   */
-  protected Object get(Method accessor, Object instance) {
-    try {
-      return accessor.invoke(instance);
-    } catch (IllegalAccessException | InvocationTargetException ex) {
-      return null;
-    }
-  }
-
   @Override
   public void cleanUp() {
     publisher.close();
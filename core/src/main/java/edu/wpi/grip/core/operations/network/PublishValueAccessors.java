@@ -0,0 +1,112 @@
+package edu.wpi.grip.core.operations.network;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * The methods annotated with {@link PublishValue} in a publishable type, sorted by weight. These
+ * are looked up once per type and shared by every operation that publishes it, and are called
+ * through method handles instead of reflection, so publishing a value doesn't have to search the
+ * type's methods or box its arguments.
+ */
+@SuppressWarnings("PMD.DefaultPackage")
+final class PublishValueAccessors {
+
+  private static final Map<Class<?>, PublishValueAccessors> cache = new ConcurrentHashMap<>();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private final ImmutableList<Method> methods;
+  private final String[] keys;
+  /**
+   * The handle for calling each method, or null for methods that can't be called as an accessor.
+   * Types with methods like that are rejected by {@link PublishAnnotatedOperation}.
+   */
+  private final MethodHandle[] getters;
+
+  private PublishValueAccessors(Class<?> type) {
+    this.methods = Stream.of(type.getMethods())
+        .filter(m -> m.isAnnotationPresent(PublishValue.class))
+        .sorted(Comparator.comparing(m -> m.getAnnotation(PublishValue.class).weight()))
+        .collect(Collectors.collectingAndThen(Collectors.toList(), ImmutableList::copyOf));
+    this.keys = methods.stream()
+        .map(m -> m.getAnnotation(PublishValue.class).key())
+        .toArray(String[]::new);
+    this.getters = methods.stream()
+        .map(PublishValueAccessors::getter)
+        .toArray(MethodHandle[]::new);
+  }
+
+  /**
+   * Gets the accessors of a publishable type.
+   */
+  static PublishValueAccessors of(Class<?> type) {
+    return cache.computeIfAbsent(type, PublishValueAccessors::new);
+  }
+
+  @Nullable
+  private static MethodHandle getter(Method method) {
+    if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() > 0) {
+      return null;
+    }
+    try {
+      return MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Gets the annotated methods, sorted by weight.
+   */
+  ImmutableList<Method> methods() {
+    return methods;
+  }
+
+  int size() {
+    return keys.length;
+  }
+
+  /**
+   * Gets the key of the value at the given index.
+   */
+  String key(int index) {
+    return keys[index];
+  }
+
+  /**
+   * Gets the value at the given index from an instance of the publishable type.
+   *
+   * @return the value, or null if the accessor could not be called
+   */
+  @Nullable
+  @SuppressWarnings("PMD.AvoidCatchingThrowable")
+  Object get(int index, Object instance) {
+    final MethodHandle getter = getters[index];
+    if (getter == null) {
+      return null;
+    }
+    try {
+      return getter.invokeExact(instance);
+    } catch (Exception e) {
+      // An exception from the accessor means it has no value, as when it was called reflectively
+      return null;
+    } catch (Throwable e) {
+      // Errors aren't the accessor's to swallow
+      Throwables.throwIfUnchecked(e);
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -5,44 +5,76 @@ import edu.wpi.grip.core.events.RunStoppedEvent;
 import edu.wpi.grip.core.http.ContextStore;
 import edu.wpi.grip.core.http.GripServer;
 import edu.wpi.grip.core.http.PedanticHandler;
+import edu.wpi.grip.core.util.DaemonThread;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.eventbus.Subscribe;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-
 import org.eclipse.jetty.server.Request;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static javax.servlet.http.HttpServletResponse.SC_METHOD_NOT_ALLOWED;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static javax.servlet.http.HttpServletResponse.SC_OK;
 
 /**
  * Jetty handler for sending HTTP publishing data to a client.
  * Only one instance of this class should exist at a time.
+ *
+ * <p>The published data is captured in an immutable snapshot each time the pipeline finishes
+ * running, and requests are always answered straight away from the latest snapshot. Each snapshot
+ * is only serialized once, the first time it's requested. Responses have an {@code ETag}, so
+ * clients that send it back in an {@code If-None-Match} header get a {@code 304 Not Modified} if
+ * the data hasn't changed.
+ *
+ * <p>Clients can also wait for the next run of the pipeline instead of polling, by sending the
+ * {@code ETag} of the data they already have along with a {@code Prefer: wait=<seconds>} header.
+ * The request is then held, without tying up a server thread, until the pipeline runs again or
+ * the wait is over.
  */
 @Singleton
 public final class DataHandler extends PedanticHandler {
 
+  private static final Logger logger = Logger.getLogger(DataHandler.class.getName());
+
   /**
-   * Json serializer.
+   * The longest a client can wait for the next run of the pipeline. This is kept under Jetty's
+   * default idle timeout so held connections aren't closed.
    */
-  private final Gson gson;
+  private static final long MAX_WAIT_SECONDS = 20;
+
+  private static final Pattern WAIT_PREFERENCE =
+      Pattern.compile("(?:^|[,;\\s])wait\\s*=\\s*(\\d+)", Pattern.CASE_INSENSITIVE);
 
   /**
    * Map of data supplier to their names.
@@ -50,29 +82,46 @@ public final class DataHandler extends PedanticHandler {
   private final Map<String, Supplier<?>> dataSuppliers;
 
   /**
-   * Atomic flag set when the pipeline is running so that requests for data won't get stale data.
+   * Flag set while the pipeline is running, so that snapshots are only taken of complete runs.
+   */
+  private final AtomicBoolean running;
+
+  /**
+   * Flag set when data is added or removed between runs of the pipeline, so the next request
+   * takes a new snapshot.
    */
-  private final AtomicBoolean staleData;
+  private final AtomicBoolean changedWhileIdle = new AtomicBoolean(false);
 
   /**
-   * Lock used to park the handler thread while the pipeline is running.
+   * The data from the most recent run of the pipeline.
    */
-  private final Object runningLock = new Object();
+  private volatile DataSnapshot snapshot;
+
+  /**
+   * Requests that are waiting for the next snapshot.
+   */
+  @GuardedBy("waiting")
+  private final List<Waiter> waiting = new ArrayList<>();
+
+  /**
+   * Listeners that are told about every new snapshot, eg to stream it to clients.
+   */
+  private final Set<Consumer<DataSnapshot>> snapshotListeners = new CopyOnWriteArraySet<>();
+
+  /**
+   * Answers waiting requests, so the pipeline isn't held up by slow clients.
+   */
+  private final Executor responder = Executors.newSingleThreadExecutor(DaemonThread::new);
 
   @Inject
   DataHandler(ContextStore store) {
     super(store, GripServer.DATA_PATH, true);
-    this.dataSuppliers = new HashMap<>();
-    this.gson = new GsonBuilder()
-        .setPrettyPrinting()
-        .serializeSpecialFloatingPointValues()
-        .create();
-    this.staleData = new AtomicBoolean(false);
+    this.dataSuppliers = new ConcurrentSkipListMap<>();
+    this.running = new AtomicBoolean(false);
+    this.snapshot = new DataSnapshot(0, ImmutableSortedMap.of());
   }
 
   @Override
-  @SuppressFBWarnings(value = "UW_UNCOND_WAIT",
-      justification = "A bug in FindBugs.  There is a condidtion (outside of the try)")
   protected void handleIfPassed(String target,
                                 Request baseRequest,
                                 HttpServletRequest request,
@@ -83,26 +132,71 @@ public final class DataHandler extends PedanticHandler {
       baseRequest.setHandled(true);
       return;
     }
-    while (staleData.get()) {
-      synchronized (runningLock) {
-        try {
-          runningLock.wait();
-        } catch (InterruptedException e) {
-          throw new ServletException("Could not lock the HTTP data handler thread", e);
+    final Map<String, String[]> uriParameters = request.getParameterMap();
+    final DataSnapshot current = getSnapshot();
+    final String etag = current.getEtag(uriParameters);
+    final long waitSeconds = waitSeconds(request.getHeader("Prefer"));
+    if (waitSeconds > 0 && etag.equals(request.getHeader("If-None-Match"))) {
+      // The client already has this data, so hold the request until the pipeline runs again
+      final AsyncContext async = baseRequest.startAsync();
+      async.setTimeout(TimeUnit.SECONDS.toMillis(waitSeconds));
+      final Waiter waiter = new Waiter(async, uriParameters, etag);
+      async.addListener(waiter);
+      synchronized (waiting) {
+        if (snapshot == current) {
+          waiting.add(waiter);
+          baseRequest.setHandled(true);
+          return;
         }
       }
+      // A new snapshot was published in the meantime
+      waiter.respond(snapshot);
+      baseRequest.setHandled(true);
+      return;
     }
-    final Map<String, String[]> uriParameters = request.getParameterMap();
-    Map<String, ?> requestedData = dataSuppliers.entrySet()
-        .stream()
-        .filter(e -> uriParameters.isEmpty() || uriParameters.containsKey(e.getKey()))
-        .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get()));
-    String json = gson.toJson(requestedData);
-    sendTextContent(response, json, CONTENT_TYPE_JSON);
-    response.setStatus(SC_OK);
+    respond(current, uriParameters, request.getHeader("If-None-Match"), response);
     baseRequest.setHandled(true);
   }
 
+  /**
+   * Sends the requested data from a snapshot, or a {@code 304 Not Modified} if the client already
+   * has it.
+   */
+  private static void respond(DataSnapshot snapshot,
+                              Map<String, String[]> uriParameters,
+                              @Nullable String ifNoneMatch,
+                              HttpServletResponse response) throws IOException {
+    final String etag = snapshot.getEtag(uriParameters);
+    response.setHeader("ETag", etag);
+    response.setHeader("Cache-Control", "no-cache");
+    if (etag.equals(ifNoneMatch)) {
+      response.setStatus(SC_NOT_MODIFIED);
+      return;
+    }
+    sendTextContent(response, snapshot.getJson(uriParameters), CONTENT_TYPE_JSON);
+    response.setStatus(SC_OK);
+  }
+
+  /**
+   * Gets how long a client would like to wait for the next run of the pipeline, from an RFC 7240
+   * {@code Prefer} header. Returns zero if the client doesn't want to wait.
+   */
+  @VisibleForTesting
+  static long waitSeconds(@Nullable String prefer) {
+    if (prefer == null) {
+      return 0;
+    }
+    final Matcher matcher = WAIT_PREFERENCE.matcher(prefer);
+    if (!matcher.find()) {
+      return 0;
+    }
+    try {
+      return Math.min(Long.parseLong(matcher.group(1)), MAX_WAIT_SECONDS);
+    } catch (NumberFormatException e) {
+      return MAX_WAIT_SECONDS;
+    }
+  }
+
   /**
    * Adds a supplier for data with the given name.
    * The data will be published to {@code /GRIP/data} on the internal HTTP server.
@@ -114,6 +208,7 @@ public final class DataHandler extends PedanticHandler {
     checkNotNull(name, "name");
     checkNotNull(supplier, "supplier");
     dataSuppliers.put(name, supplier);
+    publishIfIdle();
   }
 
   /**
@@ -123,19 +218,162 @@ public final class DataHandler extends PedanticHandler {
    * @param name the name of the data to remove
    */
   public void removeDataSupplier(@Nullable String name) {
-    dataSuppliers.remove(name);
+    if (name != null && dataSuppliers.remove(name) != null) {
+      publishIfIdle();
+    }
+  }
+
+  /**
+   * Gets the most recently published data.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  DataSnapshot getSnapshot() {
+    if (changedWhileIdle.compareAndSet(true, false) && !running.get()) {
+      publish();
+    }
+    return snapshot;
+  }
+
+  /**
+   * Adds a listener that's called with each new snapshot, on the thread that published it.
+   * Listeners must not block, since they hold up the pipeline.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  void addSnapshotListener(Consumer<DataSnapshot> listener) {
+    snapshotListeners.add(checkNotNull(listener, "listener"));
+  }
+
+  /**
+   * Removes a listener added with {@link #addSnapshotListener(Consumer)}.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  void removeSnapshotListener(Consumer<DataSnapshot> listener) {
+    snapshotListeners.remove(listener);
   }
 
   @Subscribe
   public void onPipelineStart(@Nullable RunStartedEvent e) {
-    staleData.set(true);
+    if (changedWhileIdle.get()) {
+      // Don't lose changes made since the last run
+      publish();
+    }
+    running.set(true);
   }
 
   @Subscribe
   public void onPipelineStop(@Nullable RunStoppedEvent e) {
-    staleData.set(false);
-    synchronized (runningLock) {
-      runningLock.notifyAll();
+    running.set(false);
+    publish();
+  }
+
+  /**
+   * Publishes a new snapshot if data was added or removed between runs of the pipeline. Changes
+   * made while the pipeline is running are published when it stops. If nobody is waiting or
+   * listening for the change, it's left for the next request to pick up.
+   */
+  private void publishIfIdle() {
+    if (running.get()) {
+      return;
+    }
+    final boolean anyWaiting;
+    synchronized (waiting) {
+      anyWaiting = !waiting.isEmpty();
+    }
+    if (anyWaiting || !snapshotListeners.isEmpty()) {
+      publish();
+    } else {
+      changedWhileIdle.set(true);
+    }
+  }
+
+  /**
+   * Takes a snapshot of the current data and wakes up any requests and listeners that were waiting
+   * for it.
+   */
+  private void publish() {
+    changedWhileIdle.set(false);
+    final ImmutableSortedMap.Builder<String, Object> values = ImmutableSortedMap.naturalOrder();
+    dataSuppliers.forEach((name, supplier) -> {
+      final Object value = supplier.get();
+      if (value != null) {
+        values.put(name, value);
+      }
+    });
+    final DataSnapshot next = new DataSnapshot(snapshot.getSequence() + 1, values.build());
+    final List<Waiter> woken;
+    synchronized (waiting) {
+      snapshot = next;
+      woken = new ArrayList<>(waiting);
+      waiting.clear();
+    }
+    for (Waiter waiter : woken) {
+      responder.execute(() -> waiter.respond(next));
+    }
+    snapshotListeners.forEach(listener -> listener.accept(next));
+  }
+
+  /**
+   * A request that is waiting for the next snapshot.
+   */
+  private final class Waiter implements AsyncListener {
+    private final AsyncContext async;
+    private final Map<String, String[]> uriParameters;
+    private final String etag;
+    private final AtomicBoolean done = new AtomicBoolean(false);
+
+    private Waiter(AsyncContext async, Map<String, String[]> uriParameters, String etag) {
+      this.async = async;
+      this.uriParameters = uriParameters;
+      this.etag = etag;
+    }
+
+    /**
+     * Responds with a snapshot, unless this request has already been answered or timed out.
+     */
+    private void respond(DataSnapshot snapshot) {
+      if (!done.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        DataHandler.respond(snapshot, uriParameters, etag,
+            (HttpServletResponse) async.getResponse());
+      } catch (IOException e) {
+        logger.log(Level.FINE, "Could not send data to a waiting client", e);
+      } finally {
+        async.complete();
+      }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      synchronized (waiting) {
+        waiting.remove(this);
+      }
+      // Nothing new; the client should ask again
+      if (done.compareAndSet(false, true)) {
+        final HttpServletResponse response = (HttpServletResponse) async.getResponse();
+        response.setHeader("ETag", etag);
+        response.setStatus(SC_NOT_MODIFIED);
+        async.complete();
+      }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      done.set(true);
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      synchronized (waiting) {
+        waiting.remove(this);
+      }
+      done.set(true);
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // Requests are never restarted
     }
   }
 }
@@ -0,0 +1,92 @@
+package edu.wpi.grip.core.operations.network.http;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The data published over HTTP at the end of one run of the pipeline. This is serialized lazily,
+ * so the pipeline doesn't pay for serializing data that nobody asks for.
+ */
+@Immutable
+@SuppressWarnings("PMD.DefaultPackage")
+final class DataSnapshot {
+
+  /**
+   * Json serializer.
+   */
+  private static final Gson gson = new GsonBuilder()
+      .setPrettyPrinting()
+      .serializeSpecialFloatingPointValues()
+      .create();
+
+  private final long sequence;
+  private final Supplier<ImmutableSortedMap<String, JsonElement>> trees;
+  private final Supplier<String> json;
+  private final Supplier<String> etag;
+
+  DataSnapshot(long sequence, ImmutableSortedMap<String, Object> values) {
+    this.sequence = sequence;
+    this.trees = Suppliers.memoize(() ->
+        ImmutableSortedMap.copyOfSorted(Maps.transformValues(values, gson::toJsonTree)))::get;
+    this.json = Suppliers.memoize(() -> toJson(trees.get(), null))::get;
+    this.etag = Suppliers.memoize(() -> etagOf(json.get()))::get;
+  }
+
+  /**
+   * Gets the number of this snapshot. Each snapshot is numbered one higher than the last.
+   */
+  long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Gets the json tree of each piece of data, by name.
+   */
+  ImmutableSortedMap<String, JsonElement> getTrees() {
+    return trees.get();
+  }
+
+  /**
+   * Gets the data as a pretty-printed json object.
+   *
+   * @param uriParameters the names of the data to include, or an empty map for all of it
+   */
+  String getJson(Map<String, String[]> uriParameters) {
+    return uriParameters.isEmpty() ? json.get() : toJson(trees.get(), uriParameters);
+  }
+
+  /**
+   * Gets the entity tag of the data returned by {@link #getJson(Map)}.
+   */
+  String getEtag(Map<String, String[]> uriParameters) {
+    return uriParameters.isEmpty() ? etag.get() : etagOf(getJson(uriParameters));
+  }
+
+  private static String toJson(Map<String, JsonElement> trees,
+                               @Nullable Map<String, String[]> uriParameters) {
+    final JsonObject object = new JsonObject();
+    trees.forEach((name, tree) -> {
+      if (uriParameters == null || uriParameters.containsKey(name)) {
+        object.add(name, tree);
+      }
+    });
+    return gson.toJson(object);
+  }
+
+  private static String etagOf(String json) {
+    return '"' + Hashing.murmur3_128().hashString(json, StandardCharsets.UTF_8).toString() + '"';
+  }
+}
@@ -0,0 +1,302 @@
+package edu.wpi.grip.core.operations.network.http;
+
+import edu.wpi.grip.core.http.ContextStore;
+import edu.wpi.grip.core.http.GripServer;
+import edu.wpi.grip.core.http.PedanticHandler;
+import edu.wpi.grip.core.util.DaemonThread;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.eclipse.jetty.server.Request;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static javax.servlet.http.HttpServletResponse.SC_METHOD_NOT_ALLOWED;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+
+/**
+ * Jetty handler for streaming HTTP publishing data to clients as server-sent events, so they don't
+ * have to poll {@link GripServer#DATA_PATH} for it. See {@link GripServer#STREAM_PATH} for the
+ * format of the stream.
+ *
+ * <p>Each client is sent the latest snapshot from the {@link DataHandler} as soon as its connection
+ * can take it, without blocking the pipeline. A client that can't keep up only ever has one
+ * snapshot waiting to be sent, and newer snapshots replace it rather than queueing up behind it.
+ */
+@Singleton
+public final class DataStreamHandler extends PedanticHandler {
+
+  private static final Logger logger = Logger.getLogger(DataStreamHandler.class.getName());
+
+  private static final String CONTENT_TYPE_EVENT_STREAM = "text/event-stream";
+
+  /**
+   * How often to send a comment to idle clients, so their connections aren't closed by Jetty or
+   * any proxies in between.
+   */
+  private static final long HEARTBEAT_SECONDS = 15;
+
+  private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * Compact json serializer, since every event has to fit on one line. Nulls are kept so clients
+   * can tell when data is removed.
+   */
+  private static final Gson gson = new GsonBuilder()
+      .serializeNulls()
+      .serializeSpecialFloatingPointValues()
+      .create();
+
+  private final DataHandler dataHandler;
+
+  /**
+   * The clients that are currently connected.
+   */
+  private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+  /**
+   * Writes to clients, and sends heartbeats to them.
+   */
+  private final ScheduledExecutorService sender =
+      Executors.newSingleThreadScheduledExecutor(DaemonThread::new);
+
+  @Inject
+  DataStreamHandler(ContextStore store, DataHandler dataHandler) {
+    super(store, GripServer.STREAM_PATH, true);
+    this.dataHandler = dataHandler;
+    sender.scheduleWithFixedDelay(
+        () -> subscribers.forEach(Subscriber::heartbeat),
+        HEARTBEAT_SECONDS,
+        HEARTBEAT_SECONDS,
+        TimeUnit.SECONDS);
+  }
+
+  @Override
+  protected void handleIfPassed(String target,
+                                Request baseRequest,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException, ServletException {
+    if (!isGet(request)) {
+      // Only allow GET on the stream path
+      response.setStatus(SC_METHOD_NOT_ALLOWED);
+      baseRequest.setHandled(true);
+      return;
+    }
+    response.setStatus(SC_OK);
+    response.setContentType(CONTENT_TYPE_EVENT_STREAM);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader("Cache-Control", "no-cache");
+    final AsyncContext async = baseRequest.startAsync();
+    async.setTimeout(0);
+    final Subscriber subscriber = new Subscriber(async, request.getParameterMap().keySet());
+    async.addListener(subscriber);
+    subscribers.add(subscriber);
+    // The output stream can't be written to until it has a write listener, so this has to be set
+    // before any snapshot can be sent to the client
+    response.getOutputStream().setWriteListener(subscriber);
+    // Listen before getting the current snapshot, so nothing published in between is missed
+    dataHandler.addSnapshotListener(subscriber);
+    subscriber.pending.compareAndSet(null, dataHandler.getSnapshot());
+    sender.execute(subscriber::drain);
+    baseRequest.setHandled(true);
+  }
+
+  /**
+   * A client that's connected to the stream.
+   */
+  private final class Subscriber implements Consumer<DataSnapshot>, WriteListener, AsyncListener {
+    private final AsyncContext async;
+    private final ImmutableSet<String> keys;
+
+    /**
+     * The snapshot to send next, if it hasn't been sent yet.
+     */
+    private final AtomicReference<DataSnapshot> pending = new AtomicReference<>();
+    private final AtomicBoolean heartbeatDue = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * The data this client has been sent, so only changes need to be sent from now on.
+     */
+    @GuardedBy("this")
+    private final Map<String, JsonElement> sent = new HashMap<>();
+    @GuardedBy("this")
+    private boolean sentAny = false;
+    @GuardedBy("this")
+    private boolean unflushed = false;
+    @GuardedBy("this")
+    private long dropped = 0;
+
+    private Subscriber(AsyncContext async, Set<String> keys) {
+      this.async = async;
+      this.keys = ImmutableSet.copyOf(keys);
+    }
+
+    /**
+     * Queues a snapshot to be sent, replacing any that this client hasn't been sent yet.
+     */
+    @Override
+    public void accept(DataSnapshot snapshot) {
+      if (pending.getAndSet(snapshot) != null) {
+        synchronized (this) {
+          dropped++;
+        }
+      }
+      sender.execute(this::drain);
+    }
+
+    private void heartbeat() {
+      heartbeatDue.set(true);
+      drain();
+    }
+
+    @Override
+    public void onWritePossible() {
+      drain();
+    }
+
+    /**
+     * Writes as much as the connection will take without blocking. Jetty calls
+     * {@link #onWritePossible()} once the connection can take more.
+     */
+    private synchronized void drain() {
+      if (closed.get()) {
+        return;
+      }
+      try {
+        final ServletOutputStream out = async.getResponse().getOutputStream();
+        // Jetty needs isReady() to be checked before every write and flush
+        while (out.isReady()) {
+          final DataSnapshot snapshot = pending.getAndSet(null);
+          if (snapshot != null) {
+            final byte[] event = toEvent(snapshot);
+            if (event.length > 0) {
+              out.write(event);
+              unflushed = true;
+            }
+            continue;
+          }
+          if (heartbeatDue.getAndSet(false)) {
+            out.write(HEARTBEAT);
+            unflushed = true;
+          } else if (unflushed) {
+            unflushed = false;
+            out.flush();
+          } else {
+            return;
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        logger.log(Level.FINE, "Could not stream data to a client", e);
+        close();
+      }
+    }
+
+    /**
+     * Encodes the data that's changed since the last event as an event, or returns an empty array
+     * if nothing has changed.
+     */
+    @GuardedBy("this")
+    private byte[] toEvent(DataSnapshot snapshot) {
+      final Map<String, JsonElement> trees = snapshot.getTrees();
+      final JsonObject changes = new JsonObject();
+      trees.forEach((name, tree) -> {
+        if ((keys.isEmpty() || keys.contains(name)) && !tree.equals(sent.get(name))) {
+          changes.add(name, tree);
+        }
+      });
+      sent.keySet().forEach(name -> {
+        if (!trees.containsKey(name)) {
+          changes.add(name, JsonNull.INSTANCE);
+        }
+      });
+      if (sentAny && changes.entrySet().isEmpty()) {
+        return new byte[0];
+      }
+      changes.entrySet().forEach(change -> {
+        if (change.getValue().isJsonNull()) {
+          sent.remove(change.getKey());
+        } else {
+          sent.put(change.getKey(), change.getValue());
+        }
+      });
+      sentAny = true;
+      return ("id: " + snapshot.getSequence() + "\nevent: data\ndata: " + gson.toJson(changes)
+          + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void close() {
+      if (closed.compareAndSet(false, true)) {
+        dataHandler.removeSnapshotListener(this);
+        subscribers.remove(this);
+        synchronized (this) {
+          if (dropped > 0) {
+            logger.fine("A client skipped " + dropped + " snapshots because it couldn't keep up");
+          }
+        }
+        try {
+          async.complete();
+        } catch (IllegalStateException e) {
+          // Already completed
+          logger.log(Level.FINEST, "Stream was already complete", e);
+        }
+      }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      logger.log(Level.FINE, "Error streaming data to a client", t);
+      close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // Streams are never restarted
+    }
+  }
+}
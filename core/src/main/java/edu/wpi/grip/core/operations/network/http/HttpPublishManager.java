@@ -21,9 +21,12 @@ public class HttpPublishManager implements Manager, MapNetworkPublisherFactory {
   private final DataHandler dataHandler;
 
   @Inject
-  public HttpPublishManager(GripServer server, DataHandler dataHandler) {
+  public HttpPublishManager(GripServer server,
+                            DataHandler dataHandler,
+                            DataStreamHandler dataStreamHandler) {
     this.dataHandler = dataHandler;
     server.addHandler(dataHandler);
+    server.addHandler(dataStreamHandler);
   }
 
   @Override
@@ -0,0 +1,344 @@
+package edu.wpi.grip.core.operations.network.http;
+
+import edu.wpi.grip.core.http.ContextStore;
+import edu.wpi.grip.core.http.GripServer;
+import edu.wpi.grip.core.http.PedanticHandler;
+import edu.wpi.grip.core.util.DaemonThread;
+
+import com.google.common.primitives.Bytes;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.eclipse.jetty.server.Request;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javax.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
+import static javax.servlet.http.HttpServletResponse.SC_METHOD_NOT_ALLOWED;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+
+/**
+ * Jetty handler for streaming video to any number of clients as MJPEG. See
+ * {@link GripServer#VIDEO_PATH} for the parameters clients can ask for.
+ *
+ * <p>Each client is written to with non-blocking I/O, so one that's on a slow connection only
+ * misses frames itself, without holding up the pipeline or any other clients.
+ */
+@Singleton
+public final class MjpegHandler extends PedanticHandler {
+
+  private static final Logger logger = Logger.getLogger(MjpegHandler.class.getName());
+
+  /**
+   * The name of the stream that's sent when a client doesn't ask for one.
+   */
+  public static final String DEFAULT_STREAM = "video";
+
+  private static final String BOUNDARY = "grip-frame";
+
+  /**
+   * How often to send the last frame again to clients that haven't been sent one, so their
+   * connections aren't closed while the pipeline isn't running.
+   */
+  private static final long KEEPALIVE_SECONDS = 10;
+
+  /**
+   * The streams that publishers have opened. Clients can only watch these, so they can't make the
+   * handler keep streams around that nothing will ever publish to.
+   */
+  @GuardedBy("this")
+  private final Map<String, VideoStream> streams = new HashMap<>();
+
+  /**
+   * How many times each stream has been opened and not yet closed.
+   */
+  @GuardedBy("this")
+  private final Map<VideoStream, Integer> openCounts = new HashMap<>();
+
+  /**
+   * The clients that are currently connected.
+   */
+  private final Set<MjpegClient> clients = new CopyOnWriteArraySet<>();
+
+  /**
+   * Encodes frames for every stream.
+   */
+  private final Executor encoder = Executors.newSingleThreadExecutor(DaemonThread::new);
+
+  /**
+   * Writes to clients, and keeps their connections alive.
+   */
+  private final ScheduledExecutorService sender =
+      Executors.newSingleThreadScheduledExecutor(DaemonThread::new);
+
+  @Inject
+  MjpegHandler(ContextStore store) {
+    super(store, GripServer.VIDEO_PATH, true);
+    sender.scheduleWithFixedDelay(
+        () -> clients.forEach(MjpegClient::keepAlive),
+        KEEPALIVE_SECONDS,
+        KEEPALIVE_SECONDS,
+        TimeUnit.SECONDS);
+  }
+
+  /**
+   * Opens the stream with the given name for publishing, creating it if it isn't open yet. Each
+   * call must be matched by a call to {@link #closeStream(VideoStream)} once the caller stops
+   * publishing to it.
+   *
+   * @param name the name of the stream
+   */
+  public synchronized VideoStream openStream(String name) {
+    checkNotNull(name, "name");
+    final VideoStream stream = streams.computeIfAbsent(name, n -> new VideoStream(n, encoder));
+    openCounts.merge(stream, 1, Integer::sum);
+    return stream;
+  }
+
+  /**
+   * Closes a stream that was {@link #openStream(String) opened}. Once every publisher has closed
+   * it, the stream is removed and any clients still watching it are disconnected.
+   *
+   * @param stream the stream to close
+   */
+  public void closeStream(VideoStream stream) {
+    checkNotNull(stream, "stream");
+    synchronized (this) {
+      final Integer count = openCounts.get(stream);
+      if (count == null) {
+        return;
+      }
+      if (count > 1) {
+        openCounts.put(stream, count - 1);
+        return;
+      }
+      openCounts.remove(stream);
+      streams.remove(stream.getName());
+    }
+    clients.stream()
+        .filter(client -> client.stream == stream)
+        .forEach(client -> sender.execute(client::close));
+  }
+
+  @Nullable
+  private synchronized VideoStream findStream(String name) {
+    return streams.get(name);
+  }
+
+  @Override
+  protected void handleIfPassed(String target,
+                                Request baseRequest,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException, ServletException {
+    if (!isGet(request)) {
+      // Only allow GET on the video path
+      response.setStatus(SC_METHOD_NOT_ALLOWED);
+      baseRequest.setHandled(true);
+      return;
+    }
+    final int width;
+    final int height;
+    final double fps;
+    try {
+      width = intParameter(request, "width");
+      height = intParameter(request, "height");
+      fps = request.getParameter("fps") == null
+          ? 0
+          : Double.parseDouble(request.getParameter("fps"));
+    } catch (NumberFormatException e) {
+      response.setStatus(SC_BAD_REQUEST);
+      baseRequest.setHandled(true);
+      return;
+    }
+    if (width < 0 || height < 0 || fps < 0 || Double.isNaN(fps)) {
+      response.setStatus(SC_BAD_REQUEST);
+      baseRequest.setHandled(true);
+      return;
+    }
+
+    final String name = request.getParameter("name");
+    final VideoStream stream = findStream(name == null ? DEFAULT_STREAM : name);
+    if (stream == null) {
+      // Nothing publishes a stream with that name
+      response.setStatus(SC_NOT_FOUND);
+      baseRequest.setHandled(true);
+      return;
+    }
+
+    response.setStatus(SC_OK);
+    response.setContentType("multipart/x-mixed-replace; boundary=" + BOUNDARY);
+    response.setHeader("Cache-Control", "no-cache");
+    final AsyncContext async = baseRequest.startAsync();
+    async.setTimeout(0);
+    final MjpegClient client = new MjpegClient(async, stream, width, height, fps);
+    async.addListener(client);
+    clients.add(client);
+    stream.addClient(client);
+    response.getOutputStream().setWriteListener(client);
+    baseRequest.setHandled(true);
+    if (findStream(stream.getName()) != stream) {
+      // The stream was closed before the client was added, so it'll never be sent anything
+      sender.execute(client::close);
+    }
+  }
+
+  private static int intParameter(HttpServletRequest request, String name) {
+    final String value = request.getParameter(name);
+    return value == null ? 0 : Integer.parseInt(value);
+  }
+
+  /**
+   * Encodes a frame as one part of a {@code multipart/x-mixed-replace} response.
+   */
+  private static byte[] toPart(byte[] jpeg) {
+    final String headers = "--" + BOUNDARY + "\r\n"
+        + "Content-Type: image/jpeg\r\n"
+        + "Content-Length: " + jpeg.length + "\r\n"
+        + "\r\n";
+    return Bytes.concat(headers.getBytes(StandardCharsets.US_ASCII), jpeg,
+        "\r\n".getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * A client that's watching a stream over HTTP.
+   */
+  private final class MjpegClient extends VideoStream.Client
+      implements WriteListener, AsyncListener {
+    private final AsyncContext async;
+    private final VideoStream stream;
+    private final AtomicBoolean sentSinceKeepAlive = new AtomicBoolean(false);
+    private final AtomicBoolean keepAliveDue = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    @GuardedBy("this")
+    private byte[] last;
+    @GuardedBy("this")
+    private boolean unflushed = false;
+
+    private MjpegClient(AsyncContext async, VideoStream stream, int width, int height, double fps) {
+      super(width, height, fps);
+      this.async = async;
+      this.stream = stream;
+    }
+
+    @Override
+    protected void onFrameAvailable() {
+      sender.execute(this::drain);
+    }
+
+    private void keepAlive() {
+      if (!sentSinceKeepAlive.getAndSet(false)) {
+        keepAliveDue.set(true);
+        drain();
+      }
+    }
+
+    @Override
+    public void onWritePossible() {
+      drain();
+    }
+
+    /**
+     * Writes as much as the connection will take without blocking. Jetty calls
+     * {@link #onWritePossible()} once the connection can take more.
+     */
+    private synchronized void drain() {
+      if (closed.get()) {
+        return;
+      }
+      try {
+        final ServletOutputStream out = async.getResponse().getOutputStream();
+        // Jetty needs isReady() to be checked before every write and flush
+        while (out.isReady()) {
+          byte[] jpeg = takeFrame();
+          if (jpeg == null && keepAliveDue.getAndSet(false)) {
+            jpeg = last;
+          }
+          if (jpeg == null) {
+            if (!unflushed) {
+              return;
+            }
+            unflushed = false;
+            out.flush();
+            continue;
+          }
+          last = jpeg;
+          sentSinceKeepAlive.set(true);
+          out.write(toPart(jpeg));
+          unflushed = true;
+        }
+      } catch (IOException | IllegalStateException e) {
+        logger.log(Level.FINE, "Could not stream video to a client", e);
+        close();
+      }
+    }
+
+    private void close() {
+      if (closed.compareAndSet(false, true)) {
+        stream.removeClient(this);
+        clients.remove(this);
+        if (getDroppedFrames() > 0) {
+          logger.fine("A client of " + stream.getName() + " skipped " + getDroppedFrames()
+              + " frames because it couldn't keep up");
+        }
+        try {
+          async.complete();
+        } catch (IllegalStateException e) {
+          // Already completed
+          logger.log(Level.FINEST, "Stream was already complete", e);
+        }
+      }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      logger.log(Level.FINE, "Error streaming video to a client", t);
+      close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // Streams are never restarted
+    }
+  }
+}
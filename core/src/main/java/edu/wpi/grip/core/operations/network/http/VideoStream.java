@@ -0,0 +1,252 @@
+package edu.wpi.grip.core.operations.network.http;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Size;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.bytedeco.javacpp.opencv_imgcodecs.CV_IMWRITE_JPEG_QUALITY;
+import static org.bytedeco.javacpp.opencv_imgcodecs.imencode;
+import static org.bytedeco.javacpp.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.javacpp.opencv_imgproc.resize;
+
+/**
+ * A named stream of JPEG images that any number of clients can watch at once.
+ *
+ * <p>Publishing a frame only copies it, so the pipeline never waits for encoding or for clients.
+ * Frames are encoded on a shared encoder thread, once for each resolution that clients have asked
+ * for, and only for clients that are due a frame at the rate they asked for. Each client only
+ * ever holds on to the latest frame it hasn't been sent yet, so a slow client skips frames
+ * instead of holding up the others.
+ */
+public final class VideoStream {
+
+  private final String name;
+
+  /**
+   * Encodes frames. This must only have one thread, since the encoding buffers aren't shared.
+   */
+  private final Executor encoder;
+
+  private final Set<Client> clients = new CopyOnWriteArraySet<>();
+
+  private final Object frameLock = new Object();
+  @GuardedBy("frameLock")
+  private Mat pending = new Mat();
+  @GuardedBy("frameLock")
+  private int pendingQuality;
+  @GuardedBy("frameLock")
+  private boolean hasFrame = false;
+  private final AtomicBoolean encodeQueued = new AtomicBoolean(false);
+
+  // Only used on the encoder thread
+  private Mat encoding = new Mat();
+  private final Mat resized = new Mat();
+  private final BytePointer buffer = new BytePointer();
+  private IntPointer encodeParams = new IntPointer(CV_IMWRITE_JPEG_QUALITY, -1);
+
+  VideoStream(String name, Executor encoder) {
+    this.name = checkNotNull(name, "name");
+    this.encoder = checkNotNull(encoder, "encoder");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Checks if anyone is watching this stream. There's no point publishing frames if not.
+   */
+  public boolean hasClients() {
+    return !clients.isEmpty();
+  }
+
+  /**
+   * Adds a client to this stream. It'll be sent the next frame that's published.
+   */
+  public void addClient(Client client) {
+    clients.add(checkNotNull(client, "client"));
+  }
+
+  /**
+   * Removes a client from this stream. Does nothing if it was already removed.
+   */
+  public void removeClient(Client client) {
+    clients.remove(client);
+  }
+
+  /**
+   * Publishes a frame to every client of this stream. Does nothing if there are no clients. The
+   * frame is copied, so the caller is free to change it as soon as this returns.
+   *
+   * @param image   the frame to publish
+   * @param quality the JPEG quality to encode the frame with, from 0 to 100
+   */
+  public void publish(Mat image, int quality) {
+    checkNotNull(image, "image");
+    checkArgument(quality >= 0 && quality <= 100, "JPEG quality must be between 0 and 100");
+    if (clients.isEmpty()) {
+      return;
+    }
+    synchronized (frameLock) {
+      image.copyTo(pending);
+      pendingQuality = quality;
+      hasFrame = true;
+    }
+    if (encodeQueued.compareAndSet(false, true)) {
+      encoder.execute(this::encode);
+    }
+  }
+
+  /**
+   * Encodes the latest frame for every client that's due one. Frames published while this is
+   * running replace each other, so only the newest is encoded next.
+   */
+  private void encode() {
+    encodeQueued.set(false);
+    final int quality;
+    synchronized (frameLock) {
+      if (!hasFrame) {
+        return;
+      }
+      final Mat frame = pending;
+      pending = encoding;
+      encoding = frame;
+      quality = pendingQuality;
+      hasFrame = false;
+    }
+    if (encodeParams.get(1) != quality) {
+      encodeParams.deallocate();
+      encodeParams = new IntPointer(CV_IMWRITE_JPEG_QUALITY, quality);
+    }
+    final long now = System.nanoTime();
+    final Map<Long, byte[]> encoded = new HashMap<>();
+    for (Client client : clients) {
+      if (client.wantsFrame(now)) {
+        client.offer(encoded.computeIfAbsent(
+            outputSize(encoding, client.width, client.height), this::encode), now);
+      }
+    }
+  }
+
+  private byte[] encode(long size) {
+    final int cols = (int) (size >>> Integer.SIZE);
+    final int rows = (int) size;
+    Mat image = encoding;
+    if (cols != encoding.cols() || rows != encoding.rows()) {
+      try (Size dsize = new Size(cols, rows)) {
+        resize(encoding, resized, dsize, 0, 0, INTER_AREA);
+      }
+      image = resized;
+    }
+    imencode(".jpeg", image, buffer, encodeParams);
+    final byte[] jpeg = new byte[(int) buffer.limit()];
+    buffer.get(jpeg);
+    return jpeg;
+  }
+
+  /**
+   * Works out the size to send a frame at to a client that asked for the given size. Frames are
+   * only ever scaled down, so clients can't make the encoder allocate and encode images larger
+   * than the ones being published.
+   *
+   * @return the width in the high 32 bits and the height in the low 32 bits
+   */
+  private static long outputSize(Mat frame, int width, int height) {
+    final int frameCols = frame.cols();
+    final int frameRows = frame.rows();
+    int cols = Math.min(width, frameCols);
+    int rows = Math.min(height, frameRows);
+    if (frameCols > 0 && frameRows > 0) {
+      // Keep the aspect ratio if only one of the dimensions was asked for
+      if (cols == 0 && rows == 0) {
+        cols = frameCols;
+        rows = frameRows;
+      } else if (cols == 0) {
+        cols = Math.max(1, rows * frameCols / frameRows);
+      } else if (rows == 0) {
+        rows = Math.max(1, cols * frameRows / frameCols);
+      }
+    }
+    return ((long) cols << Integer.SIZE) | rows;
+  }
+
+  /**
+   * Something that's watching a video stream, at its own resolution and frame rate.
+   */
+  public abstract static class Client {
+    private final int width;
+    private final int height;
+    private final long frameIntervalNanos;
+    private volatile long nextFrameNanos;
+    private final AtomicReference<byte[]> pending = new AtomicReference<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Creates a new client.
+     *
+     * @param width  the width to scale frames to, or 0 to keep the aspect ratio of the stream.
+     *               Frames are never scaled up past the size they were published at.
+     * @param height the height to scale frames to, or 0 to keep the aspect ratio of the stream.
+     *               Frames are never scaled up past the size they were published at.
+     * @param maxFps the most frames per second to send, or 0 to send every frame
+     */
+    protected Client(int width, int height, double maxFps) {
+      checkArgument(width >= 0, "width cannot be negative");
+      checkArgument(height >= 0, "height cannot be negative");
+      checkArgument(maxFps >= 0, "maxFps cannot be negative");
+      this.width = width;
+      this.height = height;
+      this.frameIntervalNanos = maxFps == 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / maxFps);
+      this.nextFrameNanos = System.nanoTime();
+    }
+
+    private boolean wantsFrame(long now) {
+      return now - nextFrameNanos >= 0;
+    }
+
+    private void offer(byte[] jpeg, long now) {
+      nextFrameNanos = now + frameIntervalNanos;
+      if (pending.getAndSet(jpeg) != null) {
+        dropped.incrementAndGet();
+      }
+      onFrameAvailable();
+    }
+
+    /**
+     * Takes the latest frame that this client hasn't been sent yet, or returns null if it's been
+     * sent every frame.
+     */
+    protected final byte[] takeFrame() {
+      return pending.getAndSet(null);
+    }
+
+    /**
+     * Gets the number of frames that were replaced by newer ones before this client could be sent
+     * them.
+     */
+    public final long getDroppedFrames() {
+      return dropped.get();
+    }
+
+    /**
+     * Called when there's a new frame to {@link #takeFrame() take}. This is called on the encoder
+     * thread, so it must not block.
+     */
+    protected abstract void onFrameAvailable();
+  }
+}
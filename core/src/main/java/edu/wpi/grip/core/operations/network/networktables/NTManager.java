@@ -14,18 +14,19 @@ import edu.wpi.grip.core.util.GripMode;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Singleton;
 
 import edu.wpi.first.networktables.EntryListenerFlags;
 import edu.wpi.first.networktables.LogMessage;
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.NetworkTableType;
 import edu.wpi.first.networktables.NetworkTablesJNI;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +38,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -73,6 +75,12 @@ public class NTManager implements Manager, MapNetworkPublisherFactory, MapNetwor
   private final NetworkTableInstance ntInstance;
 
   private static final Object ntLock = new Object();
+  /**
+   * The number of times every entry has been deleted, so that publishers know to write their
+   * values again.
+   */
+  @GuardedBy("ntLock")
+  private static long resetCount = 0;
 
   @Inject
   @VisibleForTesting
@@ -135,6 +143,7 @@ public class NTManager implements Manager, MapNetworkPublisherFactory, MapNetwor
     synchronized (ntLock) {
       ntInstance.stopClient();
       ntInstance.deleteAllEntries();
+      resetCount++;
       ntInstance.startClient();
       ntInstance.setServer(projectSettings.getPublishAddress());
     }
@@ -204,11 +213,45 @@ public class NTManager implements Manager, MapNetworkPublisherFactory, MapNetwor
     }
   }
 
+  /**
+   * Publishes values to a table in NetworkTables. The entry for each key is only looked up once,
+   * and values that haven't changed since they were last published aren't written again.
+   *
+   * <p>NetworkTables has no transactions, and sends changes on its own update thread as well as
+   * when it's flushed, so clients may see some of a publish's values before the rest. Values are
+   * written while holding {@link #ntLock} only so that they aren't mixed up with the entries being
+   * deleted when the server address changes.
+   */
   private static final class NTPublisher<P> extends MapNetworkPublisher<P> {
+    /**
+     * The key that the entry for a single value without a key is cached with. Publishers can't
+     * have this as a key.
+     */
+    private static final String SINGLE_KEY = "";
+
     private final NetworkTableInstance ntInstance;
     private final ImmutableSet<String> keys;
     private Optional<String> name = Optional.empty();
 
+    /**
+     * The entry for each key under the current name.
+     */
+    @GuardedBy("ntLock")
+    private final Map<String, NetworkTableEntry> entries = new HashMap<>();
+    /**
+     * The value last written to each entry under the current name, if it hasn't been deleted since.
+     */
+    @GuardedBy("ntLock")
+    private final Map<String, Object> written = new HashMap<>();
+    /**
+     * True if the entries that haven't been written may still hold values that weren't written by
+     * this publisher, so they need to be deleted when they aren't being published.
+     */
+    @GuardedBy("ntLock")
+    private boolean stale = true;
+    @GuardedBy("ntLock")
+    private long writtenSinceReset = -1;
+
     protected NTPublisher(NetworkTableInstance ntInstance, Set<String> keys) {
       super(keys);
       this.ntInstance = ntInstance;
@@ -223,25 +266,81 @@ public class NTManager implements Manager, MapNetworkPublisherFactory, MapNetwor
 
     @Override
     protected void publishNameChanged(Optional<String> oldName, String newName) {
-      oldName.ifPresent(this::deleteOldTable);
-      this.name = Optional.of(newName);
+      synchronized (ntLock) {
+        oldName.ifPresent(this::deleteOldTable);
+        forgetEntries();
+        this.name = Optional.of(newName);
+      }
     }
 
     @Override
     public void doPublish() {
-      deleteOldTable(name.get());
+      synchronized (ntLock) {
+        deleteOldTable(name.get());
+        forgetEntries();
+      }
     }
 
     @Override
     protected void doPublish(Map<String, P> publishValueMap) {
-      publishValueMap.forEach((key, value) -> getTable().getEntry(key).setValue(value));
-      Sets.difference(keys, publishValueMap.keySet()).forEach(getTable()::delete);
+      synchronized (ntLock) {
+        checkReset();
+        publishValueMap.forEach(this::write);
+        if (stale || written.size() > publishValueMap.size()) {
+          final NetworkTable table = getTable();
+          for (String key : keys) {
+            if (!publishValueMap.containsKey(key) && (stale || written.containsKey(key))) {
+              written.remove(key);
+              table.delete(key);
+            }
+          }
+          stale = false;
+        }
+      }
     }
 
     @Override
     protected void doPublishSingle(P value) {
       checkNotNull(value, "value cannot be null");
-      getRootTable().getEntry(name.get()).setValue(value);
+      synchronized (ntLock) {
+        checkReset();
+        write(SINGLE_KEY, value);
+      }
+    }
+
+    /**
+     * Writes a value to the entry for a key, unless it's the value that was last written to it.
+     */
+    @GuardedBy("ntLock")
+    private void write(String key, Object value) {
+      if (Objects.deepEquals(written.get(key), value)) {
+        return;
+      }
+      entries.computeIfAbsent(key, k -> k.equals(SINGLE_KEY)
+          ? getRootTable().getEntry(name.get())
+          : getTable().getEntry(k))
+          .setValue(value);
+      // Arrays are copied in case whoever published them reuses them
+      written.put(key, value instanceof double[] ? ((double[]) value).clone() : value);
+    }
+
+    /**
+     * Forgets what was written if every entry has been deleted since it was written.
+     */
+    @GuardedBy("ntLock")
+    private void checkReset() {
+      if (writtenSinceReset != resetCount) {
+        written.clear();
+        stale = true;
+        writtenSinceReset = resetCount;
+      }
+    }
+
+    @GuardedBy("ntLock")
+    private void forgetEntries() {
+      entries.clear();
+      written.clear();
+      stale = true;
     }
 
     private void deleteOldTable(String tableName) {
@@ -0,0 +1,38 @@
+package edu.wpi.grip.core.settings;
+
+/**
+ * The ways the {@link edu.wpi.grip.core.PipelineRunner PipelineRunner} can run the steps of a
+ * pipeline.
+ */
+public enum PipelineExecutionMode {
+
+  /**
+   * Every step is run one after another on the pipeline thread, in the order that they appear in
+   * the pipeline.
+   */
+  SEQUENTIAL("Sequential"),
+
+  /**
+   * Steps that do not depend on each other (ie there is no chain of connections between them) are
+   * run concurrently. A step is only run once every step it is connected to has finished.
+   */
+  PARALLEL_BRANCHES("Parallel branches"),
+
+  /**
+   * The pipeline is split into stages that each run on their own thread, so a new frame can be
+   * going through the first steps while the previous frame is still in the later steps. Steps
+   * without any outputs, such as publishing operations, are always run in the last stage.
+   */
+  FRAME_PIPELINED("Frame pipelined");
+
+  private final String label;
+
+  PipelineExecutionMode(String label) {
+    this.label = label;
+  }
+
+  @Override
+  public String toString() {
+    return label;
+  }
+}
@@ -43,6 +43,10 @@ public class ProjectSettings implements Settings, Cloneable {
   private String deployJvmOptions = "-Xmx50m -XX:-OmitStackTraceInFastThrow "
       + "-XX:+HeapDumpOnOutOfMemoryError -XX:MaxNewSize=16m";
 
+  @Setting(label = "Pipeline execution mode", description = "How the steps in the pipeline are "
+      + "run. Parallel branches runs steps that aren't connected to each other at the same time.")
+  private PipelineExecutionMode executionMode = PipelineExecutionMode.SEQUENTIAL;
+
 
   // Getters and setters
 
@@ -134,6 +138,16 @@ public class ProjectSettings implements Settings, Cloneable {
     }
   }
 
+  public PipelineExecutionMode getExecutionMode() {
+    return executionMode;
+  }
+
+  public void setExecutionMode(@Nullable PipelineExecutionMode executionMode) {
+    if (executionMode != null) {
+      this.executionMode = executionMode;
+    }
+  }
+
   private String computeFRCAddress(int teamNumber) {
     return "roboRIO-" + teamNumber + "-FRC.local";
   }
@@ -146,6 +160,7 @@ public class ProjectSettings implements Settings, Cloneable {
         .add("deployUser", deployUser)
         .add("deployJavaHome", deployJavaHome)
         .add("deployJvmOptions", deployJvmOptions)
+        .add("executionMode", executionMode)
         .add("publishAddress", publishAddress)
         .add("teamNumber", teamNumber)
         .toString();
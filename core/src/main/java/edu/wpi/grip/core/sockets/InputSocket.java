@@ -1,6 +1,7 @@
 package edu.wpi.grip.core.sockets;
 
 import edu.wpi.grip.core.Connection;
+import edu.wpi.grip.core.FrameStamp;
 import edu.wpi.grip.core.Operation;
 import edu.wpi.grip.core.Source;
 import edu.wpi.grip.core.Step;
@@ -28,6 +29,20 @@ public interface InputSocket<T> extends Socket<T> {
   @Override
   void onValueChanged();
 
+  /**
+   * Gets the stamp of the frame that this socket's value was made from. If this socket has more
+   * than one connection, this is the newest of their stamps.
+   *
+   * @return the frame stamp, or empty if the value didn't come from a stamped frame
+   */
+  default Optional<FrameStamp> getFrameStamp() {
+    Optional<FrameStamp> newest = Optional.empty();
+    for (Connection<?> connection : getConnections()) {
+      newest = FrameStamp.newest(newest, connection.getFrameStamp());
+    }
+    return newest;
+  }
+
   interface Factory {
     <T> InputSocket<T> create(SocketHint<T> hint);
 
@@ -1,8 +1,11 @@
 package edu.wpi.grip.core.sockets;
 
 
+import edu.wpi.grip.core.FrameStamp;
 import edu.wpi.grip.core.Operation;
 
+import java.util.Optional;
+
 /**
  * Represents the output of an {@link Operation}.
  *
@@ -26,6 +29,21 @@ public interface OutputSocket<T> extends Socket<T> {
    */
   void resetValueToInitial();
 
+  /**
+   * Gets the stamp of the frame that this socket's value was made from.
+   *
+   * @return the frame stamp, or empty if the value didn't come from a stamped frame
+   */
+  Optional<FrameStamp> getFrameStamp();
+
+  /**
+   * Sets the stamp of the frame that this socket's value was made from. This doesn't count as a
+   * change to the value.
+   *
+   * @param frameStamp the frame stamp, or empty if the value didn't come from a stamped frame
+   */
+  void setFrameStamp(Optional<FrameStamp> frameStamp);
+
   interface Factory {
     <T> OutputSocket<T> create(SocketHint<T> hint);
   }
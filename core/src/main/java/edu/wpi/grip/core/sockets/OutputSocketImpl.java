@@ -1,6 +1,7 @@
 package edu.wpi.grip.core.sockets;
 
 
+import edu.wpi.grip.core.FrameStamp;
 import edu.wpi.grip.core.events.SocketPreviewChangedEvent;
 
 import com.google.common.base.MoreObjects;
@@ -8,6 +9,10 @@ import com.google.common.eventbus.EventBus;
 import com.google.inject.Inject;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * A concrete implementation of the {@link OutputSocket}.
  *
@@ -20,6 +25,7 @@ public class OutputSocketImpl<T> extends SocketImpl<T> implements OutputSocket<T
    * Indicates if the socket is being previewed.
    */
   private boolean previewed = false;
+  private volatile Optional<FrameStamp> frameStamp = Optional.empty();
 
   /**
    * @param eventBus   The Guava {@link EventBus} used by the application.
@@ -48,11 +54,22 @@ public class OutputSocketImpl<T> extends SocketImpl<T> implements OutputSocket<T
 
   @Override
   public void resetValueToInitial() {
+    this.frameStamp = Optional.empty();
     this.setValue(this.getSocketHint()
         .createInitialValue()
         .orElse(null));
   }
 
+  @Override
+  public Optional<FrameStamp> getFrameStamp() {
+    return frameStamp;
+  }
+
+  @Override
+  public void setFrameStamp(Optional<FrameStamp> frameStamp) {
+    this.frameStamp = checkNotNull(frameStamp, "The frame stamp can not be null");
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
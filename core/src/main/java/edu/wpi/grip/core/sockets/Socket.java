@@ -27,7 +27,8 @@ public interface Socket<T> {
 
   /**
    * Set the value of the socket using an {@link Optional}, and fire off a {@link
-   * edu.wpi.grip.core.events.SocketChangedEvent}.
+   * edu.wpi.grip.core.events.SocketChangedEvent}. If this is an output socket, its connections are
+   * updated before the event is posted.
    *
    * @param optionalValue The optional value to assign this socket to.
    */
@@ -62,6 +62,16 @@ public interface SocketHint<T> {
    */
   Optional<T> createInitialValue();
 
+  /**
+   * Whether setting a socket to a value that's {@link Object#equals(Object) equal} to the value it
+   * already holds should be ignored, instead of telling anything connected to the socket that it
+   * changed. This lets steps skip work when an input is set to the value it already had, but must
+   * only be used for types whose values are never modified in place.
+   *
+   * @return True if equal values should be ignored
+   */
+  boolean ignoresEqualValues();
+
   enum View {
     NONE, TEXT, SLIDER, RANGE, SELECT, CHECKBOX
   }
@@ -76,6 +86,7 @@ public interface SocketHint<T> {
     private final Optional<Supplier<T>> initialValueSupplier;
     private final View view;
     private final Optional<T[]> domain;
+    private final boolean ignoresEqualValues;
 
     /**
      * @param type                 The type of value held by the socket.
@@ -87,14 +98,17 @@ public interface SocketHint<T> {
      *                             numeric types, this can consist of two elements that correspond
      *                             to a minimum and maximum value.  The property does not make sense
      *                             for all types and is left unspecified for some
+     * @param ignoresEqualValues   If setting a socket to a value equal to its current value should
+     *                             be ignored.
      */
     private BasicSocketHint(Class<T> type, String identifier, Optional<Supplier<T>>
-        initialValueSupplier, View view, Optional<T[]> domain) {
+        initialValueSupplier, View view, Optional<T[]> domain, boolean ignoresEqualValues) {
       this.type = type;
       this.identifier = identifier;
       this.initialValueSupplier = initialValueSupplier;
       this.view = view;
       this.domain = domain;
+      this.ignoresEqualValues = ignoresEqualValues;
     }
 
     @Override
@@ -143,6 +157,11 @@ public interface SocketHint<T> {
       return Optional.empty();
     }
 
+    @Override
+    public boolean ignoresEqualValues() {
+      return ignoresEqualValues;
+    }
+
     @Override
     public boolean isCompatibleWith(SocketHint other) {
       return getType().isAssignableFrom(other.getType());
@@ -233,6 +252,11 @@ public interface SocketHint<T> {
     public Optional<T> createInitialValue() {
       return decorated.createInitialValue();
     }
+
+    @Override
+    public boolean ignoresEqualValues() {
+      return decorated.ignoresEqualValues();
+    }
   }
 
   class Builder<T> {
@@ -241,6 +265,7 @@ public interface SocketHint<T> {
     private Optional<Supplier<T>> initialValueSupplier = Optional.empty();
     private View view = View.NONE;
     private Optional<T[]> domain = Optional.empty();
+    private boolean ignoresEqualValues = false;
 
     public Builder(Class<T> type) {
       this.type = type;
@@ -271,6 +296,15 @@ public interface SocketHint<T> {
       return this;
     }
 
+    /**
+     * Makes sockets ignore values that are equal to the value they already hold. This should only
+     * be used for immutable types, like numbers and strings.
+     */
+    public Builder<T> ignoreEqualValues() {
+      this.ignoresEqualValues = true;
+      return this;
+    }
+
     public SocketHint<T> build() throws NoSuchElementException {
       if (!view.equals(View.NONE)) {
         initialValueSupplier.orElseThrow(() -> new NoSuchElementException("A View other than "
@@ -282,7 +316,8 @@ public interface SocketHint<T> {
               + "supplied")),
           initialValueSupplier,
           view,
-          domain
+          domain,
+          ignoresEqualValues
       );
     }
   }
@@ -39,7 +39,9 @@ public final class SocketHints {
     return new SocketHint.Builder(defaultValue.getDeclaringClass())
         .identifier(identifier).initialValue(defaultValue)
         .view(SocketHint.View.SELECT)
-        .domain(defaultValue.getDeclaringClass().getEnumConstants()).build();
+        .domain(defaultValue.getDeclaringClass().getEnumConstants())
+        .ignoreEqualValues()
+        .build();
   }
 
   public static SocketHint<Number> createNumberSocketHint(
@@ -55,6 +57,7 @@ public final class SocketHints {
         .identifier(identifier)
         .initialValue(initialValue)
         .view(SocketHint.View.CHECKBOX)
+        .ignoreEqualValues()
         .build();
   }
 
@@ -125,7 +128,7 @@ public final class SocketHints {
                                                                   final Number low,
                                                                   final Number high) {
       return createNumberSocketHintBuilder(identifier, number, new Number[]{low, high})
-          .view(SocketHint.View.SLIDER).build();
+          .view(SocketHint.View.SLIDER).ignoreEqualValues().build();
     }
 
     public static SocketHint<Number> createNumberSpinnerSocketHint(final String identifier,
@@ -133,12 +136,13 @@ public final class SocketHints {
                                                                    final Number low,
                                                                    final Number high) {
       return createNumberSocketHintBuilder(identifier, number, new Number[]{low, high})
-          .view(SocketHint.View.TEXT).build();
+          .view(SocketHint.View.TEXT).ignoreEqualValues().build();
     }
 
     public static SocketHint<Number> createNumberSpinnerSocketHint(final String identifier,
                                                                    final Number number) {
-      return createNumberSocketHintBuilder(identifier, number).view(SocketHint.View.TEXT).build();
+      return createNumberSocketHintBuilder(identifier, number).view(SocketHint.View.TEXT)
+          .ignoreEqualValues().build();
     }
 
     public static SocketHint<List<Number>> createNumberListRangeSocketHint(final String identifier,
@@ -156,6 +160,7 @@ public final class SocketHints {
           .identifier(identifier)
           .initialValue(str)
           .view(SocketHint.View.TEXT)
+          .ignoreEqualValues()
           .build();
     }
 
@@ -166,6 +171,7 @@ public final class SocketHints {
           .identifier(identifier)
           .initialValue(initialValue)
           .view(SocketHint.View.CHECKBOX)
+          .ignoreEqualValues()
           .build();
     }
   }
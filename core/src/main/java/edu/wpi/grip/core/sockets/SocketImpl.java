@@ -11,9 +11,9 @@ import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.eventbus.EventBus;
 
-import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -26,7 +26,7 @@ import static com.google.common.base.Preconditions.checkState;
 public class SocketImpl<T> implements Socket<T> {
   private final EventBus eventBus;
   private final Direction direction;
-  private final Set<Connection> connections = new HashSet<>();
+  private final Set<Connection> connections = new CopyOnWriteArraySet<>();
   private final SocketHint<T> socketHint;
   private Optional<Step> step = Optional.empty();
   private Optional<Source> source = Optional.empty();
@@ -56,15 +56,32 @@ public class SocketImpl<T> implements Socket<T> {
       getSocketHint().getType().cast(optionalValue.get());
     }
     synchronized (this) {
+      if (socketHint.ignoresEqualValues() && this.value.equals(optionalValue)) {
+        return;
+      }
       this.value = optionalValue;
       onValueChanged();
     }
-    eventBus.post(new SocketChangedEvent(this));
+    notifyChanged();
   }
 
   @Override
   public void flagChanged() {
     onValueChanged();
+    notifyChanged();
+  }
+
+  /**
+   * Tells everything that's interested that the value changed. The connections from an output
+   * socket are told directly, since they're on the pipeline's critical path, and the event bus is
+   * left for everything else, like the UI.
+   */
+  private void notifyChanged() {
+    if (direction == Direction.OUTPUT) {
+      for (Connection<?> connection : connections) {
+        connection.onOutputChanged();
+      }
+    }
     eventBus.post(new SocketChangedEvent(this));
   }
 
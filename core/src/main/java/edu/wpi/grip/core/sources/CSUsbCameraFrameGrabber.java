@@ -14,7 +14,7 @@ import java.util.concurrent.TimeUnit;
 
 // This is here because FrameGrabber has an exception called Exception which triggers PMD
 @SuppressWarnings({"PMD.AvoidThrowingRawExceptionTypes", "all"})
-public class CSUsbCameraFrameGrabber extends FrameGrabber {
+public class CSUsbCameraFrameGrabber extends FrameGrabber implements MatFrameGrabber {
 
   private static Exception loadingException = null;
 
@@ -78,14 +78,18 @@ public class CSUsbCameraFrameGrabber extends FrameGrabber {
 
   @Override
   public Frame grab() throws Exception {
+    if (decoded == null) {
+      decoded = new Mat();
+    }
+    grabInto(decoded);
+    return converter.convert(decoded);
+  }
+
+  @Override
+  public void grabInto(Mat image) throws Exception {
     try {
-      if (decoded == null) {
-        decoded = new Mat();
-      }
-      long frameTime = javaCvSink.grabFrame(decoded, readTimeout);
-      if (frameTime > 0) {
-        return converter.convert(decoded);
-      } else {
+      long frameTime = javaCvSink.grabFrame(image, readTimeout);
+      if (frameTime <= 0) {
         throw new IOException("Frame not read: " + frameTime);
       }
     } catch (IOException e) {
@@ -30,6 +30,7 @@ import org.bytedeco.javacv.OpenCVFrameGrabber;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -62,6 +63,17 @@ public class CameraSource extends Source implements RestartableService {
   private static final int CAMERA_READ_TIMEOUT = 5;
   private static final TimeUnit CAMERA_TIMEOUT_UNIT = TimeUnit.SECONDS;
 
+  /**
+   * Set this property to {@code "true"} to have frames from an IP camera kept compressed until the
+   * pipeline takes them. When the pipeline is slower than the camera, this stops frames that will
+   * be thrown away from being decoded. Decoding then happens on the pipeline thread instead of the
+   * camera thread, so this shouldn't be used when the pipeline is keeping up.
+   *
+   * <p>This is set by the "Only decode frames the pipeline uses" option when an IP camera is added,
+   * and is saved with the project.
+   */
+  public static final String DEFER_DECODE_PROPERTY = "deferDecode";
+
   private static final String DEVICE_NUMBER_PROPERTY = "deviceNumber";
   private static final String ADDRESS_PROPERTY = "address";
   private static final Logger logger = Logger.getLogger(CameraSource.class.getName());
@@ -74,12 +86,15 @@ public class CameraSource extends Source implements RestartableService {
   private final SocketHint<MatWrapper> imageOutputHint = SocketHints.createImageSocketHint("Image");
   private final SocketHint<Number> frameRateOutputHint =
       SocketHints.createNumberSocketHint("Frame Rate", 0);
+  private final SocketHint<Number> droppedFramesOutputHint =
+      SocketHints.createNumberSocketHint("Dropped Frames", 0);
   private final OutputSocket<MatWrapper> frameOutputSocket;
   private final OutputSocket<Number> frameRateOutputSocket;
+  private final OutputSocket<Number> droppedFramesOutputSocket;
   private final Supplier<FrameGrabber> grabberSupplier;
   @SuppressWarnings("PMD.LinguisticNaming")
   private final AtomicBoolean isNewFrame = new AtomicBoolean(false);
-  private final Mat currentFrameTransferMat = new Mat();
+  private final FrameExchange frames = new FrameExchange();
   private final AutoRestartingService cameraService;
   private volatile double frameRate = 0.0;
 
@@ -117,6 +132,26 @@ public class CameraSource extends Source implements RestartableService {
         createProperties(address));
   }
 
+  /**
+   * Creates a camera source that can be used as an input to a pipeline.
+   *
+   * @param eventBus    The EventBus to attach to
+   * @param address     A URL to stream video from an IP camera
+   * @param deferDecode If frames should be kept compressed until the pipeline takes them. See
+   *                    {@link #DEFER_DECODE_PROPERTY}.
+   */
+  @AssistedInject
+  CameraSource(
+      final EventBus eventBus,
+      final OutputSocket.Factory outputSocketFactory,
+      final FrameGrabberFactory grabberFactory,
+      final ExceptionWitness.Factory exceptionWitnessFactory,
+      @Assisted final String address,
+      @Assisted final boolean deferDecode) throws IOException {
+    this(eventBus, outputSocketFactory, grabberFactory, exceptionWitnessFactory,
+        createProperties(address, deferDecode));
+  }
+
   /**
    * Used for serialization.
    */
@@ -131,10 +166,12 @@ public class CameraSource extends Source implements RestartableService {
     this.eventBus = eventBus;
     this.frameOutputSocket = outputSocketFactory.create(imageOutputHint);
     this.frameRateOutputSocket = outputSocketFactory.create(frameRateOutputHint);
+    this.droppedFramesOutputSocket = outputSocketFactory.create(droppedFramesOutputHint);
     this.properties = properties;
 
     final String deviceNumberProperty = properties.getProperty(DEVICE_NUMBER_PROPERTY);
     final String addressProperty = properties.getProperty(ADDRESS_PROPERTY);
+    final boolean deferDecode = Boolean.parseBoolean(properties.getProperty(DEFER_DECODE_PROPERTY));
 
     if (deviceNumberProperty != null) { // NOPMD
       final int deviceNumber = Integer.parseInt(deviceNumberProperty);
@@ -144,7 +181,9 @@ public class CameraSource extends Source implements RestartableService {
       this.name = "IP Camera " + new URL(addressProperty).getHost();
       this.grabberSupplier = () -> {
         try {
-          return grabberFactory.create(addressProperty);
+          return deferDecode
+              ? grabberFactory.createEncoded(addressProperty)
+              : grabberFactory.create(addressProperty);
         } catch (MalformedURLException ex) {
           throw new IllegalArgumentException(ex.getMessage(), ex);
         }
@@ -160,26 +199,8 @@ public class CameraSource extends Source implements RestartableService {
             () -> new GrabberService(
                 name,
                 grabberSupplier,
-                new CameraSourceUpdater() {
-                  @Override
-                  public void setFrameRate(double value) {
-                    CameraSource.this.frameRate = value;
-                    isNewFrame.set(true);
-                  }
-
-                  @Override
-                  public void copyNewMat(Mat matToCopy) {
-                    synchronized (CameraSource.this.currentFrameTransferMat) {
-                      matToCopy.copyTo(CameraSource.this.currentFrameTransferMat);
-                    }
-                    isNewFrame.set(true);
-                  }
-
-                  @Override
-                  public void updatesComplete() {
-                    eventBus.post(new SourceHasPendingUpdateEvent(CameraSource.this));
-                  }
-                }, getExceptionWitness()::clearException),
+                createUpdater(deferDecode),
+                getExceptionWitness()::clearException),
             new CooldownRestartPolicy(20, TimeUnit.MILLISECONDS)); // 50Hz retry rate
 
     this.cameraService.addListener(new Listener() {
@@ -200,12 +221,65 @@ public class CameraSource extends Source implements RestartableService {
         .directExecutor());
   }
 
+  /**
+   * Creates the updater that the grabber service hands frames to this source with.
+   */
+  private CameraSourceUpdater createUpdater(boolean deferDecode) {
+    return new CameraSourceUpdater() {
+      @Override
+      public void setFrameRate(double value) {
+        CameraSource.this.frameRate = value;
+        isNewFrame.set(true);
+      }
+
+      @Override
+      public Mat getFrameBuffer() {
+        return frames.getBackBuffer();
+      }
+
+      @Override
+      public void frameBufferWritten(long captureTime) {
+        frames.publish(captureTime);
+        isNewFrame.set(true);
+      }
+
+      @Override
+      public boolean isDecodeDeferred() {
+        return deferDecode;
+      }
+
+      @Override
+      public ByteBuffer getEncodedFrameBuffer() {
+        return frames.getEncodedBackBuffer();
+      }
+
+      @Override
+      public void encodedFrameBufferWritten(ByteBuffer frame, long captureTime) {
+        frames.publishEncoded(frame, captureTime);
+        isNewFrame.set(true);
+      }
+
+      @Override
+      public void updatesComplete() {
+        eventBus.post(new SourceHasPendingUpdateEvent(CameraSource.this));
+      }
+    };
+  }
+
   private static Properties createProperties(String address) {
     final Properties properties = new Properties();
     properties.setProperty(ADDRESS_PROPERTY, address);
     return properties;
   }
 
+  private static Properties createProperties(String address, boolean deferDecode) {
+    final Properties properties = createProperties(address);
+    if (deferDecode) {
+      properties.setProperty(DEFER_DECODE_PROPERTY, Boolean.toString(true));
+    }
+    return properties;
+  }
+
   private static Properties createProperties(int deviceNumber) {
     final Properties properties = new Properties();
     properties.setProperty(DEVICE_NUMBER_PROPERTY, Integer.toString(deviceNumber));
@@ -221,23 +295,34 @@ public class CameraSource extends Source implements RestartableService {
   public List<OutputSocket> createOutputSockets() {
     return ImmutableList.of(
         frameOutputSocket,
-        frameRateOutputSocket
+        frameRateOutputSocket,
+        droppedFramesOutputSocket
     );
   }
 
+  @Override
+  public long getBufferedNativeBytes() {
+    return frames.getBufferedBytes();
+  }
+
+  @Override
+  protected long getCaptureTime() {
+    return frames.getTakenCaptureTime();
+  }
+
   @Override
   protected boolean updateOutputSockets() {
     // We have a new frame then we need to update the socket value
     if (isNewFrame.compareAndSet(true, false)) {
-      // The camera frame thread should not try to modify the transfer mat while it is being
-      // written to the pipeline
-      synchronized (currentFrameTransferMat) {
-        frameOutputSocket.getValue().ifPresent(m -> m.set(currentFrameTransferMat));
+      // Swap the latest frame into the socket instead of copying it, decoding it first if it's
+      // still compressed
+      if (frames.takeInto(frameOutputSocket.getValue().get())) {
+        frameOutputSocket.flagChanged();
       }
-      frameOutputSocket.flagChanged();
 
       // Update the frame rate value
       frameRateOutputSocket.setValue(frameRate);
+      droppedFramesOutputSocket.setValue(frames.getDroppedFrames());
       // We have updated output sockets
       return true;
     } else {
@@ -373,6 +458,8 @@ public class CameraSource extends Source implements RestartableService {
 
     CameraSource create(String address) throws IOException;
 
+    CameraSource create(String address, boolean deferDecode) throws IOException;
+
     CameraSource create(Properties properties) throws IOException;
   }
 
@@ -383,6 +470,14 @@ public class CameraSource extends Source implements RestartableService {
     FrameGrabber create(int deviceNumber);
 
     FrameGrabber create(String addressProperty) throws MalformedURLException;
+
+    /**
+     * Creates a frame grabber for an IP camera that can hand out frames without decoding them, if
+     * there is one. Otherwise, this is the same as {@link #create(String)}.
+     */
+    default FrameGrabber createEncoded(String addressProperty) throws MalformedURLException {
+      return create(addressProperty);
+    }
   }
 
   public static class FrameGrabberFactoryImpl implements FrameGrabberFactory {
@@ -403,17 +498,30 @@ public class CameraSource extends Source implements RestartableService {
     }
 
     @Override
-    @SuppressWarnings("PMD.AvoidReassigningParameters")
     public FrameGrabber create(String addressProperty) throws MalformedURLException {
-      // If no path was specified in the URL (ie: it was something like http://10.1.90.11/), use
-      // the default path for Axis M1011 cameras.
-      if (new URL(addressProperty).getPath().length() <= 1) {
-        addressProperty += DEFAULT_IP_CAMERA_PATH;
-      }
       return new CSHttpCameraFrameGrabber(
-          addressProperty,
+          withDefaultPath(addressProperty),
           CAMERA_READ_TIMEOUT,
           CAMERA_TIMEOUT_UNIT);
     }
+
+    @Override
+    public FrameGrabber createEncoded(String addressProperty) throws MalformedURLException {
+      // CS Core always decodes frames, so read the MJPEG stream directly instead
+      return new IPCameraFrameGrabber(
+          withDefaultPath(addressProperty),
+          CAMERA_READ_TIMEOUT,
+          CAMERA_READ_TIMEOUT,
+          CAMERA_TIMEOUT_UNIT);
+    }
+
+    private static String withDefaultPath(String address) throws MalformedURLException {
+      // If no path was specified in the URL (ie: it was something like http://10.1.90.11/), use
+      // the default path for Axis M1011 cameras.
+      if (new URL(address).getPath().length() <= 1) {
+        return address + DEFAULT_IP_CAMERA_PATH;
+      }
+      return address;
+    }
   }
 }
@@ -2,10 +2,47 @@ package edu.wpi.grip.core.sources;
 
 import org.bytedeco.javacpp.opencv_core.Mat;
 
+import java.nio.ByteBuffer;
+
 public interface CameraSourceUpdater {
   void setFrameRate(double value);
 
-  void copyNewMat(Mat matToCopy);
+  /**
+   * Gets the mat to write the next frame into. It must only be written to by the grabber thread,
+   * and only until {@link #frameBufferWritten(long)} is called.
+   */
+  Mat getFrameBuffer();
+
+  /**
+   * Hands the frame that was written into the {@link #getFrameBuffer() frame buffer} to the source
+   * without copying it.
+   *
+   * @param captureTime when the frame was captured, as given by {@link System#nanoTime()}
+   */
+  void frameBufferWritten(long captureTime);
+
+  /**
+   * Checks if frames should be handed to the source still compressed, so they're only decoded if
+   * the pipeline uses them. This only applies to grabbers that can grab frames without decoding
+   * them.
+   */
+  boolean isDecodeDeferred();
+
+  /**
+   * Gets the direct buffer to copy the next compressed frame into. It must only be written to by
+   * the grabber thread, and only until {@link #encodedFrameBufferWritten(ByteBuffer, long)} is
+   * called.
+   */
+  ByteBuffer getEncodedFrameBuffer();
+
+  /**
+   * Hands a compressed frame to the source, to be decoded when the pipeline takes it.
+   *
+   * @param frame       the {@link #getEncodedFrameBuffer() encoded frame buffer}, or a larger one
+   *                    that replaces it, holding the frame from its position to its limit
+   * @param captureTime when the frame was captured, as given by {@link System#nanoTime()}
+   */
+  void encodedFrameBufferWritten(ByteBuffer frame, long captureTime);
 
   void updatesComplete();
 }
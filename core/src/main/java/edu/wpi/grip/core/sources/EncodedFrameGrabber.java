@@ -0,0 +1,45 @@
+package edu.wpi.grip.core.sources;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacv.FrameGrabber;
+
+import java.nio.ByteBuffer;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_imgcodecs.IMREAD_COLOR;
+import static org.bytedeco.javacpp.opencv_imgcodecs.imdecode;
+
+/**
+ * A frame grabber that can hand out frames still compressed, as the camera sent them, so they
+ * only have to be decoded if they're actually used.
+ */
+interface EncodedFrameGrabber {
+
+  /**
+   * Grabs the next frame without decoding it. The frame's compressed bytes are copied into the
+   * given buffer from its start, and the buffer's limit is set to the end of them.
+   *
+   * @param buffer the direct buffer to copy the frame into
+   * @return the buffer holding the frame. This is a larger buffer than the one given if the frame
+   *     didn't fit in it.
+   * @throws FrameGrabber.Exception if a frame could not be grabbed
+   */
+  ByteBuffer grabEncoded(ByteBuffer buffer) throws FrameGrabber.Exception;
+
+  /**
+   * Decodes a compressed frame into a mat, without copying the compressed bytes.
+   *
+   * @param encoded a direct buffer holding the frame from its position to its limit, in any format
+   *                that OpenCV can read
+   * @param image   the mat to decode the frame into
+   * @return false if the frame couldn't be decoded
+   */
+  static boolean decode(ByteBuffer encoded, Mat image) {
+    try (BytePointer data = new BytePointer(encoded.slice());
+         Mat bytes = new Mat(1, encoded.remaining(), CV_8UC1, data)) {
+      imdecode(bytes, IMREAD_COLOR, image);
+    }
+    return !image.empty();
+  }
+}
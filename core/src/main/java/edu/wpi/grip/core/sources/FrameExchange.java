@@ -0,0 +1,192 @@
+package edu.wpi.grip.core.sources;
+
+import edu.wpi.grip.core.MatWrapper;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import static org.bytedeco.javacpp.opencv_core.swap;
+
+/**
+ * Hands frames from a grabber thread to the pipeline without copying them. This is a triple
+ * buffer: the grabber writes into a back buffer, which is swapped with the ready buffer when a
+ * frame is complete, which is in turn swapped with the image in the source's output socket when
+ * the pipeline takes it. Only mat headers are swapped, so the grabber never waits for the
+ * pipeline, and only the latest frame is kept if the pipeline falls behind.
+ *
+ * <p>Frames can also be {@link #publishEncoded(ByteBuffer, long) published still compressed}. These
+ * are only decoded when they're taken, on the thread that takes them, so frames that are replaced
+ * before the pipeline gets to them are never decoded at all.
+ */
+@SuppressWarnings("PMD.DefaultPackage")
+final class FrameExchange {
+
+  private final Object lock = new Object();
+
+  /**
+   * The buffer being written to by the grabber. Only the grabber thread can use this.
+   */
+  private final Mat back = new Mat();
+
+  /**
+   * The latest complete frame, if it hasn't been taken yet.
+   */
+  @GuardedBy("lock")
+  private final Mat ready = new Mat();
+  @GuardedBy("lock")
+  private long readyCaptureTime;
+  @GuardedBy("lock")
+  private boolean fresh = false;
+  /**
+   * True if the latest frame is in {@link #encodedReady} instead of {@link #ready}.
+   */
+  @GuardedBy("lock")
+  private boolean readyEncoded = false;
+  @GuardedBy("lock")
+  private long droppedFrames = 0;
+
+  // The compressed counterparts to the mat buffers, plus one that's only used by the thread that
+  // takes frames, to decode from
+  private ByteBuffer encodedBack = ByteBuffer.allocateDirect(0);
+  @GuardedBy("lock")
+  private ByteBuffer encodedReady = ByteBuffer.allocateDirect(0);
+  private ByteBuffer encodedTaken = ByteBuffer.allocateDirect(0);
+
+  /**
+   * The mat that compressed frames are decoded into before being given to the output socket. Only
+   * the thread that takes frames can use this.
+   */
+  private final Mat decoded = new Mat();
+
+  /**
+   * When the frame that was last taken was captured. Only the thread that takes frames can use
+   * this.
+   */
+  private long takenCaptureTime;
+
+  /**
+   * Gets the buffer to write the next frame into. This is only valid until
+   * {@link #publish(long)} is called, and must only be used by the thread that grabs frames.
+   */
+  Mat getBackBuffer() {
+    return back;
+  }
+
+  /**
+   * Makes the frame that was written into the {@link #getBackBuffer() back buffer} the latest
+   * frame, replacing any frame that wasn't taken.
+   *
+   * @param captureTime when the frame was captured, as given by {@link System#nanoTime()}
+   */
+  void publish(long captureTime) {
+    synchronized (lock) {
+      swap(back, ready);
+      replaceReady(false, captureTime);
+    }
+  }
+
+  /**
+   * Gets the buffer to copy the next compressed frame into. This is only valid until
+   * {@link #publishEncoded(ByteBuffer, long)} is called, and must only be used by the thread that
+   * grabs frames.
+   */
+  ByteBuffer getEncodedBackBuffer() {
+    return encodedBack;
+  }
+
+  /**
+   * Makes a compressed frame the latest frame, replacing any frame that wasn't taken. It will be
+   * decoded when it's taken.
+   *
+   * @param frame       the {@link #getEncodedBackBuffer() back buffer}, or a larger buffer that
+   *                    replaces it, holding the frame from its position to its limit
+   * @param captureTime when the frame was captured, as given by {@link System#nanoTime()}
+   */
+  void publishEncoded(ByteBuffer frame, long captureTime) {
+    synchronized (lock) {
+      encodedBack = encodedReady;
+      encodedReady = frame;
+      replaceReady(true, captureTime);
+    }
+  }
+
+  @GuardedBy("lock")
+  private void replaceReady(boolean encoded, long captureTime) {
+    if (fresh) {
+      droppedFrames++;
+    }
+    readyEncoded = encoded;
+    readyCaptureTime = captureTime;
+    fresh = true;
+  }
+
+  /**
+   * Gives the latest frame to an output socket's image, if there's a frame that hasn't been taken
+   * yet. The image's old data is kept to write a later frame into. If the frame is compressed, it's
+   * decoded first, without holding up the thread that grabs frames.
+   *
+   * @param image the image to give the frame to
+   *
+   * @return true if the image was given a new frame, false if there wasn't one or it couldn't be
+   *     decoded
+   */
+  boolean takeInto(MatWrapper image) {
+    final ByteBuffer encoded;
+    synchronized (lock) {
+      if (!fresh) {
+        return false;
+      }
+      takenCaptureTime = readyCaptureTime;
+      fresh = false;
+      if (!readyEncoded) {
+        image.swap(ready);
+        return true;
+      }
+      encoded = encodedReady;
+      encodedReady = encodedTaken;
+      encodedTaken = encoded;
+    }
+    if (!EncodedFrameGrabber.decode(encoded.duplicate(), decoded)) {
+      synchronized (lock) {
+        droppedFrames++;
+      }
+      return false;
+    }
+    image.swap(decoded);
+    return true;
+  }
+
+  /**
+   * Gets when the frame that was last {@link #takeInto(MatWrapper) taken} was captured, as given by
+   * {@link System#nanoTime()}.
+   */
+  long getTakenCaptureTime() {
+    return takenCaptureTime;
+  }
+
+  /**
+   * Gets the number of frames that were replaced by a newer frame before they were taken, or that
+   * couldn't be decoded.
+   */
+  long getDroppedFrames() {
+    synchronized (lock) {
+      return droppedFrames;
+    }
+  }
+
+  /**
+   * Gets the number of bytes held by the buffers in this exchange, not including the output
+   * socket's image. The back buffers may be in the middle of being written to, so this is only an
+   * estimate.
+   */
+  long getBufferedBytes() {
+    synchronized (lock) {
+      return back.total() * back.elemSize() + ready.total() * ready.elemSize()
+          + decoded.total() * decoded.elemSize()
+          + encodedBack.capacity() + encodedReady.capacity() + encodedTaken.capacity();
+    }
+  }
+}
@@ -2,7 +2,6 @@ package edu.wpi.grip.core.sources;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
-import com.google.common.math.IntMath;
 import com.google.common.util.concurrent.AbstractExecutionThreadService;
 
 import org.bytedeco.javacpp.opencv_core;
@@ -11,7 +10,7 @@ import org.bytedeco.javacv.FrameGrabber;
 import org.bytedeco.javacv.OpenCVFrameConverter;
 
 import java.io.IOException;
-import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -68,31 +67,72 @@ public class GrabberService extends AbstractExecutionThreadService {
   @VisibleForTesting
   final void runOneGrab(final OpenCVFrameConverter.ToMat convertToMat, final Stopwatch stopwatch)
       throws GrabberServiceException {
-    final Frame videoFrame;
-    try {
-      videoFrame = frameGrabber.grab();
-    } catch (FrameGrabber.Exception ex) {
-      throw new GrabberServiceException("Failed to grab image", ex);
+    // Grabbing blocks until the camera has a new frame, so this is as close to when it was
+    // captured as we can tell
+    final long captureTime;
+    if (frameGrabber instanceof EncodedFrameGrabber && updater.isDecodeDeferred()) {
+      // Leave decoding to the pipeline, so frames that it doesn't have time for are never decoded
+      final ByteBuffer frame;
+      try {
+        frame = ((EncodedFrameGrabber) frameGrabber).grabEncoded(updater.getEncodedFrameBuffer());
+      } catch (FrameGrabber.Exception ex) {
+        throw new GrabberServiceException("Failed to grab image", ex);
+      }
+      captureTime = System.nanoTime();
+      if (!frame.hasRemaining()) {
+        throw new GrabberServiceException("Returned an empty frame");
+      }
+      updater.encodedFrameBufferWritten(frame, captureTime);
+      frameGrabbed(stopwatch);
+      return;
     }
 
-    final opencv_core.Mat frameMat = convertToMat.convert(videoFrame);
-
-    if (frameMat == null || frameMat.isNull()) {
-      throw new GrabberServiceException("Returned a null frame Mat");
+    final opencv_core.Mat frameBuffer = updater.getFrameBuffer();
+    if (frameGrabber instanceof MatFrameGrabber) {
+      // Decode straight into the frame buffer
+      try {
+        ((MatFrameGrabber) frameGrabber).grabInto(frameBuffer);
+      } catch (FrameGrabber.Exception ex) {
+        throw new GrabberServiceException("Failed to grab image", ex);
+      }
+      captureTime = System.nanoTime();
+    } else {
+      final Frame videoFrame;
+      try {
+        videoFrame = frameGrabber.grab();
+      } catch (FrameGrabber.Exception ex) {
+        throw new GrabberServiceException("Failed to grab image", ex);
+      }
+      captureTime = System.nanoTime();
+
+      final opencv_core.Mat frameMat = convertToMat.convert(videoFrame);
+
+      if (frameMat == null || frameMat.isNull()) {
+        throw new GrabberServiceException("Returned a null frame Mat");
+      }
+
+      // The grabber reuses its own buffer, so the frame has to be copied out of it
+      frameMat.copyTo(frameBuffer);
     }
 
-    if (frameMat.empty()) {
+    if (frameBuffer.empty()) {
       throw new GrabberServiceException("Returned an empty Mat");
     }
 
-    updater.copyNewMat(frameMat);
+    updater.frameBufferWritten(captureTime);
+    frameGrabbed(stopwatch);
+  }
 
+  /**
+   * Updates the frame rate and tells the source that a new frame is ready.
+   */
+  private void frameGrabbed(Stopwatch stopwatch) {
     stopwatch.stop();
-    final long elapsedTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+    final long elapsedTime = stopwatch.elapsed(TimeUnit.NANOSECONDS);
     stopwatch.reset();
     stopwatch.start();
     if (elapsedTime != 0) {
-      updater.setFrameRate(IntMath.divide(1000, Math.toIntExact(elapsedTime), RoundingMode.DOWN));
+      updater.setFrameRate((double) TimeUnit.SECONDS.toNanos(1) / elapsedTime);
     }
 
     updater.updatesComplete();
@@ -4,55 +4,119 @@ import edu.wpi.grip.core.http.ContextStore;
 import edu.wpi.grip.core.http.GripServer;
 import edu.wpi.grip.core.http.PedanticHandler;
 
-import org.apache.commons.io.IOUtils;
+import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.opencv_core.Mat;
 import org.eclipse.jetty.server.Request;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static javax.servlet.http.HttpServletResponse.SC_ACCEPTED;
+import static javax.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
 import static javax.servlet.http.HttpServletResponse.SC_CREATED;
 import static javax.servlet.http.HttpServletResponse.SC_METHOD_NOT_ALLOWED;
+import static javax.servlet.http.HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC;
 
 /**
  * Jetty handler for incoming images to be used by {@link HttpSource}.
  * Only one instance of this class can exist for a context.
  *
+ * <p>An image can be uploaded as the body of the request, in any format that OpenCV can read,
+ * or as the first part of a {@code multipart/form-data} request. It can also be uploaded as raw
+ * 8-bit pixels, with no header, by giving its size in the {@link #WIDTH_HEADER} and
+ * {@link #HEIGHT_HEADER} headers, and optionally its number of channels in the
+ * {@link #CHANNELS_HEADER} header. Raw images have three channels, in BGR order, if the number
+ * isn't given.
+ *
+ * <p>Uploads are read into a small pool of reusable direct buffers. An upload waits for a free
+ * buffer, so an uploader that sends many images at once is slowed down instead of using up memory.
+ * Images are only decoded when a source asks for them, and only once, so images that are replaced
+ * by a newer one before the pipeline runs are never decoded at all.
+ *
  * <p>This handler will return one of the following status codes to a request on
  * {@code /GRIP/upload/image}:
  * <ul>
  * <li>405 - Not Allowed: if the request is not a POST</li>
  * <li>202 - Accepted: if the image sent is the same as the previous one</li>
  * <li>201 - Created: if the image was successfully handled</li>
+ * <li>400 - Bad Request: if the size of a raw image doesn't match its headers, or a multipart
+ * request has no parts</li>
+ * <li>413 - Request Entity Too Large: if the image is larger than 16 MiB</li>
+ * <li>503 - Service Unavailable: if too many images are being uploaded at once</li>
  * </ul>
  */
 public final class HttpImageHandler extends PedanticHandler {
 
   /**
-   * Callbacks that take OpenCV Mats. These will be called when a new image is posted.
+   * The header that gives the width of a raw image.
+   */
+  public static final String WIDTH_HEADER = "X-Image-Width";
+
+  /**
+   * The header that gives the height of a raw image.
+   */
+  public static final String HEIGHT_HEADER = "X-Image-Height";
+
+  /**
+   * The header that gives the number of channels of a raw image.
+   */
+  public static final String CHANNELS_HEADER = "X-Image-Channels";
+
+  /**
+   * The number of buffers that uploads are read into. One holds the latest image until it's
+   * decoded, so this many uploads less one can be read at the same time.
+   */
+  private static final int BUFFER_COUNT = 3;
+  private static final long BUFFER_TIMEOUT_MILLIS = 500;
+  private static final int INITIAL_CAPACITY = 64 * 1024;
+  private static final int MAX_CAPACITY = 16 * 1024 * 1024;
+  private static final int CHUNK_SIZE = 8 * 1024;
+
+  /**
+   * Callbacks to run when a new image is posted.
+   */
+  private final List<Runnable> callbacks = new CopyOnWriteArrayList<>();
+
+  /**
+   * The buffers that aren't being used by an upload or holding the latest image.
    */
-  private final List<Consumer<Mat>> callbacks;
+  private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
 
   /**
-   * The most recent image. Could be a local field, but this is more memory-efficient.
+   * The latest image that was uploaded. Its buffer only belongs to this handler while
+   * {@link #decodePending} is true, and is given back to the pool once it's been decoded.
    */
-  private Mat image;
+  @GuardedBy("this")
+  @Nullable
+  private Upload latest;
+  @GuardedBy("this")
+  private boolean decodePending = false;
+  @GuardedBy("this")
+  private long uploadCount = 0;
 
   /**
-   * The most recent bytes received.
+   * The most recent image, decoded. Could be a local field, but this is more memory-efficient.
    */
-  private byte[] lastBytes;
+  @GuardedBy("this")
+  private final Mat image = new Mat();
 
   /**
    * Creates an image handler on the default upload path {@code /GRIP/upload/image}.
@@ -68,7 +132,9 @@ public final class HttpImageHandler extends PedanticHandler {
    */
   public HttpImageHandler(ContextStore store, String path) {
     super(store, path, true);
-    callbacks = new ArrayList<>();
+    for (int i = 0; i < BUFFER_COUNT; i++) {
+      freeBuffers.add(ByteBuffer.allocateDirect(INITIAL_CAPACITY));
+    }
   }
 
   @Override
@@ -81,47 +147,294 @@ public final class HttpImageHandler extends PedanticHandler {
       baseRequest.setHandled(true);
       return;
     }
-    byte[] newBytes = IOUtils.toByteArray(request.getInputStream());
-    if (Arrays.equals(lastBytes, newBytes)) {
-      // no change
-      response.setStatus(SC_ACCEPTED);
+    if (request.getContentLength() > MAX_CAPACITY) {
+      response.setStatus(SC_REQUEST_ENTITY_TOO_LARGE);
       baseRequest.setHandled(true);
       return;
     }
-    image = new Mat(newBytes);
-    lastBytes = newBytes;
-    callbacks.forEach(c -> c.accept(image));
-    response.setStatus(SC_CREATED);
+    final ByteBuffer buffer = takeBuffer();
+    if (buffer == null) {
+      // Too many images are already being uploaded
+      response.setStatus(SC_SERVICE_UNAVAILABLE);
+      baseRequest.setHandled(true);
+      return;
+    }
+    ByteBuffer body = buffer;
+    int status = SC_BAD_REQUEST;
+    try {
+      final ByteBuffer read = read(request.getInputStream(), request.getContentLength(), buffer);
+      if (read == null) {
+        // A body without a length, such as a chunked one, can only be checked as it's read
+        status = SC_REQUEST_ENTITY_TOO_LARGE;
+      } else {
+        body = read;
+        status = publish(request, body);
+      }
+    } finally {
+      // The buffer is kept if it holds the latest image
+      if (status != SC_CREATED) {
+        giveBack(body);
+      }
+    }
+    response.setStatus(status);
     baseRequest.setHandled(true);
   }
 
+  @Nullable
+  private ByteBuffer takeBuffer() {
+    try {
+      return freeBuffers.poll(BUFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private void giveBack(ByteBuffer buffer) {
+    buffer.clear();
+    freeBuffers.add(buffer);
+  }
+
   /**
-   * Gets the most recently POSTed image.
+   * Reads the body of a request into a buffer, growing it if the body doesn't fit.
+   *
+   * @return the buffer holding the body from its start to its limit, or null if the body is larger
+   *     than the largest image that can be uploaded. This is a larger buffer than the one given if
+   *     the body didn't fit in it.
    */
-  public Optional<Mat> getImage() {
-    return Optional.ofNullable(image);
+  @Nullable
+  private static ByteBuffer read(InputStream in, int contentLength, ByteBuffer buffer)
+      throws IOException {
+    ByteBuffer body = buffer;
+    if (contentLength > body.capacity()) {
+      body = ByteBuffer.allocateDirect(contentLength);
+    }
+    body.clear();
+    final byte[] chunk = new byte[CHUNK_SIZE];
+    for (int read = in.read(chunk); read >= 0; read = in.read(chunk)) {
+      if (body.remaining() < read) {
+        if (body.capacity() >= MAX_CAPACITY) {
+          return null;
+        }
+        body.flip();
+        body = ByteBuffer.allocateDirect(Math.min(body.capacity() * 2, MAX_CAPACITY)).put(body);
+      }
+      body.put(chunk, 0, read);
+    }
+    body.flip();
+    return body;
+  }
+
+  /**
+   * Makes an uploaded image the latest image, unless it's the same as the latest image.
+   *
+   * @return the status to respond to the upload with. If this is {@link
+   *     HttpServletResponse#SC_CREATED}, the body belongs to this handler until it's decoded.
+   */
+  private int publish(HttpServletRequest request, ByteBuffer body) {
+    final Upload upload;
+    try {
+      upload = Upload.of(request, body);
+    } catch (IllegalArgumentException e) {
+      return SC_BAD_REQUEST;
+    }
+    synchronized (this) {
+      if (upload.isSameImageAs(latest)) {
+        return SC_ACCEPTED;
+      }
+      if (decodePending) {
+        // The last image was replaced before anyone used it, so it never needs to be decoded
+        giveBack(latest.buffer);
+      }
+      latest = upload;
+      decodePending = true;
+      uploadCount++;
+    }
+    callbacks.forEach(Runnable::run);
+    return SC_CREATED;
+  }
+
+  /**
+   * Gets the number of different images that have been uploaded. This can be compared to an
+   * earlier count to check for a new image without decoding it.
+   */
+  public synchronized long getUploadCount() {
+    return uploadCount;
+  }
+
+  /**
+   * Copies the most recently POSTed image into a mat. The image is decoded the first time it's
+   * copied.
+   *
+   * @param dst the mat to copy the image into
+   * @return false if no image has been posted, or the latest image couldn't be decoded
+   */
+  public synchronized boolean copyImageTo(Mat dst) {
+    if (decodePending) {
+      latest.decodeInto(image);
+      decodePending = false;
+      giveBack(latest.buffer);
+    }
+    if (image.empty()) {
+      return false;
+    }
+    image.copyTo(dst);
+    return true;
   }
 
   /**
    * Adds a callback to this handler. The callback will be called when a new image is POSTed to
-   * {@code /GRIP/upload/image} and can be removed later with {@link #removeCallback(Consumer)}.
+   * {@code /GRIP/upload/image} and can be removed later with {@link #removeCallback(Runnable)}.
    *
    * @param callback the callback to add
-   * @see #removeCallback(Consumer)
+   * @see #removeCallback(Runnable)
    */
-  public void addCallback(Consumer<Mat> callback) {
+  public void addCallback(Runnable callback) {
     callbacks.add(checkNotNull(callback));
   }
 
   /**
    * Removes the given callback from this handler. The callback will no longer be called when a new
    * image is POSTed to {@code /GRIP/upload/image}, unless it is re-added with
-   * {@link #addCallback(Consumer)}. Does nothing if {@code callback} is {@code null}.
+   * {@link #addCallback(Runnable)}. Does nothing if {@code callback} is {@code null}.
    *
    * @param callback the callback to remove
-   * @see #addCallback(Consumer)
+   * @see #addCallback(Runnable)
    */
-  public void removeCallback(@Nullable Consumer<Mat> callback) {
+  public void removeCallback(@Nullable Runnable callback) {
     callbacks.remove(callback);
   }
+
+  /**
+   * An uploaded image that hasn't been decoded yet.
+   */
+  private static final class Upload {
+    private static final String BOUNDARY_PARAMETER = "boundary=";
+    private static final byte[] BLANK_LINE = {'\r', '\n', '\r', '\n'};
+
+    /**
+     * The buffer holding the image, from its position to its limit. This is given back to the
+     * pool once the image is decoded, so it must not be used after that.
+     */
+    private final ByteBuffer buffer;
+    private final int length;
+    private final long checksum;
+    // The size of a raw image, or 0 if the image is encoded
+    private final int width;
+    private final int height;
+    private final int channels;
+
+    private Upload(ByteBuffer buffer, int width, int height, int channels) {
+      this.buffer = buffer;
+      this.width = width;
+      this.height = height;
+      this.channels = channels;
+      this.length = buffer.remaining();
+      final CRC32 crc = new CRC32();
+      crc.update(buffer.duplicate());
+      this.checksum = crc.getValue();
+    }
+
+    /**
+     * Finds the image in the body of an upload.
+     *
+     * @throws IllegalArgumentException if the upload isn't valid
+     */
+    private static Upload of(HttpServletRequest request, ByteBuffer body) {
+      final String contentType = request.getContentType();
+      if (contentType != null
+          && contentType.toLowerCase(Locale.ENGLISH).startsWith("multipart/")) {
+        selectFirstPart(body, contentType);
+      }
+      if (request.getHeader(WIDTH_HEADER) == null && request.getHeader(HEIGHT_HEADER) == null) {
+        return new Upload(body, 0, 0, 0);
+      }
+      final int width = intHeader(request, WIDTH_HEADER, -1);
+      final int height = intHeader(request, HEIGHT_HEADER, -1);
+      final int channels = intHeader(request, CHANNELS_HEADER, 3);
+      if (width <= 0 || height <= 0 || channels <= 0 || channels > 4
+          || (long) width * height * channels != body.remaining()) {
+        throw new IllegalArgumentException("The size of the raw image doesn't match its headers");
+      }
+      return new Upload(body, width, height, channels);
+    }
+
+    private static int intHeader(HttpServletRequest request, String name, int defaultValue) {
+      final String value = request.getHeader(name);
+      if (value == null) {
+        return defaultValue;
+      }
+      try {
+        return Integer.parseInt(value.trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid " + name + " header: " + value, e);
+      }
+    }
+
+    /**
+     * Narrows the body of a multipart request down to the content of its first part, without
+     * copying it.
+     */
+    private static void selectFirstPart(ByteBuffer body, String contentType) {
+      final int parameter = contentType.toLowerCase(Locale.ENGLISH).indexOf(BOUNDARY_PARAMETER);
+      if (parameter < 0) {
+        throw new IllegalArgumentException("The multipart request has no boundary");
+      }
+      final String boundary = contentType.substring(parameter + BOUNDARY_PARAMETER.length())
+          .split(";")[0].trim().replace("\"", "");
+      final byte[] delimiter = ("--" + boundary).getBytes(StandardCharsets.US_ASCII);
+      final int partStart = indexOf(body, delimiter, body.position());
+      final int headersEnd = partStart < 0 ? -1 : indexOf(body, BLANK_LINE, partStart);
+      if (headersEnd < 0) {
+        throw new IllegalArgumentException("The multipart request has no parts");
+      }
+      final int contentStart = headersEnd + BLANK_LINE.length;
+      // Each part ends with a line break before the next delimiter
+      final byte[] partEnd = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+      final int contentEnd = indexOf(body, partEnd, contentStart);
+      if (contentEnd < 0) {
+        throw new IllegalArgumentException("The multipart request's first part never ends");
+      }
+      body.limit(contentEnd).position(contentStart);
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] target, int from) {
+      for (int i = from; i + target.length <= buffer.limit(); i++) {
+        int matched = 0;
+        while (matched < target.length && buffer.get(i + matched) == target[matched]) {
+          matched++;
+        }
+        if (matched == target.length) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private boolean isSameImageAs(@Nullable Upload other) {
+      return other != null
+          && checksum == other.checksum
+          && length == other.length
+          && width == other.width
+          && height == other.height
+          && channels == other.channels;
+    }
+
+    /**
+     * Decodes this image, leaving the mat empty if it can't be decoded.
+     */
+    private void decodeInto(Mat image) {
+      if (width == 0) {
+        if (!EncodedFrameGrabber.decode(buffer.duplicate(), image)) {
+          image.release();
+        }
+        return;
+      }
+      // Raw images only need to be copied out of the buffer, so it can be reused
+      try (BytePointer data = new BytePointer(buffer.slice());
+           Mat raw = new Mat(height, width, CV_8UC(channels), data)) {
+        raw.copyTo(image);
+      }
+    }
+  }
 }
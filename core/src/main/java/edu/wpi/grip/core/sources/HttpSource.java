@@ -25,17 +25,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.function.Consumer;
-
-import static org.bytedeco.javacpp.opencv_imgcodecs.CV_LOAD_IMAGE_COLOR;
-import static org.bytedeco.javacpp.opencv_imgcodecs.imdecode;
 
 /**
  * Provides a way to generate a {@link Mat Mat} from an image that has been POSTed to the
  * internal HTTP server.
  * <p>
- * Note that multiple {@link HttpSource HttpSources} will all supply the same image
- * (or, more precisely, the same <i>reference</i> to a single image).
+ * Note that multiple {@link HttpSource HttpSources} will all supply the same image, which is only
+ * decoded once no matter how many sources use it.
  * </p>
  */
 @XStreamAlias("grip:HttpImage")
@@ -55,11 +51,16 @@ public class HttpSource extends Source {
 
   private final OutputSocket<MatWrapper> imageOutput;
   private final SocketHint<MatWrapper> outputHint = SocketHints.createImageSocketHint("Image");
-  private final MatWrapper image = MatWrapper.emptyWrapper();
-  private final Consumer<Mat> callback;
+  private final Runnable callback;
   private final EventBus eventBus;
   private String path;
 
+  /**
+   * The {@link HttpImageHandler#getUploadCount() upload count} when the image was last given to the
+   * output socket. Only the pipeline thread can use this.
+   */
+  private long takenUploadCount = 0;
+
   public interface Factory {
     HttpSource create(Properties properties);
 
@@ -98,12 +99,7 @@ public class HttpSource extends Source {
     // Will add the handler only when the first HttpSource is created -- no-op every subsequent time
     // (Otherwise, multiple handlers would be getting called and it'd be a mess)
     server.addHandler(imageHandler);
-    this.callback = this::setImage;
-  }
-
-  private void setImage(Mat image) {
-    this.image.set(image);
-    eventBus.post(new SourceHasPendingUpdateEvent(this));
+    this.callback = () -> eventBus.post(new SourceHasPendingUpdateEvent(this));
   }
 
   @Override
@@ -120,11 +116,15 @@ public class HttpSource extends Source {
 
   @Override
   protected boolean updateOutputSockets() {
-    if (image.empty()) {
-      // No data, don't bother converting
+    final long uploadCount = imageHandler.getUploadCount();
+    if (uploadCount == takenUploadCount) {
+      // No new image, so there's nothing to decode or copy
+      return false;
+    }
+    takenUploadCount = uploadCount;
+    if (!imageHandler.copyImageTo(imageOutput.getValue().get().rawCpu())) {
       return false;
     }
-    imageOutput.getValue().get().set(imdecode(image.getCpu(), CV_LOAD_IMAGE_COLOR));
     imageOutput.flagChanged();
     return true;
   }
@@ -139,7 +139,9 @@ public class HttpSource extends Source {
   @Override
   public void initialize() {
     imageHandler.addCallback(callback);
-    imageHandler.getImage().ifPresent(this::setImage);
+    if (imageHandler.getUploadCount() > 0) {
+      callback.run();
+    }
   }
 
   @Subscribe
@@ -23,7 +23,6 @@
 
 package edu.wpi.grip.core.sources;
 
-import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.FrameConverter;
@@ -32,26 +31,32 @@ import org.bytedeco.javacv.OpenCVFrameConverter;
 
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.concurrent.TimeUnit;
 
 import javax.imageio.ImageIO;
 
-import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
-import static org.bytedeco.javacpp.opencv_core.CvMat;
-import static org.bytedeco.javacpp.opencv_core.IplImage;
-import static org.bytedeco.javacpp.opencv_core.cvMat;
-import static org.bytedeco.javacpp.opencv_core.cvReleaseImage;
-import static org.bytedeco.javacpp.opencv_imgcodecs.cvDecodeImage;
+import static org.bytedeco.javacpp.opencv_core.Mat;
 
+/**
+ * Grabs frames from an MJPEG stream served over HTTP. The stream is split into frames by an
+ * {@link MjpegParser}, which reads it in bulk into a reusable direct buffer, and each frame is
+ * decoded straight from that buffer into a reused mat. Frames that were already out of date by the
+ * time a frame was asked for are skipped without being decoded.
+ *
+ * <p>Frames can also be {@link #grabEncoded(ByteBuffer) grabbed as JPEG images}, so that a source
+ * that falls behind the camera doesn't spend time decoding frames it never uses.
+ */
 // This is here because FrameGrabber has an exception called Exception which triggers PMD
 @SuppressWarnings({"PMD.AvoidThrowingRawExceptionTypes", "all"})
-public class IPCameraFrameGrabber extends FrameGrabber {
+public class IPCameraFrameGrabber extends FrameGrabber implements MatFrameGrabber,
+    EncodedFrameGrabber {
 
   /*
    * excellent reference - http://www.jpegcameras.com/ foscam url
@@ -64,10 +69,11 @@ public class IPCameraFrameGrabber extends FrameGrabber {
   private final int connectionTimeout;
   private final int readTimeout;
   private URLConnection connection;
-  private DataInputStream input;
-  private byte[] pixelBuffer = new byte[1024];
-  private IplImage decoded = null;
-  private FrameConverter<IplImage> converter = new OpenCVFrameConverter.ToIplImage();
+  private ReadableByteChannel input;
+  private MjpegParser parser;
+  private Mat decoded = null;
+  private FrameConverter<Mat> converter = new OpenCVFrameConverter.ToMat();
+
   public IPCameraFrameGrabber(String urlstr, int connectionTimeout, int readTimeout, TimeUnit
       unit) throws MalformedURLException {
     super();
@@ -96,7 +102,8 @@ public class IPCameraFrameGrabber extends FrameGrabber {
       connection = url.openConnection();
       connection.setConnectTimeout(connectionTimeout);
       connection.setReadTimeout(readTimeout);
-      input = new DataInputStream(connection.getInputStream());
+      input = Channels.newChannel(connection.getInputStream());
+      parser = new MjpegParser(input);
     } catch (IOException e) {
       // Make sure we rethrow the IO exception https://github.com/bytedeco/javacv/pull/300
       throw new Exception(e.getMessage(), e);
@@ -111,11 +118,12 @@ public class IPCameraFrameGrabber extends FrameGrabber {
       try {
         input.close();
         input = null;
+        parser = null;
         connection = null;
         // Don't set url to null
         // https://github.com/bytedeco/javacv/pull/300
         if (decoded != null) {
-          cvReleaseImage(decoded);
+          decoded.release();
         }
       } catch (IOException e) {
         throw new Exception(e.getMessage(), e);
@@ -129,93 +137,58 @@ public class IPCameraFrameGrabber extends FrameGrabber {
 
   @Override
   public Frame grab() throws Exception {
+    if (decoded == null) {
+      decoded = new Mat();
+    }
+    grabInto(decoded);
+    return converter.convert(decoded);
+  }
+
+  @Override
+  public void grabInto(Mat image) throws Exception {
+    final ByteBuffer jpeg;
     try {
-      byte[] b = readImage();
-      CvMat mat = cvMat(1, b.length, CV_8UC1, new BytePointer(b));
-      if (decoded != null) {
-        cvReleaseImage(decoded);
-      }
-      return converter.convert(decoded = cvDecodeImage(mat));
+      jpeg = parser.nextFrame();
     } catch (IOException e) {
       throw new Exception(e.getMessage(), e);
     }
-  }
-
-  public BufferedImage grabBufferedImage() throws IOException {
-    BufferedImage bi = ImageIO.read(new ByteArrayInputStream(readImage()));
-    return bi;
-  }
-
-  byte[] readImage() throws IOException {
-    StringBuffer sb = new StringBuffer();
-    int c;
-    // read http subheader
-    while ((c = input.read()) != -1) {
-      if (c > 0) {
-        sb.append((char) c);
-        if (c == 13) {
-          sb.append((char) input.read()); // '10'+
-          c = input.read();
-          sb.append((char) c);
-          if (c == 13) {
-            sb.append((char) input.read()); // '10'
-            break; // done with subheader
-          }
-
-        }
-      }
+    // Decode straight out of the parser's buffer, without copying it
+    if (!EncodedFrameGrabber.decode(jpeg, image)) {
+      throw new Exception("Could not decode a frame from the camera");
     }
+  }
 
-    // find embedded jpeg in stream
-    final String subheader = sb.toString().toLowerCase();
-    //log.debug(subheader);
-
-    // if (boundryKey == null)
-    // {
-    // Yay! - server was nice and sent content length
-    int c0 = subheader.indexOf("content-length: ");
-    int c1 = subheader.indexOf('\r', c0);
-
-    if (c0 < 0) {
-      //log.info("no content length returning null");
-      throw new EOFException("The camera stream ended unexpectedly");
+  @Override
+  public ByteBuffer grabEncoded(ByteBuffer buffer) throws Exception {
+    final ByteBuffer jpeg;
+    try {
+      jpeg = parser.nextFrame();
+    } catch (IOException e) {
+      throw new Exception(e.getMessage(), e);
     }
-
-    c0 += 16;
-    final int contentLength = Integer.parseInt(subheader.substring(c0, c1).trim());
-    //log.debug("Content-Length: " + contentLength);
-
-    // adaptive size - careful - don't want a 2G jpeg
-    ensureBufferCapacity(contentLength);
-
-    input.readFully(pixelBuffer, 0, contentLength);
-    input.read(); // \r
-    input.read(); // \n
-    input.read(); // \r
-    input.read(); // \n
-
-    return pixelBuffer;
+    final ByteBuffer copy = buffer.capacity() < jpeg.remaining()
+        ? ByteBuffer.allocateDirect(jpeg.remaining())
+        : buffer;
+    copy.clear();
+    copy.put(jpeg);
+    copy.flip();
+    return copy;
   }
 
   /**
-   * Grow the pixel buffer if necessary.  Using this method instead of allocating a new buffer every
-   * time a frame is grabbed improves performance by reducing the frequency of garbage collections.
-   * In a simple test, the unmodified version of IPCameraFrameGrabber caused about 200MB of
-   * allocations within 13 seconds.  In this version, almost no additional heap space is typically
-   * allocated per frame. The downside to this is that the returned frames can't really be modified,
-   * so this probably won't go upstream, but it's useful for us because in GRIP we don't operate on
-   * images in-place.
+   * Gets the number of frames that were skipped without being decoded because a newer frame had
+   * already arrived.
    */
-  private void ensureBufferCapacity(int desiredCapacity) {
-    int capacity = pixelBuffer.length;
-
-    while (capacity < desiredCapacity) {
-      capacity *= 2;
-    }
+  public long getSkippedFrames() {
+    return parser == null ? 0 : parser.getSkippedFrames();
+  }
 
-    if (capacity > pixelBuffer.length) {
-      pixelBuffer = new byte[capacity];
-    }
+  public BufferedImage grabBufferedImage() throws IOException {
+    final ByteBuffer jpeg = parser.nextFrame();
+    final byte[] bytes = new byte[jpeg.remaining()];
+    jpeg.get(bytes);
+    BufferedImage bi = ImageIO.read(new ByteArrayInputStream(bytes));
+    return bi;
   }
 
   @Override
@@ -0,0 +1,19 @@
+package edu.wpi.grip.core.sources;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacv.FrameGrabber;
+
+/**
+ * A frame grabber that can decode frames straight into a mat that it's given, instead of into its
+ * own buffer that then has to be copied.
+ */
+interface MatFrameGrabber {
+
+  /**
+   * Grabs the next frame into the given mat.
+   *
+   * @param image the mat to write the frame into
+   * @throws FrameGrabber.Exception if a frame could not be grabbed
+   */
+  void grabInto(Mat image) throws FrameGrabber.Exception;
+}
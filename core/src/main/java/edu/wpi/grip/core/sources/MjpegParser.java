@@ -0,0 +1,222 @@
+package edu.wpi.grip.core.sources;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Splits a {@code multipart/x-mixed-replace} MJPEG stream into JPEG images. The stream is read in
+ * bulk into a single reusable direct buffer, and frames are found by scanning the bytes in place,
+ * so nothing is allocated per frame.
+ *
+ * <p>Each part's {@code Content-Length} header is used to find the end of the image when there is
+ * one. Otherwise, the image is assumed to run from the JPEG start of image marker to the end of
+ * image marker.
+ *
+ * <p>If more than one complete frame has already arrived when the next frame is asked for, the
+ * older ones are skipped, since they were out of date before anyone could use them. This keeps a
+ * slow consumer from decoding a backlog of frames from a faster camera.
+ */
+final class MjpegParser {
+
+  private static final int INITIAL_CAPACITY = 64 * 1024;
+  /**
+   * The largest frame that will be buffered. Anything bigger is almost certainly a corrupt stream.
+   */
+  private static final int MAX_CAPACITY = 16 * 1024 * 1024;
+  private static final byte[] CONTENT_LENGTH =
+      "content-length:".getBytes(StandardCharsets.US_ASCII);
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+  private static final byte MARKER = (byte) 0xFF;
+  private static final byte START_OF_IMAGE = (byte) 0xD8;
+  private static final byte END_OF_IMAGE = (byte) 0xD9;
+
+  private final ReadableByteChannel channel;
+  /**
+   * The bytes that have been read but not parsed yet are between the position and the limit.
+   */
+  private ByteBuffer buffer;
+  private long skippedFrames;
+
+  // The bounds of the last frame that was parsed
+  private int frameStart;
+  private int frameEnd;
+
+  MjpegParser(ReadableByteChannel channel) {
+    this.channel = checkNotNull(channel, "channel");
+    this.buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+    buffer.flip();
+  }
+
+  /**
+   * Reads the next frame from the stream, blocking until one has arrived.
+   *
+   * @return a view of the JPEG image, from its position to its limit. It's only valid until this
+   *     is called again.
+   * @throws EOFException if the stream ends
+   * @throws IOException  if the stream can't be read, or isn't a valid MJPEG stream
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  ByteBuffer nextFrame() throws IOException {
+    while (!parseFrame()) {
+      fill();
+    }
+    int start = frameStart;
+    int end = frameEnd;
+    // Skip frames that were already out of date by the time this one was parsed
+    while (parseFrame()) {
+      skippedFrames++;
+      start = frameStart;
+      end = frameEnd;
+    }
+    final ByteBuffer frame = buffer.duplicate();
+    frame.limit(end).position(start);
+    return frame;
+  }
+
+  /**
+   * Gets the number of frames that were skipped because a newer frame had already arrived.
+   */
+  @SuppressWarnings("PMD.DefaultPackage")
+  long getSkippedFrames() {
+    return skippedFrames;
+  }
+
+  /**
+   * Tries to parse a frame out of the bytes that have already been read. If there's a complete
+   * frame, its bounds are stored in {@link #frameStart} and {@link #frameEnd} and the buffer is
+   * moved past it. Otherwise, the buffer is left as it was.
+   *
+   * @return true if there was a complete frame
+   */
+  private boolean parseFrame() throws IOException {
+    int start = buffer.position();
+    final int limit = buffer.limit();
+    // Skip the line breaks left over from the end of the last part
+    while (start < limit && (buffer.get(start) == CR || buffer.get(start) == LF)) {
+      start++;
+    }
+    final int headerEnd = indexOfBlankLine(start, limit);
+    if (headerEnd < 0) {
+      return false;
+    }
+    final int contentLength = contentLength(start, headerEnd);
+    if (contentLength >= 0) {
+      if (limit - headerEnd < contentLength) {
+        return false;
+      }
+      frameStart = headerEnd;
+      frameEnd = headerEnd + contentLength;
+    } else {
+      // No content length, so look for the end of the JPEG image
+      final int imageStart = indexOfMarker(START_OF_IMAGE, headerEnd, limit);
+      if (imageStart < 0) {
+        return false;
+      }
+      final int imageEnd = indexOfMarker(END_OF_IMAGE, imageStart + 2, limit);
+      if (imageEnd < 0) {
+        return false;
+      }
+      frameStart = imageStart;
+      frameEnd = imageEnd + 2;
+    }
+    buffer.position(frameEnd);
+    return true;
+  }
+
+  /**
+   * Reads as much of the stream as has arrived, waiting for at least one byte. The bytes that
+   * haven't been parsed yet are moved to the start of the buffer first, and the buffer is grown if
+   * they fill it.
+   */
+  private void fill() throws IOException {
+    buffer.compact();
+    if (!buffer.hasRemaining()) {
+      if (buffer.capacity() >= MAX_CAPACITY) {
+        throw new IOException("A frame in the camera stream was larger than " + MAX_CAPACITY
+            + " bytes");
+      }
+      buffer.flip();
+      final ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+      larger.put(buffer);
+      buffer = larger;
+    }
+    final int read = channel.read(buffer);
+    buffer.flip();
+    if (read < 0) {
+      throw new EOFException("The camera stream ended unexpectedly");
+    }
+  }
+
+  /**
+   * Finds the end of a part's headers.
+   *
+   * @return the index just after the blank line that ends the headers, or -1 if it hasn't arrived
+   */
+  private int indexOfBlankLine(int from, int to) {
+    for (int i = from; i + 3 < to; i++) {
+      if (buffer.get(i) == CR && buffer.get(i + 1) == LF
+          && buffer.get(i + 2) == CR && buffer.get(i + 3) == LF) {
+        return i + 4;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Reads the {@code Content-Length} header of a part, ignoring case.
+   *
+   * @return the length of the part's content, or -1 if it doesn't have a length
+   */
+  private int contentLength(int from, int to) throws IOException {
+    final int header = indexOfIgnoreCase(CONTENT_LENGTH, from, to);
+    if (header < 0) {
+      return -1;
+    }
+    int i = header + CONTENT_LENGTH.length;
+    while (i < to && buffer.get(i) == ' ') {
+      i++;
+    }
+    long length = 0;
+    int digits = 0;
+    for (; i < to && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++, digits++) {
+      length = length * 10 + buffer.get(i) - '0';
+      if (length > MAX_CAPACITY) {
+        throw new IOException("A frame in the camera stream was larger than " + MAX_CAPACITY
+            + " bytes");
+      }
+    }
+    if (digits == 0) {
+      throw new IOException("The camera sent an invalid content length");
+    }
+    return (int) length;
+  }
+
+  private int indexOfIgnoreCase(byte[] lowerCase, int from, int to) {
+    for (int i = from; i + lowerCase.length <= to; i++) {
+      int matched = 0;
+      while (matched < lowerCase.length
+          && Character.toLowerCase(buffer.get(i + matched)) == lowerCase[matched]) {
+        matched++;
+      }
+      if (matched == lowerCase.length) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int indexOfMarker(byte marker, int from, int to) {
+    for (int i = from; i + 1 < to; i++) {
+      if (buffer.get(i) == MARKER && buffer.get(i + 1) == marker) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -123,10 +123,19 @@ public class NetworkTableEntrySource extends Source {
     );
   }
 
+  /**
+   * Moves the entry's value into the output socket. If it's the value the socket already holds,
+   * this does nothing, so that steps using it don't run again when the entry is written without
+   * being changed.
+   */
   @Override
   protected boolean updateOutputSockets() {
+    final Object value = networkReceiver.getValue();
+    if (value.equals(output.getValue().orElse(null))) {
+      return false;
+    }
     try {
-      output.setValue(networkReceiver.getValue());
+      output.setValue(value);
     } catch (ClassCastException ex) {
       getExceptionWitness().flagException(ex, getName() + " is not of type "
           + output.getSocketHint().getTypeLabel());
@@ -46,7 +46,7 @@ public class VideoFileSource extends Source implements Pausable {
   private final SocketHint<Number> fpsHint = SocketHints.Outputs.createNumberSocketHint("FPS", 0);
   private final OutputSocket<MatWrapper> imageSocket;
   private final OutputSocket<Number> fpsSocket;
-  private final Mat workingMat = new Mat();
+  private final FrameExchange frames = new FrameExchange();
   @SuppressWarnings("PMD.LinguisticNaming")
   private final AtomicBoolean isNewFrame = new AtomicBoolean(false);
   private FFmpegFrameGrabber frameGrabber;
@@ -99,13 +99,22 @@ public class VideoFileSource extends Source implements Pausable {
     );
   }
 
+  @Override
+  public long getBufferedNativeBytes() {
+    return frames.getBufferedBytes();
+  }
+
+  @Override
+  protected long getCaptureTime() {
+    return frames.getTakenCaptureTime();
+  }
+
   @Override
   protected boolean updateOutputSockets() {
     if (isNewFrame.compareAndSet(true, false)) {
       // New frame, update outputs
-      synchronized (workingMat) {
-        workingMat.copyTo(imageSocket.getValue().get().rawCpu());
-      }
+      // Swap the latest frame into the socket instead of copying it
+      frames.takeInto(imageSocket.getValue().get());
       imageSocket.setValue(imageSocket.getValue().get()); // force the socket to update
       return true;
     } else {
@@ -170,9 +179,9 @@ public class VideoFileSource extends Source implements Pausable {
         grabNextFrame();
         return;
       }
-      synchronized (workingMat) {
-        m.copyTo(workingMat);
-      }
+      // The grabber reuses its own buffer, so the frame has to be copied out of it
+      m.copyTo(frames.getBackBuffer());
+      frames.publish(System.nanoTime());
       m.release();
       currentFrame.set(frameGrabber.getFrameNumber()); // best guess
       isNewFrame.set(true);
@@ -0,0 +1,131 @@
+package edu.wpi.grip.core;
+
+import edu.wpi.grip.core.metrics.BenchmarkReport;
+import edu.wpi.grip.core.operations.OperationsFactory;
+import edu.wpi.grip.core.operations.network.GripNetworkModule;
+import edu.wpi.grip.core.operations.network.MockGripNetworkModule;
+import edu.wpi.grip.core.serialization.Project;
+import edu.wpi.grip.util.Files;
+import edu.wpi.grip.util.GripCoreTestModule;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.util.Modules;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.bytedeco.javacpp.opencv_core.absdiff;
+import static org.bytedeco.javacpp.opencv_core.countNonZero;
+import static org.bytedeco.javacpp.opencv_imgproc.COLOR_BGR2GRAY;
+import static org.bytedeco.javacpp.opencv_imgproc.cvtColor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchBenchmarkTest {
+
+  private static final String PROJECT = "<grip:Pipeline>"
+      + "  <sources>"
+      + "    <grip:ImageFile>"
+      + "      <property name=\"path\" value=\"%s\"/>"
+      + "    </grip:ImageFile>"
+      + "  </sources>"
+      + "  <steps>"
+      + "    <grip:Step name=\"Desaturate\">"
+      + "      <grip:Input step=\"0\" socket=\"0\"/>"
+      + "      <grip:Output step=\"0\" socket=\"0\" previewed=\"false\"/>"
+      + "    </grip:Step>"
+      + "  </steps>"
+      + "  <connections>"
+      + "    <grip:Connection>"
+      + "      <grip:Output source=\"0\" socket=\"0\" previewed=\"false\"/>"
+      + "      <grip:Input step=\"0\" socket=\"0\"/>"
+      + "    </grip:Connection>"
+      + "  </connections>"
+      + "</grip:Pipeline>";
+
+  private GripCoreTestModule testModule;
+  private Pipeline pipeline;
+  private Project project;
+  private BatchBenchmark benchmark;
+
+  @Before
+  public void setUp() {
+    testModule = new GripCoreTestModule();
+    testModule.setUp();
+    final Injector injector = Guice.createInjector(
+        Modules.override(new GripCoreModule(), new GripFileModule(), new GripNetworkModule())
+            .with(testModule, new MockGripNetworkModule()));
+    final EventBus eventBus = injector.getInstance(EventBus.class);
+    pipeline = injector.getInstance(Pipeline.class);
+    project = injector.getInstance(Project.class);
+    benchmark = injector.getInstance(BatchBenchmark.class);
+    OperationsFactory.create(eventBus, injector).addOperations();
+  }
+
+  @After
+  public void tearDown() {
+    pipeline.clear();
+    testModule.tearDown();
+  }
+
+  @Test
+  public void testWarmupRunsAreExcluded() throws IOException {
+    project.open(String.format(PROJECT, Files.imageFile.file.getAbsolutePath()));
+    final BenchmarkReport report = benchmark.run(imageDirectory(), 3, 5);
+
+    assertEquals(3, report.getWarmupRuns());
+    assertEquals(5, report.getMeasuredRuns());
+    assertEquals("Only the measured runs of the step should be reported",
+        5, report.getSteps().get("0: Desaturate").getCount());
+    assertTrue("The pipeline should have held some native memory",
+        report.getNativeHighWaterBytes() > 0);
+    assertTrue(report.getFramesPerSecond() > 0);
+    assertTrue("The runs should have allocated something on the heap",
+        report.getAllocatedBytes() > 0);
+  }
+
+  @Test
+  public void testFramesAreGivenToTheSources() throws IOException {
+    project.open(String.format(PROJECT, Files.imageFile.file.getAbsolutePath()));
+    // The directory has three images, so the last run should be on the first one again
+    benchmark.run(imageDirectory(), 0, 4);
+
+    final MatWrapper output = (MatWrapper) pipeline.getSteps().get(0).getOutputSockets().get(0)
+        .getValue().get();
+    final Mat expected = new Mat();
+    cvtColor(Files.imageFile.createMat(), expected, COLOR_BGR2GRAY);
+    final Mat difference = new Mat();
+    try {
+      assertEquals(expected.rows(), output.rows());
+      assertEquals(expected.cols(), output.cols());
+      absdiff(expected, output.getCpu(), difference);
+      assertEquals("The last run should have desaturated the first image",
+          0, countNonZero(difference));
+    } finally {
+      expected.release();
+      difference.release();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingInputThrows() throws IOException {
+    project.open(String.format(PROJECT, Files.imageFile.file.getAbsolutePath()));
+    benchmark.run(new File(imageDirectory(), "does-not-exist"), 0, 1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testEmptyPipelineThrows() throws IOException {
+    benchmark.run(imageDirectory(), 0, 1);
+  }
+
+  private static File imageDirectory() {
+    return Files.imageFile.file.getParentFile();
+  }
+}
@@ -1,5 +1,6 @@
 package edu.wpi.grip.core;
 
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
 import edu.wpi.grip.core.events.ConnectionRemovedEvent;
 import edu.wpi.grip.core.sockets.InputSocket;
 import edu.wpi.grip.core.sockets.MockInputSocketFactory;
@@ -13,7 +14,11 @@ import com.google.common.eventbus.EventBus;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Optional;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class ConnectionTest {
   private static final Number testValue = Double.valueOf(12345.6789);
@@ -43,6 +48,7 @@ public class ConnectionTest {
   public void testInputSocketChanges() {
     final Connection<Number> connection = new Connection(eventBus, new MockPipeline(), foo, bar);
     eventBus.register(connection);
+    eventBus.post(new ConnectionAddedEvent(connection));
 
     foo.setValue(testValue);
     assertEquals(testValue, bar.getValue().get());
@@ -50,6 +56,18 @@ public class ConnectionTest {
     eventBus.unregister(connection);
   }
 
+  @Test
+  public void testInputSocketChangesWithoutEventBus() {
+    final Connection<Number> connection = new Connection<>(eventBus, new MockPipeline(), foo, bar);
+    eventBus.register(connection);
+    eventBus.post(new ConnectionAddedEvent(connection));
+    eventBus.unregister(connection);
+
+    foo.setValue(testValue);
+    assertEquals("The output socket should update its connections directly",
+        testValue, bar.getValue().get());
+  }
+
   @Test
   public void testInputSocketResets() {
     final Connection<Number> connection = new Connection<>(eventBus, new MockPipeline(), foo, bar);
@@ -59,6 +77,53 @@ public class ConnectionTest {
     assertEquals(0.0, bar.getValue().get().doubleValue(), 0.01);
   }
 
+  @Test
+  public void testInputSocketHasOutputSocketFrameStamp() {
+    final Connection<Number> connection = new Connection<>(eventBus, new MockPipeline(), foo, bar);
+    eventBus.register(connection);
+    eventBus.post(new ConnectionAddedEvent(connection));
+
+    final FrameStamp stamp = new FrameStamp(System.nanoTime(), 1);
+    foo.setFrameStamp(Optional.of(stamp));
+    assertEquals(Optional.of(stamp), bar.getFrameStamp());
+
+    eventBus.unregister(connection);
+  }
+
+  @Test
+  public void testDeferredConnectionKeepsHandedOverFrameStamp() {
+    final Connection<Number> connection = new Connection<>(eventBus, new MockPipeline(), foo, bar);
+    final FrameStamp first = new FrameStamp(System.nanoTime(), 1);
+    final FrameStamp second = new FrameStamp(first.getCaptureTime() + 1, 2);
+    foo.setFrameStamp(Optional.of(first));
+    connection.setDeferred(true);
+
+    foo.setFrameStamp(Optional.of(second));
+    assertEquals("The input socket is still working on the first frame",
+        Optional.of(first), connection.getFrameStamp());
+
+    connection.setDeferredFrameStamp(Optional.of(second));
+    assertEquals(Optional.of(second), connection.getFrameStamp());
+  }
+
+  @Test
+  public void testDeferredConnectionDoesNotUpdateInputSocket() {
+    final Connection<Number> connection = new Connection<>(eventBus, new MockPipeline(), foo, bar);
+    eventBus.register(connection);
+    eventBus.post(new ConnectionAddedEvent(connection));
+    connection.setDeferred(true);
+
+    foo.setValue(testValue);
+    assertEquals(0.0, bar.getValue().get().doubleValue(), 0.01);
+    assertTrue("The change should have been recorded", connection.takePendingChange());
+    assertFalse("Taking the change should clear it", connection.takePendingChange());
+
+    connection.setDeferred(false);
+    assertEquals(testValue, bar.getValue().get());
+
+    eventBus.unregister(connection);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testPipelineSaysConnectionIsInvalid() {
     new Connection(
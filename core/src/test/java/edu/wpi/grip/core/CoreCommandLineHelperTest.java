@@ -1,11 +1,30 @@
 package edu.wpi.grip.core;
 
+import edu.wpi.grip.core.metrics.BenchmarkReport;
+import edu.wpi.grip.core.metrics.LatencySnapshot;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.apache.commons.cli.CommandLine;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class CoreCommandLineHelperTest {
 
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private static class MockHelper extends CoreCommandLineHelper {
     @Override
     public void exit() {
@@ -70,4 +89,40 @@ public class CoreCommandLineHelperTest {
     assertTrue("The application didn't exit", exited[0]);
   }
 
+  @Test
+  public void testBenchmark() throws IOException {
+    final File input = temporaryFolder.newFolder("frames");
+    final String report = new File(temporaryFolder.getRoot(), "results").getAbsolutePath();
+    final int[] runs = {-1, -1};
+    final BatchBenchmark benchmark = new BatchBenchmark(null, null, null, null, null) {
+      @Override
+      public BenchmarkReport run(File frames, int warmupRuns, int measuredRuns) {
+        assertEquals(input, frames);
+        runs[0] = warmupRuns;
+        runs[1] = measuredRuns;
+        return new BenchmarkReport(warmupRuns, LatencySnapshot.EMPTY, ImmutableMap.of(), 0, -1, 0,
+            0);
+      }
+    };
+    final MockHelper m = new MockHelper();
+
+    final CommandLine args = m.parse("--benchmark", input.getPath(), "--warmup", "2",
+        "--runs", "20", "--report", report);
+    assertTrue(m.isBenchmark(args));
+    m.runBenchmark(args, benchmark);
+    assertEquals(2, runs[0]);
+    assertEquals(20, runs[1]);
+    assertTrue(new String(Files.readAllBytes(new File(report + ".csv").toPath()),
+        StandardCharsets.UTF_8).startsWith("Name,Runs,"));
+    assertTrue(new File(report + ".json").isFile());
+  }
+
+  @Test
+  public void testNoBenchmark() throws IOException {
+    final MockHelper m = new MockHelper();
+    final CommandLine args = m.parse("--port", "8080");
+    assertFalse(m.isBenchmark(args));
+    assertNull(m.runBenchmark(args, null));
+  }
+
 }
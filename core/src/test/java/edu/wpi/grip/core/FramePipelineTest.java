@@ -0,0 +1,199 @@
+package edu.wpi.grip.core;
+
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import edu.wpi.grip.core.metrics.MockTimer;
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.core.sockets.MockInputSocket;
+import edu.wpi.grip.core.sockets.MockInputSocketFactory;
+import edu.wpi.grip.core.sockets.MockOutputSocketFactory;
+import edu.wpi.grip.core.sockets.OutputSocket;
+import edu.wpi.grip.core.sockets.SocketHints;
+import edu.wpi.grip.core.util.MockExceptionWitness;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static edu.wpi.grip.core.PipelineRunnerTest.SimpleOperation.DESCRIPTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FramePipelineTest {
+
+  private final Step.Factory stepFactory =
+      new Step.Factory(MockExceptionWitness.MOCK_FACTORY, MockTimer.MOCK_FACTORY);
+  private CountingOperation producer;
+  private RecordingOperation consumer;
+  private Step producerStep;
+  private Step consumerStep;
+
+  @Before
+  public void setUp() {
+    final EventBus eventBus = new EventBus();
+    producer = new CountingOperation(eventBus);
+    consumer = new RecordingOperation(eventBus);
+    producerStep = stepFactory.create(new OperationMetaData(DESCRIPTION, () -> producer));
+    consumerStep = stepFactory.create(new OperationMetaData(DESCRIPTION, () -> consumer));
+
+    final Connection<Number> connection =
+        new MockConnection<>(eventBus, (o, i) -> true, producer.output, consumer.input);
+    eventBus.register(connection);
+    connection.onConnectionAdded(new ConnectionAddedEvent(connection));
+  }
+
+  @Test
+  public void testLaterStageSeesValuesFromItsOwnFrame() throws InterruptedException {
+    final FramePipeline pipeline = new FramePipeline(
+        ImmutableList.of(producerStep, consumerStep), 2, new HashMap<>(), Runnable::run);
+
+    // The consumer is held up on the first frame, so the producer gets ahead of it
+    pipeline.runFrame(ImmutableList.of(), () -> true);
+    pipeline.runFrame(ImmutableList.of(), () -> true);
+    assertEquals("The first stage should not have waited for the second stage",
+        2, producer.output.getValue().get().intValue());
+    consumer.release.countDown();
+    pipeline.runFrame(ImmutableList.of(), () -> true);
+    pipeline.close();
+
+    assertEquals("Each frame should have been seen by the second stage in order",
+        ImmutableList.of(1, 2, 3), ImmutableList.copyOf(consumer.seen));
+  }
+
+  @Test
+  public void testFinalStageIsWrapped() throws InterruptedException {
+    final AtomicInteger finalStages = new AtomicInteger();
+    final Consumer<Runnable> wrapper = finalStage -> {
+      finalStages.incrementAndGet();
+      finalStage.run();
+    };
+    final FramePipeline pipeline = new FramePipeline(
+        ImmutableList.of(producerStep, consumerStep), 2, new HashMap<>(), wrapper);
+    consumer.release.countDown();
+
+    pipeline.runFrame(ImmutableList.of(), () -> true);
+    pipeline.runFrame(ImmutableList.of(), () -> true);
+    pipeline.close();
+
+    assertEquals("The final stage should be wrapped once per frame", 2, finalStages.get());
+    assertEquals(ImmutableList.of(1, 2), ImmutableList.copyOf(consumer.seen));
+  }
+
+  @Test
+  public void testStepsWithoutOutputsRunInLastStage() {
+    final Step sinkStep = stepFactory.create(new OperationMetaData(DESCRIPTION,
+        () -> new PipelineRunnerTest.SimpleOperation() {
+          @Override
+          public void perform() {
+            // Nothing to publish
+          }
+        }));
+    final FramePipeline pipeline = new FramePipeline(
+        ImmutableList.of(sinkStep, producerStep, consumerStep), 3, new HashMap<>(), Runnable::run);
+    pipeline.close();
+
+    assertEquals(ImmutableList.of(
+        ImmutableList.of(producerStep),
+        ImmutableList.of(consumerStep),
+        ImmutableList.of(sinkStep)), pipeline.getStages());
+  }
+
+  @Test
+  public void testConnectionsUpdateDirectlyAfterClose() {
+    final FramePipeline pipeline = new FramePipeline(
+        ImmutableList.of(producerStep, consumerStep), 2, new HashMap<>(), Runnable::run);
+    pipeline.close();
+
+    producer.output.setValue(42);
+    assertEquals(42, consumer.input.getValue().get().intValue());
+  }
+
+  @Test
+  public void testPipelineCanNotRunChangedSteps() {
+    final FramePipeline pipeline = new FramePipeline(
+        ImmutableList.of(producerStep, consumerStep), 2, new HashMap<>(), Runnable::run);
+    pipeline.close();
+
+    assertTrue(pipeline.canRun(ImmutableList.of(producerStep, consumerStep)));
+    assertFalse(pipeline.canRun(ImmutableList.of(producerStep)));
+  }
+
+  private static final class CountingOperation implements Operation {
+    private final InputSocket<Boolean> input = new MockInputSocket("input") {
+      @Override
+      public boolean dirtied() {
+        return true;
+      }
+    };
+    private final OutputSocket<Number> output;
+    private int count = 0;
+
+    private CountingOperation(EventBus eventBus) {
+      output = new MockOutputSocketFactory(eventBus)
+          .create(SocketHints.Outputs.createNumberSocketHint("count", 0));
+    }
+
+    @Override
+    public List<InputSocket> getInputSockets() {
+      return ImmutableList.of(input);
+    }
+
+    @Override
+    public List<OutputSocket> getOutputSockets() {
+      return ImmutableList.of(output);
+    }
+
+    @Override
+    public void perform() {
+      output.setValue(++count);
+    }
+  }
+
+  private static final class RecordingOperation implements Operation {
+    private final InputSocket<Number> input;
+    private final OutputSocket<Number> output;
+    private final List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private RecordingOperation(EventBus eventBus) {
+      input = new MockInputSocketFactory(eventBus)
+          .create(SocketHints.createNumberSocketHint("input", 0));
+      output = new MockOutputSocketFactory(eventBus)
+          .create(SocketHints.Outputs.createNumberSocketHint("output", 0));
+    }
+
+    @Override
+    public List<InputSocket> getInputSockets() {
+      return ImmutableList.of(input);
+    }
+
+    @Override
+    public List<OutputSocket> getOutputSockets() {
+      return ImmutableList.of(output);
+    }
+
+    @Override
+    public void perform() {
+      try {
+        if (!release.await(5, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("The test did not release the second stage");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      seen.add(input.getValue().get().intValue());
+      output.setValue(input.getValue().get());
+    }
+  }
+}
@@ -12,7 +12,7 @@ public final class ManualPipelineRunner extends PipelineRunner {
 
   @Inject
   public ManualPipelineRunner(EventBus eventBus, Pipeline pipeline) {
-    super(eventBus, () -> pipeline, MockTimer.simpleFactory(eventBus));
+    super(eventBus, () -> pipeline, MockTimer.MOCK_FACTORY);
     // This is fine because it is in a test
     eventBus.register(this);
   }
@@ -0,0 +1,105 @@
+package edu.wpi.grip.core;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MatPoolTest {
+
+  private MatPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new MatPool(2, 1024 * 1024);
+  }
+
+  @Test
+  public void testMatIsReusedForSameSizeAndType() {
+    final Mat first;
+    try (PooledMat pooled = pool.acquire(10, 20, CV_8UC3)) {
+      first = pooled.get();
+      assertEquals(10, first.rows());
+      assertEquals(20, first.cols());
+      assertEquals(CV_8UC3, first.type());
+    }
+    assertEquals(1, pool.getPooledCount());
+    assertEquals(10 * 20 * 3, pool.getPooledBytes());
+
+    try (PooledMat pooled = pool.acquire(10, 20, CV_8UC3)) {
+      assertSame("The pooled mat should have been reused", first, pooled.get());
+      assertEquals(0, pool.getPooledCount());
+    }
+  }
+
+  @Test
+  public void testMatIsNotReusedForDifferentType() {
+    final Mat first;
+    try (PooledMat pooled = pool.acquire(10, 20, CV_8UC3)) {
+      first = pooled.get();
+    }
+    try (PooledMat pooled = pool.acquire(10, 20, CV_8UC1)) {
+      assertNotSame(first, pooled.get());
+    }
+    assertEquals(2, pool.getPooledCount());
+  }
+
+  @Test
+  public void testRetainedMatIsOnlyReturnedOnLastClose() {
+    final PooledMat pooled = pool.acquire(4, 4, CV_8UC1);
+    pooled.retain();
+    pooled.close();
+    assertEquals("The mat is still referenced", 0, pool.getPooledCount());
+    pooled.close();
+    assertEquals(1, pool.getPooledCount());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosingTwiceThrows() {
+    final PooledMat pooled = pool.acquire();
+    pooled.close();
+    pooled.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUsingReturnedMatThrows() {
+    final PooledMat pooled = pool.acquire();
+    pooled.close();
+    pooled.get();
+  }
+
+  @Test
+  public void testPoolIsBounded() {
+    final PooledMat first = pool.acquire(4, 4, CV_8UC1);
+    final PooledMat second = pool.acquire(4, 4, CV_8UC1);
+    final PooledMat third = pool.acquire(4, 4, CV_8UC1);
+    first.close();
+    second.close();
+    third.close();
+    assertEquals("Only two mats of each size should be kept", 2, pool.getPooledCount());
+
+    try (PooledMat large = pool.acquire(1024, 1024, CV_8UC3)) {
+      assertEquals(1024, large.get().rows());
+    }
+    assertEquals("Mats that don't fit in the pool should be freed", 2, pool.getPooledCount());
+  }
+
+  @Test
+  public void testIdleMatsAreTrimmed() {
+    pool.acquire(4, 4, CV_8UC1).close();
+    pool.acquire().close();
+    for (int i = 0; i < 30; i++) {
+      pool.trim();
+    }
+    assertEquals(2, pool.getPooledCount());
+
+    pool.trim();
+    assertEquals(0, pool.getPooledCount());
+    assertEquals(0, pool.getPooledBytes());
+  }
+}
@@ -0,0 +1,148 @@
+package edu.wpi.grip.core;
+
+import org.bytedeco.javacpp.indexer.UByteIndexer;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Rect;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.countNonZero;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MatWrapperTest {
+
+  @Test
+  public void testRegionSharesData() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final MatWrapper region = MatWrapper.emptyWrapper();
+
+    region.setRegion(frame, new Rect(10, 5, 20, 10));
+    ((UByteIndexer) frame.getCpu().createIndexer()).put(5, 10, 255);
+
+    assertEquals(20, region.cols());
+    assertEquals(10, region.rows());
+    assertEquals("The region should see changes to the frame, since it isn't a copy",
+        255, ((UByteIndexer) region.getCpu().createIndexer()).get(0, 0));
+  }
+
+  @Test
+  public void testRegionOrigin() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final MatWrapper region = MatWrapper.emptyWrapper();
+    final MatWrapper subRegion = MatWrapper.emptyWrapper();
+
+    region.setRegion(frame, new Rect(10, 5, 20, 10));
+    subRegion.setRegion(region, new Rect(3, 4, 5, 5));
+
+    assertEquals(0, frame.originX());
+    assertEquals(0, frame.originY());
+    assertEquals(10, region.originX());
+    assertEquals(5, region.originY());
+    assertEquals("Origins of nested regions should add up", 13, subRegion.originX());
+    assertEquals("Origins of nested regions should add up", 9, subRegion.originY());
+  }
+
+  @Test
+  public void testRegionOfDownscaledImage() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(60, 80, CV_8UC1, Scalar.all(0)));
+    final MatWrapper downscaled = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final MatWrapper region = MatWrapper.emptyWrapper();
+    downscaled.copyOriginDownscaled(frame, 2);
+
+    region.setRegion(downscaled, new Rect(10, 5, 20, 10));
+
+    assertEquals(2, region.scale());
+    assertEquals("The origin should be in pixels of the full frame", 20, region.originX());
+    assertEquals("The origin should be in pixels of the full frame", 10, region.originY());
+  }
+
+  @Test
+  public void testWritingToRegionDoesNotModifyFrame() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final MatWrapper region = MatWrapper.emptyWrapper();
+
+    region.setRegion(frame, new Rect(10, 5, 20, 10));
+    region.put(Scalar.all(255));
+
+    assertEquals(20 * 10, countNonZero(region.getCpu()));
+    assertEquals("The frame should not be written through the region", 0,
+        countNonZero(frame.getCpu()));
+  }
+
+  @Test
+  public void testOriginIsCopied() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final MatWrapper region = MatWrapper.emptyWrapper();
+    final MatWrapper copy = MatWrapper.emptyWrapper();
+    region.setRegion(frame, new Rect(10, 5, 20, 10));
+
+    region.copyTo(copy);
+
+    assertEquals(10, copy.originX());
+    assertEquals(5, copy.originY());
+  }
+
+  @Test
+  public void testSwappedFrameHasNoOrigin() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final MatWrapper wrapper = MatWrapper.emptyWrapper();
+    wrapper.setRegion(frame, new Rect(10, 5, 20, 10));
+
+    wrapper.swap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+
+    assertEquals(0, wrapper.originX());
+    assertEquals(0, wrapper.originY());
+    assertEquals("The frame should not be given away by the swap", 30, frame.rows());
+  }
+
+  @Test
+  public void testSwapGivesBackUnsharedData() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final Mat next = new Mat(30, 40, CV_8UC1, Scalar.all(0));
+
+    frame.swap(next);
+
+    assertEquals("The old frame should be given back to be reused", 30, next.rows());
+  }
+
+  @Test
+  public void testSwapDoesNotGiveBackDataSharedWithRegion() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final MatWrapper region = MatWrapper.emptyWrapper();
+    region.setRegion(frame, new Rect(10, 5, 20, 10));
+    final Mat next = new Mat(30, 40, CV_8UC1, Scalar.all(0));
+
+    frame.swap(next);
+
+    assertTrue("Data shared with a region should not be given back to be written over",
+        next.empty());
+    next.create(30, 40, CV_8UC1);
+    next.put(Scalar.all(255));
+    assertEquals("The region should keep its data", 0, countNonZero(region.getCpu()));
+  }
+
+  @Test
+  public void testWritingResetsOrigin() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    final MatWrapper wrapper = MatWrapper.emptyWrapper();
+    wrapper.setRegion(frame, new Rect(10, 5, 20, 10));
+
+    wrapper.rawCpu();
+
+    assertEquals("A new image shouldn't keep the origin of the last one", 0, wrapper.originX());
+    assertEquals("A new image shouldn't keep the origin of the last one", 0, wrapper.originY());
+  }
+
+  @Test
+  public void testSettingMatResetsOrigin() {
+    final MatWrapper frame = MatWrapper.wrap(new Mat(60, 80, CV_8UC1, Scalar.all(0)));
+    final MatWrapper wrapper = MatWrapper.wrap(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+    wrapper.copyOriginDownscaled(frame, 2);
+
+    wrapper.set(new Mat(30, 40, CV_8UC1, Scalar.all(0)));
+
+    assertEquals(1, wrapper.scale());
+  }
+}
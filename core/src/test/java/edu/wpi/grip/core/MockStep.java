@@ -21,7 +21,7 @@ public class MockStep extends Step {
   public static Step createMockStepWithOperation() {
     final EventBus eventBus = new EventBus();
     return new Step.Factory(origin -> new MockExceptionWitness(eventBus, origin),
-        source -> new MockTimer(eventBus, source))
+        MockTimer::new)
         .create(new OperationMetaData(MockOperation.DESCRIPTION, MockOperation::new));
   }
 }
@@ -1,12 +1,19 @@
 package edu.wpi.grip.core;
 
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
 import edu.wpi.grip.core.events.ExceptionEvent;
+import edu.wpi.grip.core.events.ProjectSettingsChangedEvent;
 import edu.wpi.grip.core.events.RenderEvent;
 import edu.wpi.grip.core.events.RunPipelineEvent;
+import edu.wpi.grip.core.events.RunStartedEvent;
+import edu.wpi.grip.core.events.RunStoppedEvent;
 import edu.wpi.grip.core.events.StopPipelineEvent;
 import edu.wpi.grip.core.metrics.MockTimer;
+import edu.wpi.grip.core.settings.PipelineExecutionMode;
+import edu.wpi.grip.core.settings.ProjectSettings;
 import edu.wpi.grip.core.sockets.InputSocket;
 import edu.wpi.grip.core.sockets.MockInputSocket;
+import edu.wpi.grip.core.sockets.MockOutputSocket;
 import edu.wpi.grip.core.sockets.OutputSocket;
 import edu.wpi.grip.core.util.MockExceptionWitness;
 
@@ -27,6 +34,8 @@ import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -358,6 +367,131 @@ public class PipelineRunnerTest {
 
   }
 
+  public static class ExecutionModeTests {
+    private EventBus eventBus;
+
+    @Before
+    public void setUp() {
+      eventBus = new EventBus();
+    }
+
+    private void useExecutionMode(PipelineRunner runner, PipelineExecutionMode mode) {
+      final ProjectSettings settings = new ProjectSettings();
+      settings.setExecutionMode(mode);
+      runner.onProjectSettingsChanged(new ProjectSettingsChangedEvent(settings));
+    }
+
+    private Step createStep(Operation operation) {
+      return new Step.Factory(MockExceptionWitness.MOCK_FACTORY, MockTimer.MOCK_FACTORY)
+          .create(new OperationMetaData(SimpleOperation.DESCRIPTION, () -> operation));
+    }
+
+    @Test
+    public void testConnectedStepsRunInOrder() {
+      final List<String> runOrder = Collections.synchronizedList(new ArrayList<>());
+      final OrderedOperation upstream = new OrderedOperation("upstream", runOrder);
+      final OrderedOperation downstream = new OrderedOperation("downstream", runOrder);
+      final Step upstreamStep = createStep(upstream);
+      final Step downstreamStep = createStep(downstream);
+      final Connection<Boolean> connection = new MockConnection<>(eventBus, (o, i) -> true,
+          upstream.output, downstream.input);
+      connection.onConnectionAdded(new ConnectionAddedEvent(connection));
+
+      final ImmutableList<Step> steps = ImmutableList.of(upstreamStep, downstreamStep);
+      final PipelineRunner runner = new PipelineRunner(eventBus, ImmutableList::of, () -> steps,
+          MockTimer.MOCK_FACTORY);
+      useExecutionMode(runner, PipelineExecutionMode.PARALLEL_BRANCHES);
+
+      runner.runPipeline();
+
+      assertEquals("Connected steps should run in dependency order",
+          ImmutableList.of("upstream", "downstream"), ImmutableList.copyOf(runOrder));
+    }
+
+    @Test
+    public void testFramePipelinedRunPostsRunEvents() throws TimeoutException,
+        InterruptedException {
+      final Waiter waiter = new Waiter();
+      final List<String> events = Collections.synchronizedList(new ArrayList<>());
+      final List<ImmutableList<Step>> settledSteps =
+          Collections.synchronizedList(new ArrayList<>());
+      eventBus.register(new Object() {
+        @Subscribe
+        public void onRunStarted(RunStartedEvent event) {
+          events.add("started");
+        }
+
+        @Subscribe
+        public void onRunStopped(RunStoppedEvent event) {
+          events.add("stopped");
+          event.getSettledSteps().ifPresent(settledSteps::add);
+          waiter.resume();
+        }
+      });
+      final List<String> runOrder = Collections.synchronizedList(new ArrayList<>());
+      final OrderedOperation upstream = new OrderedOperation("upstream", runOrder);
+      final OrderedOperation downstream = new OrderedOperation("downstream", runOrder);
+      final ImmutableList<Step> steps = ImmutableList.of(createStep(upstream),
+          createStep(downstream));
+      final PipelineRunner runner = new PipelineRunner(eventBus, ImmutableList::of, () -> steps,
+          MockTimer.MOCK_FACTORY);
+      useExecutionMode(runner, PipelineExecutionMode.FRAME_PIPELINED);
+
+      runner.startAsync().awaitRunning();
+      runner.onRunPipeline(new RunPipelineEvent() {
+      });
+      waiter.await(5, TimeUnit.SECONDS);
+      runner.stopAndAwait();
+
+      assertEquals("Both stages should have run",
+          ImmutableList.of("upstream", "downstream"), ImmutableList.copyOf(runOrder));
+      assertEquals("The frame should be bracketed by run events",
+          ImmutableList.of("started", "stopped"), ImmutableList.copyOf(events));
+      assertEquals("Only the last stage's outputs should be settled when the frame stops",
+          ImmutableList.of(steps.subList(1, 2)), ImmutableList.copyOf(settledSteps));
+    }
+
+    private static final class OrderedOperation implements Operation {
+      private final String name;
+      private final List<String> runOrder;
+      private final InputSocket<Boolean> input = new MockInputSocket("input") {
+        @Override
+        public boolean dirtied() {
+          return true;
+        }
+      };
+      private final OutputSocket<Boolean> output = new MockOutputSocket("output");
+
+      private OrderedOperation(String name, List<String> runOrder) {
+        this.name = name;
+        this.runOrder = runOrder;
+      }
+
+      @Override
+      public List<InputSocket> getInputSockets() {
+        return ImmutableList.of(input);
+      }
+
+      @Override
+      public List<OutputSocket> getOutputSockets() {
+        return ImmutableList.of(output);
+      }
+
+      @Override
+      public void perform() {
+        if (runOrder.isEmpty()) {
+          // Give the downstream step a chance to run early if the dependency was ignored
+          try {
+            Thread.sleep(50);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        runOrder.add(name);
+      }
+    }
+  }
+
   static class RenderWaiterResumer {
     private final Waiter waiter;
 
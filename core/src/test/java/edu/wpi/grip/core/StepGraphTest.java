@@ -0,0 +1,149 @@
+package edu.wpi.grip.core;
+
+import edu.wpi.grip.core.metrics.MockTimer;
+import edu.wpi.grip.core.util.MockExceptionWitness;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static edu.wpi.grip.core.PipelineRunnerTest.SimpleOperation.DESCRIPTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StepGraphTest {
+
+  private final Step.Factory stepFactory =
+      new Step.Factory(MockExceptionWitness.MOCK_FACTORY, MockTimer.MOCK_FACTORY);
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testIndependentStepsRunConcurrently() throws InterruptedException {
+    final CyclicBarrier barrier = new CyclicBarrier(2);
+    final BarrierOperation first = new BarrierOperation(barrier);
+    final BarrierOperation second = new BarrierOperation(barrier);
+    final StepGraph graph = new StepGraph(ImmutableList.of(
+        stepFactory.create(new OperationMetaData(DESCRIPTION, () -> first)),
+        stepFactory.create(new OperationMetaData(DESCRIPTION, () -> second))));
+
+    graph.run(executor, false, () -> true);
+
+    assertTrue("The first step should have run at the same time as the second",
+        first.metOtherStep);
+    assertTrue("The second step should have run at the same time as the first",
+        second.metOtherStep);
+  }
+
+  @Test
+  public void testStepsAreSkippedWhenNotRunning() throws InterruptedException {
+    final CountingOperation operation = new CountingOperation();
+    final StepGraph graph = new StepGraph(ImmutableList.of(
+        stepFactory.create(new OperationMetaData(DESCRIPTION, () -> operation))));
+
+    graph.run(executor, false, () -> false);
+
+    assertEquals("Perform should not have run", 0, operation.performCount);
+  }
+
+  @Test
+  public void testInterruptWaitsForRunningSteps() throws InterruptedException {
+    final BlockingOperation blocking = new BlockingOperation();
+    final CountingOperation counting = new CountingOperation();
+    final StepGraph graph = new StepGraph(ImmutableList.of(
+        stepFactory.create(new OperationMetaData(DESCRIPTION, () -> blocking)),
+        stepFactory.create(new OperationMetaData(DESCRIPTION, () -> counting))));
+    // With only one thread, the second step is still waiting to run when the first one blocks
+    final ExecutorService singleThread = Executors.newSingleThreadExecutor();
+    final AtomicBoolean interrupted = new AtomicBoolean(false);
+    final CountDownLatch returned = new CountDownLatch(1);
+    final Thread runThread = new Thread(() -> {
+      try {
+        graph.run(singleThread, false, () -> true);
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      } finally {
+        returned.countDown();
+      }
+    });
+
+    try {
+      runThread.start();
+      assertTrue("The first step should have started", blocking.started.await(5, TimeUnit.SECONDS));
+      runThread.interrupt();
+      assertFalse("Run should not return while a step is still running",
+          returned.await(100, TimeUnit.MILLISECONDS));
+
+      blocking.release.countDown();
+      assertTrue("Run should return once the running step is done",
+          returned.await(5, TimeUnit.SECONDS));
+      assertTrue("Run should have thrown an InterruptedException", interrupted.get());
+      assertEquals("The step that hadn't started should have been skipped",
+          0, counting.performCount);
+    } finally {
+      blocking.release.countDown();
+      singleThread.shutdownNow();
+    }
+  }
+
+  private static final class BlockingOperation implements PipelineRunnerTest.SimpleOperation {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public void perform() {
+      started.countDown();
+      Uninterruptibles.awaitUninterruptibly(release);
+    }
+  }
+
+  private static final class BarrierOperation implements PipelineRunnerTest.SimpleOperation {
+    private final CyclicBarrier barrier;
+    private volatile boolean metOtherStep = false;
+
+    private BarrierOperation(CyclicBarrier barrier) {
+      this.barrier = barrier;
+    }
+
+    @Override
+    public void perform() {
+      try {
+        barrier.await(5, TimeUnit.SECONDS);
+        metOtherStep = true;
+      } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+        throw new IllegalStateException("Steps did not run concurrently", e);
+      }
+    }
+  }
+
+  private static final class CountingOperation implements PipelineRunnerTest.SimpleOperation {
+    private int performCount = 0;
+
+    @Override
+    public void perform() {
+      performCount++;
+    }
+  }
+}
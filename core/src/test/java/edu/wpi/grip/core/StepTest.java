@@ -5,6 +5,7 @@ import edu.wpi.grip.core.operations.network.MockGripNetworkModule;
 import edu.wpi.grip.core.sockets.InputSocket;
 import edu.wpi.grip.core.sockets.OutputSocket;
 import edu.wpi.grip.core.sockets.Socket;
+import edu.wpi.grip.core.sockets.SocketHints;
 import edu.wpi.grip.core.util.MockExceptionWitness;
 import edu.wpi.grip.util.GripCoreTestModule;
 
@@ -17,11 +18,14 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Optional;
+
 import static org.junit.Assert.assertEquals;
 
 public class StepTest {
   private EventBus eventBus;
   private OperationMetaData additionMeta;
+  private OutputSocket.Factory osf;
   private final GripCoreTestModule testModule = new GripCoreTestModule();
 
   @Before
@@ -30,7 +34,7 @@ public class StepTest {
     Injector injector = Guice.createInjector(Modules.override(testModule)
         .with(new MockGripNetworkModule()));
     InputSocket.Factory isf = injector.getInstance(InputSocket.Factory.class);
-    OutputSocket.Factory osf = injector.getInstance(OutputSocket.Factory.class);
+    osf = injector.getInstance(OutputSocket.Factory.class);
     additionMeta = new OperationMetaData(AdditionOperation.DESCRIPTION, () -> new
         AdditionOperation(isf, osf));
     eventBus = injector.getInstance(EventBus.class);
@@ -63,6 +67,34 @@ public class StepTest {
     eventBus.unregister(step);
   }
 
+  @Test
+  public void testNewestFrameStampIsPassedToOutputs() {
+    Step step = new Step.Factory((origin) -> new MockExceptionWitness(eventBus, origin),
+        MockTimer.MOCK_FACTORY)
+        .create(additionMeta);
+    InputSocket<Number> a = (InputSocket<Number>) step.getInputSockets().get(0);
+    InputSocket<Number> b = (InputSocket<Number>) step.getInputSockets().get(1);
+    final OutputSocket<Number> c = (OutputSocket<Number>) step.getOutputSockets().get(0);
+    final FrameStamp older = new FrameStamp(System.nanoTime(), 4);
+    final FrameStamp newer = new FrameStamp(older.getCaptureTime() + 1000, 2);
+    connect(older, a);
+    connect(newer, b);
+
+    a.setValue(1.0);
+    b.setValue(2.0);
+    step.runPerformIfPossible();
+
+    assertEquals("The output should be stamped with the newest input frame",
+        Optional.of(newer), c.getFrameStamp());
+  }
+
+  private void connect(FrameStamp stamp, InputSocket<Number> input) {
+    final OutputSocket<Number> output =
+        osf.create(SocketHints.Outputs.createNumberSocketHint("Stamped", 0.0));
+    output.setFrameStamp(Optional.of(stamp));
+    input.addConnection(new Connection<>(eventBus, (out, in) -> true, output, input));
+  }
+
   @Test
   public void testSocketDirection() {
     Step step = new Step.Factory((origin) -> new MockExceptionWitness(eventBus, origin),
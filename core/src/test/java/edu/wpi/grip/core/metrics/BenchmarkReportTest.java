@@ -0,0 +1,63 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class BenchmarkReportTest {
+
+  private BenchmarkReport report;
+
+  @Before
+  public void setUp() {
+    final LatencyHistogram pipeline = new LatencyHistogram();
+    final LatencyHistogram blur = new LatencyHistogram();
+    for (int i = 1; i <= 10; i++) {
+      pipeline.record(i * 2);
+      blur.record(i);
+    }
+    report = new BenchmarkReport(5, pipeline.snapshot(),
+        ImmutableMap.of("0: Blur", blur.snapshot()), TimeUnit.SECONDS.toNanos(2), 1000, 64, 128);
+  }
+
+  @Test
+  public void testRates() {
+    assertEquals(10, report.getMeasuredRuns());
+    assertEquals(5.0, report.getFramesPerSecond(), 0);
+    assertEquals(500.0, report.getAllocationRate(), 0);
+    assertEquals(100.0, report.getAllocatedBytesPerRun(), 0);
+  }
+
+  @Test
+  public void testUnknownAllocations() {
+    report = new BenchmarkReport(0, LatencySnapshot.EMPTY, ImmutableMap.of(), 0, -1, 0, 0);
+    assertEquals(-1, report.getAllocationRate(), 0);
+    assertEquals(-1, report.getAllocatedBytesPerRun(), 0);
+  }
+
+  @Test
+  public void testCsv() {
+    assertEquals("Name,Runs,Mean (us),p50 (us),p90 (us),p99 (us),Max (us)\n"
+            + "Pipeline,10,11,10,18,20,20\n"
+            + "0: Blur,10,6,5,9,10,10\n",
+        report.toCsv());
+  }
+
+  @Test
+  public void testJson() {
+    final JsonObject json = new JsonParser().parse(report.toJson()).getAsJsonObject();
+    assertEquals(5, json.get("warmupRuns").getAsInt());
+    assertEquals(10, json.get("measuredRuns").getAsInt());
+    assertEquals(64, json.get("nativeHighWaterBytes").getAsLong());
+    assertEquals(20, json.getAsJsonObject("pipeline").get("max").getAsLong());
+    assertEquals(9, json.getAsJsonObject("steps").getAsJsonObject("0: Blur").get("p90")
+        .getAsLong());
+  }
+}
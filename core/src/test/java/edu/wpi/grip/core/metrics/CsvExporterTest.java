@@ -85,4 +85,11 @@ public class CsvExporterTest {
     assertEquals("foo,bar\n", exporter.export());
   }
 
+  @Test
+  public void exportQuotesSpecialCharacters() {
+    exporter = new CsvExporter(3, "name", "quote", "plain");
+    exporter.addRow("a, b", "say \"hi\"", 4);
+    assertEquals("name,quote,plain\n\"a, b\",\"say \"\"hi\"\"\",4\n", exporter.export());
+  }
+
 }
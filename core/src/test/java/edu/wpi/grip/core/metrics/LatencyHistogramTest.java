@@ -0,0 +1,85 @@
+package edu.wpi.grip.core.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+  private LatencyHistogram histogram;
+
+  @Before
+  public void setUp() {
+    histogram = new LatencyHistogram();
+  }
+
+  @Test
+  public void testEmptySnapshot() {
+    final LatencySnapshot snapshot = histogram.snapshot();
+    assertEquals(0, snapshot.getCount());
+    assertEquals(0, snapshot.getMean(), 0);
+    assertEquals(0, snapshot.getValueAtQuantile(0.5));
+    assertEquals(Statistics.NIL, snapshot.getStatistics());
+  }
+
+  @Test
+  public void testSmallLatenciesAreExact() {
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i);
+    }
+    final LatencySnapshot snapshot = histogram.snapshot();
+    assertEquals(10, snapshot.getCount());
+    assertEquals(5.5, snapshot.getMean(), 0);
+    assertEquals(5, snapshot.getValueAtQuantile(0.5));
+    assertEquals(10, snapshot.getMax());
+  }
+
+  @Test
+  public void testLargeLatenciesAreWithinResolution() {
+    final long[] latencies = {33, 1_000, 33_333, 1_000_000, 60_000_000};
+    for (long latency : latencies) {
+      final LatencyHistogram single = new LatencyHistogram();
+      single.record(latency);
+      final long max = single.snapshot().getMax();
+      assertTrue("Bucket for " + latency + " ends at " + max,
+          max >= latency && max <= latency + latency / 16);
+    }
+  }
+
+  @Test
+  public void testEveryBucketContainsItsUpperBound() {
+    for (int bucket = 0; bucket < LatencyHistogram.BUCKET_COUNT; bucket++) {
+      final long upperBound = LatencyHistogram.upperBoundOf(bucket);
+      assertEquals(bucket, LatencyHistogram.bucketOf(upperBound));
+      assertEquals(bucket + 1 == LatencyHistogram.BUCKET_COUNT
+          ? bucket : bucket + 1, LatencyHistogram.bucketOf(upperBound + 1));
+    }
+  }
+
+  @Test
+  public void testStatisticsMatchSamples() {
+    final double[] samples = {100, 200, 300, 400};
+    for (double sample : samples) {
+      histogram.record((long) sample);
+    }
+    final Statistics expected = Statistics.of(samples);
+    final Statistics actual = histogram.snapshot().getStatistics();
+    assertEquals(expected.getNumSamples(), actual.getNumSamples());
+    assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+    assertEquals(expected.getStandardDeviation(), actual.getStandardDeviation(), 1e-9);
+  }
+
+  @Test
+  public void testSnapshotSinceEarlierSnapshot() {
+    histogram.record(1_000);
+    final LatencySnapshot earlier = histogram.snapshot();
+    histogram.record(10);
+    histogram.record(20);
+    final LatencySnapshot recent = histogram.snapshot().since(earlier);
+    assertEquals(2, recent.getCount());
+    assertEquals(15, recent.getMean(), 0);
+    assertEquals(20, recent.getMax());
+  }
+}
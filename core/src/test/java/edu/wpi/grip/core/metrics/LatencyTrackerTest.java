@@ -0,0 +1,102 @@
+package edu.wpi.grip.core.metrics;
+
+import edu.wpi.grip.core.events.LatencySnapshotEvent;
+import edu.wpi.grip.core.events.RunStoppedEvent;
+
+import com.google.common.base.Ticker;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyTrackerTest {
+
+  private final Object target = new Object();
+  private final FakeTicker ticker = new FakeTicker();
+  private final List<LatencySnapshotEvent> events = new ArrayList<>();
+  private EventBus eventBus;
+  private LatencyTracker tracker;
+  private Timer timer;
+
+  @Before
+  public void setUp() {
+    eventBus = new EventBus();
+    tracker = new LatencyTracker(eventBus, ticker);
+    eventBus.register(tracker);
+    eventBus.register(new Object() {
+      @Subscribe
+      public void onSnapshot(LatencySnapshotEvent event) {
+        events.add(event);
+      }
+    });
+    timer = new MockTimer(target);
+    tracker.register(timer);
+  }
+
+  @Test
+  public void testSnapshotsArePostedPeriodically() {
+    timer.time(() -> { });
+    eventBus.post(new RunStoppedEvent());
+    assertEquals("The first run should be published straight away", 1, events.size());
+
+    timer.time(() -> { });
+    eventBus.post(new RunStoppedEvent());
+    assertEquals("Runs in quick succession should not be published", 1, events.size());
+
+    ticker.advance(1, TimeUnit.SECONDS);
+    eventBus.post(new RunStoppedEvent());
+    assertEquals(2, events.size());
+    assertEquals(2, events.get(1).getTotal(target).get().getCount());
+    assertEquals("Only the run since the last snapshot is recent",
+        1, events.get(1).getRecent(target).get().getCount());
+  }
+
+  @Test
+  public void testTimerRecordsWithoutEvents() {
+    timer.time(() -> { });
+    timer.time(() -> { });
+    assertEquals(0, events.size());
+    assertEquals(2, tracker.snapshot().get(target).getCount());
+    assertEquals(1_000_000, tracker.snapshot().get(target).getMean(), 1_000_000 / 16);
+  }
+
+  @Test
+  public void testFrameAgesArePublished() {
+    timer.recordFrameAge(30_000);
+    eventBus.post(new RunStoppedEvent());
+    assertEquals(1, tracker.snapshotFrameAges().get(target).getCount());
+    assertEquals(30_000, events.get(0).getRecentFrameAge(target).get().getMean(), 30_000 / 16);
+
+    ticker.advance(1, TimeUnit.SECONDS);
+    eventBus.post(new RunStoppedEvent());
+    assertEquals("No frames were worked on since the last snapshot",
+        0, events.get(1).getRecentFrameAge(target).get().getCount());
+  }
+
+  @Test
+  public void testUntrackedTimerIsNotPublished() {
+    new Timer(new Object(), Ticker.systemTicker()).time(() -> { });
+    eventBus.post(new RunStoppedEvent());
+    assertEquals(1, events.get(0).getRecentSnapshots().size());
+  }
+
+  private static final class FakeTicker extends Ticker {
+    private long nanos = 0;
+
+    private void advance(long time, TimeUnit unit) {
+      nanos += unit.toNanos(time);
+    }
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LeakDetectorTest {
+
+  private LeakDetector detector;
+
+  @Before
+  public void setUp() {
+    detector = new LeakDetector(3);
+  }
+
+  @Test
+  public void testSteadyGrowthIsSuspected() {
+    assertTrue(detector.update(ImmutableMap.of("a", 1L)).isEmpty());
+    assertTrue(detector.update(ImmutableMap.of("a", 2L)).isEmpty());
+    assertEquals(ImmutableSet.of("a"), detector.update(ImmutableMap.of("a", 3L)));
+    assertTrue("A leak should only be reported the first time it is suspected",
+        detector.update(ImmutableMap.of("a", 4L)).isEmpty());
+    assertEquals(ImmutableSet.of("a"), detector.getSuspected());
+  }
+
+  @Test
+  public void testFluctuatingValueIsNotSuspected() {
+    detector.update(ImmutableMap.of("a", 1L));
+    detector.update(ImmutableMap.of("a", 3L));
+    detector.update(ImmutableMap.of("a", 3L));
+    detector.update(ImmutableMap.of("a", 2L));
+    assertTrue(detector.getSuspected().isEmpty());
+  }
+
+  @Test
+  public void testLeakIsClearedWhenValueStopsGrowing() {
+    detector.update(ImmutableMap.of("a", 1L));
+    detector.update(ImmutableMap.of("a", 2L));
+    detector.update(ImmutableMap.of("a", 3L));
+    detector.update(ImmutableMap.of("a", 1L));
+    assertTrue(detector.getSuspected().isEmpty());
+  }
+
+  @Test
+  public void testMissingValuesAreForgotten() {
+    detector.update(ImmutableMap.of("a", 1L));
+    detector.update(ImmutableMap.of("a", 2L));
+    detector.update(ImmutableMap.of("a", 3L));
+    detector.update(ImmutableMap.of("b", 1L));
+    assertTrue(detector.getSuspected().isEmpty());
+
+    detector.update(ImmutableMap.of("a", 4L));
+    assertTrue("A removed value should start again from scratch",
+        detector.getSuspected().isEmpty());
+  }
+}
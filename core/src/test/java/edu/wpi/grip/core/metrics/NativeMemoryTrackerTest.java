@@ -0,0 +1,157 @@
+package edu.wpi.grip.core.metrics;
+
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.MockOperation;
+import edu.wpi.grip.core.MockSource;
+import edu.wpi.grip.core.MockStep;
+import edu.wpi.grip.core.Step;
+import edu.wpi.grip.core.events.RunStoppedEvent;
+import edu.wpi.grip.core.operations.composite.BlobsReport;
+import edu.wpi.grip.core.operations.composite.RectsReport;
+import edu.wpi.grip.core.sockets.MockOutputSocketFactory;
+import edu.wpi.grip.core.sockets.OutputSocket;
+import edu.wpi.grip.core.sockets.SocketHint;
+import edu.wpi.grip.core.sockets.SocketHints;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.EventBus;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.MatVector;
+import org.bytedeco.javacpp.opencv_core.Rect;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NativeMemoryTrackerTest {
+
+  private ImageSource source;
+  private NativeMemoryTracker tracker;
+
+  @Before
+  public void setUp() {
+    source = new ImageSource(new EventBus());
+    tracker = new NativeMemoryTracker(
+        () -> ImmutableList.of(source), ImmutableList::of, 2, 3);
+  }
+
+  @Test
+  public void testSourceMemoryIsCounted() {
+    source.image.getValue().get().rawCpu().create(10, 10, CV_8UC3);
+    final NativeMemoryUsage usage = tracker.sample();
+
+    assertEquals("The image and the buffered frame should both be counted",
+        300 + ImageSource.BUFFERED_BYTES, usage.getSources().get("image").longValue());
+    assertEquals(300, usage.getSocketTypes().get("MatWrapper").longValue());
+    assertEquals(300 + ImageSource.BUFFERED_BYTES, usage.getTotalBytes());
+  }
+
+  @Test
+  public void testUsageIsSampledEveryInterval() {
+    tracker.onRunStopped(null);
+    assertSame(NativeMemoryUsage.NONE, tracker.getLatestUsage());
+    tracker.onRunStopped(null);
+    assertEquals(ImageSource.BUFFERED_BYTES, tracker.getLatestUsage().getTotalBytes());
+  }
+
+  @Test
+  public void testGrowingSourceIsSuspectedOfLeaking() {
+    for (int rows = 1; rows <= 3; rows++) {
+      source.image.getValue().get().rawCpu().create(rows, 10, CV_8UC1);
+      tracker.sample();
+    }
+    assertTrue(tracker.getLatestUsage().getSuspectedLeaks().contains("sources/image"));
+    assertTrue(tracker.getLatestUsage().getSuspectedLeaks().contains("total"));
+  }
+
+  @Test
+  public void testNativeBytesOfMatVector() {
+    final MatVector mats = new MatVector(new Mat(2, 2, CV_8UC1), new Mat(3, 3, CV_8UC3));
+    assertEquals(4 + 27, NativeMemoryTracker.nativeBytesOf(mats));
+  }
+
+  @Test
+  public void testReportsCountTheirImagesAndRectangles() {
+    final MatWrapper image = MatWrapper.wrap(new Mat(10, 10, CV_8UC1));
+    final Rect rect = new Rect(0, 0, 1, 1);
+    assertEquals(100 + 2 * rect.sizeof(),
+        NativeMemoryTracker.nativeBytesOf(new RectsReport(image, ImmutableList.of(rect, rect))));
+    assertEquals(100, NativeMemoryTracker.nativeBytesOf(
+        new BlobsReport(image, ImmutableList.of())));
+  }
+
+  @Test
+  public void testImageSharedWithReportIsCountedOnce() {
+    final MatWrapper image = MatWrapper.wrap(new Mat(10, 10, CV_8UC1));
+    final OutputSocket<BlobsReport> blobs = new MockOutputSocketFactory(new EventBus())
+        .create(new SocketHint.Builder<>(BlobsReport.class).identifier("blobs").build());
+    blobs.setValue(new BlobsReport(image, ImmutableList.of()));
+    final Step step = new MockStep() {
+      @Override
+      public ImmutableList<OutputSocket> getOutputSockets() {
+        return ImmutableList.of(blobs);
+      }
+    };
+    source.image.setValue(image);
+    tracker = new NativeMemoryTracker(
+        () -> ImmutableList.of(source), () -> ImmutableList.of(step), 1, 3);
+
+    assertEquals(100 + ImageSource.BUFFERED_BYTES, tracker.sample().getTotalBytes());
+  }
+
+  @Test
+  public void testOnlySettledStepsAreSampled() {
+    final Step settled = new MockStep();
+    final Step unsettled = new MockStep();
+    tracker = new NativeMemoryTracker(
+        () -> ImmutableList.of(source), () -> ImmutableList.of(unsettled, settled), 1, 3);
+
+    tracker.onRunStopped(new RunStoppedEvent(ImmutableList.of(settled)));
+    assertEquals(ImmutableSet.of("1: " + MockOperation.DESCRIPTION.name()),
+        tracker.getLatestUsage().getSteps().keySet());
+    assertTrue("Sources are written by the first stage", tracker.getLatestUsage().getSources()
+        .isEmpty());
+
+    tracker.onRunStopped(new RunStoppedEvent());
+    assertEquals(2, tracker.getLatestUsage().getSteps().size());
+    assertEquals(1, tracker.getLatestUsage().getSources().size());
+  }
+
+  @Test
+  public void testNonNativeValuesHoldNoMemory() {
+    assertEquals(0, NativeMemoryTracker.nativeBytesOf("not native"));
+  }
+
+  private static final class ImageSource extends MockSource {
+    private static final long BUFFERED_BYTES = 7;
+    private final OutputSocket<MatWrapper> image;
+
+    private ImageSource(EventBus eventBus) {
+      image = new MockOutputSocketFactory(eventBus)
+          .create(SocketHints.createImageSocketHint("image"));
+    }
+
+    @Override
+    public String getName() {
+      return "image";
+    }
+
+    @Override
+    protected List<OutputSocket> createOutputSockets() {
+      return ImmutableList.of(image);
+    }
+
+    @Override
+    public long getBufferedNativeBytes() {
+      return BUFFERED_BYTES;
+    }
+  }
+}
@@ -1,8 +1,7 @@
 package edu.wpi.grip.core.metrics;
 
-import com.google.common.eventbus.EventBus;
+import com.google.common.base.Ticker;
 
-import org.junit.Before;
 import org.junit.Test;
 
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -17,16 +16,10 @@ import static org.junit.Assert.fail;
 public class TimerTest {
 
   private static final String WRONG_TIME_MSG = "Elapsed time was wrong";
-  private EventBus eventBus;
-
-  @Before
-  public void setUp() {
-    eventBus = new EventBus();
-  }
 
   @Test(expected = IllegalStateException.class)
   public void testStartedTwice() {
-    Timer timer = new Timer(eventBus, this);
+    Timer timer = new Timer(this, Ticker.systemTicker());
     timer.started();
     timer.started();
     fail("Timer should have thrown an exception");
@@ -34,14 +27,14 @@ public class TimerTest {
 
   @Test(expected = IllegalStateException.class)
   public void testStoppedWhenNotStarted() {
-    Timer timer = new Timer(eventBus, this);
+    Timer timer = new Timer(this, Ticker.systemTicker());
     timer.stop();
     fail("Timer should have thrown an exception");
   }
 
   @Test(expected = IllegalStateException.class)
   public void testStoppedTwice() {
-    Timer timer = new Timer(eventBus, this);
+    Timer timer = new Timer(this, Ticker.systemTicker());
     timer.started();
     timer.stop();
     timer.stop();
@@ -50,7 +43,7 @@ public class TimerTest {
 
   @Test
   public void testTiming() {
-    Timer timer = new MockTimer(eventBus, this);
+    Timer timer = new MockTimer(this);
     timer.started();
     timer.stop();
     assertEquals(WRONG_TIME_MSG, 1_000_000, timer.getElapsedTime());
@@ -58,7 +51,7 @@ public class TimerTest {
 
   @Test
   public void testReset() {
-    Timer timer = new MockTimer(eventBus, this);
+    Timer timer = new MockTimer(this);
     timer.started();
     timer.reset();
     assertEquals("Elapsed time was not reset", 0, timer.getElapsedTime(), 0);
@@ -72,7 +65,7 @@ public class TimerTest {
 
   @Test
   public void testTime() {
-    Timer timer = new MockTimer(eventBus, this);
+    Timer timer = new MockTimer(this);
     AtomicBoolean ran = new AtomicBoolean(false);
     timer.time(() -> ran.set(true));
     assertEquals(WRONG_TIME_MSG, 1_000_000, timer.getElapsedTime());
@@ -81,7 +74,7 @@ public class TimerTest {
 
   @Test(expected = IllegalStateException.class)
   public void testTimeThrowsException() {
-    Timer timer = new Timer(eventBus, this);
+    Timer timer = new Timer(this, Ticker.systemTicker());
     timer.started();
     timer.time(() -> { });
     fail("An exception should have been thrown");
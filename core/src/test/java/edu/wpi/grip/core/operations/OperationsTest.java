@@ -16,7 +16,6 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.util.Modules;
 
-import org.junit.AfterClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -34,31 +33,16 @@ public class OperationsTest {
   @Parameter
   public OperationMetaData operationMetaData;
 
-  private static GripCoreTestModule testModule;
-  private static Injector injector;
-
-  static {
-    // Only because @Parameters runs before @BeforeClass... for some weird reason
-    setUpClass();
-  }
-
-  // @Parameters is called before @BeforeClass, so we call it manually in a static initializer block
-  //  @BeforeClass
-  public static void setUpClass() {
-    testModule = new GripCoreTestModule();
+  @Parameters(name = "{index}: Operation({0})")
+  public static Collection<Object[]> data() {
+    // @Parameters is called when the runner is created, which can be long before this class's tests
+    // run, so the test module is torn down again straight away instead of in an @AfterClass method.
+    // Otherwise it would still be set up while other test classes run.
+    final GripCoreTestModule testModule = new GripCoreTestModule();
     testModule.setUp();
-    injector = Guice.createInjector(
+    final Injector injector = Guice.createInjector(
         Modules.override(new GripCoreModule(), new GripNetworkModule(), new GripFileModule())
             .with(new MockGripNetworkModule(), testModule));
-  }
-
-  @AfterClass
-  public static void tearDownClass() {
-    testModule.tearDown();
-  }
-
-  @Parameters(name = "{index}: Operation({0})")
-  public static Collection<Object[]> data() {
     EventBus eventBus = injector.getInstance(EventBus.class);
     List<OperationMetaData> operationMetaDatas =
         ImmutableList.<OperationMetaData>builder()
@@ -78,6 +62,7 @@ public class OperationsTest {
       params[index[0]][0] = operationMeta;
       index[0]++;
     });
+    testModule.tearDown();
     return Arrays.asList(params);
   }
 
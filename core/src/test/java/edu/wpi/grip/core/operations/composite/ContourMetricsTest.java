@@ -0,0 +1,90 @@
+package edu.wpi.grip.core.operations.composite;
+
+import org.bytedeco.javacpp.IntPointer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_32SC2;
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_core.MatVector;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ContourMetricsTest {
+
+  private static final double EPSILON = 1e-9;
+
+  private MatVector contours;
+
+  @Before
+  public void setUp() {
+    contours = new MatVector(
+        contour(0, 0, 10, 0, 10, 10, 0, 10),
+        // An L shape, which covers three quarters of its hull
+        contour(0, 0, 20, 0, 20, 10, 10, 10, 10, 20, 0, 20));
+  }
+
+  @Test
+  public void testMeasurements() {
+    final ContourMetrics metrics = new ContourMetrics(contours);
+
+    assertEquals(2, metrics.size());
+    assertEquals(100, metrics.area(0), EPSILON);
+    assertEquals(40, metrics.perimeter(0), EPSILON);
+    assertEquals(11, metrics.width(0), EPSILON);
+    assertEquals(11, metrics.height(0), EPSILON);
+    assertEquals(4, metrics.vertices(0));
+    assertEquals(1, metrics.solidity(0), EPSILON);
+    assertEquals(300, metrics.area(1), EPSILON);
+    assertEquals(350, metrics.hullArea(1), EPSILON);
+  }
+
+  @Test
+  public void testSelectKeepsMeasurements() {
+    final ContourMetrics metrics = new ContourMetrics(contours);
+    final Mat hull = metrics.hull(1);
+
+    final ContourMetrics selected = metrics.select(new MatVector(contours.get(1)), new int[]{1}, 1);
+
+    assertEquals(1, selected.size());
+    assertEquals("The hull should have been passed on instead of being computed again",
+        hull.data().address(), selected.hull(0).data().address());
+    assertEquals(300.0 / 350.0, selected.solidity(0), EPSILON);
+  }
+
+  @Test
+  public void testOnlyComputedHullsAreListed() {
+    final ContourMetrics metrics = new ContourMetrics(contours);
+    assertEquals(0, metrics.computedHulls().size());
+
+    final Mat hull = metrics.hull(1);
+    assertEquals(1, metrics.computedHulls().size());
+    assertEquals(hull.data().address(), metrics.computedHulls().get(0).data().address());
+  }
+
+  @Test
+  public void testHullsAreTheirOwnHulls() {
+    final ContourMetrics hulls = new ContourMetrics(contours).ofHulls();
+
+    assertEquals(2, hulls.size());
+    assertEquals(350, hulls.area(1), EPSILON);
+    assertEquals(1, hulls.solidity(1), EPSILON);
+    assertEquals(5, hulls.vertices(1));
+  }
+
+  @Test
+  public void testReportPublishesCachedColumns() {
+    final ContoursReport report = new ContoursReport(contours, 20, 20);
+
+    assertArrayEquals(new double[]{100, 300}, report.getArea(), EPSILON);
+    assertArrayEquals(new double[]{5, 10}, report.getCenterX(), EPSILON);
+    assertArrayEquals(new double[]{1, 300.0 / 350.0}, report.getSolidity(), EPSILON);
+    assertEquals(2, report.getProcessedContours().size());
+  }
+
+  private static Mat contour(int... points) {
+    final Mat contour = new Mat(points.length / 2, 1, CV_32SC2);
+    new IntPointer(contour.data()).put(points);
+    return contour;
+  }
+}
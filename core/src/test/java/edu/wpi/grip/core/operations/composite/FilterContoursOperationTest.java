@@ -0,0 +1,79 @@
+package edu.wpi.grip.core.operations.composite;
+
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.core.sockets.MockInputSocketFactory;
+import edu.wpi.grip.core.sockets.MockOutputSocketFactory;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import com.google.common.eventbus.EventBus;
+
+import org.bytedeco.javacpp.IntPointer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.bytedeco.javacpp.opencv_core.CV_32SC2;
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_core.MatVector;
+import static org.junit.Assert.assertArrayEquals;
+
+public class FilterContoursOperationTest {
+
+  private FilterContoursOperation operation;
+
+  @Before
+  public void setUp() {
+    final EventBus eventBus = new EventBus();
+    operation = new FilterContoursOperation(new MockInputSocketFactory(eventBus),
+        new MockOutputSocketFactory(eventBus));
+  }
+
+  @Test
+  @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert") // The helper has asserts
+  public void testFewContoursAreFilteredInOrder() {
+    testContoursAreFilteredInOrder(100);
+  }
+
+  @Test
+  @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert") // The helper has asserts
+  public void testManyContoursAreFilteredInOrder() {
+    testContoursAreFilteredInOrder(2000);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void testContoursAreFilteredInOrder(int count) {
+    final Mat[] squares = new Mat[count];
+    final List<Double> expected = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final int side = i % 20 + 1;
+      squares[i] = square(i, side);
+      if (side * side >= 50) {
+        expected.add((double) side * side);
+      }
+    }
+    final List<InputSocket> inputs = operation.getInputSockets();
+    inputs.get(0).setValue(new ContoursReport(new MatVector(squares), 100, 100));
+    inputs.get(1).setValue(50);
+
+    operation.perform();
+
+    final ContoursReport output =
+        ((OutputSocket<ContoursReport>) operation.getOutputSockets().get(0)).getValue().get();
+    assertArrayEquals("The contours that passed should be in their original order",
+        expected.stream().mapToDouble(Double::doubleValue).toArray(), output.getArea(), 1e-9);
+  }
+
+  private static Mat square(int offset, int side) {
+    final int[] points = {
+        offset, 0,
+        offset + side, 0,
+        offset + side, side,
+        offset, side
+    };
+    final Mat contour = new Mat(points.length / 2, 1, CV_32SC2);
+    new IntPointer(contour.data()).put(points);
+    return contour;
+  }
+}
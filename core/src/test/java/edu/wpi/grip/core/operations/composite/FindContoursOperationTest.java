@@ -0,0 +1,67 @@
+package edu.wpi.grip.core.operations.composite;
+
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.sockets.MockInputSocketFactory;
+import edu.wpi.grip.core.sockets.MockOutputSocketFactory;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import com.google.common.eventbus.EventBus;
+
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.FILLED;
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_core.Point;
+import static org.bytedeco.javacpp.opencv_core.Rect;
+import static org.bytedeco.javacpp.opencv_core.Scalar;
+import static org.bytedeco.javacpp.opencv_core.countNonZero;
+import static org.bytedeco.javacpp.opencv_imgproc.rectangle;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FindContoursOperationTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testInputIsNotModified() {
+    final EventBus eventBus = new EventBus();
+    final FindContoursOperation operation = new FindContoursOperation(
+        new MockInputSocketFactory(eventBus), new MockOutputSocketFactory(eventBus));
+    final Mat image = new Mat(50, 50, CV_8UC1, Scalar.all(0));
+    rectangle(image, new Rect(new Point(10, 10), new Point(30, 30)), Scalar.all(255), FILLED, 8,
+        0);
+    final int whitePixels = countNonZero(image);
+    operation.getInputSockets().get(0).setValue(MatWrapper.wrap(image));
+
+    operation.perform();
+
+    final ContoursReport report =
+        ((OutputSocket<ContoursReport>) operation.getOutputSockets().get(0)).getValue().get();
+    assertEquals(1, report.getContours().size());
+    assertEquals("Finding contours should not change the input, since it isn't copied",
+        whitePixels, countNonZero(image));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testContoursInRegionArePublishedInFrameCoordinates() {
+    final EventBus eventBus = new EventBus();
+    final FindContoursOperation operation = new FindContoursOperation(
+        new MockInputSocketFactory(eventBus), new MockOutputSocketFactory(eventBus));
+    final Mat image = new Mat(50, 50, CV_8UC1, Scalar.all(0));
+    rectangle(image, new Rect(new Point(10, 10), new Point(30, 30)), Scalar.all(255), FILLED, 8,
+        0);
+    final MatWrapper region = MatWrapper.emptyWrapper();
+    region.setRegion(MatWrapper.wrap(image), new Rect(5, 5, 40, 40));
+    operation.getInputSockets().get(0).setValue(region);
+
+    operation.perform();
+
+    final ContoursReport report =
+        ((OutputSocket<ContoursReport>) operation.getOutputSockets().get(0)).getValue().get();
+    assertEquals("The report should be the size of the region", 40, report.getCols());
+    assertArrayEquals(new double[]{20}, report.getCenterX(), 0);
+    assertArrayEquals(new double[]{20}, report.getCenterY(), 0);
+  }
+}
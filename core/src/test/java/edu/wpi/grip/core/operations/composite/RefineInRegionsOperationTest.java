@@ -0,0 +1,134 @@
+package edu.wpi.grip.core.operations.composite;
+
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.sockets.MockInputSocketFactory;
+import edu.wpi.grip.core.sockets.MockOutputSocketFactory;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import com.google.common.eventbus.EventBus;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.FILLED;
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_core.MatVector;
+import static org.bytedeco.javacpp.opencv_core.Point;
+import static org.bytedeco.javacpp.opencv_core.Rect;
+import static org.bytedeco.javacpp.opencv_core.Scalar;
+import static org.bytedeco.javacpp.opencv_imgproc.rectangle;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RefineInRegionsOperationTest {
+
+  private PyramidDownOperation pyramidDown;
+  private FindContoursOperation coarseContours;
+  private RefineInRegionsOperation refine;
+  private FindContoursOperation fineContours;
+  private MatWrapper frame;
+
+  @Before
+  public void setUp() {
+    final EventBus eventBus = new EventBus();
+    final MockInputSocketFactory isf = new MockInputSocketFactory(eventBus);
+    final MockOutputSocketFactory osf = new MockOutputSocketFactory(eventBus);
+    pyramidDown = new PyramidDownOperation(isf, osf);
+    coarseContours = new FindContoursOperation(isf, osf);
+    refine = new RefineInRegionsOperation(isf, osf);
+    fineContours = new FindContoursOperation(isf, osf);
+
+    final Mat image = new Mat(200, 200, CV_8UC1, Scalar.all(0));
+    rectangle(image, new Rect(new Point(120, 40), new Point(160, 80)), Scalar.all(255), FILLED, 8,
+        0);
+    frame = MatWrapper.wrap(image);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCoarseToFineSearch() {
+    pyramidDown.getInputSockets().get(0).setValue(frame);
+    pyramidDown.perform();
+    final MatWrapper coarse = output(pyramidDown);
+    assertEquals(100, coarse.cols());
+    assertEquals(2, coarse.scale());
+
+    coarseContours.getInputSockets().get(0).setValue(coarse);
+    coarseContours.perform();
+    final ContoursReport coarseReport = output(coarseContours);
+    assertEquals(1, coarseReport.getContours().size());
+    assertEquals("The coarse search should be scaled back up to the frame",
+        140, coarseReport.getCenterX()[0], 2);
+
+    refine.getInputSockets().get(0).setValue(frame);
+    refine.getInputSockets().get(1).setValue(coarseReport);
+    refine.perform();
+    final MatWrapper region = output(refine);
+    assertTrue("The fine search should only look near the candidate",
+        region.cols() < frame.cols() / 2 && region.rows() < frame.rows() / 2);
+
+    fineContours.getInputSockets().get(0).setValue(region);
+    fineContours.perform();
+    final ContoursReport fineReport = output(fineContours);
+
+    // The result should be the same as searching the whole frame
+    coarseContours.getInputSockets().get(0).setValue(frame);
+    coarseContours.perform();
+    final ContoursReport fullReport = output(coarseContours);
+    assertArrayEquals(fullReport.getCenterX(), fineReport.getCenterX(), 0);
+    assertArrayEquals(fullReport.getCenterY(), fineReport.getCenterY(), 0);
+    assertArrayEquals(fullReport.getWidth(), fineReport.getWidth(), 0);
+    assertArrayEquals(fullReport.getArea(), fineReport.getArea(), 0);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testNoCandidates() {
+    refine.getInputSockets().get(0).setValue(frame);
+    refine.getInputSockets().get(1).setValue(new ContoursReport(new MatVector(), frame));
+    refine.perform();
+    final MatWrapper region = output(refine);
+    assertTrue("There should be nothing to search without candidates", region.empty());
+
+    fineContours.getInputSockets().get(0).setValue(region);
+    fineContours.perform();
+    assertEquals(0, this.<ContoursReport>output(fineContours).getContours().size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testNoCandidatesPassesThroughImageOperations() {
+    final HSVThresholdOperation threshold = new HSVThresholdOperation(
+        new MockInputSocketFactory(new EventBus()), new MockOutputSocketFactory(new EventBus()));
+    refine.getInputSockets().get(0).setValue(frame);
+    refine.getInputSockets().get(1).setValue(new ContoursReport(new MatVector(), frame));
+    refine.perform();
+
+    threshold.getInputSockets().get(0).setValue(output(refine));
+    threshold.perform();
+
+    assertTrue("An empty image should be passed along instead of failing",
+        this.<MatWrapper>output(threshold).empty());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testEmptyImageClearsPyramid() {
+    pyramidDown.getInputSockets().get(0).setValue(frame);
+    pyramidDown.perform();
+
+    pyramidDown.getInputSockets().get(0).setValue(MatWrapper.emptyWrapper());
+    pyramidDown.perform();
+
+    assertTrue("The last frame's levels should not be left in the output",
+        this.<MatWrapper>output(pyramidDown).empty());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T output(Operation operation) {
+    return ((OutputSocket<T>) operation.getOutputSockets().get(0)).getValue().get();
+  }
+}
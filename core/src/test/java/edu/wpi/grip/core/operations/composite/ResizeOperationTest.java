@@ -0,0 +1,61 @@
+package edu.wpi.grip.core.operations.composite;
+
+import edu.wpi.grip.core.MatWrapper;
+import edu.wpi.grip.core.sockets.InputSocket;
+import edu.wpi.grip.core.sockets.MockInputSocketFactory;
+import edu.wpi.grip.core.sockets.MockOutputSocketFactory;
+import edu.wpi.grip.core.sockets.OutputSocket;
+
+import com.google.common.eventbus.EventBus;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_core.Rect;
+import static org.bytedeco.javacpp.opencv_core.Scalar;
+import static org.junit.Assert.assertEquals;
+
+public class ResizeOperationTest {
+
+  private ResizeOperation resize;
+  private MatWrapper region;
+
+  @Before
+  public void setUp() {
+    final EventBus eventBus = new EventBus();
+    resize = new ResizeOperation(new MockInputSocketFactory(eventBus),
+        new MockOutputSocketFactory(eventBus));
+    final MatWrapper frame = MatWrapper.wrap(new Mat(200, 200, CV_8UC1, Scalar.all(0)));
+    region = MatWrapper.emptyWrapper();
+    region.setRegion(frame, new Rect(40, 20, 100, 60));
+  }
+
+  @Test
+  public void testScalingDownByWholeNumberKeepsOrigin() {
+    final MatWrapper output = perform(50, 30);
+
+    assertEquals(40, output.originX());
+    assertEquals(20, output.originY());
+    assertEquals(2, output.scale());
+  }
+
+  @Test
+  public void testScalingByFractionResetsOrigin() {
+    final MatWrapper output = perform(75, 45);
+
+    assertEquals(0, output.originX());
+    assertEquals(0, output.originY());
+    assertEquals(1, output.scale());
+  }
+
+  @SuppressWarnings("unchecked")
+  private MatWrapper perform(int width, int height) {
+    ((InputSocket<MatWrapper>) resize.getInputSockets().get(0)).setValue(region);
+    ((InputSocket<Number>) resize.getInputSockets().get(1)).setValue(width);
+    ((InputSocket<Number>) resize.getInputSockets().get(2)).setValue(height);
+    resize.perform();
+    return ((OutputSocket<MatWrapper>) resize.getOutputSockets().get(0)).getValue().get();
+  }
+}
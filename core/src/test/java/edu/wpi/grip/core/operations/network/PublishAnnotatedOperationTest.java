@@ -8,6 +8,8 @@ import com.google.common.eventbus.EventBus;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,6 +19,7 @@ import java.util.function.Function;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 /**
@@ -62,6 +65,11 @@ public class PublishAnnotatedOperationTest {
     new TestPublishAnnotatedOperation<>(ReportWithMixedEmptyAndSuppliedKeys.class);
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testPublishableWithReservedKey() {
+    new TestPublishAnnotatedOperation<>(ReportWithReservedKey.class);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testPublishableWithPrivateMethod() {
     new TestPublishAnnotatedOperation<>(ReportWithPrivateMethod.class);
@@ -145,6 +153,59 @@ public class PublishAnnotatedOperationTest {
     assertTrue("doPublish never ran", doPublishRan[0]);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPublishesCurrentValuesEachTime() {
+    final List<Map<String, Object>> published = new ArrayList<>();
+    final MapNetworkPublisherFactory factory = new MapNetworkPublisherFactory() {
+      @Override
+      public <T> MapNetworkPublisher<T> create(Set<String> keys) {
+        return new MockMapNetworkPublisher<T>(keys) {
+          @Override
+          protected void doPublish(Map<String, T> publishMap) {
+            published.add(new HashMap<>(publishMap));
+          }
+        };
+      }
+    };
+    final TestPublishAnnotatedOperation<CountingReport> operation =
+        new TestPublishAnnotatedOperation<>(CountingReport.class, factory);
+    final List<InputSocket> inputSockets = operation.getInputSockets();
+    inputSockets.get(1).setValue("counts");
+
+    inputSockets.get(0).setValue(new CountingReport(1));
+    operation.perform();
+    inputSockets.get(0).setValue(new CountingReport(2));
+    operation.perform();
+
+    assertEquals("Wrong number of publishes", 2, published.size());
+    assertEquals("First value was not published", 1.0, published.get(0).get("count"));
+    assertEquals("First value was not published", 2.0, published.get(0).get("double"));
+    assertEquals("Second value was not published", 2.0, published.get(1).get("count"));
+    assertEquals("Second value was not published", 4.0, published.get(1).get("double"));
+  }
+
+  @Test
+  public void testAccessorsAreSharedByOperations() {
+    new TestPublishAnnotatedOperation<>(SimpleReport.class);
+    new TestPublishAnnotatedOperation<>(SimpleReport.class);
+    assertSame("Accessors were looked up again for the same type",
+        PublishValueAccessors.of(SimpleReport.class), PublishValueAccessors.of(SimpleReport.class));
+  }
+
+  @Test
+  public void testAccessorExceptionIsPublishedAsNull() {
+    final PublishValueAccessors accessors = PublishValueAccessors.of(ThrowingReport.class);
+    assertEquals("An accessor that throws an exception should have no value",
+        null, accessors.get(0, new ThrowingReport()));
+  }
+
+  @Test(expected = AssertionError.class)
+  public void testAccessorErrorIsRethrown() {
+    final PublishValueAccessors accessors = PublishValueAccessors.of(ThrowingReport.class);
+    accessors.get(1, new ThrowingReport());
+  }
+
   @Test
   public void testPublishProperlyResolvesSocketType() {
     TestPublishAnnotatedOperation<SimpleReport> testPublishAnnotatedOperation
@@ -169,6 +230,36 @@ public class PublishAnnotatedOperationTest {
     }
   }
 
+  public static class CountingReport implements Publishable {
+    private final double count;
+
+    public CountingReport(double count) {
+      this.count = count;
+    }
+
+    @PublishValue(key = "count", weight = 1)
+    public double getCount() {
+      return count;
+    }
+
+    @PublishValue(key = "double", weight = 2)
+    public double getDouble() {
+      return count * 2;
+    }
+  }
+
+  public static class ThrowingReport implements Publishable {
+    @PublishValue(key = "exception", weight = 1)
+    public double getException() {
+      throw new IllegalStateException("No value");
+    }
+
+    @PublishValue(key = "error", weight = 2)
+    public double getError() {
+      throw new AssertionError("Broken");
+    }
+  }
+
   public static class ReportWithNonDistinctWeights implements Publishable {
     @PublishValue(key = "foo", weight = 1)
     public double getFoo() {
@@ -229,6 +320,13 @@ public class PublishAnnotatedOperationTest {
     }
   }
 
+  public static class ReportWithReservedKey implements Publishable {
+    @PublishValue(key = PublishAnnotatedOperation.FRAME_LATENCY_KEY, weight = 1)
+    public double getFoo() {
+      return 0.0;
+    }
+  }
+
   public static class ReportWithPrivateMethod implements Publishable {
     @PublishValue(weight = 1)
     private double getFoo() {
@@ -0,0 +1,152 @@
+package edu.wpi.grip.core.operations.network.http;
+
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.events.RunStartedEvent;
+import edu.wpi.grip.core.events.RunStoppedEvent;
+import edu.wpi.grip.core.http.ContextStore;
+import edu.wpi.grip.core.http.GripServer;
+import edu.wpi.grip.core.http.GripServerTest;
+
+import com.google.common.eventbus.EventBus;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DataStreamHandlerTest {
+
+  private EventBus eventBus;
+  private GripServer server;
+  private DataHandler dataHandler;
+  private DataStreamHandler streamHandler;
+  private CloseableHttpClient client;
+  private final List<HttpGet> streams = new ArrayList<>();
+
+  @Rule
+  public final Timeout timeout = new Timeout(10000, TimeUnit.MILLISECONDS);
+
+  @Before
+  public void setUp() {
+    eventBus = new EventBus();
+    ContextStore contextStore = new ContextStore();
+    server = GripServerTest.makeServer(
+        contextStore, new GripServerTest.TestServerFactory(), new Pipeline());
+    dataHandler = new DataHandler(contextStore);
+    eventBus.register(dataHandler);
+    streamHandler = new DataStreamHandler(contextStore, dataHandler);
+    server.addHandler(streamHandler);
+    server.start();
+    client = HttpClients.createDefault();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    // The streams never end, so they have to be aborted rather than read to the end and closed
+    streams.forEach(HttpGet::abort);
+    client.close();
+    server.removeHandler(streamHandler);
+    server.stop();
+  }
+
+  @Test
+  public void testStreamsChanges() throws IOException {
+    dataHandler.addDataSupplier("foo", () -> 1.0);
+    dataHandler.addDataSupplier("bar", () -> "baz");
+    final HttpResponse response = openStream(GripServer.STREAM_PATH);
+    assertEquals("text/event-stream",
+        response.getEntity().getContentType().getValue().split(";")[0]);
+    final BufferedReader events = reader(response);
+    assertEquals("The first event should have all the data",
+        "data: {\"bar\":\"baz\",\"foo\":1.0}", nextData(events));
+
+    run(() -> dataHandler.addDataSupplier("foo", () -> 2.0));
+    assertEquals("Only changed data should be sent", "data: {\"foo\":2.0}", nextData(events));
+
+    run(() -> dataHandler.removeDataSupplier("bar"));
+    assertEquals("Removed data should be sent as null",
+        "data: {\"bar\":null}", nextData(events));
+  }
+
+  @Test
+  public void testFilteredStream() throws IOException {
+    dataHandler.addDataSupplier("foo", () -> 1.0);
+    dataHandler.addDataSupplier("bar", () -> "baz");
+    final BufferedReader events = reader(openStream(GripServer.STREAM_PATH + "?foo"));
+    assertEquals("data: {\"foo\":1.0}", nextData(events));
+    run(() -> dataHandler.addDataSupplier("bar", () -> "qux"));
+    run(() -> dataHandler.addDataSupplier("foo", () -> 2.0));
+    assertEquals("Changes to data that wasn't asked for should not be sent",
+        "data: {\"foo\":2.0}", nextData(events));
+  }
+
+  @Test
+  public void testSequenceNumbers() throws IOException {
+    final BufferedReader events = reader(openStream(GripServer.STREAM_PATH));
+    final long first = nextId(events);
+    run(() -> dataHandler.addDataSupplier("foo", () -> 1.0));
+    assertTrue("Event ids should increase", nextId(events) > first);
+  }
+
+  @Test
+  public void testNotPost() throws IOException {
+    final HttpResponse response =
+        client.execute(new HttpPost("http://localhost:" + server.getPort()
+            + GripServer.STREAM_PATH));
+    EntityUtils.consume(response.getEntity());
+    assertEquals(405, response.getStatusLine().getStatusCode());
+  }
+
+  private void run(Runnable duringRun) {
+    eventBus.post(new RunStartedEvent());
+    duringRun.run();
+    eventBus.post(new RunStoppedEvent());
+  }
+
+  private HttpResponse openStream(String path) throws IOException {
+    final HttpGet get = new HttpGet("http://localhost:" + server.getPort() + path);
+    streams.add(get);
+    final HttpResponse response = client.execute(get);
+    assertEquals(200, response.getStatusLine().getStatusCode());
+    return response;
+  }
+
+  private static BufferedReader reader(HttpResponse response) throws IOException {
+    return new BufferedReader(
+        new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8));
+  }
+
+  private static String nextData(BufferedReader events) throws IOException {
+    return nextLine(events, "data: ");
+  }
+
+  private static long nextId(BufferedReader events) throws IOException {
+    return Long.parseLong(nextLine(events, "id: ").substring("id: ".length()));
+  }
+
+  private static String nextLine(BufferedReader events, String prefix) throws IOException {
+    String line;
+    do {
+      line = events.readLine();
+    } while (line != null && !line.startsWith(prefix));
+    return line;
+  }
+}
@@ -34,6 +34,7 @@ import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.fail;
 
 public class HttpPublisherTest {
@@ -70,7 +71,8 @@ public class HttpPublisherTest {
         Number.class,
         NumberPublishable.class,
         NumberPublishable::new,
-        new HttpPublishManager(server, dataHandler)
+        new HttpPublishManager(server, dataHandler,
+            new DataStreamHandler(contextStore, dataHandler))
     );
 
     client = HttpClients.createDefault();
@@ -103,17 +105,83 @@ public class HttpPublisherTest {
   @Test
   public void testWhenPipelineRunning() throws IOException {
     perform();
-    // Stop the pipeline after (about) 500ms
+    eventBus.post(new RunStartedEvent());
+    assertEquals("Data from the last run should be sent straight away", json,
+        doGetText(dataPath));
+    dataHandler.addDataSupplier("some_data", () -> "some_value");
+    assertEquals("Data added during a run should not be sent until it finishes", json,
+        doGetText(dataPath));
+    eventBus.post(new RunStoppedEvent());
+    assertEquals(unexpectedResponseMsg,
+        "{\n  \"foo\": 1.0,\n  \"some_data\": \"some_value\"\n}",
+        doGetText(dataPath));
+  }
+
+  @Test
+  public void testNotModified() throws IOException {
+    perform();
+    final HttpResponse first = doGet(dataPath);
+    EntityUtils.consume(first.getEntity());
+    final String etag = first.getFirstHeader("ETag").getValue();
+
+    final HttpGet get = new HttpGet("http://localhost:" + server.getPort() + dataPath);
+    get.setHeader("If-None-Match", etag);
+    final HttpResponse unchanged = client.execute(get);
+    EntityUtils.consume(unchanged.getEntity());
+    assertEquals("The data has not changed", 304, unchanged.getStatusLine().getStatusCode());
+
+    dataHandler.addDataSupplier("some_data", () -> "some_value");
+    final HttpResponse changed = client.execute(get);
+    EntityUtils.consume(changed.getEntity());
+    assertEquals("The data has changed", 200, changed.getStatusLine().getStatusCode());
+    assertNotEquals(etag, changed.getFirstHeader("ETag").getValue());
+  }
+
+  @Test
+  public void testWaitForNextRun() throws IOException {
+    perform();
+    final HttpResponse first = doGet(dataPath);
+    EntityUtils.consume(first.getEntity());
+
+    final HttpGet get = new HttpGet("http://localhost:" + server.getPort() + dataPath);
+    get.setHeader("If-None-Match", first.getFirstHeader("ETag").getValue());
+    get.setHeader("Prefer", "wait=5");
+    // Finish a run with new data after (about) 500ms
     new Timer().schedule(new TimerTask() {
       @Override
       public void run() {
+        eventBus.post(new RunStartedEvent());
+        dataHandler.addDataSupplier("some_data", () -> "some_value");
         eventBus.post(new RunStoppedEvent());
       }
     }, 500);
-    // Start the pipeline. Will get stopped in a bit by the timer task
-    eventBus.post(new RunStartedEvent());
-    doGet(dataPath); // should block
-    assertEquals("Data handler should have run", json, doGetText(dataPath));
+    final HttpResponse next = client.execute(get); // should wait for the next run
+    assertEquals(200, next.getStatusLine().getStatusCode());
+    assertEquals(unexpectedResponseMsg,
+        "{\n  \"foo\": 1.0,\n  \"some_data\": \"some_value\"\n}",
+        EntityUtils.toString(next.getEntity()));
+  }
+
+  @Test
+  public void testWaitTimesOut() throws IOException {
+    perform();
+    final HttpResponse first = doGet(dataPath);
+    EntityUtils.consume(first.getEntity());
+
+    final HttpGet get = new HttpGet("http://localhost:" + server.getPort() + dataPath);
+    get.setHeader("If-None-Match", first.getFirstHeader("ETag").getValue());
+    get.setHeader("Prefer", "wait=1");
+    final HttpResponse next = client.execute(get);
+    EntityUtils.consume(next.getEntity());
+    assertEquals("Nothing changed while waiting", 304, next.getStatusLine().getStatusCode());
+  }
+
+  @Test
+  public void testWaitPreference() {
+    assertEquals(0, DataHandler.waitSeconds(null));
+    assertEquals(0, DataHandler.waitSeconds("return=minimal"));
+    assertEquals(3, DataHandler.waitSeconds("return=minimal, wait=3"));
+    assertEquals("Waits should be capped", 20, DataHandler.waitSeconds("wait=100"));
   }
 
   @Test
@@ -0,0 +1,200 @@
+package edu.wpi.grip.core.operations.network.http;
+
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.http.ContextStore;
+import edu.wpi.grip.core.http.GripServer;
+import edu.wpi.grip.core.http.GripServerTest;
+
+import com.google.common.io.ByteStreams;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.bytedeco.javacpp.opencv_imgcodecs.IMREAD_UNCHANGED;
+import static org.bytedeco.javacpp.opencv_imgcodecs.imdecode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MjpegHandlerTest {
+
+  private GripServer server;
+  private MjpegHandler handler;
+  private CloseableHttpClient client;
+  private ExecutorService executor;
+  private Mat image;
+  private final List<HttpGet> streams = new ArrayList<>();
+
+  @Rule
+  public final Timeout timeout = new Timeout(10000, TimeUnit.MILLISECONDS);
+
+  @Before
+  public void setUp() {
+    ContextStore contextStore = new ContextStore();
+    server = GripServerTest.makeServer(
+        contextStore, new GripServerTest.TestServerFactory(), new Pipeline());
+    handler = new MjpegHandler(contextStore);
+    server.addHandler(handler);
+    server.start();
+    client = HttpClients.custom().setMaxConnPerRoute(10).setMaxConnTotal(10).build();
+    executor = Executors.newCachedThreadPool();
+    image = new Mat(48, 64, CV_8UC3, new Scalar(0, 128, 255, 0));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    // The streams never end, so they have to be aborted rather than read to the end and closed
+    streams.forEach(HttpGet::abort);
+    executor.shutdownNow();
+    client.close();
+    server.removeHandler(handler);
+    server.stop();
+    image.release();
+  }
+
+  @Test
+  public void testMultipleClients() throws Exception {
+    final VideoStream stream = handler.openStream("test");
+    final Future<HttpResponse> full = open("?name=test");
+    final Future<HttpResponse> small = open("?name=test&width=32&fps=30");
+    final HttpResponse fullResponse = awaitHeaders(stream, full);
+    final HttpResponse smallResponse = awaitHeaders(stream, small);
+
+    assertTrue(fullResponse.getFirstHeader("Content-Type").getValue()
+        .startsWith("multipart/x-mixed-replace"));
+    assertFrame(64, 48, fullResponse.getEntity().getContent());
+    assertFrame(32, 24, smallResponse.getEntity().getContent());
+  }
+
+  @Test
+  public void testDefaultStream() throws Exception {
+    final VideoStream stream = handler.openStream(MjpegHandler.DEFAULT_STREAM);
+    final HttpResponse response = awaitHeaders(stream, open(""));
+    assertFrame(64, 48, response.getEntity().getContent());
+  }
+
+  @Test
+  public void testFramesAreNotScaledUp() throws Exception {
+    final VideoStream stream = handler.openStream("test");
+    final Future<HttpResponse> wide = open("?name=test&width=100000");
+    final Future<HttpResponse> huge = open("?name=test&width=100000&height=100000");
+    assertFrame(64, 48, awaitHeaders(stream, wide).getEntity().getContent());
+    assertFrame(64, 48, awaitHeaders(stream, huge).getEntity().getContent());
+  }
+
+  @Test
+  public void testUnpublishedStreamIsNotFound() throws IOException {
+    final HttpResponse response = client.execute(new HttpGet(url("?name=nothing")));
+    EntityUtils.consume(response.getEntity());
+    assertEquals(404, response.getStatusLine().getStatusCode());
+  }
+
+  @Test
+  public void testStreamIsRemovedOnceEveryPublisherClosesIt() throws Exception {
+    final VideoStream stream = handler.openStream("test");
+    assertSame(stream, handler.openStream("test"));
+    final InputStream content = awaitHeaders(stream, open("?name=test")).getEntity().getContent();
+
+    handler.closeStream(stream);
+    assertTrue("Stream was removed before every publisher closed it", stream.hasClients());
+
+    handler.closeStream(stream);
+    ByteStreams.exhaust(content);
+    assertFalse("Client was not disconnected", stream.hasClients());
+    final HttpResponse response = client.execute(new HttpGet(url("?name=test")));
+    EntityUtils.consume(response.getEntity());
+    assertEquals(404, response.getStatusLine().getStatusCode());
+  }
+
+  @Test
+  public void testBadParameters() throws IOException {
+    final HttpGet get = new HttpGet(url("?width=big"));
+    final HttpResponse response = client.execute(get);
+    EntityUtils.consume(response.getEntity());
+    assertEquals(400, response.getStatusLine().getStatusCode());
+  }
+
+  @Test
+  public void testNotPost() throws IOException {
+    final HttpResponse response = client.execute(new HttpPost(url("")));
+    EntityUtils.consume(response.getEntity());
+    assertEquals(405, response.getStatusLine().getStatusCode());
+  }
+
+  private String url(String query) {
+    return "http://localhost:" + server.getPort() + GripServer.VIDEO_PATH + query;
+  }
+
+  private Future<HttpResponse> open(String query) {
+    final HttpGet get = new HttpGet(url(query));
+    streams.add(get);
+    return executor.submit(() -> client.execute(get));
+  }
+
+  /**
+   * Publishes frames until the response headers arrive. Jetty doesn't send them until the first
+   * frame is written.
+   */
+  private HttpResponse awaitHeaders(VideoStream stream, Future<HttpResponse> response)
+      throws InterruptedException, ExecutionException {
+    while (!response.isDone()) {
+      stream.publish(image, 80);
+      Thread.sleep(50);
+    }
+    assertEquals(200, response.get().getStatusLine().getStatusCode());
+    return response.get();
+  }
+
+  private static void assertFrame(int width, int height, InputStream in) throws IOException {
+    assertEquals("--grip-frame", readLine(in));
+    assertEquals("Content-Type: image/jpeg", readLine(in));
+    final String contentLength = readLine(in);
+    assertTrue(contentLength.startsWith("Content-Length: "));
+    assertEquals("", readLine(in));
+    final byte[] jpeg = new byte[Integer.parseInt(contentLength.substring(16))];
+    ByteStreams.readFully(in, jpeg);
+    final Mat decoded = imdecode(new Mat(jpeg), IMREAD_UNCHANGED);
+    try {
+      assertEquals("Wrong width", width, decoded.cols());
+      assertEquals("Wrong height", height, decoded.rows());
+    } finally {
+      decoded.release();
+    }
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) != '\n' && b != -1) {
+      if (b != '\r') {
+        line.write(b);
+      }
+    }
+    return new String(line.toByteArray(), StandardCharsets.US_ASCII);
+  }
+}
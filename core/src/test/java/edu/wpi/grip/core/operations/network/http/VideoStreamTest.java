@@ -0,0 +1,120 @@
+package edu.wpi.grip.core.operations.network.http;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.bytedeco.javacpp.opencv_imgcodecs.IMREAD_UNCHANGED;
+import static org.bytedeco.javacpp.opencv_imgcodecs.imdecode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VideoStreamTest {
+
+  private VideoStream stream;
+  private Mat image;
+
+  @Before
+  public void setUp() {
+    // Encode on the publishing thread so the results can be checked straight away
+    stream = new VideoStream("test", Runnable::run);
+    image = new Mat(48, 64, CV_8UC3, new Scalar(0, 128, 255, 0));
+  }
+
+  @After
+  public void tearDown() {
+    image.release();
+  }
+
+  @Test
+  public void testNoClients() {
+    assertFalse(stream.hasClients());
+    stream.publish(image, 80); // should do nothing
+  }
+
+  @Test
+  public void testEncodesOncePerResolution() {
+    final TestClient first = new TestClient(0, 0, 0);
+    final TestClient second = new TestClient(0, 0, 0);
+    final TestClient small = new TestClient(32, 0, 0);
+    stream.addClient(first);
+    stream.addClient(second);
+    stream.addClient(small);
+    assertTrue(stream.hasClients());
+    stream.publish(image, 80);
+
+    final byte[] full = first.takeFrame();
+    assertNotNull("Should have been sent a frame", full);
+    assertSame("Clients at the same resolution should share one encoded frame",
+        full, second.takeFrame());
+    assertSize(64, 48, full);
+    assertSize(32, 24, small.takeFrame());
+  }
+
+  @Test
+  public void testSlowClientSkipsFrames() {
+    final TestClient client = new TestClient(0, 0, 0);
+    stream.addClient(client);
+    stream.publish(image, 80);
+    stream.publish(image, 80);
+    stream.publish(image, 80);
+    assertEquals("Only the latest frame should be kept", 2, client.getDroppedFrames());
+    assertNotNull(client.takeFrame());
+    assertNull(client.takeFrame());
+    assertEquals(3, client.available);
+  }
+
+  @Test
+  public void testFrameRateLimit() {
+    final TestClient client = new TestClient(0, 0, 0.001);
+    stream.addClient(client);
+    stream.publish(image, 80);
+    stream.publish(image, 80);
+    assertEquals("Should not be sent frames faster than it asked for", 1, client.available);
+  }
+
+  @Test
+  public void testRemoveClient() {
+    final TestClient client = new TestClient(0, 0, 0);
+    stream.addClient(client);
+    stream.removeClient(client);
+    assertFalse(stream.hasClients());
+    stream.publish(image, 80);
+    assertNull(client.takeFrame());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidQuality() {
+    stream.publish(image, 101);
+  }
+
+  private static void assertSize(int width, int height, byte[] jpeg) {
+    final Mat decoded = imdecode(new Mat(jpeg), IMREAD_UNCHANGED);
+    try {
+      assertEquals("Wrong width", width, decoded.cols());
+      assertEquals("Wrong height", height, decoded.rows());
+    } finally {
+      decoded.release();
+    }
+  }
+
+  private static final class TestClient extends VideoStream.Client {
+    private int available = 0;
+
+    private TestClient(int width, int height, double maxFps) {
+      super(width, height, maxFps);
+    }
+
+    @Override
+    protected void onFrameAvailable() {
+      available++;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package edu.wpi.grip.core.operations.network.networktables;
+
+import edu.wpi.grip.core.events.ProjectSettingsChangedEvent;
+import edu.wpi.grip.core.operations.network.MapNetworkPublisher;
+import edu.wpi.grip.core.settings.ProjectSettings;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests that publishers only write values that changed. A value that's changed behind a publisher's
+ * back is only overwritten if the publisher writes it again, which shows whether it did.
+ */
+public class NTManagerTest {
+
+  private static final double DELTA = 0;
+
+  private NetworkTableInstance ntInstance;
+  private NTManager ntManager;
+  private MapNetworkPublisher<Object> publisher;
+
+  @Before
+  public void setUp() {
+    ntInstance = NetworkTableInstance.create();
+    ntManager = new NTManager(ntInstance);
+    publisher = ntManager.create(ImmutableSet.of("x", "y"));
+    publisher.setName("test");
+  }
+
+  @After
+  public void tearDown() {
+    publisher.close();
+    ntInstance.close();
+  }
+
+  @Test
+  public void testUnchangedValueIsNotWrittenAgain() {
+    publisher.publish(ImmutableMap.of("x", 1.0));
+    entry("test/x").setDouble(2.0);
+
+    publisher.publish(ImmutableMap.of("x", 1.0));
+    assertEquals("An unchanged value was written again", 2.0, entry("test/x").getDouble(0), DELTA);
+
+    publisher.publish(ImmutableMap.of("x", 3.0));
+    assertEquals("A changed value was not written", 3.0, entry("test/x").getDouble(0), DELTA);
+  }
+
+  @Test
+  public void testArraysAreComparedByContent() {
+    final double[] values = {1, 2};
+    publisher.publish(ImmutableMap.of("x", values));
+    values[1] = 3;
+
+    publisher.publish(ImmutableMap.of("x", values));
+    assertArrayEquals("An array changed in place was not written again",
+        new double[]{1, 3}, entry("test/x").getDoubleArray(new double[0]), DELTA);
+  }
+
+  @Test
+  public void testValuesAreWrittenAgainAfterNameChange() {
+    publisher.publish(ImmutableMap.of("x", 1.0));
+    publisher.setName("renamed");
+
+    publisher.publish(ImmutableMap.of("x", 1.0));
+    assertEquals(1.0, entry("renamed/x").getDouble(0), DELTA);
+    assertFalse("The old table was not deleted", entry("test/x").exists());
+
+    publisher.setName("test");
+    publisher.publish(ImmutableMap.of("x", 1.0));
+    assertEquals("The value was not written again under the old name",
+        1.0, entry("test/x").getDouble(0), DELTA);
+  }
+
+  @Test
+  public void testRemovedValueIsWrittenAgain() {
+    publisher.publish(ImmutableMap.of("x", 1.0, "y", 2.0));
+    publisher.publish(ImmutableMap.of("x", 1.0));
+    assertFalse("A value that isn't published anymore was not deleted", entry("test/y").exists());
+
+    publisher.publish(ImmutableMap.of("x", 1.0, "y", 2.0));
+    assertEquals(2.0, entry("test/y").getDouble(0), DELTA);
+  }
+
+  @Test
+  public void testValuesAreWrittenAgainAfterEntriesAreDeleted() {
+    publisher.publish(ImmutableMap.of("x", 1.0));
+    ntManager.updateSettings(new ProjectSettingsChangedEvent(new ProjectSettings()));
+    assertFalse(entry("test/x").exists());
+
+    publisher.publish(ImmutableMap.of("x", 1.0));
+    assertEquals("The value was not written again after every entry was deleted",
+        1.0, entry("test/x").getDouble(0), DELTA);
+  }
+
+  private NetworkTableEntry entry(String key) {
+    return ntInstance.getTable("GRIP").getEntry(key);
+  }
+}
@@ -12,6 +12,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class SocketTest {
@@ -71,6 +72,29 @@ public class SocketTest {
     assertEquals(TEST_VALUE, value[0]);
   }
 
+  @Test
+  public void testEqualValueIsIgnored() {
+    final InputSocket<Number> input = new InputSocketImpl<>(eventBus, sh);
+    input.setValue(TEST_VALUE);
+    input.dirtied();
+
+    input.setValue(Double.valueOf(TEST_VALUE));
+    assertFalse("Setting an equal value dirtied the socket", input.dirtied());
+    input.setValue(TEST_VALUE + 1);
+    assertTrue("Setting a different value did not dirty the socket", input.dirtied());
+  }
+
+  @Test
+  public void testEqualValueIsNotIgnoredByDefault() {
+    final InputSocket<Number> input =
+        new InputSocketImpl<>(eventBus, SocketHints.createNumberSocketHint("foo", 0));
+    input.setValue(TEST_VALUE);
+    input.dirtied();
+
+    input.setValue(TEST_VALUE);
+    assertTrue("Setting an equal value did not dirty the socket", input.dirtied());
+  }
+
   @Test
   public void testSocketPreview() {
     SocketHint<Number> sh = SocketHints.createNumberSocketHint("foo", 0);
@@ -45,6 +45,7 @@ import java.util.logging.Logger;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -102,6 +103,14 @@ public class CameraSourceTest {
     fail("This test should have thrown an exception.");
   }
 
+  @Test
+  public void testDeferDecodeIsSaved() throws Exception {
+    assertEquals("true", cameraSourceFactory.create("http://localhost/mjpg/video.mjpg", true)
+        .getProperties().getProperty(CameraSource.DEFER_DECODE_PROPERTY));
+    assertNull(cameraSourceFactory.create("http://localhost/mjpg/video.mjpg", false)
+        .getProperties().getProperty(CameraSource.DEFER_DECODE_PROPERTY));
+  }
+
   @Test
   public void testCallingStopAndStartDoesNotDeadlock() throws Exception {
     assertEquals("Service did not start new", Service.State.NEW, cameraSourceWithMockGrabber
@@ -0,0 +1,139 @@
+package edu.wpi.grip.core.sources;
+
+import edu.wpi.grip.core.MatWrapper;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.bytedeco.javacpp.opencv_imgcodecs.imencode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FrameExchangeTest {
+
+  private FrameExchange exchange;
+  private MatWrapper image;
+
+  @Before
+  public void setUp() {
+    exchange = new FrameExchange();
+    image = MatWrapper.emptyWrapper();
+  }
+
+  @Test
+  public void testNothingToTakeBeforePublish() {
+    assertFalse("There shouldn't be a frame to take", exchange.takeInto(image));
+    assertTrue(image.empty());
+  }
+
+  @Test
+  public void testPublishedFrameIsTaken() {
+    write(1);
+    exchange.publish(System.nanoTime());
+
+    assertTrue("The published frame should have been taken", exchange.takeInto(image));
+    assertEquals(1, pixel(image));
+    assertFalse("The frame should only be taken once", exchange.takeInto(image));
+  }
+
+  @Test
+  public void testOnlyLatestFrameIsKept() {
+    write(1);
+    exchange.publish(System.nanoTime());
+    write(2);
+    exchange.publish(System.nanoTime());
+
+    assertTrue(exchange.takeInto(image));
+    assertEquals(2, pixel(image));
+  }
+
+  @Test
+  public void testCaptureTimeFollowsFrame() {
+    write(1);
+    exchange.publish(100);
+    write(2);
+    exchange.publish(200);
+
+    exchange.takeInto(image);
+    assertEquals(200, exchange.getTakenCaptureTime());
+  }
+
+  @Test
+  public void testFramesAreSwappedNotCopied() {
+    write(1);
+    final long data = exchange.getBackBuffer().data().address();
+    exchange.publish(System.nanoTime());
+    exchange.takeInto(image);
+
+    assertEquals("The frame's data should have been handed over without copying it",
+        data, image.getCpu().data().address());
+  }
+
+  @Test
+  public void testEncodedFrameIsDecodedWhenTaken() {
+    exchange.publishEncoded(encode(1), 100);
+
+    assertTrue("The compressed frame should have been decoded", exchange.takeInto(image));
+    assertEquals(4, image.cols());
+    assertEquals(3, image.rows());
+    assertEquals(1, pixel(image));
+    assertEquals(100, exchange.getTakenCaptureTime());
+  }
+
+  @Test
+  public void testReplacedFramesAreDropped() {
+    exchange.publishEncoded(encode(1), System.nanoTime());
+    exchange.publishEncoded(encode(2), System.nanoTime());
+    write(3);
+    exchange.publish(System.nanoTime());
+
+    assertTrue(exchange.takeInto(image));
+    assertEquals(3, pixel(image));
+    assertEquals("Both compressed frames were replaced before being taken",
+        2, exchange.getDroppedFrames());
+  }
+
+  @Test
+  public void testUndecodableFrameIsDropped() {
+    final ByteBuffer garbage = ByteBuffer.allocateDirect(16);
+    exchange.publishEncoded(garbage, System.nanoTime());
+
+    assertFalse("A frame that can't be decoded shouldn't be taken", exchange.takeInto(image));
+    assertEquals(1, exchange.getDroppedFrames());
+  }
+
+  @Test
+  public void testBufferedBytes() {
+    write(1);
+    assertEquals(4 * 3, exchange.getBufferedBytes());
+    exchange.publish(System.nanoTime());
+    write(2);
+    assertEquals(2 * 4 * 3, exchange.getBufferedBytes());
+  }
+
+  private void write(int value) {
+    final Mat frame = new Mat(4, 3, CV_8UC1, Scalar.all(value));
+    frame.copyTo(exchange.getBackBuffer());
+  }
+
+  private static ByteBuffer encode(int value) {
+    final BytePointer png = new BytePointer();
+    imencode(".png", new Mat(3, 4, CV_8UC3, Scalar.all(value)), png);
+    final ByteBuffer encoded = ByteBuffer.allocateDirect((int) png.limit());
+    encoded.put(png.asBuffer());
+    encoded.flip();
+    return encoded;
+  }
+
+  private static int pixel(MatWrapper wrapper) {
+    return wrapper.getCpu().ptr(0, 0).get() & 0xFF;
+  }
+}
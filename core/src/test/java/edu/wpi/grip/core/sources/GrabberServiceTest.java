@@ -1,11 +1,14 @@
 package edu.wpi.grip.core.sources;
 
+import com.google.common.base.Stopwatch;
+
 import org.bytedeco.javacpp.opencv_core.Mat;
 import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.FrameGrabber;
 import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.function.Supplier;
 
 import static com.google.common.truth.Truth.assertThat;
@@ -199,14 +202,77 @@ public class GrabberServiceTest {
     }
   }
 
+  @Test
+  public void testDeferredDecodeHandsOverEncodedFrames() throws Exception {
+    final ByteBuffer[] written = {null};
+    final GrabberService grabberService = createSimpleGrabberService(
+        EncodingFrameGrabber::new,
+        new SimpleUpdater() {
+          @Override
+          public boolean isDecodeDeferred() {
+            return true;
+          }
+
+          @Override
+          public void encodedFrameBufferWritten(ByteBuffer frame, long captureTime) {
+            written[0] = frame;
+          }
+        });
+    grabberService.startUp();
+    grabberService.runOneGrab(null, Stopwatch.createStarted());
+
+    assertThat(written[0]).isNotNull();
+    assertThat(written[0].remaining()).isEqualTo(EncodingFrameGrabber.FRAME.length);
+  }
+
+  private static class EncodingFrameGrabber extends SimpleMockFrameGrabber
+      implements EncodedFrameGrabber {
+    private static final byte[] FRAME = {1, 2, 3};
+
+    @Override
+    public ByteBuffer grabEncoded(ByteBuffer buffer) {
+      final ByteBuffer frame = ByteBuffer.allocateDirect(FRAME.length);
+      frame.put(FRAME);
+      frame.flip();
+      return frame;
+    }
+
+    @Override
+    public Frame grab() {
+      throw new AssertionError("Frames should not be decoded by the grabber");
+    }
+  }
+
   private static class SimpleUpdater implements CameraSourceUpdater {
+    private final Mat frameBuffer = new Mat();
+
     @Override
     public void setFrameRate(double value) {
             /* no-op */
     }
 
     @Override
-    public void copyNewMat(Mat matToCopy) {
+    public Mat getFrameBuffer() {
+      return frameBuffer;
+    }
+
+    @Override
+    public void frameBufferWritten(long captureTime) {
+            /* no-op */
+    }
+
+    @Override
+    public boolean isDecodeDeferred() {
+      return false;
+    }
+
+    @Override
+    public ByteBuffer getEncodedFrameBuffer() {
+      return ByteBuffer.allocateDirect(0);
+    }
+
+    @Override
+    public void encodedFrameBufferWritten(ByteBuffer frame, long captureTime) {
             /* no-op */
     }
 
@@ -11,21 +11,37 @@ import edu.wpi.grip.core.util.MockExceptionWitness;
 import edu.wpi.grip.util.Files;
 
 import com.google.common.eventbus.EventBus;
+import com.google.common.primitives.Bytes;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
+import org.bytedeco.javacpp.indexer.UByteIndexer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.net.Socket;
 import java.net.URISyntaxException;
-
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static javax.servlet.http.HttpServletResponse.SC_ACCEPTED;
+import static javax.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
+import static javax.servlet.http.HttpServletResponse.SC_CREATED;
+import static javax.servlet.http.HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -37,24 +53,19 @@ public class HttpSourceTest {
   private File logoFile;
 
   private GripServer server;
+  private ContextStore contextStore;
+  private EventBus eventBus;
   private HttpSource source;
   private CloseableHttpClient postClient;
 
   @Before
   public void setUp() throws URISyntaxException {
     GripServer.JettyServerFactory f = new GripServerTest.TestServerFactory();
-    ContextStore contextStore = new ContextStore();
+    contextStore = new ContextStore();
     server = GripServerTest.makeServer(contextStore, f, new Pipeline());
     server.start();
-    EventBus eventBus = new EventBus();
-    OutputSocket.Factory osf = new MockOutputSocketFactory(eventBus);
-    source = new HttpSource(
-        origin -> new MockExceptionWitness(eventBus, origin),
-        eventBus,
-        osf,
-        server,
-        contextStore,
-        GripServer.IMAGE_UPLOAD_PATH);
+    eventBus = new EventBus();
+    source = createSource(GripServer.IMAGE_UPLOAD_PATH);
 
     logoFile = new File(Files.class.getResource("/edu/wpi/grip/images/GRIP_Logo.png").toURI());
     postClient = HttpClients.createDefault();
@@ -83,14 +94,141 @@ public class HttpSourceTest {
         imageSource.getValue().get().empty());
   }
 
+  @Test
+  public void testSameImageIsOnlyDecodedOnce() throws IOException {
+    final HttpSource source = createSource("/GRIP/upload/image/same");
+    source.initialize();
+
+    assertEquals(SC_CREATED, doPost("/GRIP/upload/image/same", logoFile));
+    assertTrue("The new image should be given to the output", source.updateOutputSockets());
+    assertFalse("The image should not be given to the output again",
+        source.updateOutputSockets());
+
+    assertEquals("Posting the same image again should be ignored",
+        SC_ACCEPTED, doPost("/GRIP/upload/image/same", logoFile));
+    assertFalse(source.updateOutputSockets());
+  }
+
+  @Test
+  public void testPostMultipartImage() throws IOException {
+    final HttpSource source = createSource("/GRIP/upload/image/multipart");
+    source.initialize();
+    final byte[] body = Bytes.concat(
+        ("--xyz\r\nContent-Disposition: form-data; name=\"image\"; filename=\"logo.png\"\r\n"
+            + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII),
+        java.nio.file.Files.readAllBytes(logoFile.toPath()),
+        "\r\n--xyz--\r\n".getBytes(StandardCharsets.US_ASCII));
+
+    final ByteArrayEntity entity = new ByteArrayEntity(body);
+    entity.setContentType("multipart/form-data; boundary=xyz");
+
+    assertEquals(SC_CREATED, doPost("/GRIP/upload/image/multipart", entity, new String[0]));
+    assertTrue(source.updateOutputSockets());
+    assertFalse("The multipart image should be decoded",
+        ((MatWrapper) source.getOutputSockets().get(0).getValue().get()).empty());
+  }
+
+  @Test
+  public void testPostRawImage() throws IOException {
+    final HttpSource source = createSource("/GRIP/upload/image/raw");
+    source.initialize();
+    final byte[] pixels = new byte[2 * 3 * 3];
+    pixels[pixels.length - 1] = 42;
+
+    assertEquals(SC_CREATED, doPost("/GRIP/upload/image/raw", new ByteArrayEntity(pixels),
+        new String[]{HttpImageHandler.WIDTH_HEADER, "3", HttpImageHandler.HEIGHT_HEADER, "2"}));
+    assertTrue(source.updateOutputSockets());
+
+    final MatWrapper image = (MatWrapper) source.getOutputSockets().get(0).getValue().get();
+    assertEquals(3, image.cols());
+    assertEquals(2, image.rows());
+    assertEquals(3, image.channels());
+    assertEquals(42, ((UByteIndexer) image.getCpu().createIndexer()).get(1, 2, 2));
+  }
+
+  @Test
+  public void testPostRawImageWithWrongSize() throws IOException {
+    final HttpSource source = createSource("/GRIP/upload/image/wrong");
+    source.initialize();
+
+    assertEquals(SC_BAD_REQUEST, doPost("/GRIP/upload/image/wrong", new ByteArrayEntity(
+        new byte[10]),
+        new String[]{HttpImageHandler.WIDTH_HEADER, "3", HttpImageHandler.HEIGHT_HEADER, "2"}));
+    assertFalse(source.updateOutputSockets());
+  }
+
+  @Test
+  public void testChunkedImageThatIsTooLarge() throws IOException {
+    final HttpSource source = createSource("/GRIP/upload/image/large");
+    source.initialize();
+    // Without a length, the size can only be checked while the body is read
+    final InputStreamEntity entity = new InputStreamEntity(
+        new ByteArrayInputStream(new byte[16 * 1024 * 1024 + 1]), -1);
+    entity.setChunked(true);
+
+    assertEquals(SC_REQUEST_ENTITY_TOO_LARGE,
+        doPost("/GRIP/upload/image/large", entity, new String[0]));
+    assertFalse(source.updateOutputSockets());
+  }
+
+  @Test
+  public void testTooManyUploadsAtOnce() throws IOException {
+    final HttpSource source = createSource("/GRIP/upload/image/busy");
+    source.initialize();
+    final List<Socket> uploads = new ArrayList<>();
+    try {
+      // Start uploads that don't finish, so each holds on to one of the handler's buffers
+      for (int i = 0; i < 3; i++) {
+        final Socket upload = new Socket("localhost", server.getPort());
+        upload.getOutputStream().write(("POST /GRIP/upload/image/busy HTTP/1.1\r\n"
+            + "Host: localhost\r\nTransfer-Encoding: chunked\r\n\r\n4\r\nGRIP\r\n")
+            .getBytes(StandardCharsets.US_ASCII));
+        upload.getOutputStream().flush();
+        uploads.add(upload);
+      }
+
+      // The uploads may not have been handled yet, in which case this image takes a buffer
+      final long deadline = System.currentTimeMillis() + 10_000;
+      int status = doPost("/GRIP/upload/image/busy", logoFile);
+      while (status != SC_SERVICE_UNAVAILABLE && System.currentTimeMillis() < deadline) {
+        status = doPost("/GRIP/upload/image/busy", logoFile);
+      }
+      assertEquals(SC_SERVICE_UNAVAILABLE, status);
+    } finally {
+      for (Socket upload : uploads) {
+        upload.close();
+      }
+    }
+  }
+
+  private HttpSource createSource(String path) {
+    OutputSocket.Factory osf = new MockOutputSocketFactory(eventBus);
+    return new HttpSource(
+        origin -> new MockExceptionWitness(eventBus, origin),
+        eventBus,
+        osf,
+        server,
+        contextStore,
+        path);
+  }
+
   // POSTs the given image file to the given path on the server
-  private void doPost(String path, File imageFile) throws IOException {
+  private int doPost(String path, File imageFile) throws IOException {
+    return doPost(path, new FileEntity(imageFile), new String[0]);
+  }
+
+  // POSTs the given entity to the given path on the server, with pairs of header names and values
+  private int doPost(String path, HttpEntity entity, String[] headers) throws IOException {
     final String uri = "http://localhost:" + server.getPort() + path;
     final HttpPost post = new HttpPost(uri);
-    final FileEntity entity = new FileEntity(imageFile);
     post.setEntity(entity);
-    CloseableHttpResponse response = postClient.execute(post);
-    EntityUtils.consume(response.getEntity());
+    for (int i = 0; i < headers.length; i += 2) {
+      post.setHeader(headers[i], headers[i + 1]);
+    }
+    try (CloseableHttpResponse response = postClient.execute(post)) {
+      EntityUtils.consume(response.getEntity());
+      return response.getStatusLine().getStatusCode();
+    }
   }
 
   @After
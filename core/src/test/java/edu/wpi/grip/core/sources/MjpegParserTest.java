@@ -0,0 +1,167 @@
+package edu.wpi.grip.core.sources;
+
+import edu.wpi.grip.util.Files;
+
+import com.google.common.primitives.Bytes;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MjpegParserTest {
+
+  private static final byte[] FIRST = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9};
+  private static final byte[] SECOND = {(byte) 0xFF, (byte) 0xD8, 4, 5, (byte) 0xFF, (byte) 0xD9};
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testFramesWithContentLength() throws IOException {
+    final MjpegParser parser = new MjpegParser(new ChunkedChannel(
+        part("Content-Length: 7", FIRST),
+        part("content-LENGTH:6", SECOND)));
+
+    assertArrayEquals(FIRST, bytes(parser.nextFrame()));
+    assertArrayEquals(SECOND, bytes(parser.nextFrame()));
+    assertEquals(0, parser.getSkippedFrames());
+  }
+
+  @Test
+  public void testFramesWithoutContentLength() throws IOException {
+    final MjpegParser parser = new MjpegParser(new ChunkedChannel(
+        part("Content-Type: image/jpeg", FIRST),
+        part("Content-Type: image/jpeg", SECOND)));
+
+    assertArrayEquals(FIRST, bytes(parser.nextFrame()));
+    assertArrayEquals(SECOND, bytes(parser.nextFrame()));
+  }
+
+  @Test
+  public void testFrameSplitAcrossReads() throws IOException {
+    final byte[] part = part("Content-Length: 7", FIRST);
+    final MjpegParser parser = new MjpegParser(new ChunkedChannel(
+        Arrays.copyOfRange(part, 0, 10),
+        Arrays.copyOfRange(part, 10, part.length - 3),
+        Arrays.copyOfRange(part, part.length - 3, part.length)));
+
+    assertArrayEquals(FIRST, bytes(parser.nextFrame()));
+  }
+
+  @Test
+  public void testStaleFramesAreSkipped() throws IOException {
+    final MjpegParser parser = new MjpegParser(new ChunkedChannel(
+        Bytes.concat(part("Content-Length: 7", FIRST), part("Content-Length: 6", SECOND))));
+
+    assertArrayEquals("The newest frame should be returned", SECOND, bytes(parser.nextFrame()));
+    assertEquals(1, parser.getSkippedFrames());
+  }
+
+  @Test
+  public void testLargeFrameGrowsBuffer() throws IOException {
+    final byte[] large = new byte[200 * 1024];
+    large[0] = 42;
+    final MjpegParser parser = new MjpegParser(new ChunkedChannel(
+        part("Content-Length: " + large.length, large)));
+
+    assertArrayEquals(large, bytes(parser.nextFrame()));
+  }
+
+  @Test(expected = EOFException.class)
+  public void testEndOfStream() throws IOException {
+    new MjpegParser(new ChunkedChannel(Arrays.copyOf(part("Content-Length: 7", FIRST), 30)))
+        .nextFrame();
+  }
+
+  @Test
+  @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert") // assertSameImage() has asserts
+  public void testGrabberDecodesFrames() throws Exception {
+    final byte[] jpeg = java.nio.file.Files.readAllBytes(Files.gompeiJpegFile.file.toPath());
+    final File stream = temporaryFolder.newFile("stream.mjpeg");
+    java.nio.file.Files.write(stream.toPath(), Bytes.concat(
+        part("Content-Length: " + jpeg.length, jpeg),
+        part("Content-Length: " + jpeg.length, jpeg)));
+
+    final IPCameraFrameGrabber grabber =
+        new IPCameraFrameGrabber(stream.toURI().toString(), 1, 1, TimeUnit.SECONDS);
+    final Mat first = new Mat();
+    final Mat second = new Mat();
+    grabber.start();
+    try {
+      grabber.grabInto(first);
+      grabber.grabInto(second);
+    } finally {
+      grabber.stop();
+    }
+    Files.gompeiJpegFile.assertSameImage(first);
+    Files.gompeiJpegFile.assertSameImage(second);
+  }
+
+  private static byte[] part(String header, byte[] jpeg) {
+    final String headers = "--boundary\r\nContent-Type: image/jpeg\r\n" + header + "\r\n\r\n";
+    return Bytes.concat(headers.getBytes(StandardCharsets.US_ASCII), jpeg,
+        "\r\n".getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static byte[] bytes(ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * A channel that gives out one chunk of bytes per read, like a camera sending frames one at a
+   * time.
+   */
+  private static final class ChunkedChannel implements ReadableByteChannel {
+    private final Deque<ByteBuffer> chunks = new ArrayDeque<>();
+
+    private ChunkedChannel(byte[]... chunks) {
+      for (byte[] chunk : chunks) {
+        this.chunks.add(ByteBuffer.wrap(chunk));
+      }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+      final ByteBuffer chunk = chunks.peek();
+      if (chunk == null) {
+        return -1;
+      }
+      final int count = Math.min(chunk.remaining(), dst.remaining());
+      final ByteBuffer slice = chunk.duplicate();
+      slice.limit(slice.position() + count);
+      dst.put(slice);
+      chunk.position(chunk.position() + count);
+      if (!chunk.hasRemaining()) {
+        chunks.remove();
+      }
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+      chunks.clear();
+    }
+  }
+}
@@ -125,6 +125,22 @@ public class NetworkTableEntrySourceTest {
         TEST_NUMBER, (double) source.getOutputSockets().get(0).getValue().get(), 0.00001);
   }
 
+  @Test
+  public void testUnchangedNumberIsNotUpdatedAgain() {
+    source = new NetworkTableEntrySource(eventBus,
+        origin -> new MockExceptionWitness(eventBus, origin),
+        osf,
+        testingNtManager,
+        NUMBER_PATH,
+        NetworkTableEntrySource.Types.NUMBER);
+
+    assertTrue("Socket could not be updated", source.updateOutputSockets());
+    ntInstance.getTable("GRIP/test").getEntry(NUMBER_PATH).setDouble(TEST_NUMBER);
+    assertFalse("Socket was updated with the value it already had", source.updateOutputSockets());
+    ntInstance.getTable("GRIP/test").getEntry(NUMBER_PATH).setDouble(TEST_NUMBER + 1);
+    assertTrue("Socket was not updated with a new value", source.updateOutputSockets());
+  }
+
   @Test
   public void testNumberWrongTypeBoolean() {
     source = new NetworkTableEntrySource(eventBus,
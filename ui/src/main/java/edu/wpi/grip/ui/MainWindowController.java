@@ -6,8 +6,8 @@ import edu.wpi.grip.core.PipelineRunner;
 import edu.wpi.grip.core.events.AppSettingsChangedEvent;
 import edu.wpi.grip.core.events.BenchmarkEvent;
 import edu.wpi.grip.core.events.CodeGenerationSettingsChangedEvent;
+import edu.wpi.grip.core.events.LatencySnapshotEvent;
 import edu.wpi.grip.core.events.ProjectSettingsChangedEvent;
-import edu.wpi.grip.core.events.TimerEvent;
 import edu.wpi.grip.core.events.UnexpectedThrowableEvent;
 import edu.wpi.grip.core.events.WarningEvent;
 import edu.wpi.grip.core.serialization.Project;
@@ -400,10 +400,11 @@ public class MainWindowController {
 
   @Subscribe
   @SuppressWarnings({"PMD.UnusedPrivateMethod", "PMD.UnusedFormalParameter"})
-  private void runStopped(TimerEvent event) {
-    if (event.getTarget() instanceof PipelineRunner) {
-      Platform.runLater(() -> updateElapsedTimeLabel(event.getElapsedTime()));
-    }
+  private void runStopped(LatencySnapshotEvent event) {
+    event.getRecent(pipelineRunner)
+        .filter(snapshot -> snapshot.getCount() > 0)
+        .ifPresent(snapshot ->
+            Platform.runLater(() -> updateElapsedTimeLabel(Math.round(snapshot.getMean()))));
   }
 
   private void updateElapsedTimeLabel(long elapsed) {
@@ -4,18 +4,18 @@ import edu.wpi.grip.core.OperationDescription;
 import edu.wpi.grip.core.Step;
 import edu.wpi.grip.core.StepIndexer;
 import edu.wpi.grip.core.events.BenchmarkEvent;
-import edu.wpi.grip.core.events.RunStoppedEvent;
+import edu.wpi.grip.core.events.LatencySnapshotEvent;
 import edu.wpi.grip.core.events.StepRemovedEvent;
-import edu.wpi.grip.core.events.TimerEvent;
 import edu.wpi.grip.core.metrics.BenchmarkRunner;
 import edu.wpi.grip.core.metrics.CsvExporter;
+import edu.wpi.grip.core.metrics.LatencySnapshot;
+import edu.wpi.grip.core.metrics.LatencyTracker;
 import edu.wpi.grip.core.metrics.Statistics;
 
-import com.google.common.collect.EvictingQueue;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,8 +45,6 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.util.Callback;
 
-import javax.annotation.Nullable;
-
 /**
  * Controller for the analysis view.
  */
@@ -71,6 +69,12 @@ public class AnalysisController {
   private TextField benchmarkRunsField;
   @Inject
   private BenchmarkRunner benchmarker;
+  @Inject
+  private LatencyTracker latencyTracker;
+  /**
+   * Snapshots of every timer from when the current benchmark was started.
+   */
+  private ImmutableMap<Object, LatencySnapshot> benchmarkStart = ImmutableMap.of();
 
   private final Callback<StepStatisticsEntry, Observable[]> extractor =
       entry -> new Observable[]{entry.stepProperty(), entry.analysisProperty()};
@@ -81,9 +85,7 @@ public class AnalysisController {
   private StepIndexer stepIndexer;
   private Statistics lastStats = Statistics.NIL;
   private final Map<Step, TimeView> timeViewMap = new HashMap<>();
-  private final Map<Step, Collection<Long>> sampleMap = new HashMap<>();
-  private static final int DEFAULT_NUM_RECENT_SAMPLES = 16;
-  private int numRecentSamples = DEFAULT_NUM_RECENT_SAMPLES;
+  private final Map<Step, Statistics> statisticsMap = new HashMap<>();
   private String csvReport = "";
   private final CsvExporter csvExporter = new CsvExporter(4,
       "Step", "% Time", "Average Time (ms)", "Standard Deviation");
@@ -127,45 +129,49 @@ public class AnalysisController {
 
   @Subscribe
   @SuppressWarnings("PMD.UnusedPrivateMethod")
-  private void onRun(TimerEvent event) {
-    if (event.getTarget() instanceof Step) {
-      Step source = (Step) event.getTarget();
-      Optional<StepStatisticsEntry> possibleEntry
-          = tableItems.stream().filter(e -> e.getStep() == source).findAny();
-      Collection<Long> samples = sampleMap.computeIfAbsent(source,
-          s -> EvictingQueue.create(numRecentSamples));
-      samples.add(event.getElapsedTime());
-      Statistics stepStatistics = Statistics.of(samples);
-      if (possibleEntry.isPresent()) {
-        possibleEntry.get().setStatistics(stepStatistics);
-      } else {
-        StepStatisticsEntry entry = new StepStatisticsEntry();
-        entry.setStep(source);
-        entry.setStatistics(stepStatistics);
-        tableItems.add(entry);
+  private void onLatencySnapshot(LatencySnapshotEvent event) {
+    // Only the steps that ran since the last snapshot have anything new to show
+    final Map<Step, Statistics> updated = new HashMap<>();
+    event.getRecentSnapshots().forEach((target, snapshot) -> {
+      if (target instanceof Step && snapshot.getCount() > 0) {
+        updated.put((Step) target, snapshot.getStatistics());
       }
-    }
+    });
+    // This is called on the pipeline thread, but the table and the statistics it's drawn from are
+    // only used on the UI thread
+    Platform.runLater(() -> {
+      statisticsMap.putAll(updated);
+
+      // Update the overall stats before the table cells are redrawn with them
+      double[] averageRunTimes = sortedStream(statisticsMap)
+          .map(Map.Entry::getValue)
+          .mapToDouble(Statistics::getMean)
+          .toArray();
+      lastStats = Statistics.of(averageRunTimes);
+
+      updated.forEach((step, stepStatistics) -> {
+        Optional<StepStatisticsEntry> possibleEntry
+            = tableItems.stream().filter(e -> e.getStep() == step).findAny();
+        if (possibleEntry.isPresent()) {
+          possibleEntry.get().setStatistics(stepStatistics);
+        } else {
+          StepStatisticsEntry entry = new StepStatisticsEntry();
+          entry.setStep(step);
+          entry.setStatistics(stepStatistics);
+          tableItems.add(entry);
+        }
+      });
+    });
   }
 
   @Subscribe
   @SuppressWarnings("PMD.UnusedPrivateMethod")
   private void onStepRemoved(StepRemovedEvent e) {
-    sampleMap.remove(e.getStep());
-    timeViewMap.remove(e.getStep());
-    tableItems.removeIf(entry -> entry.getStep() == e.getStep());
-  }
-
-  @Subscribe
-  @SuppressWarnings({"PMD.UnusedPrivateMethod", "PMD.UnusedFormalParameter"})
-  private void onPipelineFinish(@Nullable RunStoppedEvent event) {
-    double[] averageRunTimes = sortedStream(sampleMap)
-        .parallel()
-        .map(Map.Entry::getValue)
-        .mapToDouble(s -> s.parallelStream().mapToLong(Long::longValue).average().orElse(0))
-        .toArray();
-    Statistics statistics = Statistics.of(averageRunTimes);
-    // Update the stats after the pipeline finishes
-    lastStats = statistics;
+    Platform.runLater(() -> {
+      statisticsMap.remove(e.getStep());
+      timeViewMap.remove(e.getStep());
+      tableItems.removeIf(entry -> entry.getStep() == e.getStep());
+    });
   }
 
   @Subscribe
@@ -173,10 +179,10 @@ public class AnalysisController {
   private void onBenchmark(BenchmarkEvent event) {
     benchmarkButton.setDisable(event.isStart());
     benchmarkRunsField.setDisable(event.isStart());
-    if (!event.isStart()) {
+    if (event.isStart()) {
+      benchmarkStart = latencyTracker.snapshot();
+    } else {
       csvReport = createReport();
-      numRecentSamples = DEFAULT_NUM_RECENT_SAMPLES; // reset queue size
-      sampleMap.clear();
       csvExporter.clear();
     }
   }
@@ -186,7 +192,6 @@ public class AnalysisController {
   private void runBenchmark() {
     if (benchmarkRunsField.getText().length() > 0) {
       final int numRuns = Integer.parseInt(benchmarkRunsField.getText());
-      numRecentSamples = numRuns;
       benchmarker.run(numRuns);
     }
   }
@@ -224,18 +229,27 @@ public class AnalysisController {
    * Creates a CSV report of the most recent benchmark.
    */
   private String createReport() {
+    // The run times of each step since the benchmark started
+    final Map<Step, LatencySnapshot> benchmarkSnapshots = new HashMap<>();
+    latencyTracker.snapshot().forEach((target, snapshot) -> {
+      final LatencySnapshot sinceStart =
+          snapshot.since(benchmarkStart.getOrDefault(target, LatencySnapshot.EMPTY));
+      if (target instanceof Step && sinceStart.getCount() > 0) {
+        benchmarkSnapshots.put((Step) target, sinceStart);
+      }
+    });
+
     // List of step names, in the order they run in
-    final List<String> stepNames = sortedStream(sampleMap)
+    final List<String> stepNames = sortedStream(benchmarkSnapshots)
         .map(Map.Entry::getKey)
         .map(Step::getOperationDescription)
         .map(OperationDescription::name)
         .collect(Collectors.toList());
 
     // Statistics of each step's run time
-    final List<Statistics> statistics = sortedStream(sampleMap)
+    final List<Statistics> statistics = sortedStream(benchmarkSnapshots)
         .map(Map.Entry::getValue)
-        .map(s -> s.stream().mapToDouble(Long::doubleValue).toArray())
-        .map(Statistics::of)
+        .map(LatencySnapshot::getStatistics)
         .collect(Collectors.toList());
 
     // Average run times for each step
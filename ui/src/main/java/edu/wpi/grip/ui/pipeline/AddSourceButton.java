@@ -37,6 +37,7 @@ import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.MenuButton;
@@ -181,8 +182,13 @@ public class AddSourceButton extends MenuButton {
 
           // Show a dialog for the user to pick a camera URL
 
+          final VBox fields = new VBox();
           final TextField cameraAddress = new TextField();
-          final SourceDialog dialog = new SourceDialog(root, cameraAddress);
+          // Skips decoding frames that a slow pipeline would throw away anyway
+          final CheckBox deferDecode = new CheckBox("Only decode frames the pipeline uses");
+          final SourceDialog dialog = new SourceDialog(root, fields);
+          fields.getChildren().add(cameraAddress);
+          fields.getChildren().add(deferDecode);
           cameraAddress.setPromptText("Ex: http://10.1.90.11/mjpg/video.mjpg");
           cameraAddress.textProperty().addListener(observable -> {
             boolean validURL = true;
@@ -214,7 +220,7 @@ public class AddSourceButton extends MenuButton {
               dialog,
               () -> {
                 final CameraSource cameraSource = cameraSourceFactory.create(cameraAddress
-                    .getText());
+                    .getText(), deferDecode.isSelected());
                 cameraSource.initialize();
                 return cameraSource;
               },
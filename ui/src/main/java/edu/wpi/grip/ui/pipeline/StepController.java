@@ -3,7 +3,7 @@ package edu.wpi.grip.ui.pipeline;
 import edu.wpi.grip.core.Pipeline;
 import edu.wpi.grip.core.Step;
 import edu.wpi.grip.core.events.BenchmarkEvent;
-import edu.wpi.grip.core.events.TimerEvent;
+import edu.wpi.grip.core.events.LatencySnapshotEvent;
 import edu.wpi.grip.core.sockets.InputSocket;
 import edu.wpi.grip.core.sockets.OutputSocket;
 import edu.wpi.grip.core.sockets.SocketHint;
@@ -210,12 +210,11 @@ public class StepController implements Controller {
 
   @Subscribe
   @SuppressWarnings("PMD.UnusedPrivateMethod")
-  private void finished(TimerEvent event) {
-    if (event.getTarget() != this.step) {
-      return;
-    }
-    Platform.runLater(() ->
-        elapsedTime.setText(String.format("Ran in %.1f ms", event.getElapsedTime() / 1e3)));
+  private void finished(LatencySnapshotEvent event) {
+    event.getRecent(step)
+        .filter(snapshot -> snapshot.getCount() > 0)
+        .ifPresent(snapshot -> Platform.runLater(() ->
+            elapsedTime.setText(String.format("Ran in %.1f ms", snapshot.getMean() / 1e3))));
   }
 
   @Subscribe
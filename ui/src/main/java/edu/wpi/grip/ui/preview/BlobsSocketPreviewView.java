@@ -8,7 +8,6 @@ import javafx.geometry.Orientation;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Separator;
-import javafx.scene.image.Image;
 import javafx.scene.layout.VBox;
 
 import static org.bytedeco.javacpp.opencv_core.LINE_8;
@@ -44,8 +43,8 @@ public final class BlobsSocketPreviewView extends ImageBasedPreviewView<BlobsRep
     show.selectedProperty().addListener(observable -> {
       synchronized (this) {
         this.showInputImage = show.isSelected();
-        this.convertImage();
       }
+      this.requestRedraw();
     });
 
     final VBox content = new VBox(this.imageView, new Separator(Orientation.HORIZONTAL), this
@@ -55,11 +54,14 @@ public final class BlobsSocketPreviewView extends ImageBasedPreviewView<BlobsRep
   }
 
   @Override
-  protected void convertImage() {
-    synchronized (this) {
-      final BlobsReport blobsReport = this.getSocket().getValue().get();
-      final Mat input = blobsReport.getInput().getCpu();
+  protected boolean captureImage(BlobsReport value, Mat image) {
+    captureScaled(value.getInput().getCpu(), image);
+    return true;
+  }
 
+  @Override
+  protected void convertImage(BlobsReport blobsReport, Mat input, double scale) {
+    synchronized (this) {
       if (input.channels() == 3) {
         input.copyTo(tmp);
       } else {
@@ -74,17 +76,16 @@ public final class BlobsSocketPreviewView extends ImageBasedPreviewView<BlobsRep
       if (!blobsReport.getBlobs().isEmpty()) {
         // For each line in the report, draw a line along with the starting and ending points
         for (BlobsReport.Blob blob : blobsReport.getBlobs()) {
-          point.x((int) blob.x);
-          point.y((int) blob.y);
-          circle(tmp, point, (int) (blob.size / 2), Scalar.WHITE, 2, LINE_8, 0);
+          point.x((int) (blob.x * scale));
+          point.y((int) (blob.y * scale));
+          circle(tmp, point, (int) (blob.size / 2 * scale), Scalar.WHITE, 2, LINE_8, 0);
         }
       }
 
-      final Mat output = tmp;
       final int numBlobs = blobsReport.getBlobs().size();
+      prepareImage(tmp);
       platform.runAsSoonAsPossible(() -> {
-        final Image image = this.imageConverter.convert(output);
-        this.imageView.setImage(image);
+        showPreparedImage();
         this.infoLabel.setText("Found " + numBlobs + " blobs");
       });
     }
@@ -6,7 +6,6 @@ import edu.wpi.grip.ui.util.GripPlatform;
 
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.layout.VBox;
 
 import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
@@ -46,13 +45,18 @@ public final class ContoursSocketPreviewView extends ImageBasedPreviewView<Conto
 
     this.setContent(new VBox(this.imageView, this.infoLabel, this.colorContours));
 
-    this.colorContours.selectedProperty().addListener(observable -> this.convertImage());
+    this.colorContours.selectedProperty().addListener(observable -> this.requestRedraw());
   }
 
   @Override
-  protected void convertImage() {
+  protected boolean captureImage(ContoursReport value, Mat image) {
+    // Contours are drawn onto a blank image, and each report has its own contours
+    return true;
+  }
+
+  @Override
+  protected void convertImage(ContoursReport contours, Mat image, double scale) {
     synchronized (this) {
-      final ContoursReport contours = this.getSocket().getValue().get();
       long numContours = 0;
 
       if (!contours.getContours().isNull() && contours.getRows() > 0 && contours.getCols() > 0) {
@@ -75,10 +79,9 @@ public final class ContoursSocketPreviewView extends ImageBasedPreviewView<Conto
       }
 
       final long finalNumContours = numContours;
-      final Mat convertInput = tmp;
+      prepareImage(tmp);
       platform.runAsSoonAsPossible(() -> {
-        final Image image = this.imageConverter.convert(convertInput);
-        this.imageView.setImage(image);
+        showPreparedImage();
         this.infoLabel.setText("Found " + finalNumContours + " contours");
       });
     }
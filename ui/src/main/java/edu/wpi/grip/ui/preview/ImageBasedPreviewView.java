@@ -3,20 +3,49 @@ package edu.wpi.grip.ui.preview;
 import edu.wpi.grip.core.MatWrapper;
 import edu.wpi.grip.core.events.RenderEvent;
 import edu.wpi.grip.core.sockets.OutputSocket;
+import edu.wpi.grip.core.util.DaemonThread;
 import edu.wpi.grip.ui.util.ImageConverter;
 
 import com.google.common.eventbus.Subscribe;
 
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import javafx.application.Platform;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
 import static org.bytedeco.javacpp.opencv_core.CV_8S;
 import static org.bytedeco.javacpp.opencv_core.CV_8U;
 
 /**
  * Base class for image previews.
+ *
+ * <p>Images are converted on a background thread shared by every preview, so neither the pipeline
+ * nor the UI thread has to do it. The socket's value belongs to the pipeline, which keeps writing
+ * to it while the conversion thread runs, so the conversion thread never reads it. Instead,
+ * whatever needs to be drawn is {@link #captureImage(Object, Mat) captured} into an image owned by
+ * the preview on the thread that asked for the conversion. For a {@link RenderEvent} that's the
+ * pipeline thread, right after a run, while nothing is writing to the socket. Images are
+ * {@link #captureScaled(Mat, Mat) downscaled} to the size of the preview as they're captured, so
+ * the pipeline thread never copies more pixels than will be shown. The UI thread only copies the
+ * finished pixels into the {@link #imageView}.
+ *
+ * <p>The first capture, when the preview is opened, is made on the UI thread, so it can overlap a
+ * run; the next render event replaces it. In
+ * {@link edu.wpi.grip.core.PipelineExecutionMode#FRAME_PIPELINED FRAME_PIPELINED} mode the render
+ * event comes from the last stage, and the earlier stages may already be writing the next frame
+ * into their outputs, so previews of those outputs can still tear.
  */
 public abstract class ImageBasedPreviewView<T> extends SocketPreviewView<T> {
 
+  private static final ExecutorService conversionExecutor = Executors.newSingleThreadExecutor(
+      target -> new DaemonThread(target, "Preview Conversion"));
+
   /**
    * Image converter for converting OpenCV mats to JavaFX images.
    */
@@ -27,6 +56,38 @@ public abstract class ImageBasedPreviewView<T> extends SocketPreviewView<T> {
    */
   protected final ResizableImageView imageView = new ResizableImageView();
 
+  /**
+   * Set while a conversion is waiting to run, so that previews that fall behind the pipeline skip
+   * to the latest value instead of queueing up conversions.
+   */
+  private final AtomicBoolean conversionQueued = new AtomicBoolean(false);
+
+  /**
+   * Held while capturing, since conversions can be requested from more than one thread.
+   */
+  private final Object captureLock = new Object();
+  @GuardedBy("captureLock")
+  private Capture capturing = new Capture();
+
+  /**
+   * The latest capture, waiting to be taken by the conversion thread.
+   */
+  private final Object capturedLock = new Object();
+  @GuardedBy("capturedLock")
+  private Capture captured = new Capture();
+  @GuardedBy("capturedLock")
+  @Nullable
+  private T capturedValue;
+
+  // Only used on the conversion thread. These are kept so the preview can be redrawn.
+  private Capture converting = new Capture();
+  @Nullable
+  private T convertingValue;
+
+  // The size of the image view on screen, so the converter knows how far it can downscale images
+  private volatile double viewWidth = 0;
+  private volatile double viewHeight = 0;
+
   /**
    * @param socket An output socket to preview.
    */
@@ -34,12 +95,121 @@ public abstract class ImageBasedPreviewView<T> extends SocketPreviewView<T> {
     super(socket);
     assert Platform.isFxApplicationThread() : "Must be in FX Thread to create this or you will be"
         + " exposing constructor to another thread!";
+    imageView.widthProperty().addListener((obs, old, width) -> viewWidth = width.doubleValue());
+    imageView.heightProperty().addListener((obs, old, height) -> viewHeight = height.doubleValue());
   }
 
   /**
-   * Converts the input data to an image and render it in the {@link #imageView}.
+   * Copies the image that the preview is drawn from out of the socket's value. This is run on the
+   * thread that requested the conversion, and should only copy what's needed, since it may be
+   * holding up the pipeline. Images should be copied with {@link #captureScaled(Mat, Mat)}.
+   *
+   * @param value the socket's value
+   * @param image an image owned by the preview to copy into
+   *
+   * @return false if there's nothing that can be shown, in which case the last capture is kept
+   */
+  protected abstract boolean captureImage(T value, Mat image);
+
+  /**
+   * Converts a captured image and renders it in the {@link #imageView}. This is run on the
+   * conversion thread, and should {@link #prepareImage(Mat) prepare} the image there before
+   * {@link #showPreparedImage() showing} it on the UI thread.
+   *
+   * <p>Only the parts of the value that the pipeline never changes after creating it, like the
+   * results in a report, can be used here. Any images in it must be read from the captured image
+   * instead, which must not be changed, since the same capture is converted again when the preview
+   * is {@link #requestRedraw() redrawn}.
+   *
+   * @param value the socket's value when the image was captured
+   * @param image the captured image
+   * @param scale how much the captured image was downscaled from the image in the value. Anything
+   *              drawn at coordinates from the value has to be scaled by this to line up.
    */
-  protected abstract void convertImage();
+  protected abstract void convertImage(T value, Mat image, double scale);
+
+  /**
+   * Copies an image into a capture, downscaling it to fit in the {@link #imageView}. This must only
+   * be called from {@link #captureImage(Object, Mat)}.
+   *
+   * @param source the image to capture
+   * @param image  the image passed to {@code captureImage}
+   */
+  protected final void captureScaled(Mat source, Mat image) {
+    synchronized (captureLock) {
+      capturing.scale = ImageConverter.downscale(source, image, viewWidth, viewHeight);
+      if (capturing.scale == 1) {
+        source.copyTo(image);
+      }
+    }
+  }
+
+  /**
+   * Captures the socket's value and queues it to be converted on the conversion thread.
+   */
+  protected final void requestConversion() {
+    synchronized (captureLock) {
+      final T value = getSocket().getValue().orElse(null);
+      capturing.scale = 1;
+      if (value != null && captureImage(value, capturing.image)) {
+        synchronized (capturedLock) {
+          final Capture spare = captured;
+          captured = capturing;
+          capturing = spare;
+          capturedValue = value;
+        }
+      }
+    }
+    queueConversion();
+  }
+
+  /**
+   * Converts the last captured value again, for when only the way it's drawn changed.
+   */
+  protected final void requestRedraw() {
+    queueConversion();
+  }
+
+  private void queueConversion() {
+    if (conversionQueued.compareAndSet(false, true)) {
+      conversionExecutor.execute(() -> {
+        conversionQueued.set(false);
+        synchronized (capturedLock) {
+          if (capturedValue != null) {
+            final Capture spare = converting;
+            converting = captured;
+            captured = spare;
+            convertingValue = capturedValue;
+            capturedValue = null;
+          }
+        }
+        if (convertingValue != null) {
+          convertImage(convertingValue, converting.image, converting.scale);
+        }
+      });
+    }
+  }
+
+  /**
+   * Converts an image into pixels, downscaling it to the size of the {@link #imageView}. This must
+   * only be called from {@link #convertImage(Object, Mat, double)}, with the captured image or one
+   * of the same size.
+   *
+   * @param image an 8-bit image with either 1 or 3 channels
+   */
+  protected final void prepareImage(Mat image) {
+    // The view keeps the height of the full size image, so it doesn't shrink to fit the captures
+    imageConverter.prepare(image, viewWidth, viewHeight,
+        (int) Math.round(image.rows() / converting.scale));
+  }
+
+  /**
+   * Shows the image that was last {@link #prepareImage(Mat) prepared}. This must be run in the UI
+   * thread.
+   */
+  protected final void showPreparedImage() {
+    imageView.setImage(imageConverter.show(), imageConverter.getSourceHeight());
+  }
 
   /**
    * Checks if an image is able to be previewed.
@@ -54,11 +224,19 @@ public abstract class ImageBasedPreviewView<T> extends SocketPreviewView<T> {
   }
 
   /**
-   * Updates the image preview when the pipeline runs.
+   * Updates the image preview when the pipeline runs. This is called on the pipeline thread once
+   * a run has finished, so the socket's value can be captured without anything writing to it.
    */
   @Subscribe
   public final void onRenderEvent(RenderEvent e) {
-    convertImage();
+    requestConversion();
   }
 
+  /**
+   * An image captured from the socket's value, and how much it was downscaled.
+   */
+  private static final class Capture {
+    private final Mat image = new Mat();
+    private double scale = 1;
+  }
 }
@@ -4,7 +4,7 @@ import edu.wpi.grip.core.MatWrapper;
 import edu.wpi.grip.core.sockets.OutputSocket;
 import edu.wpi.grip.ui.util.GripPlatform;
 
-import javafx.scene.image.Image;
+import org.bytedeco.javacpp.opencv_core.Mat;
 
 /**
  * A <code>SocketPreviewView</code> that previews sockets containing OpenCV Mats.
@@ -23,16 +23,17 @@ public class ImageSocketPreviewView extends ImageBasedPreviewView<MatWrapper> {
   }
 
   @Override
-  protected void convertImage() {
-    synchronized (this) {
-      this.getSocket().getValue()
-          .filter(ImageBasedPreviewView::isPreviewable)
-          .ifPresent(m -> {
-            platform.runAsSoonAsPossible(() -> {
-              Image image = imageConverter.convert(m.getCpu());
-              imageView.setImage(image);
-            });
-          });
+  protected boolean captureImage(MatWrapper value, Mat image) {
+    if (!isPreviewable(value)) {
+      return false;
     }
+    captureScaled(value.getCpu(), image);
+    return true;
+  }
+
+  @Override
+  protected void convertImage(MatWrapper value, Mat image, double scale) {
+    prepareImage(image);
+    platform.runAsSoonAsPossible(this::showPreparedImage);
   }
 }
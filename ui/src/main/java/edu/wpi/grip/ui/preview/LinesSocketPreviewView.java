@@ -3,7 +3,6 @@ package edu.wpi.grip.ui.preview;
 import edu.wpi.grip.core.operations.composite.LinesReport;
 import edu.wpi.grip.core.sockets.OutputSocket;
 import edu.wpi.grip.ui.util.GripPlatform;
-import edu.wpi.grip.ui.util.ImageConverter;
 
 import java.util.List;
 
@@ -11,8 +10,6 @@ import javafx.geometry.Orientation;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Separator;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
 
 import static org.bytedeco.javacpp.opencv_core.LINE_8;
@@ -31,8 +28,6 @@ import static org.bytedeco.javacpp.opencv_imgproc.line;
  */
 public final class LinesSocketPreviewView extends ImageBasedPreviewView<LinesReport> {
 
-  private final ImageConverter imageConverter = new ImageConverter();
-  private final ImageView imageView = new ImageView();
   private final Label infoLabel = new Label();
   private final Mat tmp = new Mat();
   private final Point startPoint = new Point();
@@ -54,8 +49,8 @@ public final class LinesSocketPreviewView extends ImageBasedPreviewView<LinesRep
     show.selectedProperty().addListener(observable -> {
       synchronized (this) {
         this.showInputImage = show.isSelected();
-        this.convertImage();
       }
+      this.requestRedraw();
     });
 
     final VBox content = new VBox(this.imageView, new Separator(Orientation.HORIZONTAL), this
@@ -65,11 +60,16 @@ public final class LinesSocketPreviewView extends ImageBasedPreviewView<LinesRep
   }
 
   @Override
-  protected void convertImage() {
+  protected boolean captureImage(LinesReport value, Mat image) {
+    captureScaled(value.getInput().getCpu(), image);
+    return true;
+  }
+
+  @Override
+  protected void convertImage(LinesReport linesReport, Mat image, double scale) {
     synchronized (this) {
-      final LinesReport linesReport = this.getSocket().getValue().get();
       final List<LinesReport.Line> lines = linesReport.getLines();
-      Mat input = linesReport.getInput().getCpu();
+      Mat input = image;
 
       // If there were lines found, draw them on the image before displaying it
       if (!linesReport.getLines().isEmpty()) {
@@ -88,20 +88,19 @@ public final class LinesSocketPreviewView extends ImageBasedPreviewView<LinesRep
 
         // For each line in the report, draw a line along with the starting and ending points
         for (LinesReport.Line line : lines) {
-          startPoint.x((int) line.x1);
-          startPoint.y((int) line.y1);
-          endPoint.x((int) line.x2);
-          endPoint.y((int) line.y2);
+          startPoint.x((int) (line.x1 * scale));
+          startPoint.y((int) (line.y1 * scale));
+          endPoint.x((int) (line.x2 * scale));
+          endPoint.y((int) (line.y2 * scale));
           line(input, startPoint, endPoint, Scalar.WHITE, 2, LINE_8, 0);
           circle(input, startPoint, 2, Scalar.WHITE, 2, LINE_8, 0);
           circle(input, endPoint, 2, Scalar.WHITE, 2, LINE_8, 0);
         }
       }
-      final Mat convertInput = input;
       final int numLines = lines.size();
+      prepareImage(input);
       platform.runAsSoonAsPossible(() -> {
-        final Image image = this.imageConverter.convert(convertInput);
-        this.imageView.setImage(image);
+        showPreparedImage();
         this.infoLabel.setText("Found " + numLines + " lines");
       });
     }
@@ -125,7 +125,7 @@ public class PreviewsController {
         // When a socket previewed, add a new view, then sort all of the views so they stay ordered
         SocketPreviewView<?> view = previewViewFactory.create(socket);
         if (view instanceof ImageBasedPreviewView) {
-          ((ImageBasedPreviewView) view).convertImage();
+          ((ImageBasedPreviewView) view).requestConversion();
         }
         previews.add(view);
         sortPreviews(previews);
@@ -10,7 +10,6 @@ import javafx.geometry.Orientation;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Separator;
-import javafx.scene.image.Image;
 import javafx.scene.layout.VBox;
 
 import static org.bytedeco.javacpp.opencv_core.LINE_8;
@@ -29,6 +28,7 @@ public final class RectangleSocketPreviewView extends ImageBasedPreviewView<Rect
 
   private final Label infoLabel = new Label();
   private final Mat tmp = new Mat();
+  private final Rect scaled = new Rect();
   private final GripPlatform platform;
   @SuppressWarnings("PMD.ImmutableField")
   private boolean showInputImage = false;
@@ -43,8 +43,8 @@ public final class RectangleSocketPreviewView extends ImageBasedPreviewView<Rect
     show.selectedProperty().addListener(observable -> {
       synchronized (this) {
         this.showInputImage = show.isSelected();
-        this.convertImage();
       }
+      this.requestRedraw();
     });
 
     final VBox content = new VBox(this.imageView, new Separator(Orientation.HORIZONTAL), this
@@ -54,11 +54,15 @@ public final class RectangleSocketPreviewView extends ImageBasedPreviewView<Rect
   }
 
   @Override
-  protected void convertImage() {
+  protected boolean captureImage(RectsReport value, Mat image) {
+    captureScaled(value.getImage().getCpu(), image);
+    return true;
+  }
+
+  @Override
+  protected void convertImage(RectsReport report, Mat input, double scale) {
     synchronized (this) {
-      final RectsReport report = this.getSocket().getValue().get();
       final List<Rect> rectangles = report.getRectangles();
-      Mat input = report.getImage().getCpu();
 
       if (input.channels() == 3) {
         input.copyTo(tmp);
@@ -73,13 +77,16 @@ public final class RectangleSocketPreviewView extends ImageBasedPreviewView<Rect
 
       // If rectangles were found, draw them on the image before displaying it
       for (Rect r : rectangles) {
-        rectangle(tmp, r, Scalar.WHITE, 3, LINE_8, 0);
+        scaled.x((int) (r.x() * scale));
+        scaled.y((int) (r.y() * scale));
+        scaled.width((int) (r.width() * scale));
+        scaled.height((int) (r.height() * scale));
+        rectangle(tmp, scaled, Scalar.WHITE, 3, LINE_8, 0);
       }
-      final Mat convertInput = tmp;
       final int numRegions = rectangles.size();
+      prepareImage(tmp);
       platform.runAsSoonAsPossible(() -> {
-        final Image image = this.imageConverter.convert(convertInput);
-        this.imageView.setImage(image);
+        showPreparedImage();
         this.infoLabel.setText("Found " + numRegions + " regions of interest");
       });
     }
@@ -75,6 +75,20 @@ public class ResizableImageView extends Region {
     this.image.set(image);
   }
 
+  /**
+   * Sets an image that was downscaled from a larger one. The view still prefers the height of the
+   * full size image, so it doesn't shrink down to the size of its downscaled images.
+   *
+   * @param image      the downscaled image
+   * @param fullHeight the height of the image before it was downscaled
+   */
+  public void setImage(Image image, double fullHeight) {
+    setImage(image);
+    if (image != null) {
+      setPrefHeight(fullHeight);
+    }
+  }
+
   public double getRatio() {
     return ratio.get();
   }
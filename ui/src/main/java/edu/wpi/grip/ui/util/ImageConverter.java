@@ -2,56 +2,115 @@ package edu.wpi.grip.ui.util;
 
 import edu.wpi.grip.core.MatWrapper;
 
-import com.google.common.primitives.UnsignedBytes;
-
 import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Size;
 
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 
 import javafx.application.Platform;
 import javafx.scene.image.Image;
 import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
 import static org.bytedeco.javacpp.opencv_core.CV_8S;
 import static org.bytedeco.javacpp.opencv_core.CV_8U;
+import static org.bytedeco.javacpp.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.javacpp.opencv_imgproc.resize;
 
 /**
  * Utility class for creating a JavaFX image from an OpenCV image.  This used by the preview views
  * to render an image in the GUI.
+ *
+ * <p>Converting an image is split in two, so that most of the work can be done off of the UI
+ * thread. {@link #prepare(Mat, double, double)} turns the image into ARGB pixels on whatever thread
+ * calls it, and {@link #show()} copies the latest prepared pixels into a JavaFX image on the UI
+ * thread. The pixels are double buffered, so an image can be prepared while the last one is being
+ * shown.
  */
 public final class ImageConverter {
+  private final Object lock = new Object();
+
+  /**
+   * The image downscaled to fit the preview, or copied if it isn't continuous. Only the preparing
+   * thread can use this.
+   */
+  private final Mat scaled = new Mat();
+  /**
+   * One row of the image's bytes. Only the preparing thread can use this.
+   */
+  private byte[] row = new byte[0];
+  /**
+   * The pixels being prepared. Only the preparing thread can use this.
+   */
+  private int[] back = new int[0];
+
+  @GuardedBy("lock")
+  private int[] ready = new int[0];
+  @GuardedBy("lock")
+  private int readyWidth = 0;
+  @GuardedBy("lock")
+  private int readyHeight = 0;
+  @GuardedBy("lock")
+  private int readySourceHeight = 0;
+
+  // These are only used on the UI thread
   private WritableImage image;
-  private IntBuffer pixels;
+  private int sourceHeight = 0;
 
   public Image convert(MatWrapper wrapper) {
     return convert(wrapper.getCpu());
   }
 
   /**
-   * Convert a BGR-formatted OpenCV {@link Mat} into a JavaFX {@link Image}. JavaFX understands ARGB
-   * pixel data, so one way to turn a Mat into a JavaFX image is to shift around the bytes from the
-   * Mat into an int array of pixels. This is also possible to do by using JavaCV, but the JavaCV
-   * method involves several intermediate conversions ({@code Mat -> Frame -> BufferedImage ->
-   * JavaFX Image}) and is way too slow to use for a real-time video.
+   * Convert a BGR-formatted OpenCV {@link Mat} into a JavaFX {@link Image}. This prepares and shows
+   * the image in one go, on the UI thread.
    *
-   * @param mat           An 8-bit OpenCV Mat containing an image with either 1 or 3 channels
+   * @param mat An 8-bit OpenCV Mat containing an image with either 1 or 3 channels
    *
    * @return A JavaFX image, or null for empty
    */
   public Image convert(Mat mat) {
-    /*
-     * IMPORTANT!
-     * The {@link ImageConverter#image} is a component that may be actively part of the UI
-     * If we are changing it while it is being rendered by the UI thread this could cause
-     * a problem in the UI thread.
-     */
     if (!Platform.isFxApplicationThread()) {
       throw new IllegalStateException("This modifies an FX object. This must be run in the UI "
           + "Thread");
     }
+    prepare(mat, 0, 0);
+    return show();
+  }
+
+  /**
+   * Converts a BGR-formatted OpenCV {@link Mat} into ARGB pixels that can be {@link #show() shown}
+   * later. JavaFX understands ARGB pixel data, so one way to turn a Mat into a JavaFX image is to
+   * shift around the bytes from the Mat into an int array of pixels. This is also possible to do by
+   * using JavaCV, but the JavaCV method involves several intermediate conversions ({@code Mat ->
+   * Frame -> BufferedImage -> JavaFX Image}) and is way too slow to use for a real-time video.
+   *
+   * <p>This can be called from any thread, but only one thread at a time. Images larger than the
+   * given size are downscaled to fit it before they're converted, since there's no point converting
+   * pixels that won't be seen.
+   *
+   * @param mat       An 8-bit OpenCV Mat containing an image with either 1 or 3 channels
+   * @param maxWidth  The width the image will be shown at, or 0 to keep its full width
+   * @param maxHeight The height the image will be shown at, or 0 to keep its full height
+   */
+  public void prepare(Mat mat, double maxWidth, double maxHeight) {
+    prepare(mat, maxWidth, maxHeight, mat.rows());
+  }
 
+  /**
+   * Converts an image that has already been downscaled from a larger one. This is the same as
+   * {@link #prepare(Mat, double, double)}, except that the {@link #getSourceHeight() source height}
+   * is the height of the larger image.
+   *
+   * @param mat          An 8-bit OpenCV Mat containing an image with either 1 or 3 channels
+   * @param maxWidth     The width the image will be shown at, or 0 to keep its full width
+   * @param maxHeight    The height the image will be shown at, or 0 to keep its full height
+   * @param sourceHeight The height of the image that {@code mat} was downscaled from
+   */
+  public void prepare(Mat mat, double maxWidth, double maxHeight, int sourceHeight) {
     final int channels = mat.channels();
 
     assert channels == 3 || channels == 1 :
@@ -62,43 +121,57 @@ public final class ImageConverter {
 
     // Don't try to render empty images.
     if (mat.empty()) {
-      return null;
+      synchronized (lock) {
+        readyWidth = 0;
+        readyHeight = 0;
+        readySourceHeight = 0;
+      }
+      return;
     }
 
-    final int width = mat.cols();
-    final int height = mat.rows();
+    final Mat source = downscale(mat, maxWidth, maxHeight);
+    final int width = source.cols();
+    final int height = source.rows();
+    final int stride = width * channels;
 
-    // If the size of the Mat changed for whatever reason, allocate a new image with the proper
-    // dimensions and a buffer big enough to hold all of the pixels in the image.
-    if (this.image == null || this.image.getWidth() != width || this.image.getHeight() != height) {
-      this.image = new WritableImage(width, height);
-      this.pixels = IntBuffer.allocate(width * height);
+    if (back.length < width * height) {
+      back = new int[width * height];
+    }
+    if (row.length < stride) {
+      row = new byte[stride];
     }
 
-    final ByteBuffer buffer = mat.createBuffer();
-    final int stride = buffer.capacity() / height;
+    final ByteBuffer buffer = source.createBuffer();
+    final int[] pixels = back;
+    final byte[] bytes = row;
 
-    // Convert the data from the Mat into ARGB data that we can put into a JavaFX WritableImage
+    // Convert the data from the Mat into ARGB data that we can put into a JavaFX WritableImage,
+    // copying it out one row at a time
     switch (channels) {
       case 1:
         // 1 channel - convert grayscale to ARGB
         for (int y = 0; y < height; y++) {
+          buffer.position(stride * y);
+          buffer.get(bytes, 0, stride);
+          final int offset = width * y;
           for (int x = 0; x < width; x++) {
-            final int value = UnsignedBytes.toInt(buffer.get(stride * y + channels * x));
-            this.pixels.put(width * y + x, (0xff << 24) | (value << 16) | (value << 8) | value);
+            final int value = bytes[x] & 0xff;
+            pixels[offset + x] = 0xff000000 | (value << 16) | (value << 8) | value;
           }
         }
 
         break;
 
       case 3:
-        // 3 channels - convert BGR to RGBA
+        // 3 channels - convert BGR to ARGB
         for (int y = 0; y < height; y++) {
+          buffer.position(stride * y);
+          buffer.get(bytes, 0, stride);
+          final int offset = width * y;
           for (int x = 0; x < width; x++) {
-            final int b = UnsignedBytes.toInt(buffer.get(stride * y + channels * x));
-            final int g = UnsignedBytes.toInt(buffer.get(stride * y + channels * x + 1));
-            final int r = UnsignedBytes.toInt(buffer.get(stride * y + channels * x + 2));
-            this.pixels.put(width * y + x, (0xff << 24) | (r << 16) | (g << 8) | b);
+            final int i = 3 * x;
+            pixels[offset + x] = 0xff000000
+                | ((bytes[i + 2] & 0xff) << 16) | ((bytes[i + 1] & 0xff) << 8) | (bytes[i] & 0xff);
           }
         }
 
@@ -108,10 +181,99 @@ public final class ImageConverter {
             + "to show a " + channels + " channel image");
     }
 
-    final PixelFormat<IntBuffer> argb = PixelFormat.getIntArgbInstance();
-    this.image.getPixelWriter().setPixels(0, 0, width, height, argb, this.pixels, width);
+    synchronized (lock) {
+      back = ready;
+      ready = pixels;
+      readyWidth = width;
+      readyHeight = height;
+      readySourceHeight = sourceHeight;
+    }
+  }
+
+  /**
+   * Gets a continuous copy of an image that fits in the given size, or the image itself if it
+   * already does.
+   */
+  private Mat downscale(Mat mat, double maxWidth, double maxHeight) {
+    if (downscale(mat, scaled, maxWidth, maxHeight) < 1) {
+      return scaled;
+    }
+    if (!mat.isContinuous()) {
+      mat.copyTo(scaled);
+      return scaled;
+    }
+    return mat;
+  }
+
+  /**
+   * Downscales an image to fit in the given size. Nothing is written to {@code dst} if the image
+   * already fits.
+   *
+   * @param src       the image to downscale
+   * @param dst       the image to write the downscaled image to
+   * @param maxWidth  the width to fit the image in, or 0 to leave it unscaled
+   * @param maxHeight the height to fit the image in, or 0 to leave it unscaled
+   * @return how much the image was scaled by, or 1 if it wasn't
+   */
+  public static double downscale(Mat src, Mat dst, double maxWidth, double maxHeight) {
+    final double scale = maxWidth > 0 && maxHeight > 0 && !src.empty()
+        ? Math.min(maxWidth / src.cols(), maxHeight / src.rows())
+        : 1;
+    if (scale >= 1) {
+      return 1;
+    }
+    final int width = Math.max(1, (int) Math.round(src.cols() * scale));
+    final int height = Math.max(1, (int) Math.round(src.rows() * scale));
+    try (Size size = new Size(width, height)) {
+      resize(src, dst, size, 0, 0, INTER_AREA);
+    }
+    return (double) height / src.rows();
+  }
+
+  /**
+   * Copies the pixels that were last {@link #prepare(Mat, double, double) prepared} into a JavaFX
+   * image. This must be run in the UI thread.
+   *
+   * @return A JavaFX image, or null for empty
+   */
+  @Nullable
+  public Image show() {
+    /*
+     * IMPORTANT!
+     * The {@link ImageConverter#image} is a component that may be actively part of the UI
+     * If we are changing it while it is being rendered by the UI thread this could cause
+     * a problem in the UI thread.
+     */
+    if (!Platform.isFxApplicationThread()) {
+      throw new IllegalStateException("This modifies an FX object. This must be run in the UI "
+          + "Thread");
+    }
+
+    synchronized (lock) {
+      sourceHeight = readySourceHeight;
+      if (readyWidth == 0 || readyHeight == 0) {
+        return null;
+      }
+
+      // If the size of the Mat changed for whatever reason, allocate a new image with the proper
+      // dimensions.
+      if (this.image == null || this.image.getWidth() != readyWidth
+          || this.image.getHeight() != readyHeight) {
+        this.image = new WritableImage(readyWidth, readyHeight);
+      }
+
+      this.image.getPixelWriter().setPixels(0, 0, readyWidth, readyHeight,
+          PixelFormat.getIntArgbPreInstance(), ready, 0, readyWidth);
+    }
 
     return this.image;
   }
 
+  /**
+   * Gets the height of the image that was last {@link #show() shown}, before it was downscaled.
+   * This must be run in the UI thread.
+   */
+  public int getSourceHeight() {
+    return sourceHeight;
+  }
 }
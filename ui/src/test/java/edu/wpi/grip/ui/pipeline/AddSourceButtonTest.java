@@ -129,6 +129,11 @@ public class AddSourceButtonTest {
         return assignLastCreated(new MockCameraSource(eventBus, address));
       }
 
+      @Override
+      public CameraSource create(String address, boolean deferDecode) throws IOException {
+        return create(address);
+      }
+
       @Override
       public CameraSource create(Properties properties) throws IOException {
         return null;
@@ -230,6 +235,11 @@ public class AddSourceButtonTest {
         });
       }
 
+      @Override
+      public CameraSource create(String address, boolean deferDecode) throws IOException {
+        return create(address);
+      }
+
       @Override
       public CameraSource create(Properties properties) throws IOException {
         return null;
@@ -22,6 +22,7 @@ import javafx.stage.Stage;
 import static org.bytedeco.javacpp.opencv_imgproc.COLOR_BGR2GRAY;
 import static org.bytedeco.javacpp.opencv_imgproc.cvtColor;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 
 @Category(UiTests.class)
@@ -91,6 +92,57 @@ public class ImageConverterTest extends ApplicationTest {
     });
   }
 
+  @Test
+  @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+  public void testPrepareDownscalesToFit() throws Exception {
+    final Mat gompeiMat = new Mat();
+    ImageLoadingUtility.loadImage(
+        URLDecoder.decode(Paths.get(gompeiImage.file.toURI()).toString(),
+            StandardCharsets.UTF_8.name()), gompeiMat);
+    final int maxWidth = gompeiImage.getCols() / 2;
+    final int maxHeight = gompeiImage.getRows() / 2;
+
+    // Images are prepared off of the UI thread
+    converter.prepare(gompeiMat, maxWidth, maxHeight);
+    interact(() -> {
+      Image javaFXImage = converter.show();
+      assertTrue("Image was wider than the preview", javaFXImage.getWidth() <= maxWidth);
+      assertTrue("Image was taller than the preview", javaFXImage.getHeight() <= maxHeight);
+      assertEquals("The full size of the image was not kept", gompeiImage.getRows(),
+          converter.getSourceHeight());
+    });
+  }
+
+  @Test
+  public void testDownscaleReportsScale() throws Exception {
+    final Mat gompeiMat = new Mat();
+    ImageLoadingUtility.loadImage(
+        URLDecoder.decode(Paths.get(gompeiImage.file.toURI()).toString(),
+            StandardCharsets.UTF_8.name()), gompeiMat);
+    final Mat scaled = new Mat();
+
+    final double scale = ImageConverter.downscale(gompeiMat, scaled,
+        gompeiImage.getCols() / 2, gompeiImage.getRows() / 2);
+
+    assertTrue("Image was not downscaled", scale < 1);
+    assertEquals("Scale did not match the downscaled image",
+        gompeiImage.getRows() * scale, scaled.rows(), 0.5);
+    assertEquals("Images that fit should not be scaled",
+        1, ImageConverter.downscale(gompeiMat, new Mat(), 0, 0), 0);
+
+    converter.prepare(scaled, 0, 0, gompeiImage.getRows());
+    interact(() -> {
+      converter.show();
+      assertEquals("The full size of the image was not kept", gompeiImage.getRows(),
+          converter.getSourceHeight());
+    });
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testShowInWrongThreadThrowsIllegalState() {
+    converter.show();
+  }
+
   private void assertSameImage(ImageWithData imageWithData, Image javaFXImage) {
     assertEquals("Image was not the same", imageWithData.getCols(),
         Math.round(javaFXImage.getWidth()));